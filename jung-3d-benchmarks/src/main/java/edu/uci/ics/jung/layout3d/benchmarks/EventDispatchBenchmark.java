@@ -0,0 +1,76 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import edu.uci.ics.jung.layout3d.event.LayoutChange;
+import edu.uci.ics.jung.layout3d.event.LayoutNodePositionChange;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The cost of the events of a {@code LayoutModel}: moving every node with a node position event for
+ * each, and publishing a frame the way {@code FramePacedRelaxer} does, with events held back while
+ * the nodes move and a single layout change event at the end.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+
+  @Param({"100", "1000"})
+  public int size;
+
+  @Param({"1", "10"})
+  public int listeners;
+
+  private LayoutModel<Integer> layoutModel;
+
+  @Setup(Level.Trial)
+  public void setUp(Blackhole blackhole) {
+    layoutModel = Layouts.layoutModel(Topology.CHAIN.build(size));
+    for (int i = 0; i < listeners; i++) {
+      layoutModel
+          .getLayoutNodePositionSupport()
+          .addLayoutNodePositionChangeListener(
+              (LayoutNodePositionChange.Listener<Integer>) blackhole::consume);
+      layoutModel.getLayoutChangeSupport().addLayoutChangeListener(() -> blackhole.consume(this));
+    }
+  }
+
+  @Benchmark
+  public void nodePositionEvents() {
+    for (int i = 0; i < size; i++) {
+      layoutModel.set(i, i, i, i);
+    }
+  }
+
+  @Benchmark
+  public void framePublish() {
+    LayoutNodePositionChange.Support<Integer> positionSupport =
+        layoutModel.getLayoutNodePositionSupport();
+    LayoutChange.Support changeSupport = layoutModel.getLayoutChangeSupport();
+    positionSupport.setFireEvents(false);
+    changeSupport.setFireEvents(false);
+    for (int i = 0; i < size; i++) {
+      layoutModel.set(i, i, i, i);
+    }
+    positionSupport.setFireEvents(true);
+    changeSupport.setFireEvents(true);
+  }
+}
@@ -0,0 +1,76 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.Spherical;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and writing every location of a {@code LoadingCacheLayoutModel}, and placing every node
+ * with {@link Spherical#distribute}, both through the model and into plain arrays.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutModelBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private LayoutModel<Integer> layoutModel;
+  private double[] x;
+  private double[] y;
+  private double[] z;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    layoutModel = Layouts.layoutModel(Topology.CHAIN.build(size));
+    x = new double[size];
+    y = new double[size];
+    z = new double[size];
+  }
+
+  @Benchmark
+  public double get() {
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += layoutModel.apply(i).x;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public void set() {
+    for (int i = 0; i < size; i++) {
+      layoutModel.set(i, i, i, i);
+    }
+  }
+
+  @Benchmark
+  public void distribute() {
+    Spherical.distribute(layoutModel, layoutModel.getGraph().nodes(), Point.ORIGIN, 100);
+  }
+
+  @Benchmark
+  public double[] distributeToArrays() {
+    Spherical.distribute(size, 0, 0, 0, 100, x, y, z, 0);
+    return x;
+  }
+}
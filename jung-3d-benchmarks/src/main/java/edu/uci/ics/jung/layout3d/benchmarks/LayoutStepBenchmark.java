@@ -0,0 +1,115 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SpringLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutFRRepulsion;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutSpringRepulsion;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The time taken by one step of each iterative layout algorithm. The layout is set up once per
+ * trial and keeps relaxing from iteration to iteration, as it would on screen, without the relaxer
+ * or its events.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutStepBenchmark {
+
+  public enum Algorithm {
+    FR {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            FRLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+      }
+    },
+    FR_BARNES_HUT {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            FRLayoutAlgorithm.builder()
+                .withRepulsionContractBuilder(BarnesHutFRRepulsion.barnesHutBuilder())
+                .shouldPrerelax(false)
+                .withRandomSeed(0)
+                .build();
+      }
+    },
+    SPRING {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            SpringLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+      }
+    },
+    SPRING_BARNES_HUT {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            SpringLayoutAlgorithm.builder()
+                .withRepulsionContractBuilder(BarnesHutSpringRepulsion.barnesHutBuilder())
+                .shouldPrerelax(false)
+                .withRandomSeed(0)
+                .build();
+      }
+    },
+    KK {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            KKLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+      }
+    },
+    ISOM {
+      @Override
+      IterativeLayoutAlgorithm<Integer> build() {
+        return (IterativeLayoutAlgorithm<Integer>)
+            ISOMLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+      }
+    };
+
+    abstract IterativeLayoutAlgorithm<Integer> build();
+  }
+
+  @Param public Algorithm algorithm;
+
+  @Param public Topology topology;
+
+  @Param({"100", "1000"})
+  public int size;
+
+  private IterativeLayoutAlgorithm<Integer> layoutAlgorithm;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LayoutModel<Integer> layoutModel = Layouts.layoutModel(topology.build(size));
+    layoutAlgorithm = algorithm.build();
+    layoutAlgorithm.visit(layoutModel);
+  }
+
+  @Benchmark
+  public void step() {
+    layoutAlgorithm.step();
+  }
+}
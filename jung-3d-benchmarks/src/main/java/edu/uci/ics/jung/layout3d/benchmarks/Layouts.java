@@ -0,0 +1,23 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+
+/** @author Tom Nelson */
+class Layouts {
+
+  static final int SIZE = 600;
+
+  private Layouts() {}
+
+  /** @return a model of the graph, with every node at a random (seeded) location */
+  static LayoutModel<Integer> layoutModel(Graph<Integer> graph) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(SIZE, SIZE, SIZE)
+        .withInitializer(new RandomLocationTransformer<>(SIZE, SIZE, SIZE, 0))
+        .build();
+  }
+}
@@ -0,0 +1,82 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.spatial.BarnesHutOctTree;
+import edu.uci.ics.jung.layout3d.spatial.ForceObject;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building a {@link BarnesHutOctTree} over the locations of a layout, and gathering the forces on
+ * every node from it, as the Barnes-Hut repulsions do in each step.
+ *
+ * @author Tom Nelson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OctTreeBenchmark {
+
+  @Param public Topology topology;
+
+  @Param({"100", "1000", "10000"})
+  public int size;
+
+  private Map<Integer, Point> locations;
+  private BarnesHutOctTree<Integer> tree;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    LayoutModel<Integer> layoutModel = Layouts.layoutModel(topology.build(size));
+    locations = layoutModel.getLocations();
+    int half = Layouts.SIZE / 2;
+    tree =
+        BarnesHutOctTree.<Integer>builder()
+            .withBounds(-half, -half, -half, Layouts.SIZE, Layouts.SIZE, Layouts.SIZE)
+            .build();
+    tree.rebuild(locations);
+  }
+
+  @Benchmark
+  public BarnesHutOctTree<Integer> rebuild() {
+    tree.rebuild(locations);
+    return tree;
+  }
+
+  @Benchmark
+  public double applyForcesTo() {
+    double sum = 0;
+    for (Map.Entry<Integer, Point> entry : locations.entrySet()) {
+      ForceObject<Integer> visitor =
+          new ForceObject<Integer>(entry.getKey(), entry.getValue()) {
+            @Override
+            protected void addForceFrom(ForceObject<Integer> other) {
+              double dx = p.x - other.p.x;
+              double dy = p.y - other.p.y;
+              double dz = p.z - other.p.z;
+              double dist = Math.max(1.0e-6, Math.sqrt(dx * dx + dy * dy + dz * dz));
+              f = f.add(dx / dist, dy / dist, dz / dist);
+            }
+          };
+      tree.applyForcesTo(visitor);
+      sum += visitor.f.x;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,98 @@
+package edu.uci.ics.jung.layout3d.benchmarks;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The shapes of the synthetic graphs that benchmarks run over. Every graph has nodes {@code 0}
+ * through {@code size - 1}, and the random ones are seeded, so that runs can be compared.
+ *
+ * @author Tom Nelson
+ */
+public enum Topology {
+
+  /** a path through every node */
+  CHAIN {
+    @Override
+    public Graph<Integer> build(int size) {
+      MutableGraph<Integer> graph = graph(size);
+      for (int i = 1; i < size; i++) {
+        graph.putEdge(i - 1, i);
+      }
+      return graph;
+    }
+  },
+
+  /** a square lattice, as close to square as the size allows */
+  GRID {
+    @Override
+    public Graph<Integer> build(int size) {
+      MutableGraph<Integer> graph = graph(size);
+      int side = (int) Math.ceil(Math.sqrt(size));
+      for (int i = 0; i < size; i++) {
+        if (i % side > 0) {
+          graph.putEdge(i - 1, i);
+        }
+        if (i >= side) {
+          graph.putEdge(i - side, i);
+        }
+      }
+      return graph;
+    }
+  },
+
+  /** Barabasi-Albert preferential attachment, with two edges from each new node */
+  SCALE_FREE {
+    @Override
+    public Graph<Integer> build(int size) {
+      MutableGraph<Integer> graph = graph(size);
+      Random random = new Random(SEED);
+      // every endpoint of every edge, so that a node is picked in proportion to its degree
+      List<Integer> endpoints = new ArrayList<>();
+      for (int i = 1; i < size; i++) {
+        int edges = Math.min(2, i);
+        for (int e = 0; e < edges; e++) {
+          int target = endpoints.isEmpty() ? 0 : endpoints.get(random.nextInt(endpoints.size()));
+          if (target != i && graph.putEdge(i, target)) {
+            endpoints.add(i);
+            endpoints.add(target);
+          }
+        }
+      }
+      return graph;
+    }
+  },
+
+  /** a random tree, each node a child of an earlier one */
+  TREE {
+    @Override
+    public Graph<Integer> build(int size) {
+      MutableGraph<Integer> graph = graph(size);
+      Random random = new Random(SEED);
+      for (int i = 1; i < size; i++) {
+        graph.putEdge(random.nextInt(i), i);
+      }
+      return graph;
+    }
+  };
+
+  private static final long SEED = 0;
+
+  /**
+   * @param size the number of nodes
+   * @return a new graph of this shape
+   */
+  public abstract Graph<Integer> build(int size);
+
+  private static MutableGraph<Integer> graph(int size) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().expectedNodeCount(size).build();
+    for (int i = 0; i < size; i++) {
+      graph.addNode(i);
+    }
+    return graph;
+  }
+}
@@ -15,6 +15,7 @@ import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SpectralLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.SphereLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.SpringLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutFRRepulsion;
@@ -40,7 +41,9 @@ public class GraphDemo extends JPanel {
     FRBHLAYOUT,
     KK,
     ISOM,
-    SPHERE;
+    SPHERE,
+    SPECTRAL,
+    SPECTRAL_FR;
   }
 
   enum Graphs {
@@ -151,6 +154,15 @@ public class GraphDemo extends JPanel {
       case ISOM:
         layoutAlgorithm = ISOMLayoutAlgorithm.builder().build();
         break;
+      case SPECTRAL:
+        layoutAlgorithm = SpectralLayoutAlgorithm.builder().build();
+        break;
+      case SPECTRAL_FR:
+        layoutAlgorithm =
+            FRLayoutAlgorithm.builder()
+                .withInitialLayout(SpectralLayoutAlgorithm.builder().build())
+                .build();
+        break;
       default:
         log.warn("using default layout algorithm");
         layoutAlgorithm = SpringLayoutAlgorithm.builder().build();
@@ -0,0 +1,119 @@
+package edu.uci.ics.jung.layout3d.headless;
+
+import edu.uci.ics.jung.layout3d.algorithms.BalloonLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ConeTreeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.H3LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SpectralLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SphereLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SpringLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.TreeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutFRRepulsion;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutSpringRepulsion;
+import java.util.Locale;
+
+/**
+ * The layout algorithms that can be chosen by name from the command line. The iterative ones do not
+ * pre-relax, as the engine steps them itself.
+ *
+ * @author Tom Nelson
+ */
+public enum Algorithms {
+  FR {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return FRLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(randomSeed).build();
+    }
+  },
+  FR_BARNES_HUT {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return FRLayoutAlgorithm.builder()
+          .withRepulsionContractBuilder(BarnesHutFRRepulsion.barnesHutBuilder())
+          .shouldPrerelax(false)
+          .withRandomSeed(randomSeed)
+          .build();
+    }
+  },
+  SPRING {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return SpringLayoutAlgorithm.builder()
+          .shouldPrerelax(false)
+          .withRandomSeed(randomSeed)
+          .build();
+    }
+  },
+  SPRING_BARNES_HUT {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return SpringLayoutAlgorithm.builder()
+          .withRepulsionContractBuilder(BarnesHutSpringRepulsion.barnesHutBuilder())
+          .shouldPrerelax(false)
+          .withRandomSeed(randomSeed)
+          .build();
+    }
+  },
+  KK {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return KKLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(randomSeed).build();
+    }
+  },
+  ISOM {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return ISOMLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(randomSeed).build();
+    }
+  },
+  SPECTRAL {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return SpectralLayoutAlgorithm.builder().withRandomSeed(randomSeed).build();
+    }
+  },
+  SPHERE {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return new SphereLayoutAlgorithm<>();
+    }
+  },
+  TREE {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return TreeLayoutAlgorithm.builder().build();
+    }
+  },
+  BALLOON {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return new BalloonLayoutAlgorithm<>();
+    }
+  },
+  CONE_TREE {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return ConeTreeLayoutAlgorithm.builder().build();
+    }
+  },
+  H3 {
+    @Override
+    public <N> LayoutAlgorithm<N> create(long randomSeed) {
+      return H3LayoutAlgorithm.builder().build();
+    }
+  };
+
+  /**
+   * @param randomSeed seeds the algorithm, if it uses random numbers
+   * @return a new instance of the algorithm
+   */
+  public abstract <N> LayoutAlgorithm<N> create(long randomSeed);
+
+  /** @return the algorithm with the passed name, ignoring case, with '-' for '_' */
+  public static Algorithms forName(String name) {
+    return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+  }
+}
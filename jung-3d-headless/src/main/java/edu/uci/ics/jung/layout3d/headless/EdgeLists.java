@@ -0,0 +1,83 @@
+package edu.uci.ics.jung.layout3d.headless;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Reads graphs from, and writes node locations to, plain text.
+ *
+ * <p>A graph is an edge list: one edge per line, as a source and a target separated by whitespace,
+ * or a single node on a line by itself. Blank lines, and everything after a {@code #}, are ignored.
+ * Locations are written one node per line, as the node and its x, y and z separated by tabs.
+ *
+ * @author Tom Nelson
+ */
+public class EdgeLists {
+
+  private EdgeLists() {}
+
+  /**
+   * @param reader the edge list
+   * @param directed true if each line is an edge from its source to its target
+   * @return the graph, with the nodes in the order they were first read
+   * @throws IOException if the edge list cannot be read, or a line has more than two nodes
+   */
+  public static Graph<String> read(Reader reader, boolean directed) throws IOException {
+    MutableGraph<String> graph =
+        (directed ? GraphBuilder.directed() : GraphBuilder.undirected())
+            .allowsSelfLoops(true)
+            .build();
+    BufferedReader lines = new BufferedReader(reader);
+    int lineNumber = 0;
+    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+      lineNumber++;
+      int comment = line.indexOf('#');
+      if (comment >= 0) {
+        line = line.substring(0, comment);
+      }
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      String[] nodes = line.split("\\s+");
+      if (nodes.length == 1) {
+        graph.addNode(nodes[0]);
+      } else if (nodes.length == 2) {
+        graph.putEdge(nodes[0], nodes[1]);
+      } else {
+        throw new IOException("line " + lineNumber + " is not an edge: " + line);
+      }
+    }
+    return graph;
+  }
+
+  /**
+   * @param layoutModel holds the locations of the nodes of its graph
+   * @param writer receives one line per node
+   * @throws IOException if the locations cannot be written
+   */
+  public static <N> void write(LayoutModel<N> layoutModel, Writer writer) throws IOException {
+    PrintWriter out = new PrintWriter(writer);
+    for (N node : layoutModel.getGraph().nodes()) {
+      Point p = layoutModel.apply(node);
+      out.print(node);
+      out.print('\t');
+      out.print(p.x);
+      out.print('\t');
+      out.print(p.y);
+      out.print('\t');
+      out.println(p.z);
+    }
+    if (out.checkError()) {
+      throw new IOException("could not write the locations");
+    }
+  }
+}
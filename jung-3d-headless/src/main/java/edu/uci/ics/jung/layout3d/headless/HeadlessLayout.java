@@ -0,0 +1,162 @@
+package edu.uci.ics.jung.layout3d.headless;
+
+import com.google.common.graph.Graph;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lays out a graph from the command line. For example
+ *
+ * <pre>
+ * java -jar jung-3d-headless.jar --algorithm fr-barnes-hut --time-ms 2000 graph.txt positions.tsv
+ * </pre>
+ *
+ * reads the edge list in graph.txt, runs FR with Barnes-Hut repulsion for at most two seconds, and
+ * writes the location of every node to positions.tsv. See {@link EdgeLists} for the formats. A
+ * missing or {@code -} input or output means standard in or out.
+ *
+ * @author Tom Nelson
+ */
+public class HeadlessLayout {
+
+  static final String USAGE =
+      "usage: HeadlessLayout [options] [input|-] [output|-]\n"
+          + "  --algorithm <name>   one of "
+          + Arrays.toString(Algorithms.values()).toLowerCase(Locale.ROOT).replace('_', '-')
+          + " (default fr)\n"
+          + "  --directed           read each edge from its source to its target\n"
+          + "  --size <n>[,<h>,<d>] the size of the layout (default "
+          + HeadlessLayoutEngine.DEFAULT_SIZE
+          + ")\n"
+          + "  --steps <n>          the most steps an iterative algorithm may take\n"
+          + "  --time-ms <n>        the most time an iterative algorithm may take\n"
+          + "  --seed <n>           seeds the random numbers (default 0)\n";
+
+  public static void main(String[] args) {
+    System.setProperty("java.awt.headless", "true");
+    System.exit(run(args, System.in, System.out, System.err));
+  }
+
+  /** @return the exit status: 0 on success, 1 for a failure, 2 for bad arguments */
+  static int run(String[] args, InputStream in, OutputStream out, PrintStream err) {
+    Algorithms algorithm = Algorithms.FR;
+    boolean directed = false;
+    long seed = 0;
+    String input = "-";
+    String output = "-";
+    int positional = 0;
+    HeadlessLayoutEngine.Builder engine = HeadlessLayoutEngine.builder();
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--algorithm":
+            algorithm = Algorithms.forName(value(args, ++i));
+            break;
+          case "--directed":
+            directed = true;
+            break;
+          case "--size":
+            String[] size = value(args, ++i).split(",");
+            if (size.length == 1) {
+              int n = Integer.parseInt(size[0]);
+              engine.withSize(n, n, n);
+            } else if (size.length == 3) {
+              engine.withSize(
+                  Integer.parseInt(size[0]), Integer.parseInt(size[1]), Integer.parseInt(size[2]));
+            } else {
+              throw new IllegalArgumentException("--size takes one or three numbers");
+            }
+            break;
+          case "--steps":
+            engine.withMaxSteps(Long.parseLong(value(args, ++i)));
+            break;
+          case "--time-ms":
+            engine.withTimeBudget(Long.parseLong(value(args, ++i)), TimeUnit.MILLISECONDS);
+            break;
+          case "--seed":
+            seed = Long.parseLong(value(args, ++i));
+            break;
+          default:
+            if (args[i].startsWith("--")) {
+              throw new IllegalArgumentException("unknown option " + args[i]);
+            } else if (positional == 0) {
+              input = args[i];
+            } else if (positional == 1) {
+              output = args[i];
+            } else {
+              throw new IllegalArgumentException("too many arguments");
+            }
+            positional++;
+        }
+      }
+    } catch (IllegalArgumentException ex) {
+      err.println(ex.getMessage());
+      err.print(USAGE);
+      return 2;
+    }
+    engine.withRandomSeed(seed);
+
+    try {
+      Graph<String> graph;
+      Reader reader = reader(input, in);
+      try {
+        graph = EdgeLists.read(reader, directed);
+      } finally {
+        if (!"-".equals(input)) {
+          reader.close();
+        }
+      }
+      HeadlessLayoutEngine.Result<String> result =
+          engine.build().layout(graph, algorithm.<String>create(seed));
+      Writer writer = writer(output, out);
+      try {
+        EdgeLists.write(result.getLayoutModel(), writer);
+      } finally {
+        if (!"-".equals(output)) {
+          writer.close();
+        }
+      }
+      err.println(
+          graph.nodes().size()
+              + " nodes, "
+              + result.getSteps()
+              + " steps, "
+              + TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos())
+              + " ms"
+              + (result.isConverged() ? "" : ", stopped before converging"));
+      return 0;
+    } catch (IOException | RuntimeException ex) {
+      err.println("layout failed: " + ex);
+      return 1;
+    }
+  }
+
+  private static String value(String[] args, int i) {
+    if (i >= args.length) {
+      throw new IllegalArgumentException(args[i - 1] + " needs a value");
+    }
+    return args[i];
+  }
+
+  private static Reader reader(String name, InputStream in) throws IOException {
+    return new InputStreamReader(
+        "-".equals(name) ? in : new FileInputStream(name), StandardCharsets.UTF_8);
+  }
+
+  private static Writer writer(String name, OutputStream out) throws IOException {
+    return new OutputStreamWriter(
+        "-".equals(name) ? out : new FileOutputStream(name), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,219 @@
+package edu.uci.ics.jung.layout3d.headless;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link LayoutAlgorithm} over a graph on the calling thread, with no viewer, relaxer or
+ * events. A static algorithm places the nodes once. An iterative algorithm is stepped until it is
+ * done, or until it has taken the most steps allowed or used up its time budget, whichever comes
+ * first.
+ *
+ * @author Tom Nelson
+ */
+public class HeadlessLayoutEngine {
+
+  private static final Logger log = LoggerFactory.getLogger(HeadlessLayoutEngine.class);
+
+  /** The default width, height and depth of the layout. Initialized to 600. */
+  public static final int DEFAULT_SIZE = 600;
+
+  public static class Builder {
+    protected int width = DEFAULT_SIZE;
+    protected int height = DEFAULT_SIZE;
+    protected int depth = DEFAULT_SIZE;
+    protected long maxSteps = Long.MAX_VALUE;
+    protected long timeBudgetNanos = Long.MAX_VALUE;
+    protected long randomSeed;
+
+    public Builder withSize(int width, int height, int depth) {
+      Preconditions.checkArgument(width > 0 && height > 0 && depth > 0, "size must be positive");
+      this.width = width;
+      this.height = height;
+      this.depth = depth;
+      return this;
+    }
+
+    /**
+     * @param maxSteps the most steps an iterative algorithm may take. By default there is no limit
+     * @return this builder
+     */
+    public Builder withMaxSteps(long maxSteps) {
+      Preconditions.checkArgument(maxSteps >= 0, "maxSteps cannot be negative");
+      this.maxSteps = maxSteps;
+      return this;
+    }
+
+    /**
+     * @param timeBudget how long an iterative algorithm may run. By default there is no limit
+     * @param unit the unit of the time budget
+     * @return this builder
+     */
+    public Builder withTimeBudget(long timeBudget, TimeUnit unit) {
+      Preconditions.checkArgument(timeBudget >= 0, "timeBudget cannot be negative");
+      this.timeBudgetNanos = unit.toNanos(timeBudget);
+      return this;
+    }
+
+    /**
+     * @param randomSeed seeds the random initial locations of the nodes
+     * @return this builder
+     */
+    public Builder withRandomSeed(long randomSeed) {
+      this.randomSeed = randomSeed;
+      return this;
+    }
+
+    public HeadlessLayoutEngine build() {
+      return new HeadlessLayoutEngine(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** what a layout run produced */
+  public static class Result<N> {
+    private final LayoutModel<N> layoutModel;
+    private final long steps;
+    private final boolean converged;
+    private final long elapsedNanos;
+
+    Result(LayoutModel<N> layoutModel, long steps, boolean converged, long elapsedNanos) {
+      this.layoutModel = layoutModel;
+      this.steps = steps;
+      this.converged = converged;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /** @return the model holding the location of every node */
+    public LayoutModel<N> getLayoutModel() {
+      return layoutModel;
+    }
+
+    /** @return the number of steps taken, 0 for a static algorithm */
+    public long getSteps() {
+      return steps;
+    }
+
+    /**
+     * @return true if the algorithm finished, false if it was stopped by the step limit, the time
+     *     budget or an interrupt
+     */
+    public boolean isConverged() {
+      return converged;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Result{steps="
+          + steps
+          + ", converged="
+          + converged
+          + ", elapsedMillis="
+          + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+          + '}';
+    }
+  }
+
+  protected int width;
+  protected int height;
+  protected int depth;
+  protected long maxSteps;
+  protected long timeBudgetNanos;
+  protected long randomSeed;
+
+  protected HeadlessLayoutEngine(Builder builder) {
+    this.width = builder.width;
+    this.height = builder.height;
+    this.depth = builder.depth;
+    this.maxSteps = builder.maxSteps;
+    this.timeBudgetNanos = builder.timeBudgetNanos;
+    this.randomSeed = builder.randomSeed;
+  }
+
+  /**
+   * Lay out the graph, with every node starting at a random location.
+   *
+   * @param graph the graph to lay out
+   * @param layoutAlgorithm the algorithm to run
+   * @return the locations, and how the run went
+   */
+  public <N> Result<N> layout(Graph<N> graph, LayoutAlgorithm<N> layoutAlgorithm) {
+    return layout(
+        graph, layoutAlgorithm, new RandomLocationTransformer<>(width, height, depth, randomSeed));
+  }
+
+  /**
+   * Lay out the graph.
+   *
+   * @param graph the graph to lay out
+   * @param layoutAlgorithm the algorithm to run
+   * @param initializer the starting location of each node
+   * @return the locations, and how the run went
+   */
+  public <N> Result<N> layout(
+      Graph<N> graph, LayoutAlgorithm<N> layoutAlgorithm, Function<N, Point> initializer) {
+    Preconditions.checkNotNull(graph);
+    Preconditions.checkNotNull(layoutAlgorithm);
+    LayoutModel<N> layoutModel =
+        LoadingCacheLayoutModel.<N>builder()
+            .withGraph(graph)
+            .withSize(width, height, depth)
+            .withInitializer(initializer)
+            .build();
+    // nobody is listening
+    layoutModel.getLayoutNodePositionSupport().setFireEvents(false);
+    layoutModel.getLayoutChangeSupport().setFireEvents(false);
+
+    long start = System.nanoTime();
+    // visit instead of accept, so that no relaxer is started
+    layoutAlgorithm.visit(layoutModel);
+    long steps = 0;
+    boolean converged = true;
+    if (layoutAlgorithm instanceof IterativeLayoutAlgorithm) {
+      IterativeLayoutAlgorithm<N> iterative = (IterativeLayoutAlgorithm<N>) layoutAlgorithm;
+      while (!iterative.done()
+          && steps < maxSteps
+          && System.nanoTime() - start < timeBudgetNanos
+          && !Thread.currentThread().isInterrupted()) {
+        iterative.step();
+        steps++;
+      }
+      converged = iterative.done();
+    }
+    Result<N> result = new Result<>(layoutModel, steps, converged, System.nanoTime() - start);
+    log.debug("{} laid out {} nodes: {}", layoutAlgorithm, graph.nodes().size(), result);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "HeadlessLayoutEngine{size="
+        + width
+        + "x"
+        + height
+        + "x"
+        + depth
+        + ", maxSteps="
+        + maxSteps
+        + ", timeBudgetNanos="
+        + timeBudgetNanos
+        + '}';
+  }
+}
@@ -0,0 +1,102 @@
+package edu.uci.ics.jung.layout3d.headless;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class HeadlessLayoutTest {
+
+  private static final String EDGES = "# a square and a loner\na b\nb c\nc d\nd a\n\ne\n";
+
+  @Test
+  public void iterativeLayoutStopsAtTheStepLimit() throws Exception {
+    Graph<String> graph = EdgeLists.read(new StringReader(EDGES), false);
+    assertEquals(5, graph.nodes().size());
+    assertEquals(4, graph.edges().size());
+
+    HeadlessLayoutEngine.Result<String> result =
+        HeadlessLayoutEngine.builder()
+            .withMaxSteps(10)
+            .build()
+            .layout(graph, Algorithms.FR.create(0));
+    assertEquals(10, result.getSteps());
+    assertFalse(result.isConverged());
+
+    // a static layout takes no steps, and is done
+    result = HeadlessLayoutEngine.builder().build().layout(graph, Algorithms.SPHERE.create(0));
+    assertEquals(0, result.getSteps());
+    assertTrue(result.isConverged());
+  }
+
+  @Test
+  public void commandLineWritesEveryNode() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    int status =
+        HeadlessLayout.run(
+            new String[] {"--algorithm", "fr-barnes-hut", "--steps", "20", "--size", "300"},
+            new ByteArrayInputStream(EDGES.getBytes(StandardCharsets.UTF_8)),
+            out,
+            new PrintStream(err));
+    assertEquals(0, status, err.toString());
+
+    Map<String, Point> locations = new HashMap<>();
+    for (String line : out.toString().split("\n")) {
+      String[] fields = line.split("\t");
+      locations.put(
+          fields[0],
+          Point.of(
+              Double.parseDouble(fields[1]),
+              Double.parseDouble(fields[2]),
+              Double.parseDouble(fields[3])));
+    }
+    assertEquals(5, locations.size());
+    for (Point p : locations.values()) {
+      assertTrue(Math.abs(p.x) <= 150 && Math.abs(p.y) <= 150 && Math.abs(p.z) <= 150, "" + p);
+    }
+
+    assertEquals(
+        2,
+        HeadlessLayout.run(
+            new String[] {"--algorithm", "nope"},
+            new ByteArrayInputStream(new byte[0]),
+            out,
+            new PrintStream(err)));
+  }
+
+  @Test
+  public void commandLineLeavesTheStandardStreamsOpen() {
+    boolean[] closed = new boolean[2];
+    ByteArrayInputStream in =
+        new ByteArrayInputStream(EDGES.getBytes(StandardCharsets.UTF_8)) {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+    ByteArrayOutputStream out =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            closed[1] = true;
+          }
+        };
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    int status =
+        HeadlessLayout.run(new String[] {"--algorithm", "sphere"}, in, out, new PrintStream(err));
+    assertEquals(0, status, err.toString());
+    assertFalse(closed[0], "standard input was closed");
+    assertFalse(closed[1], "standard output was closed");
+  }
+}
@@ -1,7 +1,26 @@
 package edu.uci.ics.jung.layout3d.algorithms;
 
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutRepulsion;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.StandardRepulsion;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
+import edu.uci.ics.jung.layout3d.metrics.StepRecorder;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.spatial.BarnesHutOctTree;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,17 +29,32 @@ import org.slf4j.LoggerFactory;
  * that it can be accessed by the threaded code. The layoutModel could be removed and instead passed
  * via all of the iterative methods (for example step(layoutModel) instead of step() )
  *
+ * <p>Subclasses that override {@link #writeState}, {@link #readState} and {@link
+ * #supportsCheckpoint()} can be checkpointed. A checkpoint holds the node locations followed by the
+ * state of the algorithm, and is restored by calling {@link #applyCheckpoint()} at the end of
+ * {@code visit}, in place of the expensive parts of initialization. The random number sequence is
+ * not saved, so a resumed relaxation follows a different, equally valid, path.
+ *
  * @author Tom Nelson
  */
 public abstract class AbstractIterativeLayoutAlgorithm<N> implements IterativeLayoutAlgorithm<N> {
 
   private static final Logger log = LoggerFactory.getLogger(AbstractIterativeLayoutAlgorithm.class);
 
+  /** how often, at most, preRelax reports its progress */
+  private static final int PROGRESS_INTERVAL_MS = 50;
+
+  /** "J3CK" */
+  private static final int CHECKPOINT_MAGIC = 0x4A33434B;
+
+  private static final int CHECKPOINT_VERSION = 1;
+
   public abstract static class Builder<
       N, T extends AbstractIterativeLayoutAlgorithm<N>, B extends Builder<N, T, B>> {
     protected Random random = new Random();
     protected boolean shouldPrerelax = true;
     protected int preRelaxDurationMs = 500;
+    protected LayoutAlgorithm<N> initialLayout;
 
     public B withRandomSeed(long randomSeed) {
       this.random = new Random(randomSeed);
@@ -37,6 +71,16 @@ public abstract class AbstractIterativeLayoutAlgorithm<N> implements IterativeLa
       return (B) this;
     }
 
+    /**
+     * @param initialLayout a (typically static) LayoutAlgorithm that places the nodes before this
+     *     algorithm starts to iterate, instead of starting from random locations
+     * @return this builder
+     */
+    public B withInitialLayout(LayoutAlgorithm<N> initialLayout) {
+      this.initialLayout = initialLayout;
+      return (B) this;
+    }
+
     public abstract T build();
   }
 
@@ -44,6 +88,7 @@ public abstract class AbstractIterativeLayoutAlgorithm<N> implements IterativeLa
     this.random = builder.random;
     this.shouldPreRelax = builder.shouldPrerelax;
     this.preRelaxDurationMs = builder.preRelaxDurationMs;
+    this.initialLayout = builder.initialLayout;
   }
 
   /**
@@ -58,22 +103,109 @@ public abstract class AbstractIterativeLayoutAlgorithm<N> implements IterativeLa
 
   protected Random random = new Random();
 
+  /** if not null, places the nodes when this algorithm visits a LayoutModel */
+  protected LayoutAlgorithm<N> initialLayout;
+
+  /** records the metrics of each step, once LayoutMetrics are set */
+  protected final StepRecorder stepRecorder = new StepRecorder(getClass().getSimpleName());
+
+  /** a checkpoint that has been read, to be restored by the next visit */
+  private Checkpoint checkpoint;
+
+  /** true from a restored visit until the pre-relax it replaces */
+  private boolean resumed;
+
+  // the mobility for the next visit, if it is a warm start
+  private Function<? super N, Double> pendingMobility;
+
+  // the nodes changed before the next visit, if it is a warm start and they are known
+  private Set<N> pendingChanged;
+
+  /** true if the last visit kept the node locations */
+  private boolean warmStart;
+
+  /** the nodes changed before the last visit, or null if they are not known */
+  private Set<N> changed;
+
+  /** scales how far each node may move in a step, or null if every node moves freely */
+  private Function<? super N, Double> mobility;
+
+  @Override
+  public void setMetrics(LayoutMetrics metrics) {
+    stepRecorder.setMetrics(metrics);
+  }
+
+  @Override
+  public LayoutMetrics getMetrics() {
+    return stepRecorder.getMetrics();
+  }
+
+  /**
+   * Step the repulsion contract, which rebuilds the tree of a Barnes-Hut repulsion, and start the
+   * repulsion phase.
+   */
+  protected void stepRepulsion(StandardRepulsion<N, ?, ?> repulsion) {
+    if (repulsion instanceof BarnesHutRepulsion) {
+      stepRecorder.beginPhase(Phase.TREE_REBUILD);
+    }
+    repulsion.step();
+    stepRecorder.beginPhase(Phase.REPULSION);
+  }
+
+  /** record the shape of the tree of a Barnes-Hut repulsion, once repulsion is calculated */
+  protected void recordTree(StandardRepulsion<N, ?, ?> repulsion) {
+    if (stepRecorder.isEnabled() && repulsion instanceof BarnesHutRepulsion) {
+      BarnesHutOctTree<N> tree = ((BarnesHutRepulsion<N, ?, ?>) repulsion).getTree();
+      stepRecorder.octree(tree.getDepth(), tree.getInteractionCount());
+    }
+  }
+
   public void setRandomSeed(long randomSeed) {
     this.random = new Random(randomSeed);
   }
 
   // returns true iff prerelaxing happened
   public final boolean preRelax() {
+    return preRelax(progress -> {});
+  }
+
+  // returns true iff prerelaxing happened
+  public final boolean preRelax(DoubleConsumer progress) {
+    if (resumed) {
+      // carry on from the checkpoint, which was relaxed already
+      resumed = false;
+      return false;
+    }
     if (!shouldPreRelax) {
       return false;
     }
     long timeNow = System.currentTimeMillis();
-    while (System.currentTimeMillis() - timeNow < preRelaxDurationMs && !done()) {
+    long lastReport = timeNow;
+    long elapsed = 0;
+    progress.accept(0);
+    while (elapsed < preRelaxDurationMs && !done() && !isCancelled()) {
       step();
+      long now = System.currentTimeMillis();
+      elapsed = now - timeNow;
+      if (now - lastReport >= PROGRESS_INTERVAL_MS) {
+        // 1 is left for the caller to report when the pre-relax phase is over
+        progress.accept(Math.min(0.99, (double) elapsed / preRelaxDurationMs));
+        lastReport = now;
+      }
     }
     return true;
   }
 
+  /**
+   * A relaxer is cancelled by interrupting the thread that runs it. Long loops inside {@code
+   * step()} check this so that a cancelled relaxer stops without finishing a step nobody will see.
+   *
+   * @return true if the thread running this algorithm has been asked to stop
+   */
+  protected static boolean isCancelled() {
+    return Thread.currentThread().isInterrupted();
+  }
+
   /**
    * because the IterativeLayoutAlgorithms use multithreading to continuously update node positions,
    * the layoutModel state is saved (during the visit method) so that it can be used continuously
@@ -81,5 +213,216 @@ public abstract class AbstractIterativeLayoutAlgorithm<N> implements IterativeLa
   public void visit(LayoutModel<N> layoutModel) {
     log.trace("visiting " + layoutModel);
     this.layoutModel = layoutModel;
+    this.resumed = false;
+    this.warmStart = pendingMobility != null;
+    this.mobility = warmStart ? pendingMobility : null;
+    this.changed = warmStart ? pendingChanged : null;
+    this.pendingMobility = null;
+    this.pendingChanged = null;
+    if (initialLayout != null && checkpoint == null && !warmStart) {
+      initialLayout.visit(layoutModel);
+    }
+  }
+
+  /**
+   * Make the next visit a warm start, for a graph that has changed a little since it was laid out.
+   * The nodes are left where they are, instead of being placed by the initial layout or an
+   * initializer, and until the visit after that, each node moves by its mobility times what it
+   * would otherwise move.
+   *
+   * @param mobility from 0, for a node that is frozen, to 1, for a node that moves freely
+   */
+  public void warmStart(Function<? super N, Double> mobility) {
+    this.pendingMobility = Preconditions.checkNotNull(mobility);
+    this.pendingChanged = null;
+  }
+
+  /**
+   * Make the next visit a warm start, when the changes to the graph are known. The algorithm keeps
+   * its state, such as its cooling schedule, and updates only what the changed nodes affect.
+   *
+   * @param mobility from 0, for a node that is frozen, to 1, for a node that moves freely
+   * @param changed the nodes that were added, and those whose neighbors have changed
+   */
+  public void warmStart(Function<? super N, Double> mobility, Set<? extends N> changed) {
+    this.pendingMobility = Preconditions.checkNotNull(mobility);
+    this.pendingChanged = new HashSet<>(changed);
+  }
+
+  /** @return true if the last visit was a warm start, which leaves the nodes where they are */
+  protected boolean isWarmStart() {
+    return warmStart;
+  }
+
+  /**
+   * @return the nodes that were added or whose neighbors changed before the last visit, if it was a
+   *     warm start with known changes, otherwise null
+   */
+  protected Set<N> getChangedNodes() {
+    return changed;
+  }
+
+  /** @return how much of its usual movement the node makes, from 0 to 1 */
+  protected double mobility(N node) {
+    Function<? super N, Double> mobility = this.mobility;
+    if (mobility == null) {
+      return 1;
+    }
+    Double value = mobility.apply(node);
+    return value == null ? 1 : value;
+  }
+
+  /** @return false, unless overridden by a subclass that writes and reads its state */
+  @Override
+  public boolean supportsCheckpoint() {
+    return false;
+  }
+
+  @Override
+  public void writeCheckpoint(DataOutput out, Function<? super N, String> nodeIds)
+      throws IOException {
+    checkSupported();
+    Preconditions.checkState(layoutModel != null, "there is nothing to checkpoint before visit");
+    List<N> nodes = checkpointNodes();
+    out.writeInt(CHECKPOINT_MAGIC);
+    out.writeInt(CHECKPOINT_VERSION);
+    out.writeUTF(getClass().getName());
+    out.writeInt(nodes.size());
+    for (N node : nodes) {
+      out.writeUTF(nodeIds.apply(node));
+    }
+    for (N node : nodes) {
+      Point p = layoutModel.apply(node);
+      out.writeDouble(p.x);
+      out.writeDouble(p.y);
+      out.writeDouble(p.z);
+    }
+    writeState(out, nodes);
+    log.debug("wrote a checkpoint of {} nodes", nodes.size());
+  }
+
+  @Override
+  public void readCheckpoint(DataInput in, Function<? super N, String> nodeIds) throws IOException {
+    checkSupported();
+    Preconditions.checkNotNull(nodeIds);
+    if (in.readInt() != CHECKPOINT_MAGIC) {
+      throw new IOException("not a layout checkpoint");
+    }
+    int version = in.readInt();
+    if (version != CHECKPOINT_VERSION) {
+      throw new IOException("unsupported layout checkpoint version " + version);
+    }
+    String algorithm = in.readUTF();
+    if (!algorithm.equals(getClass().getName())) {
+      throw new IOException("a checkpoint of " + algorithm + " cannot restore " + getClass());
+    }
+    int count = in.readInt();
+    String[] ids = new String[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = in.readUTF();
+    }
+    double[] coordinates = new double[3 * count];
+    for (int i = 0; i < coordinates.length; i++) {
+      coordinates[i] = in.readDouble();
+    }
+    readState(in, count);
+    checkpoint = new Checkpoint(ids, coordinates, nodeIds);
+  }
+
+  /** fail before any of a checkpoint is written or read */
+  private void checkSupported() {
+    if (!supportsCheckpoint()) {
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " has no checkpoints");
+    }
+  }
+
+  /**
+   * @return the nodes of a checkpoint, in the order their state is written. By default the nodes of
+   *     the graph
+   */
+  protected List<N> checkpointNodes() {
+    return new ArrayList<>(layoutModel.getGraph().nodes());
+  }
+
+  /**
+   * Write the state of this algorithm that a checkpoint keeps.
+   *
+   * @param out receives the state
+   * @param nodes the nodes of the checkpoint, in order
+   * @throws UnsupportedOperationException unless overridden
+   */
+  protected void writeState(DataOutput out, List<N> nodes) throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no checkpoints");
+  }
+
+  /**
+   * Read the state written by {@link #writeState}, and keep it until {@link #restoreState} is
+   * called.
+   *
+   * @param in supplies the state
+   * @param count the number of nodes in the checkpoint
+   */
+  protected void readState(DataInput in, int count) throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no checkpoints");
+  }
+
+  /**
+   * Restore the state kept by {@link #readState}, once the node locations are restored.
+   *
+   * @param nodes the nodes of the checkpoint, in the order they were written
+   */
+  protected void restoreState(List<N> nodes) {}
+
+  /** @return true while visiting a model to restore a checkpoint */
+  protected boolean isRestoring() {
+    return checkpoint != null;
+  }
+
+  /**
+   * Restore a checkpoint that has been read, if there is one: place the nodes where they were, then
+   * restore the state of the algorithm. Subclasses call this at the end of {@code visit}.
+   *
+   * @throws IllegalStateException if the graph does not have the nodes of the checkpoint
+   */
+  protected void applyCheckpoint() {
+    Checkpoint checkpoint = this.checkpoint;
+    if (checkpoint == null) {
+      return;
+    }
+    this.checkpoint = null;
+    Map<String, N> byId = new HashMap<>();
+    for (N node : layoutModel.getGraph().nodes()) {
+      byId.put(checkpoint.nodeIds.apply(node), node);
+    }
+    Preconditions.checkState(
+        byId.size() == checkpoint.ids.length,
+        "the checkpoint has %s nodes but the graph has %s",
+        checkpoint.ids.length,
+        byId.size());
+    List<N> nodes = new ArrayList<>(checkpoint.ids.length);
+    double[] coordinates = checkpoint.coordinates;
+    for (int i = 0; i < checkpoint.ids.length; i++) {
+      N node = byId.get(checkpoint.ids[i]);
+      Preconditions.checkState(node != null, "the graph has no node %s", checkpoint.ids[i]);
+      nodes.add(node);
+      layoutModel.set(node, coordinates[3 * i], coordinates[3 * i + 1], coordinates[3 * i + 2]);
+    }
+    restoreState(nodes);
+    resumed = true;
+    log.debug("restored a checkpoint of {} nodes", nodes.size());
+  }
+
+  /** the node ids and locations of a checkpoint that has been read */
+  private static class Checkpoint {
+    final String[] ids;
+    final double[] coordinates;
+    final Function<Object, String> nodeIds;
+
+    @SuppressWarnings("unchecked")
+    Checkpoint(String[] ids, double[] coordinates, Function<?, String> nodeIds) {
+      this.ids = ids;
+      this.coordinates = coordinates;
+      this.nodeIds = (Function<Object, String>) nodeIds;
+    }
   }
 }
@@ -1,10 +1,10 @@
 package edu.uci.ics.jung.layout3d.algorithms;
 
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
+import edu.uci.ics.jung.layout3d.model.LayoutHost;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import edu.uci.ics.jung.visualization3d.VisualizationViewer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,18 +19,18 @@ public class AnimationLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorith
   protected int counter = 0;
 
   LayoutModel<N> transitionLayoutModel;
-  VisualizationViewer<N, ?> visualizationServer;
+  LayoutHost<N> visualizationServer;
   LayoutAlgorithm<N> endLayoutAlgorithm;
   LayoutModel<N> layoutModel;
 
   public static class Builder<N, T extends AnimationLayoutAlgorithm<N>, B extends Builder<N, T, B>>
       extends AbstractIterativeLayoutAlgorithm.Builder<N, T, B> {
 
-    private VisualizationViewer<N, ?> visualizationServer;
+    private LayoutHost<N> visualizationServer;
     private LayoutAlgorithm<N> endLayoutAlgorithm;
     private boolean shouldPrerelax = false;
 
-    public B withVisualizationServer(VisualizationViewer<N, ?> visualizationServer) {
+    public B withVisualizationServer(LayoutHost<N> visualizationServer) {
       this.visualizationServer = visualizationServer;
       return (B) this;
     }
@@ -68,7 +68,7 @@ public class AnimationLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorith
     // create a LayoutModel to hold points for the transition
     this.transitionLayoutModel =
         LoadingCacheLayoutModel.<N>builder()
-            .withGraph(visualizationServer.getNetwork().asGraph())
+            .withGraph(layoutModel.getGraph())
             .withLayoutModel(layoutModel)
             .withInitializer(layoutModel)
             .build();
@@ -14,8 +14,11 @@ import com.google.common.graph.Graph;
 import edu.uci.ics.jung.graph.util.TreeUtils;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.BreadthFirstTree;
+import edu.uci.ics.jung.layout3d.util.IndexedLocations;
 import edu.uci.ics.jung.layout3d.util.Spherical;
 import java.util.*;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +27,12 @@ import org.slf4j.LoggerFactory;
  * using associations with nested circles ("balloons"). A balloon is nested inside another balloon
  * if the first balloon's subtree is a subtree of the second balloon's subtree.
  *
+ * <p>The tree is laid out without recursion: one breadth first search from the roots ({@link
+ * BreadthFirstTree}) records the depth of every node and stores the children of each node
+ * contiguously, then each level is placed from the level above it, with the child spheres of
+ * different parents placed in parallel. The locations are written to the {@code LayoutModel} in
+ * bulk.
+ *
  * @author Tom Nelson
  */
 public class BalloonLayoutAlgorithm<N> implements Spherical, LayoutAlgorithm<N> {
@@ -32,6 +41,13 @@ public class BalloonLayoutAlgorithm<N> implements Spherical, LayoutAlgorithm<N>
 
   private Map<Point, Integer> sphereLocations = new HashMap<>();
 
+  // the child sphere of node i is centered at (x[i], y[i], z[i]) with radius sphereRadii[i], or
+  // there is none if sphereRadii[i] is 0. The sphereLocations map is made from these on demand
+  private double[] x = new double[0];
+  private double[] y = new double[0];
+  private double[] z = new double[0];
+  private int[] sphereRadii = new int[0];
+
   private LayoutModel<N> layoutModel;
 
   int depth = 200;
@@ -54,29 +70,19 @@ public class BalloonLayoutAlgorithm<N> implements Spherical, LayoutAlgorithm<N>
     this.tree = layoutModel.getGraph();
     Set<N> roots = TreeUtils.roots(layoutModel.getGraph());
 
-    if (roots.size() == 1) {
-      layoutModel.set(roots.iterator().next(), Point.ORIGIN);
-    }
-    buildTrees(roots);
+    layoutModel.setLocations(buildTrees(roots));
   }
 
-  public Map<Point, Integer> getSphereLocations() {
-    return sphereLocations;
-  }
-
-  protected void breadth(N root) {
-    List<N> queue = new ArrayList<>();
-    queue.add(root);
-    while (!queue.isEmpty()) {
-      N n = queue.remove(0);
-      depth *= .9;
-      Point center = layoutModel.get(n);
-      arrangeInSphere(tree.successors(n), center, depth);
-
-      for (N kid : tree.successors(n)) {
-        queue.add(kid);
+  public synchronized Map<Point, Integer> getSphereLocations() {
+    if (sphereLocations == null) {
+      sphereLocations = new HashMap<>();
+      for (int i = 0; i < sphereRadii.length; i++) {
+        if (sphereRadii[i] > 0) {
+          sphereLocations.put(Point.of(x[i], y[i], z[i]), sphereRadii[i]);
+        }
       }
     }
+    return sphereLocations;
   }
 
   public static <N> int getDepth(Graph<N> tree, N node) {
@@ -89,26 +95,77 @@ public class BalloonLayoutAlgorithm<N> implements Spherical, LayoutAlgorithm<N>
     return depth;
   }
 
-  protected void buildTree(N root) {
+  /**
+   * Lay out the trees under the passed roots.
+   *
+   * @param roots the roots of the trees
+   * @return the location of every node reachable from the roots
+   */
+  protected Map<N, Point> buildTrees(Collection<N> roots) {
+    BreadthFirstTree<N> bfs = new BreadthFirstTree<>(tree, roots);
+    int n = bfs.size();
+
+    double[] x = new double[n];
+    double[] y = new double[n];
+    double[] z = new double[n];
+    int[] sphereRadii = new int[n];
+    if (roots.size() != 1) {
+      // multiple roots stay where they are
+      for (int i = 0; i < bfs.levelStart(1); i++) {
+        Point p = layoutModel.get(bfs.node(i));
+        x[i] = p.x;
+        y[i] = p.y;
+        z[i] = p.z;
+      }
+    }
 
-    Collection<N> kids = tree.successors(root);
-    if (kids.size() > 0) {
-      Point center = layoutModel.get(root);
-      int subDepth = depth / (1 + 2 * getDepth(tree, root));
-      arrangeInSphere(kids, center, subDepth);
-      buildTrees(kids);
+    for (int level = 0; level < bfs.levelCount(); level++) {
+      // every node on this level is at distance 'level' from its root
+      int subDepth = depth / (1 + 2 * level);
+      IntStream.range(bfs.levelStart(level), bfs.levelStart(level + 1))
+          .parallel()
+          .filter(i -> bfs.childCount(i) > 0)
+          .forEach(
+              i -> {
+                Spherical.distribute(
+                    bfs.childCount(i), x[i], y[i], z[i], subDepth, x, y, z, bfs.childStart(i));
+                sphereRadii[i] = subDepth;
+              });
     }
-  }
 
-  protected void buildTrees(Collection<N> roots) {
-    for (N node : roots) {
-      buildTree(node);
+    synchronized (this) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.sphereRadii = sphereRadii;
+      this.sphereLocations = null;
     }
+    return new IndexedLocations<>(bfs.nodes(), x, y, z, n);
   }
 
-  protected void arrangeInSphere(Collection<N> nodes, Point center, double radius) {
+  /**
+   * Lay out the tree under the passed root.
+   *
+   * @deprecated the tree is laid out by {@link #buildTrees(Collection)}, which this delegates to
+   */
+  @Deprecated
+  protected void breadth(N root) {
+    layoutModel.setLocations(buildTrees(Collections.singleton(root)));
+  }
 
+  /**
+   * Place the passed nodes evenly on the sphere of the passed center and radius, and record the
+   * sphere.
+   *
+   * @deprecated spheres are placed by {@link #buildTrees(Collection)}, with {@link
+   *     Spherical#distribute(int, double, double, double, double, double[], double[], double[],
+   *     int)}
+   */
+  @Deprecated
+  protected void arrangeInSphere(Collection<N> nodes, Point center, double radius) {
     Spherical.distribute(layoutModel, nodes, center, radius);
-    sphereLocations.put(center, (int) radius);
+    synchronized (this) {
+      getSphereLocations().put(center, (int) radius);
+    }
   }
 }
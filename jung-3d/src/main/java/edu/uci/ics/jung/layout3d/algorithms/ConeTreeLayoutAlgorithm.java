@@ -0,0 +1,231 @@
+package edu.uci.ics.jung.layout3d.algorithms;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.graph.util.TreeUtils;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.spatial.Cone;
+import edu.uci.ics.jung.layout3d.util.BreadthFirstTree;
+import edu.uci.ics.jung.layout3d.util.Conical;
+import edu.uci.ics.jung.layout3d.util.IndexedLocations;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cone tree layout (Robertson, Mackinlay and Card). Each node is the apex of a cone that opens
+ * downward, and its children are placed around the base circle of the cone, one level spacing
+ * below. The radius of each cone comes from a bottom-up pass: every subtree has a circular
+ * footprint, and the children's footprints are spread around the base circle, each taking an arc in
+ * proportion to its size, with the circle made just large enough that neighboring footprints do not
+ * overlap. Unlike {@link BalloonLayoutAlgorithm}, radii grow with subtree size instead of shrinking
+ * with depth, so deep levels do not collapse.
+ *
+ * <p>Both passes are made over a {@link BreadthFirstTree} without recursion, a level at a time with
+ * the nodes of a level handled in parallel, so the layout takes linear time.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class ConeTreeLayoutAlgorithm<N> implements LayoutAlgorithm<N>, Conical {
+
+  private static final Logger log = LoggerFactory.getLogger(ConeTreeLayoutAlgorithm.class);
+
+  /** The default level spacing (the height of each cone). Initialized to 100. */
+  protected static final int DEFAULT_LEVEL_SPACING = 100;
+
+  /** The default node spacing (the space between leaves). Initialized to 20. */
+  protected static final int DEFAULT_NODE_SPACING = 20;
+
+  public static class Builder<N, T extends ConeTreeLayoutAlgorithm<N>, B extends Builder<N, T, B>> {
+    protected int levelSpacing = DEFAULT_LEVEL_SPACING;
+    protected int nodeSpacing = DEFAULT_NODE_SPACING;
+
+    public B withLevelSpacing(int levelSpacing) {
+      Preconditions.checkArgument(levelSpacing > 0, "levelSpacing must be positive");
+      this.levelSpacing = levelSpacing;
+      return (B) this;
+    }
+
+    public B withNodeSpacing(int nodeSpacing) {
+      Preconditions.checkArgument(nodeSpacing > 0, "nodeSpacing must be positive");
+      this.nodeSpacing = nodeSpacing;
+      return (B) this;
+    }
+
+    public T build() {
+      return (T) new ConeTreeLayoutAlgorithm(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  protected int levelSpacing;
+  protected int nodeSpacing;
+
+  // the cone of node i has its apex at (x[i], y[i], z[i]) and radius coneRadii[i], or there is
+  // none if coneRadii[i] is 0. The cones are made from these on demand
+  private double[] x = new double[0];
+  private double[] y = new double[0];
+  private double[] z = new double[0];
+  private double[] coneRadii = new double[0];
+  private List<Cone> cones;
+
+  protected ConeTreeLayoutAlgorithm(Builder builder) {
+    this.levelSpacing = builder.levelSpacing;
+    this.nodeSpacing = builder.nodeSpacing;
+  }
+
+  @Override
+  public void visit(LayoutModel<N> layoutModel) {
+    if (log.isTraceEnabled()) {
+      log.trace("visit {}", layoutModel);
+    }
+    Graph<N> tree = layoutModel.getGraph();
+    Set<N> roots = TreeUtils.roots(tree);
+    layoutModel.setLocations(buildTrees(tree, roots));
+  }
+
+  public synchronized Collection<Cone> getCones() {
+    if (cones == null) {
+      cones = new ArrayList<>();
+      for (int i = 0; i < coneRadii.length; i++) {
+        if (coneRadii[i] > 0) {
+          cones.add(new Cone(Point.of(x[i], y[i], z[i]), coneRadii[i], levelSpacing));
+        }
+      }
+    }
+    return cones;
+  }
+
+  /**
+   * Lay out the trees under the passed roots.
+   *
+   * @param tree the graph
+   * @param roots the roots of the trees
+   * @return the location of every node reachable from the roots
+   */
+  protected IndexedLocations<N> buildTrees(Graph<N> tree, Collection<N> roots) {
+    BreadthFirstTree<N> bfs = new BreadthFirstTree<>(tree, roots);
+    int n = bfs.size();
+    int levelCount = bfs.levelCount();
+
+    // bottom up: the footprint radius of every subtree, and the radius of every cone
+    double[] footprint = new double[n];
+    double[] coneRadii = new double[n];
+    for (int level = levelCount - 1; level >= 0; level--) {
+      IntStream.range(bfs.levelStart(level), bfs.levelStart(level + 1))
+          .parallel()
+          .forEach(
+              i -> {
+                int start = bfs.childStart(i);
+                int count = bfs.childCount(i);
+                coneRadii[i] = circleRadius(footprint, start, count);
+                footprint[i] =
+                    Math.max(nodeSpacing / 2.0, coneRadii[i] + maxOf(footprint, start, count));
+              });
+    }
+
+    // top down: the roots share the top level, arranged the same way children are
+    double[] x = new double[n];
+    double[] y = new double[n];
+    double[] z = new double[n];
+    double top = (levelCount - 1) * levelSpacing / 2.0;
+    if (n > 0) {
+      int rootCount = bfs.levelStart(1);
+      arrange(footprint, 0, rootCount, circleRadius(footprint, 0, rootCount), 0, top, 0, x, y, z);
+    }
+    for (int level = 0; level < levelCount - 1; level++) {
+      IntStream.range(bfs.levelStart(level), bfs.levelStart(level + 1))
+          .parallel()
+          .forEach(
+              i ->
+                  arrange(
+                      footprint,
+                      bfs.childStart(i),
+                      bfs.childCount(i),
+                      coneRadii[i],
+                      x[i],
+                      y[i] - levelSpacing,
+                      z[i],
+                      x,
+                      y,
+                      z));
+    }
+
+    synchronized (this) {
+      this.x = x;
+      this.y = y;
+      this.z = z;
+      this.coneRadii = coneRadii;
+      this.cones = null;
+    }
+    return new IndexedLocations<>(bfs.nodes(), x, y, z, n);
+  }
+
+  /**
+   * The radius of the circle that the footprints {@code start} through {@code start + count - 1}
+   * are placed around. Each footprint gets an arc in proportion to its radius, and the circle is
+   * the smallest for which the chord between every pair of neighbors is at least the sum of their
+   * radii.
+   */
+  private static double circleRadius(double[] footprint, int start, int count) {
+    if (count < 2) {
+      return 0;
+    }
+    double total = 0;
+    for (int c = start; c < start + count; c++) {
+      total += footprint[c];
+    }
+    double radius = 0;
+    for (int c = start; c < start + count; c++) {
+      int next = c + 1 < start + count ? c + 1 : start;
+      // half of the angle between the two centers
+      double halfAngle = Math.PI * (footprint[c] + footprint[next]) / (2 * total);
+      radius = Math.max(radius, (footprint[c] + footprint[next]) / (2 * Math.sin(halfAngle)));
+    }
+    return radius;
+  }
+
+  /** place the footprints around the circle of the passed center and radius, in the x/z plane */
+  private static void arrange(
+      double[] footprint,
+      int start,
+      int count,
+      double radius,
+      double centerX,
+      double centerY,
+      double centerZ,
+      double[] x,
+      double[] y,
+      double[] z) {
+    double total = 0;
+    for (int c = start; c < start + count; c++) {
+      total += footprint[c];
+    }
+    double angle = 0;
+    for (int c = start; c < start + count; c++) {
+      if (c > start) {
+        angle += Math.PI * (footprint[c - 1] + footprint[c]) / total;
+      }
+      x[c] = centerX + radius * Math.cos(angle);
+      y[c] = centerY;
+      z[c] = centerZ + radius * Math.sin(angle);
+    }
+  }
+
+  private static double maxOf(double[] values, int start, int count) {
+    double max = 0;
+    for (int c = start; c < start + count; c++) {
+      max = Math.max(max, values[c]);
+    }
+    return max;
+  }
+}
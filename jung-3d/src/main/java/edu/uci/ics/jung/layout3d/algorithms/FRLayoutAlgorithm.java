@@ -8,9 +8,13 @@ import com.google.common.graph.EndpointPair;
 import com.google.common.graph.Graph;
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
 import edu.uci.ics.jung.layout3d.algorithms.repulsion.StandardFRRepulsion;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import java.util.ConcurrentModificationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -111,7 +115,12 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     this.zMin = -this.zMax;
     this.border = Math.max(width, Math.max(height, depth)) / 50;
 
-    initialize();
+    if (isWarmStart() && initialized) {
+      // carry on cooling, with forces for the changed number of nodes
+      setConstants();
+    } else {
+      initialize();
+    }
     repulsionContract =
         repulsionContractBuilder
             .withLayoutModel(layoutModel)
@@ -119,6 +128,34 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
             .withRepulsionConstant(repulsionConstant)
             .withRandom(random)
             .build();
+    applyCheckpoint();
+  }
+
+  // the cooling schedule, restored from a checkpoint
+  private double checkpointTemperature;
+  private int checkpointIteration;
+
+  @Override
+  public boolean supportsCheckpoint() {
+    return true;
+  }
+
+  @Override
+  protected void writeState(DataOutput out, List<N> nodes) throws IOException {
+    out.writeDouble(temperature);
+    out.writeInt(currentIteration);
+  }
+
+  @Override
+  protected void readState(DataInput in, int count) throws IOException {
+    checkpointTemperature = in.readDouble();
+    checkpointIteration = in.readInt();
+  }
+
+  @Override
+  protected void restoreState(List<N> nodes) {
+    temperature = checkpointTemperature;
+    currentIteration = checkpointIteration;
   }
 
   public void setAttractionMultiplier(double attraction) {
@@ -142,16 +179,32 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     if (graph != null && graph.nodes().size() > 0) {
       currentIteration = 0;
       temperature = layoutModel.getWidth() / 10;
+      setConstants();
+      initialized = true;
+    }
+  }
 
+  private void setConstants() {
+    Graph<N> graph = layoutModel.getGraph();
+    if (graph != null && graph.nodes().size() > 0) {
       forceConstant =
           Math.sqrt(layoutModel.getHeight() * layoutModel.getWidth() / graph.nodes().size());
 
       attractionConstant = attractionMultiplier * forceConstant;
       repulsionConstant = repulsionMultiplier * forceConstant;
-      initialized = true;
     }
   }
 
+  /** @return the temperature, which limits how far a node moves in a step */
+  public double getTemperature() {
+    return temperature;
+  }
+
+  /** @return the number of steps since the cooling schedule started */
+  public int getCurrentIteration() {
+    return currentIteration;
+  }
+
   protected double EPSILON = 0.000001D;
 
   /**
@@ -159,47 +212,39 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
    * edges and cooling the temperature.
    */
   public synchronized void step() {
-    repulsionContract.step();
-    if (!initialized) {
-      doInit();
-    }
-    Graph<N> graph = layoutModel.getGraph();
-    currentIteration++;
-
-    /** Calculate repulsion */
-    while (true) {
-
-      try {
-        repulsionContract.calculateRepulsion();
-        break;
-      } catch (ConcurrentModificationException cme) {
+    stepRecorder.beginStep();
+    try {
+      stepRepulsion(repulsionContract);
+      if (!initialized) {
+        doInit();
+      }
+      Graph<N> graph = layoutModel.getGraph();
+      currentIteration++;
+
+      /** Calculate repulsion */
+      repulsionContract.calculateRepulsion();
+      recordTree(repulsionContract);
+      if (isCancelled()) {
+        return;
       }
-    }
 
-    /** Calculate attraction */
-    while (true) {
-      try {
-        for (EndpointPair<N> endpoints : graph.edges()) {
-          calcAttraction(endpoints);
-        }
-        break;
-      } catch (ConcurrentModificationException cme) {
+      /** Calculate attraction */
+      stepRecorder.beginPhase(Phase.ATTRACTION);
+      for (EndpointPair<N> endpoints : graph.edges()) {
+        calcAttraction(endpoints);
       }
-    }
 
-    while (true) {
-      try {
-        for (N node : graph.nodes()) {
-          if (layoutModel.isLocked(node)) {
-            continue;
-          }
-          calcPositions(node);
+      stepRecorder.beginPhase(Phase.MOVE);
+      for (N node : graph.nodes()) {
+        if (layoutModel.isLocked(node)) {
+          continue;
         }
-        break;
-      } catch (ConcurrentModificationException cme) {
+        calcPositions(node);
       }
+      cool();
+    } finally {
+      stepRecorder.endStep();
     }
-    cool();
   }
 
   protected synchronized void calcPositions(N node) {
@@ -210,10 +255,11 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     }
     Point xyd = layoutModel.apply(node);
     double deltaLength = Math.max(EPSILON, fvd.length());
+    double limit = Math.min(deltaLength, temperature * mobility(node));
 
-    double newXDisp = fvd.x / deltaLength * Math.min(deltaLength, temperature);
-    double newYDisp = fvd.y / deltaLength * Math.min(deltaLength, temperature);
-    double newZDisp = fvd.z / deltaLength * Math.min(deltaLength, temperature);
+    double newXDisp = fvd.x / deltaLength * limit;
+    double newYDisp = fvd.y / deltaLength * limit;
+    double newZDisp = fvd.z / deltaLength * limit;
 
     xyd = xyd.add(newXDisp, newYDisp, newZDisp);
 
@@ -227,6 +273,9 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     newZPos = Math.min(Math.max(newZPos, this.zMin), this.zMax);
 
     xyd = Point.of(newXPos, newYPos, newZPos);
+    if (stepRecorder.isEnabled()) {
+      stepRecorder.displacement(layoutModel.apply(node).distance(xyd));
+    }
     layoutModel.set(node, xyd);
     //    layoutModel.set(node, newXPos, newYPos, newZPos);
   }
@@ -325,7 +374,7 @@ public class FRLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
   /** @return true once the current iteration has passed the maximum count. */
   public boolean done() {
-    if (currentIteration > mMaxIterations) { //|| temperature < 1.0 / max_dimension) {
+    if (currentIteration > mMaxIterations) { // || temperature < 1.0 / max_dimension) {
       return true;
     }
     return false;
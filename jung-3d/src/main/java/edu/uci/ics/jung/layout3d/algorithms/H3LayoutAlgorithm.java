@@ -0,0 +1,423 @@
+package edu.uci.ics.jung.layout3d.algorithms;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.graph.util.TreeUtils;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.util.BreadthFirstTree;
+import edu.uci.ics.jung.layout3d.util.IndexedLocations;
+import edu.uci.ics.jung.layout3d.util.NodeVisibility;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An H3 layout (Munzner) of a tree in 3D hyperbolic space, drawn in the Klein ball model so that
+ * the node in focus and its neighborhood are large and the rest of the tree shrinks exponentially
+ * toward the boundary of the ball.
+ *
+ * <p>Each node's children are placed on a hemisphere around it, facing away from its parent, in
+ * bands of decreasing size starting at the pole. The hemisphere radius comes from a bottom-up pass
+ * so that the children's caps fit. Points are held in the hyperboloid model as 4-vectors, and the
+ * frame of each node is a Lorentz transformation.
+ *
+ * <p>Changing the focus with {@link #setFocus(Object)} does not lay the tree out again: the points
+ * are moved by a single hyperbolic translation (the 3D analogue of a Mobius transform of the
+ * Poincare disk) and projected again. Nodes whose projected size is below the visibility threshold
+ * are reported as not visible through {@link NodeVisibility}, so a viewer only draws a bounded
+ * number of them however large the tree is.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class H3LayoutAlgorithm<N> implements LayoutAlgorithm<N>, NodeVisibility<N> {
+
+  private static final Logger log = LoggerFactory.getLogger(H3LayoutAlgorithm.class);
+
+  /** the fraction of a hemisphere that the caps of the children are allowed to cover */
+  private static final double PACKING = 0.6;
+
+  public static class Builder<N, T extends H3LayoutAlgorithm<N>, B extends Builder<N, T, B>> {
+    protected double leafRadius = 0.1;
+    protected double visibilityThreshold = 2;
+
+    /**
+     * @param leafRadius the hyperbolic radius of a leaf node's footprint
+     * @return this builder
+     */
+    public B withLeafRadius(double leafRadius) {
+      Preconditions.checkArgument(leafRadius > 0, "leafRadius must be positive");
+      this.leafRadius = leafRadius;
+      return (B) this;
+    }
+
+    /**
+     * @param visibilityThreshold the projected footprint size, in layout units, below which a node
+     *     is not visible
+     * @return this builder
+     */
+    public B withVisibilityThreshold(double visibilityThreshold) {
+      Preconditions.checkArgument(visibilityThreshold >= 0, "visibilityThreshold is negative");
+      this.visibilityThreshold = visibilityThreshold;
+      return (B) this;
+    }
+
+    public T build() {
+      return (T) new H3LayoutAlgorithm(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  protected double leafRadius;
+  protected double visibilityThreshold;
+
+  private LayoutModel<N> layoutModel;
+  private BreadthFirstTree<N> bfs;
+  private Map<N, Integer> index = new HashMap<>();
+  // the hyperboloid coordinates (x, y, z, w) of node i at points[4 * i]..points[4 * i + 3]
+  private double[] points = new double[0];
+  private double[] footprint = new double[0];
+  private boolean[] visible = new boolean[0];
+  // the hyperbolic translation from the layout to the current focus
+  private double[] focus = identity();
+
+  protected H3LayoutAlgorithm(Builder builder) {
+    this.leafRadius = builder.leafRadius;
+    this.visibilityThreshold = builder.visibilityThreshold;
+  }
+
+  @Override
+  public void visit(LayoutModel<N> layoutModel) {
+    if (log.isTraceEnabled()) {
+      log.trace("visit {}", layoutModel);
+    }
+    this.layoutModel = layoutModel;
+    Graph<N> tree = layoutModel.getGraph();
+    Set<N> roots = TreeUtils.roots(tree);
+    layout(tree, roots);
+    project();
+  }
+
+  @Override
+  public synchronized boolean isVisible(N node) {
+    Integer i = index.get(node);
+    return i != null && visible[i];
+  }
+
+  /**
+   * Moves the passed node to the center of the ball, without laying out the tree again.
+   *
+   * @param node the new focus
+   */
+  public void setFocus(N node) {
+    setFocus(node, 1);
+  }
+
+  /**
+   * Moves the passed node the passed fraction of its hyperbolic distance toward the center of the
+   * ball, without laying out the tree again. Successive calls with small fractions animate the
+   * change of focus.
+   *
+   * @param node the new focus
+   * @param fraction how far to move, from 0 (not at all) to 1 (all the way to the center)
+   */
+  public void setFocus(N node, double fraction) {
+    synchronized (this) {
+      Integer i = index.get(node);
+      Preconditions.checkArgument(i != null, "%s was not laid out", node);
+      double[] p = multiply(focus, points, 4 * i);
+      double r = Math.sqrt(p[0] * p[0] + p[1] * p[1] + p[2] * p[2]);
+      if (r == 0) {
+        return;
+      }
+      // translate by the distance to the node, back along the direction to it
+      double distance = fraction * acosh(p[3]);
+      focus =
+          multiply(translation(-p[0] / r, -p[1] / r, -p[2] / r, distance), focus, new double[16]);
+    }
+    project();
+  }
+
+  /** Puts the layout back to its original focus. */
+  public void resetFocus() {
+    synchronized (this) {
+      focus = identity();
+    }
+    project();
+  }
+
+  /** the bottom-up hemisphere radii, then the top-down frames and points */
+  private synchronized void layout(Graph<N> tree, Set<N> roots) {
+    bfs = new BreadthFirstTree<>(tree, roots);
+    int n = bfs.size();
+    int levelCount = bfs.levelCount();
+    index = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      index.put(bfs.node(i), i);
+    }
+
+    double[] footprint = new double[n];
+    double[] hemisphere = new double[n];
+    for (int level = levelCount - 1; level >= 0; level--) {
+      IntStream.range(bfs.levelStart(level), bfs.levelStart(level + 1))
+          .parallel()
+          .forEach(
+              i -> {
+                hemisphere[i] = hemisphereRadius(footprint, bfs.childStart(i), bfs.childCount(i));
+                footprint[i] = Math.max(leafRadius, hemisphere[i]);
+              });
+    }
+
+    // the frame (a Lorentz transformation) of every node, 16 values each
+    double[] frames = new double[16 * n];
+    if (n > 0) {
+      int rootCount = bfs.levelStart(1);
+      if (rootCount == 1) {
+        System.arraycopy(identity(), 0, frames, 0, 16);
+      } else {
+        // the roots share the hemisphere of a virtual node at the origin
+        placeChildren(
+            identity(),
+            0,
+            footprint,
+            0,
+            rootCount,
+            hemisphereRadius(footprint, 0, rootCount),
+            frames);
+      }
+    }
+    for (int level = 0; level < levelCount - 1; level++) {
+      IntStream.range(bfs.levelStart(level), bfs.levelStart(level + 1))
+          .parallel()
+          .forEach(
+              i ->
+                  placeChildren(
+                      frames,
+                      16 * i,
+                      footprint,
+                      bfs.childStart(i),
+                      bfs.childCount(i),
+                      hemisphere[i],
+                      frames));
+    }
+    double[] points = new double[4 * n];
+    for (int i = 0; i < n; i++) {
+      // the image of the origin (0, 0, 0, 1) is the last column of the frame
+      points[4 * i] = frames[16 * i + 3];
+      points[4 * i + 1] = frames[16 * i + 7];
+      points[4 * i + 2] = frames[16 * i + 11];
+      points[4 * i + 3] = frames[16 * i + 15];
+    }
+    this.points = points;
+    this.footprint = footprint;
+    this.visible = new boolean[n];
+    this.focus = identity();
+  }
+
+  /**
+   * Project the focused points into the Klein ball, scaled to the layout size, decide which nodes
+   * are visible, and write all of the locations at once.
+   */
+  private void project() {
+    LayoutModel<N> layoutModel = this.layoutModel;
+    if (layoutModel == null) {
+      return;
+    }
+    double[] x;
+    double[] y;
+    double[] z;
+    int n;
+    synchronized (this) {
+      n = bfs.size();
+      double scale =
+          Math.min(
+                  layoutModel.getWidth(), Math.min(layoutModel.getHeight(), layoutModel.getDepth()))
+              / 2.0;
+      x = new double[n];
+      y = new double[n];
+      z = new double[n];
+      double[] focus = this.focus;
+      IntStream.range(0, n)
+          .parallel()
+          .forEach(
+              i -> {
+                double[] p = multiply(focus, points, 4 * i);
+                double kx = p[0] / p[3];
+                double ky = p[1] / p[3];
+                double kz = p[2] / p[3];
+                x[i] = scale * kx;
+                y[i] = scale * ky;
+                z[i] = scale * kz;
+                // a small footprint at Klein radius k is shrunk by sqrt(1 - k * k) across the
+                // line of sight
+                double shrink = Math.sqrt(Math.max(0, 1 - (kx * kx + ky * ky + kz * kz)));
+                visible[i] = scale * footprint[i] * shrink >= visibilityThreshold;
+              });
+    }
+    layoutModel.setLocations(new IndexedLocations<>(bfs.nodes(), x, y, z, n));
+  }
+
+  /**
+   * The radius of the hemisphere that the footprints {@code start} through {@code start + count -
+   * 1} are placed on. At distance R, a footprint of radius r is a cap of angular radius asin(sinh r
+   * / sinh R), and R is chosen so that the caps cover about {@link #PACKING} of the hemisphere.
+   */
+  private static double hemisphereRadius(double[] footprint, int start, int count) {
+    if (count == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (int c = start; c < start + count; c++) {
+      double s = Math.sinh(footprint[c]);
+      sum += s * s;
+    }
+    return asinh(Math.sqrt(sum / (2 * PACKING)));
+  }
+
+  /**
+   * Place the children {@code start} through {@code start + count - 1} on the hemisphere of the
+   * passed radius around the parent whose frame is at {@code parentFrames[parentOffset]}, the
+   * largest at the pole and the rest in bands around it.
+   */
+  private static void placeChildren(
+      double[] parentFrames,
+      int parentOffset,
+      double[] footprint,
+      int start,
+      int count,
+      double radius,
+      double[] frames) {
+    if (count == 0) {
+      return;
+    }
+    Integer[] order = new Integer[count];
+    for (int c = 0; c < count; c++) {
+      order[c] = start + c;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(footprint[b], footprint[a]));
+    double sinhRadius = Math.sinh(radius);
+    double[] parent = Arrays.copyOfRange(parentFrames, parentOffset, parentOffset + 16);
+    double[] step = translation(0, 0, 1, radius);
+
+    // the first (largest) child is at the pole
+    int next = 0;
+    double bandEdge = 0;
+    while (next < count) {
+      double alpha = capAngle(footprint[order[next]], sinhRadius);
+      // if the caps overflow the hemisphere they keep going around the sphere, overlapping last
+      double phi = next == 0 ? 0 : Math.min(Math.PI, bandEdge + alpha);
+      // fill the band at polar angle phi until its circumference is used
+      double circumference = 2 * Math.PI * Math.max(0, Math.sin(phi));
+      int bandStart = next;
+      double used = 0;
+      double widest = alpha;
+      do {
+        double a = capAngle(footprint[order[next]], sinhRadius);
+        used += 2 * a;
+        widest = Math.max(widest, a);
+        next++;
+      } while (next < count
+          && phi > 0
+          && used + 2 * capAngle(footprint[order[next]], sinhRadius) <= circumference);
+      int bandCount = next - bandStart;
+      double theta = 0;
+      for (int j = bandStart; j < next; j++) {
+        double a = capAngle(footprint[order[j]], sinhRadius);
+        // spread the band's leftover space evenly between its caps
+        double spacing = Math.max(0, circumference - used) / bandCount;
+        double width = circumference > 0 ? (2 * a + spacing) / Math.sin(phi) : 0;
+        theta += width / 2;
+        double[] frame =
+            multiply(multiply(parent, rotation(phi, theta), new double[16]), step, new double[16]);
+        System.arraycopy(frame, 0, frames, 16 * order[j], 16);
+        theta += width / 2;
+      }
+      bandEdge = phi + widest;
+    }
+  }
+
+  /** the angular radius of the cap of a footprint at distance asinh(sinhRadius) */
+  private static double capAngle(double footprint, double sinhRadius) {
+    return sinhRadius > 0 ? Math.asin(Math.min(1, Math.sinh(footprint) / sinhRadius)) : 0;
+  }
+
+  private static double[] identity() {
+    double[] m = new double[16];
+    m[0] = m[5] = m[10] = m[15] = 1;
+    return m;
+  }
+
+  /** the rotation that takes +z to the direction at polar angle phi and azimuth theta */
+  private static double[] rotation(double phi, double theta) {
+    double cp = Math.cos(phi);
+    double sp = Math.sin(phi);
+    double ct = Math.cos(theta);
+    double st = Math.sin(theta);
+    // Rz(theta) * Ry(phi), row major
+    return new double[] {
+      ct * cp, -st, ct * sp, 0, st * cp, ct, st * sp, 0, -sp, 0, cp, 0, 0, 0, 0, 1
+    };
+  }
+
+  /**
+   * the hyperbolic translation (a Lorentz boost) by the passed distance along the passed unit
+   * direction
+   */
+  private static double[] translation(double ux, double uy, double uz, double distance) {
+    double c = Math.cosh(distance);
+    double s = Math.sinh(distance);
+    double[] u = {ux, uy, uz};
+    double[] m = new double[16];
+    for (int r = 0; r < 3; r++) {
+      for (int k = 0; k < 3; k++) {
+        m[4 * r + k] = (r == k ? 1 : 0) + (c - 1) * u[r] * u[k];
+      }
+      m[4 * r + 3] = s * u[r];
+      m[12 + r] = s * u[r];
+    }
+    m[15] = c;
+    return m;
+  }
+
+  /** @return a * b, written to result */
+  private static double[] multiply(double[] a, double[] b, double[] result) {
+    for (int r = 0; r < 4; r++) {
+      for (int k = 0; k < 4; k++) {
+        double sum = 0;
+        for (int j = 0; j < 4; j++) {
+          sum += a[4 * r + j] * b[4 * j + k];
+        }
+        result[4 * r + k] = sum;
+      }
+    }
+    return result;
+  }
+
+  /** @return m * (v[offset], v[offset + 1], v[offset + 2], v[offset + 3]) */
+  private static double[] multiply(double[] m, double[] v, int offset) {
+    double[] result = new double[4];
+    for (int r = 0; r < 4; r++) {
+      result[r] =
+          m[4 * r] * v[offset]
+              + m[4 * r + 1] * v[offset + 1]
+              + m[4 * r + 2] * v[offset + 2]
+              + m[4 * r + 3] * v[offset + 3];
+    }
+    return result;
+  }
+
+  private static double asinh(double x) {
+    return Math.log(x + Math.sqrt(x * x + 1));
+  }
+
+  private static double acosh(double x) {
+    return Math.log(x + Math.sqrt(Math.max(0, x * x - 1)));
+  }
+}
@@ -9,20 +9,29 @@
  */
 package edu.uci.ics.jung.layout3d.algorithms;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.base.Preconditions;
 import com.google.common.graph.Graph;
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import edu.uci.ics.jung.layout3d.util.NetworkNodeAccessor;
-import edu.uci.ics.jung.layout3d.util.RadiusNetworkNodeAccessor;
+import edu.uci.ics.jung.layout3d.spatial.SpatialGrid;
+import edu.uci.ics.jung.layout3d.util.CompressedGraph;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
 import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.ConcurrentModificationException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +49,19 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
   public static class Builder<N, T extends ISOMLayoutAlgorithm<N>, B extends Builder<N, T, B>>
       extends AbstractIterativeLayoutAlgorithm.Builder<N, T, B> {
+    protected int batchSize = 1;
+
+    /**
+     * @param batchSize the number of random stimuli (epochs) processed by each step. When greater
+     *     than 1, the winners and neighborhoods of a batch are found in parallel, and the stimuli
+     *     whose neighborhoods do not overlap are applied in parallel
+     * @return this builder
+     */
+    public B withBatchSize(int batchSize) {
+      Preconditions.checkArgument(batchSize > 0, "batchSize must be positive");
+      this.batchSize = batchSize;
+      return (B) this;
+    }
 
     public T build() {
       return (T) new ISOMLayoutAlgorithm<>(this);
@@ -52,16 +74,10 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
   protected ISOMLayoutAlgorithm(Builder builder) {
     super(builder);
+    this.batchSize = builder.batchSize;
   }
 
-  protected LoadingCache<N, ISOMNodeData> isomNodeData =
-      CacheBuilder.newBuilder()
-          .build(
-              new CacheLoader<N, ISOMNodeData>() {
-                public ISOMNodeData load(N node) {
-                  return new ISOMNodeData();
-                }
-              });
+  protected int batchSize;
 
   private int maxEpoch;
   private int epoch;
@@ -85,12 +101,32 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
   private float zMin;
   private float diameter;
 
-  protected NetworkNodeAccessor<N>
-      elementAccessor; // = new RadiusGraphElementAccessor<N, P>(domainModel);
-
   private double coolingFactor;
 
-  private List<N> queue = new ArrayList<>();
+  /** adjacency snapshot, rebuilt when the graph changes */
+  protected CompressedGraph<N> compressedGraph;
+  /**
+   * spatial index over the node positions, used to find the winner. It is brought up to date before
+   * each step when the locations have been changed by anything but this algorithm, such as a node
+   * being dragged
+   */
+  protected SpatialGrid grid;
+  // the location mod count of the model that the grid is up to date with
+  private long gridModCount;
+
+  // breadth first search state, indexed by node index. A node has been visited in the current
+  // search when visitStamp[i] == stamp, so nothing needs to be reset between epochs
+  private int[] queue;
+  private int[] distance;
+  private int[] visitStamp;
+  private int stamp;
+
+  // batch mode state. Each task of a batch borrows search arrays from the pool, and a node is
+  // claimed by a stimulus of the current batch when claimStamp[i] == batchStamp
+  private final Queue<Search> searches = new ConcurrentLinkedQueue<>();
+  private int[] claimStamp;
+  private int batchStamp;
+
   private String status = null;
 
   /** Returns the current number of epochs and execution status, as a string. */
@@ -101,7 +137,6 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
   @Override
   public void visit(LayoutModel<N> layoutModel) {
     log.trace("visiting " + layoutModel);
-    layoutModel.setInitializer(new RandomLocationTransformer<N>(600, 600, 600));
 
     this.width = layoutModel.getWidth();
     this.height = layoutModel.getHeight();
@@ -115,15 +150,57 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     this.zMin = -this.zMax;
 
     super.visit(layoutModel);
-    elementAccessor = new RadiusNetworkNodeAccessor<N>(layoutModel.getGraph(), layoutModel);
-    initialize();
+    if (initialLayout == null && !isWarmStart()) {
+      layoutModel.setInitializer(new RandomLocationTransformer<N>(600, 600, 600));
+    }
+    if (isWarmStart() && epoch > 0) {
+      // carry on annealing, over the changed graph
+      compressedGraph = null;
+    } else {
+      initialize();
+    }
+    applyCheckpoint();
+  }
+
+  // the annealing schedule, restored from a checkpoint
+  private int checkpointEpoch;
+  private int checkpointRadius;
+  private double checkpointAdaption;
+
+  @Override
+  public boolean supportsCheckpoint() {
+    return true;
+  }
+
+  @Override
+  protected void writeState(DataOutput out, List<N> nodes) throws IOException {
+    out.writeInt(epoch);
+    out.writeInt(radius);
+    out.writeDouble(adaption);
+  }
+
+  @Override
+  protected void readState(DataInput in, int count) throws IOException {
+    checkpointEpoch = in.readInt();
+    checkpointRadius = in.readInt();
+    checkpointAdaption = in.readDouble();
+  }
+
+  @Override
+  protected synchronized void restoreState(List<N> nodes) {
+    epoch = checkpointEpoch;
+    radius = checkpointRadius;
+    adaption = checkpointAdaption;
   }
 
   public void initialize() {
 
-    layoutModel.setInitializer(new RandomLocationTransformer<N>(300, 300, 300));
+    if (initialLayout == null && !isWarmStart()) {
+      layoutModel.setInitializer(new RandomLocationTransformer<N>(300, 300, 300));
+    }
     maxEpoch = 2000;
     epoch = 1;
+    compressedGraph = null;
 
     radiusConstantTime = 100;
     radius = 5;
@@ -148,8 +225,18 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
     status = "epoch: " + epoch + "; ";
     if (epoch < maxEpoch) {
-      adjust();
-      updateParameters();
+      stepRecorder.beginStep();
+      try {
+        stepRecorder.beginPhase(Phase.MOVE);
+        if (batchSize > 1) {
+          adjustBatch(Math.min(batchSize, maxEpoch - epoch));
+        } else {
+          adjust();
+          updateParameters();
+        }
+      } finally {
+        stepRecorder.endStep();
+      }
       status += " status: running";
 
     } else {
@@ -168,25 +255,197 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
     tempXYD =
         Point.of(
-            (10 + Math.random() * diameter) - radius,
-            (10 + Math.random() * diameter) - radius,
-            (10 + Math.random() * diameter) - radius);
+            (10 + random.nextDouble() * diameter) - radius,
+            (10 + random.nextDouble() * diameter) - radius,
+            (10 + random.nextDouble() * diameter) - radius);
+
+    ensureIndexed();
 
     //Get closest vertex to random position
-    N winner = elementAccessor.getNode(tempXYD.x, tempXYD.y, tempXYD.z);
+    int winner = grid.nearest(tempXYD.x, tempXYD.y, tempXYD.z);
+    if (winner >= 0) {
+      adjustNode(winner, tempXYD);
+    }
+  }
 
-    while (true) {
-      try {
-        for (N v : layoutModel.getGraph().nodes()) {
-          ISOMNodeData ivd = getISOMNodeData(v);
-          ivd.distance = 0;
-          ivd.visited = false;
+  /**
+   * (re)build the adjacency snapshot, the spatial index and the search arrays if this is the first
+   * step or if the graph has changed since they were built
+   */
+  private void ensureIndexed() {
+    Graph<N> graph = layoutModel.getGraph();
+    long modCount = layoutModel.getGraphModCount();
+    if (compressedGraph != null && !compressedGraph.isStale(graph, modCount)) {
+      long locationModCount = layoutModel.getLocationModCount();
+      if (locationModCount < 0 || locationModCount != gridModCount) {
+        // the locations were changed from outside
+        gridModCount = locationModCount;
+        updateGrid();
+      }
+      return;
+    }
+    compressedGraph = CompressedGraph.of(graph, modCount);
+    int n = compressedGraph.size();
+    // about one node per cell when the nodes are spread over the layout domain
+    double cellSize = Math.max(1, diameter / Math.cbrt(Math.max(1, n)));
+    grid = new SpatialGrid(n, cellSize);
+    gridModCount = layoutModel.getLocationModCount();
+    updateGrid();
+    queue = new int[n];
+    distance = new int[n];
+    visitStamp = new int[n];
+    stamp = 0;
+    searches.clear();
+    claimStamp = new int[n];
+    batchStamp = 0;
+  }
+
+  /** put every node in the grid at its location in the model */
+  private void updateGrid() {
+    for (int i = 0; i < compressedGraph.size(); i++) {
+      Point p = layoutModel.apply(compressedGraph.node(i));
+      grid.put(i, p.x, p.y, p.z);
+    }
+  }
+
+  /**
+   * Process {@code count} stimuli at once. The winner and the neighborhood of each stimulus are
+   * found in parallel against the positions at the start of the batch. Then, in stimulus order,
+   * each neighborhood claims its nodes; the stimuli whose neighborhoods do not overlap an earlier
+   * one are moved in parallel, and the rest are applied sequentially afterwards. All of the moves
+   * are written to the layoutModel at once. The parallel work runs on the layout executor of the
+   * model.
+   */
+  private synchronized void adjustBatch(int count) {
+    ensureIndexed();
+    if (compressedGraph.size() == 0) {
+      for (int i = 0; i < count; i++) {
+        updateParameters();
+      }
+      return;
+    }
+    float radius = diameter / 2;
+    List<Neighborhood> batch = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      batch.add(
+          new Neighborhood(
+              Point.of(
+                  (10 + random.nextDouble() * diameter) - radius,
+                  (10 + random.nextDouble() * diameter) - radius,
+                  (10 + random.nextDouble() * diameter) - radius)));
+    }
+    int maxDistance = this.radius;
+    if (!forEachInParallel(batch, (h, search) -> h.search(search, maxDistance))) {
+      return;
+    }
+
+    // claim nodes in stimulus order, so the result does not depend on thread scheduling
+    if (++batchStamp == Integer.MAX_VALUE) {
+      Arrays.fill(claimStamp, 0);
+      batchStamp = 1;
+    }
+    List<Neighborhood> independent = new ArrayList<>();
+    List<Neighborhood> conflicted = new ArrayList<>();
+    for (Neighborhood h : batch) {
+      boolean overlaps = false;
+      for (int j = 0; j < h.size && !overlaps; j++) {
+        overlaps = claimStamp[h.nodes[j]] == batchStamp;
+      }
+      if (overlaps) {
+        conflicted.add(h);
+      } else {
+        for (int j = 0; j < h.size; j++) {
+          claimStamp[h.nodes[j]] = batchStamp;
         }
-        break;
-      } catch (ConcurrentModificationException cme) {
+        independent.add(h);
       }
     }
-    adjustNode(winner, tempXYD);
+
+    double adaption = this.adaption;
+    if (!forEachInParallel(independent, (h, search) -> h.move(adaption, null))) {
+      return;
+    }
+    Map<N, Point> moved = new HashMap<>();
+    for (Neighborhood h : independent) {
+      h.putMoves(moved);
+    }
+    for (Neighborhood h : conflicted) {
+      h.move(adaption, moved);
+      h.putMoves(moved);
+    }
+    if (stepRecorder.isEnabled()) {
+      for (Map.Entry<N, Point> entry : moved.entrySet()) {
+        stepRecorder.displacement(layoutModel.apply(entry.getKey()).distance(entry.getValue()));
+      }
+    }
+    layoutModel.setLocations(moved);
+    gridModCount++;
+    for (Map.Entry<N, Point> entry : moved.entrySet()) {
+      Point p = entry.getValue();
+      grid.put(compressedGraph.indexOf(entry.getKey()), p.x, p.y, p.z);
+    }
+    for (int i = 0; i < count; i++) {
+      updateParameters();
+    }
+  }
+
+  /**
+   * Run the action on each neighborhood, in tasks on the layout executor and on the calling thread.
+   * Each neighborhood is taken by the first thread to get to it, and the calling thread takes all
+   * of those that no task has started, so that the batch is finished even when every thread of the
+   * executor is busy, for example running this relaxer.
+   *
+   * @return false if the calling thread was interrupted before the batch was finished
+   */
+  private boolean forEachInParallel(
+      List<Neighborhood> batch, BiConsumer<Neighborhood, Search> action) {
+    AtomicInteger next = new AtomicInteger();
+    CountDownLatch finished = new CountDownLatch(batch.size());
+    Runnable worker =
+        () -> {
+          // a task that starts after the batch is finished borrows nothing
+          Search search = null;
+          try {
+            for (int i = next.getAndIncrement(); i < batch.size(); i = next.getAndIncrement()) {
+              try {
+                if (search == null) {
+                  search = borrowSearch();
+                }
+                action.accept(batch.get(i), search);
+              } finally {
+                finished.countDown();
+              }
+            }
+          } finally {
+            if (search != null) {
+              searches.add(search);
+            }
+          }
+        };
+    int helpers = Math.min(batch.size(), Runtime.getRuntime().availableProcessors()) - 1;
+    LayoutExecutor executor = layoutModel.getLayoutExecutor();
+    for (int i = 0; i < helpers; i++) {
+      executor.submit(worker);
+    }
+    worker.run();
+    try {
+      finished.await();
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /** @return search arrays from the pool, or new ones, sized for the current graph */
+  private Search borrowSearch() {
+    int n = compressedGraph.size();
+    for (Search search = searches.poll(); search != null; search = searches.poll()) {
+      if (search.queue.length == n) {
+        return search;
+      }
+    }
+    return new Search(n);
   }
 
   private synchronized void updateParameters() {
@@ -200,55 +459,50 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     }
   }
 
-  private synchronized void adjustNode(N v, Point tempXYD) {
+  private synchronized void adjustNode(int v, Point tempXYD) {
 
-    Graph<N> graph = layoutModel.getGraph();
-
-    queue.clear();
-    ISOMNodeData ivd = getISOMNodeData(v);
-    ivd.distance = 0;
-    ivd.visited = true;
-    queue.add(v);
-    N current;
+    int[] offsets = compressedGraph.offsets();
+    int[] neighbors = compressedGraph.neighbors();
+    if (++stamp == Integer.MAX_VALUE) {
+      Arrays.fill(visitStamp, 0);
+      stamp = 1;
+    }
+    int head = 0;
+    int tail = 0;
+    visitStamp[v] = stamp;
+    distance[v] = 0;
+    queue[tail++] = v;
 
-    while (!queue.isEmpty()) {
-      current = queue.remove(0);
-      ISOMNodeData currData = getISOMNodeData(current);
-      Point currXYData = layoutModel.apply(current);
+    while (head < tail) {
+      int current = queue[head++];
+      N node = compressedGraph.node(current);
+      Point currXYData = layoutModel.apply(node);
 
       double dx = tempXYD.x - currXYData.x;
       double dy = tempXYD.y - currXYData.y;
       double dz = tempXYD.z - currXYData.z;
-      double factor = adaption / Math.pow(2, currData.distance);
+      double factor = adaption / Math.pow(2, distance[current]) * mobility(node);
 
       currXYData = currXYData.add(factor * dx, factor * dy, factor * dz);
-
-      layoutModel.set(current, currXYData);
-
-      if (currData.distance < radius) {
-        Collection<N> s = graph.adjacentNodes(current);
-        while (true) {
-          try {
-            for (N child : s) {
-              ISOMNodeData childData = getISOMNodeData(child);
-              if (childData != null && !childData.visited) {
-                childData.visited = true;
-                childData.distance = currData.distance + 1;
-                queue.add(child);
-              }
-            }
-            break;
-          } catch (ConcurrentModificationException cme) {
+      stepRecorder.displacement(factor * Math.sqrt(dx * dx + dy * dy + dz * dz));
+
+      layoutModel.set(node, currXYData);
+      gridModCount++;
+      grid.put(current, currXYData.x, currXYData.y, currXYData.z);
+
+      if (distance[current] < radius) {
+        for (int j = offsets[current]; j < offsets[current + 1]; j++) {
+          int child = neighbors[j];
+          if (visitStamp[child] != stamp) {
+            visitStamp[child] = stamp;
+            distance[child] = distance[current] + 1;
+            queue[tail++] = child;
           }
         }
       }
     }
   }
 
-  protected ISOMNodeData getISOMNodeData(N node) {
-    return isomNodeData.getUnchecked(node);
-  }
-
   /**
    * This one is an incremental visualization.
    *
@@ -270,13 +524,98 @@ public class ISOMLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
     return epoch >= maxEpoch;
   }
 
-  protected static class ISOMNodeData {
-    int distance;
-    boolean visited;
+  /** breadth first search arrays for a task of batch mode */
+  private static class Search {
+    final int[] queue;
+    final int[] distance;
+    final int[] visitStamp;
+    int stamp;
+
+    Search(int n) {
+      queue = new int[n];
+      distance = new int[n];
+      visitStamp = new int[n];
+    }
+  }
+
+  /** a stimulus of a batch, its winner and the nodes within radius of the winner */
+  private class Neighborhood {
+    final Point stimulus;
+    int[] nodes;
+    int[] distances;
+    Point[] moves;
+    int size;
+
+    Neighborhood(Point stimulus) {
+      this.stimulus = stimulus;
+    }
+
+    void search(Search search, int maxDistance) {
+      int winner = grid.nearest(stimulus.x, stimulus.y, stimulus.z);
+      if (winner < 0) {
+        return;
+      }
+      int[] offsets = compressedGraph.offsets();
+      int[] neighbors = compressedGraph.neighbors();
+      int[] queue = search.queue;
+      int[] distance = search.distance;
+      int[] visitStamp = search.visitStamp;
+      if (++search.stamp == Integer.MAX_VALUE) {
+        Arrays.fill(visitStamp, 0);
+        search.stamp = 1;
+      }
+      int stamp = search.stamp;
+      int head = 0;
+      int tail = 0;
+      visitStamp[winner] = stamp;
+      distance[winner] = 0;
+      queue[tail++] = winner;
+      while (head < tail) {
+        int current = queue[head++];
+        if (distance[current] < maxDistance) {
+          for (int j = offsets[current]; j < offsets[current + 1]; j++) {
+            int child = neighbors[j];
+            if (visitStamp[child] != stamp) {
+              visitStamp[child] = stamp;
+              distance[child] = distance[current] + 1;
+              queue[tail++] = child;
+            }
+          }
+        }
+      }
+      size = tail;
+      nodes = Arrays.copyOf(queue, tail);
+      distances = new int[tail];
+      for (int j = 0; j < tail; j++) {
+        distances[j] = distance[nodes[j]];
+      }
+    }
+
+    /**
+     * compute the new locations of the neighborhood, starting from the locations in {@code pending}
+     * where present, otherwise from the layoutModel
+     */
+    void move(double adaption, Map<N, Point> pending) {
+      moves = new Point[size];
+      for (int j = 0; j < size; j++) {
+        N node = compressedGraph.node(nodes[j]);
+        Point p = pending != null ? pending.get(node) : null;
+        if (p == null) {
+          p = layoutModel.apply(node);
+        }
+        double factor = adaption / Math.pow(2, distances[j]) * mobility(node);
+        moves[j] =
+            p.add(
+                factor * (stimulus.x - p.x),
+                factor * (stimulus.y - p.y),
+                factor * (stimulus.z - p.z));
+      }
+    }
 
-    protected ISOMNodeData() {
-      distance = 0;
-      visited = false;
+    void putMoves(Map<N, Point> moved) {
+      for (int j = 0; j < size; j++) {
+        moved.put(compressedGraph.node(nodes[j]), moves[j]);
+      }
     }
   }
 
@@ -1,7 +1,83 @@
 package edu.uci.ics.jung.layout3d.algorithms;
 
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
 import edu.uci.ics.jung.visualization.layout.algorithms.util.IterativeContext;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
 
 public interface IterativeLayoutAlgorithm<N> extends LayoutAlgorithm<N>, IterativeContext {
   boolean preRelax(); // may be a no-op depending on how the algorithm instance is created
+
+  /**
+   * pre-relax, reporting the fraction of the pre-relax phase that is done as it goes
+   *
+   * @param progress accepts the fraction done, from 0 to 1
+   * @return true iff prerelaxing happened
+   */
+  default boolean preRelax(DoubleConsumer progress) {
+    return preRelax();
+  }
+
+  /**
+   * record the metrics of each step. Algorithms that are not instrumented ignore this
+   *
+   * @param metrics receives the metrics, or null to stop recording
+   */
+  default void setMetrics(LayoutMetrics metrics) {}
+
+  /** @return the metrics that steps are recorded to, or null */
+  default LayoutMetrics getMetrics() {
+    return null;
+  }
+
+  /**
+   * @return true if this algorithm can write and read checkpoints. When false, {@link
+   *     #writeCheckpoint} and {@link #readCheckpoint} throw before they write or read anything
+   */
+  default boolean supportsCheckpoint() {
+    return false;
+  }
+
+  /** write a checkpoint, with nodes identified by {@code String.valueOf} */
+  default void writeCheckpoint(DataOutput out) throws IOException {
+    writeCheckpoint(out, String::valueOf);
+  }
+
+  /**
+   * Write the state of this algorithm, and the locations of the nodes of the model it is laying
+   * out, so that the relaxation can be resumed later, in this process or another one, with {@link
+   * #readCheckpoint(DataInput, Function)}.
+   *
+   * @param out receives the checkpoint
+   * @param nodeIds gives the id of each node
+   * @throws IOException if the checkpoint cannot be written
+   * @throws UnsupportedOperationException if this algorithm cannot be checkpointed
+   */
+  default void writeCheckpoint(DataOutput out, Function<? super N, String> nodeIds)
+      throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no checkpoints");
+  }
+
+  /** read a checkpoint written with nodes identified by {@code String.valueOf} */
+  default void readCheckpoint(DataInput in) throws IOException {
+    readCheckpoint(in, String::valueOf);
+  }
+
+  /**
+   * Read a checkpoint written by an algorithm of the same class. The state is restored when this
+   * algorithm next visits a {@code LayoutModel}, whose graph must have the nodes that were
+   * checkpointed, in place of the usual initialization and pre-relax.
+   *
+   * @param in supplies the checkpoint
+   * @param nodeIds gives the id of each node, as it did when the checkpoint was written
+   * @throws IOException if the checkpoint cannot be read or is not for this algorithm
+   * @throws UnsupportedOperationException if this algorithm cannot be checkpointed
+   */
+  default void readCheckpoint(DataInput in, Function<? super N, String> nodeIds)
+      throws IOException {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " has no checkpoints");
+  }
 }
@@ -14,10 +14,21 @@ import edu.uci.ics.jung.algorithms.shortestpath.Distance;
 import edu.uci.ics.jung.algorithms.shortestpath.DistanceStatistics;
 import edu.uci.ics.jung.algorithms.shortestpath.UnweightedShortestPath;
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
 import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
-import java.util.ConcurrentModificationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -120,7 +131,180 @@ public class KKLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
       Distance distance = new UnweightedShortestPath<N>(graph);
       this.distance = (x, y) -> distance.getDistance(x, y);
     }
-    initialize();
+    if (isRestoring()) {
+      // the distance matrix comes from the checkpoint instead
+      applyCheckpoint();
+    } else if (isWarmStart() && dm != null && getChangedNodes() != null) {
+      patchDistances(getChangedNodes());
+    } else {
+      initialize();
+    }
+  }
+
+  /**
+   * Resize the distance matrix to the changed graph, keeping the distances between the nodes that
+   * are still there and recomputing only the rows of the changed nodes, each with a breadth first
+   * search. The diameter and the ideal edge length are kept, so that the layout keeps its scale. A
+   * distance between two unchanged nodes whose shortest path went through a change is not updated
+   * until the next visit that is not a warm start.
+   *
+   * @param changed the nodes that were added, and those whose neighbors have changed
+   */
+  @SuppressWarnings("unchecked")
+  private void patchDistances(Set<N> changed) {
+    Graph<N> graph = layoutModel.getGraph();
+    Map<N, Integer> oldIndex = new HashMap<>();
+    for (int i = 0; i < nodes.length; i++) {
+      oldIndex.put(nodes[i], i);
+    }
+    float[][] oldDm = dm;
+    int n = graph.nodes().size();
+    N[] nodes = (N[]) graph.nodes().toArray();
+    int[] old = new int[n];
+    List<Integer> dirty = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      Integer index = oldIndex.get(nodes[i]);
+      old[i] = index == null ? -1 : index;
+      if (index == null || changed.contains(nodes[i])) {
+        dirty.add(i);
+      }
+    }
+    float[][] dm = new float[n][n];
+    for (int i = 0; i < n - 1; i++) {
+      if (old[i] < 0) {
+        continue;
+      }
+      for (int j = i + 1; j < n; j++) {
+        if (old[j] >= 0) {
+          dm[i][j] = dm[j][i] = oldDm[old[i]][old[j]];
+        }
+      }
+    }
+    float disconnected = diameter * disconnected_multiplier;
+    for (int i : dirty) {
+      Map<N, Integer> from = hops(graph, nodes[i], false);
+      Map<N, Integer> to = graph.isDirected() ? hops(graph, nodes[i], true) : from;
+      for (int j = 0; j < n; j++) {
+        if (j != i) {
+          float dist = disconnected;
+          Integer d_ij = from.get(nodes[j]);
+          if (d_ij != null) {
+            dist = Math.min(d_ij, dist);
+          }
+          Integer d_ji = to.get(nodes[j]);
+          if (d_ji != null) {
+            dist = Math.min(d_ji, dist);
+          }
+          dm[i][j] = dm[j][i] = dist;
+        }
+      }
+    }
+    Point[] xydata = new Point[n];
+    for (int i = 0; i < n; i++) {
+      xydata[i] = layoutModel.apply(nodes[i]);
+    }
+    this.nodes = nodes;
+    this.xydata = xydata;
+    this.dm = dm;
+    log.debug("patched {} of {} rows of the distance matrix", dirty.size(), n);
+  }
+
+  /** @return the number of edges on the shortest path from the source, or to it if reversed */
+  private static <N> Map<N, Integer> hops(Graph<N> graph, N source, boolean reversed) {
+    Map<N, Integer> hops = new HashMap<>();
+    Deque<N> queue = new ArrayDeque<>();
+    hops.put(source, 0);
+    queue.add(source);
+    while (!queue.isEmpty()) {
+      N node = queue.poll();
+      int next = hops.get(node) + 1;
+      for (N neighbor : reversed ? graph.predecessors(node) : graph.successors(node)) {
+        if (!hops.containsKey(neighbor)) {
+          hops.put(neighbor, next);
+          queue.add(neighbor);
+        }
+      }
+    }
+    return hops;
+  }
+
+  /**
+   * @param node a node of the graph
+   * @param other another node of the graph
+   * @return the distance between the nodes in the distance matrix, or -1 if either is not in it
+   */
+  public float getDistance(N node, N other) {
+    if (nodes == null) {
+      return -1;
+    }
+    int i = Arrays.asList(nodes).indexOf(node);
+    int j = Arrays.asList(nodes).indexOf(other);
+    return i < 0 || j < 0 ? -1 : dm[i][j];
+  }
+
+  /** @return the number of steps since the distance matrix was built */
+  public int getCurrentIteration() {
+    return currentIteration;
+  }
+
+  // the distance matrix and its scale, restored from a checkpoint
+  private float[][] checkpointDm;
+  private float checkpointDiameter;
+  private float checkpointL;
+  private int checkpointIteration;
+
+  /** @return the nodes in the order of the rows of the distance matrix */
+  @Override
+  protected List<N> checkpointNodes() {
+    return Arrays.asList(nodes);
+  }
+
+  /** writes the upper triangle of the symmetric distance matrix */
+  @Override
+  public boolean supportsCheckpoint() {
+    return true;
+  }
+
+  @Override
+  protected void writeState(DataOutput out, List<N> nodes) throws IOException {
+    out.writeInt(currentIteration);
+    out.writeFloat(diameter);
+    out.writeFloat(L);
+    int n = dm.length;
+    for (int i = 0; i < n - 1; i++) {
+      for (int j = i + 1; j < n; j++) {
+        out.writeFloat(dm[i][j]);
+      }
+    }
+  }
+
+  @Override
+  protected void readState(DataInput in, int count) throws IOException {
+    checkpointIteration = in.readInt();
+    checkpointDiameter = in.readFloat();
+    checkpointL = in.readFloat();
+    float[][] dm = new float[count][count];
+    for (int i = 0; i < count - 1; i++) {
+      for (int j = i + 1; j < count; j++) {
+        dm[i][j] = dm[j][i] = in.readFloat();
+      }
+    }
+    checkpointDm = dm;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  protected void restoreState(List<N> nodes) {
+    this.nodes = (N[]) nodes.toArray();
+    xydata = new Point[this.nodes.length];
+    for (int i = 0; i < xydata.length; i++) {
+      xydata[i] = layoutModel.apply(this.nodes[i]);
+    }
+    dm = checkpointDm;
+    diameter = checkpointDiameter;
+    L = checkpointL;
+    currentIteration = checkpointIteration;
+    checkpointDm = null;
   }
 
   /**
@@ -163,12 +347,16 @@ public class KKLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
 
   @SuppressWarnings("unchecked")
   public void initialize() {
-    currentIteration = 0;
+    if (!isWarmStart()) {
+      currentIteration = 0;
+    }
     Graph<N> graph = layoutModel.getGraph();
     // KKLayoutAlgorithm will fail if all vertices start at the same location
-    layoutModel.setInitializer(
-        new RandomLocationTransformer<N>(
-            layoutModel.getWidth(), layoutModel.getHeight(), graph.nodes().size()));
+    if (initialLayout == null && !isWarmStart()) {
+      layoutModel.setInitializer(
+          new RandomLocationTransformer<N>(
+              layoutModel.getWidth(), layoutModel.getHeight(), graph.nodes().size()));
+    }
     if (graph != null && layoutModel != null) {
 
       float height = layoutModel.getHeight();
@@ -181,18 +369,12 @@ public class KKLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
       xydata = new Point[n];
 
       // assign IDs to all visible nodes
-      while (true) {
-        try {
-          int index = 0;
-          for (N node : graph.nodes()) {
-            Point xyd = layoutModel.apply(node);
-            nodes[index] = node;
-            xydata[index] = xyd;
-            index++;
-          }
-          break;
-        } catch (ConcurrentModificationException cme) {
-        }
+      int index = 0;
+      for (N node : graph.nodes()) {
+        Point xyd = layoutModel.apply(node);
+        nodes[index] = node;
+        xydata[index] = xyd;
+        index++;
       }
 
       diameter = (float) DistanceStatistics.<N>diameter(graph, distance, true);
@@ -232,76 +414,86 @@ public class KKLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N>
   }
 
   public void step() {
-    Graph<N> graph = layoutModel.getGraph();
-    currentIteration++;
-    double energy = calcEnergy();
-    status =
-        "Kamada-Kawai N="
-            + graph.nodes().size()
-            + "("
-            + graph.nodes().size()
-            + ")"
-            + " IT: "
-            + currentIteration
-            + " E="
-            + energy;
-
-    int n = graph.nodes().size();
-    if (n == 0) {
-      return;
-    }
+    stepRecorder.beginStep();
+    try {
+      Graph<N> graph = layoutModel.getGraph();
+      currentIteration++;
+      double energy = calcEnergy();
+      status =
+          "Kamada-Kawai N="
+              + graph.nodes().size()
+              + "("
+              + graph.nodes().size()
+              + ")"
+              + " IT: "
+              + currentIteration
+              + " E="
+              + energy;
+      stepRecorder.energy(energy);
 
-    double maxDeltaM = 0;
-    int pm = -1; // the node having max deltaM
-    for (int i = 0; i < n; i++) {
-      if (layoutModel.isLocked(nodes[i])) {
-        continue;
+      int n = graph.nodes().size();
+      if (n == 0) {
+        return;
       }
-      float deltam = calcDeltaM(i);
 
-      if (maxDeltaM < deltam) {
-        maxDeltaM = deltam;
-        pm = i;
+      double maxDeltaM = 0;
+      int pm = -1; // the node having max deltaM
+      for (int i = 0; i < n; i++) {
+        if (layoutModel.isLocked(nodes[i])) {
+          continue;
+        }
+        // a damped node is chosen to move only when it is further from where it should be
+        double deltam = calcDeltaM(i) * mobility(nodes[i]);
+
+        if (maxDeltaM < deltam) {
+          maxDeltaM = deltam;
+          pm = i;
+        }
+      }
+      if (pm == -1) {
+        return;
       }
-    }
-    if (pm == -1) {
-      return;
-    }
 
-    for (int i = 0; i < 100; i++) {
-      float[] dxy = calcDeltaXY(pm);
-      xydata[pm] = xydata[pm].add(dxy[0], dxy[1], dxy[2]);
-      double deltam = calcDeltaM(pm);
-      if (deltam < EPSILON) {
-        break;
+      stepRecorder.beginPhase(Phase.MOVE);
+      Point start = xydata[pm];
+      for (int i = 0; i < 100; i++) {
+        float[] dxy = calcDeltaXY(pm);
+        xydata[pm] = xydata[pm].add(dxy[0], dxy[1], dxy[2]);
+        double deltam = calcDeltaM(pm);
+        if (deltam < EPSILON) {
+          break;
+        }
       }
-    }
+      stepRecorder.displacement(start.distance(xydata[pm]));
 
-    if (adjustForGravity) {
-      adjustForGravity();
-    }
+      if (adjustForGravity) {
+        adjustForGravity();
+      }
 
-    if (exchangenodes && maxDeltaM < EPSILON) {
-      energy = calcEnergy();
-      for (int i = 0; i < n - 1; i++) {
-        if (layoutModel.isLocked(nodes[i])) {
-          continue;
-        }
-        for (int j = i + 1; j < n; j++) {
-          if (layoutModel.isLocked(nodes[j])) {
+      if (exchangenodes && maxDeltaM < EPSILON) {
+        energy = calcEnergy();
+        for (int i = 0; i < n - 1 && !isCancelled(); i++) {
+          if (layoutModel.isLocked(nodes[i])) {
             continue;
           }
-          double xenergy = calcEnergyIfExchanged(i, j);
-          if (energy > xenergy) {
-            double sx = xydata[i].x;
-            double sy = xydata[i].y;
-            double sz = xydata[i].z;
-            xydata[i] = Point.of(xydata[j].x, xydata[j].y, xydata[j].z);
-            xydata[j] = Point.of(sx, sy, sz);
-            return;
+          for (int j = i + 1; j < n; j++) {
+            if (layoutModel.isLocked(nodes[j])) {
+              continue;
+            }
+            double xenergy = calcEnergyIfExchanged(i, j);
+            if (energy > xenergy) {
+              double sx = xydata[i].x;
+              double sy = xydata[i].y;
+              double sz = xydata[i].z;
+              xydata[i] = Point.of(xydata[j].x, xydata[j].y, xydata[j].z);
+              xydata[j] = Point.of(sx, sy, sz);
+              return;
+            }
           }
         }
       }
+    } finally {
+      stepRecorder.endStep();
     }
   }
 
@@ -0,0 +1,286 @@
+package edu.uci.ics.jung.layout3d.algorithms;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.util.LayoutRecorder;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays a recording made by a {@link LayoutRecorder} into a LayoutModel. Each step reads the next
+ * frames of the recording and moves the nodes to where they were, so that watching a layout
+ * converge again costs reading the file and nothing more.
+ *
+ * <p>With a number of frames per second set, the replay is paced by the clock: each step applies
+ * the frames that are due by then, however many steps the relaxer takes, so it runs at the same
+ * speed under a {@code FramePacedRelaxer}, which takes as many steps as fit in each of its frames,
+ * as under any other. Otherwise each step advances a fixed number of frames, and the speed of the
+ * replay also depends on how often the relaxer steps.
+ *
+ * <p>The first frame is applied when the model is visited. Nodes of the recording that are not in
+ * the graph are skipped, and nodes of the graph that are not in the recording are left alone. The
+ * replay is done at the end of the recording, including the end of a recording that is still being
+ * written or that was cut short.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class ReplayLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N> {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplayLayoutAlgorithm.class);
+
+  public static class Builder<N, T extends ReplayLayoutAlgorithm<N>, B extends Builder<N, T, B>>
+      extends AbstractIterativeLayoutAlgorithm.Builder<N, T, B> {
+    protected Path recording;
+    protected int framesPerStep = 1;
+    protected double framesPerSecond;
+    protected Function<? super N, String> nodeIds = String::valueOf;
+
+    public Builder() {
+      // a pre-relax would only skip the start of the recording
+      this.shouldPrerelax = false;
+    }
+
+    /**
+     * @param recording the file written by a {@code LayoutRecorder}
+     * @return this builder
+     */
+    public B withRecording(Path recording) {
+      this.recording = recording;
+      return (B) this;
+    }
+
+    /**
+     * @param framesPerStep how many recorded frames each step advances. Defaults to 1
+     * @return this builder
+     */
+    public B withFramesPerStep(int framesPerStep) {
+      Preconditions.checkArgument(framesPerStep > 0, "framesPerStep must be positive");
+      this.framesPerStep = framesPerStep;
+      return (B) this;
+    }
+
+    /**
+     * @param framesPerSecond how many recorded frames to replay each second, whatever the number of
+     *     steps. Defaults to 0, for a fixed number of frames per step
+     * @return this builder
+     */
+    public B withFramesPerSecond(double framesPerSecond) {
+      Preconditions.checkArgument(framesPerSecond >= 0, "framesPerSecond cannot be negative");
+      this.framesPerSecond = framesPerSecond;
+      return (B) this;
+    }
+
+    /**
+     * @param nodeIds gives the id of each node, as it did when the recording was made
+     * @return this builder
+     */
+    public B withNodeIds(Function<? super N, String> nodeIds) {
+      this.nodeIds = nodeIds;
+      return (B) this;
+    }
+
+    public T build() {
+      Preconditions.checkState(recording != null, "a recording is required");
+      return (T) new ReplayLayoutAlgorithm(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The most time a paced replay catches up on in a step, so that it does not leap after a pause
+   */
+  private static final long MAX_CATCH_UP_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+  private final Path recording;
+  private final Function<? super N, String> nodeIds;
+  private volatile int framesPerStep;
+  private volatile double framesPerSecond;
+
+  private DataInputStream in;
+  private double quantum;
+  private Map<String, N> nodesById;
+  // the nodes of the recording, by index, null for those not in the graph
+  private final List<N> nodes = new ArrayList<>();
+  // the quantized coordinates, by index
+  private long[] coordinates = new long[0];
+  private int frame;
+  // for a paced replay, when the last step was taken, and the part of a frame that is due
+  private long lastStepNanos;
+  private double framesDue;
+  private volatile boolean done;
+
+  protected ReplayLayoutAlgorithm(Builder builder) {
+    super(builder);
+    this.recording = builder.recording;
+    this.nodeIds = builder.nodeIds;
+    this.framesPerStep = builder.framesPerStep;
+    this.framesPerSecond = builder.framesPerSecond;
+  }
+
+  @Override
+  public void visit(LayoutModel<N> layoutModel) {
+    super.visit(layoutModel);
+    close();
+    nodes.clear();
+    coordinates = new long[0];
+    frame = 0;
+    lastStepNanos = System.nanoTime();
+    framesDue = 0;
+    done = false;
+    nodesById = new HashMap<>();
+    for (N node : layoutModel.getGraph().nodes()) {
+      nodesById.put(nodeIds.apply(node), node);
+    }
+    try {
+      in =
+          new DataInputStream(
+              new BufferedInputStream(
+                  new GZIPInputStream(Files.newInputStream(recording), 1 << 16), 1 << 16));
+      if (in.readInt() != LayoutRecorder.MAGIC) {
+        throw new IOException("not a layout recording: " + recording);
+      }
+      int version = in.readInt();
+      if (version != LayoutRecorder.VERSION) {
+        throw new IOException("unsupported layout recording version " + version);
+      }
+      // the size of the recorded layout, which the replay does not need
+      in.readInt();
+      in.readInt();
+      in.readInt();
+      quantum = in.readDouble();
+    } catch (IOException ex) {
+      close();
+      throw new UncheckedIOException(ex);
+    }
+    readFrame();
+  }
+
+  public void initialize() {}
+
+  /** Apply the next frames of the recording. */
+  @Override
+  public void step() {
+    stepRecorder.beginStep();
+    try {
+      int frames = framesPerStep;
+      double framesPerSecond = this.framesPerSecond;
+      if (framesPerSecond > 0) {
+        long now = System.nanoTime();
+        long elapsed = Math.min(now - lastStepNanos, MAX_CATCH_UP_NANOS);
+        lastStepNanos = now;
+        framesDue += elapsed * framesPerSecond / TimeUnit.SECONDS.toNanos(1);
+        frames = (int) framesDue;
+        framesDue -= frames;
+      }
+      for (int i = 0; i < frames && readFrame(); i++) {}
+    } finally {
+      stepRecorder.endStep();
+    }
+  }
+
+  /** @return true if a frame was read, false at the end of the recording */
+  private synchronized boolean readFrame() {
+    if (done) {
+      return false;
+    }
+    try {
+      int count = (int) LayoutRecorder.readVarLong(in);
+      for (int i = 0; i < count; i++) {
+        int index = (int) LayoutRecorder.readVarLong(in);
+        if (index == nodes.size()) {
+          nodes.add(nodesById.get(in.readUTF()));
+          if (coordinates.length < 3 * nodes.size()) {
+            coordinates = Arrays.copyOf(coordinates, Math.max(3 * 64, 2 * coordinates.length));
+          }
+        } else if (index > nodes.size()) {
+          throw new IOException("node index " + index + " was never introduced");
+        }
+        int at = 3 * index;
+        coordinates[at] += LayoutRecorder.unZigZag(LayoutRecorder.readVarLong(in));
+        coordinates[at + 1] += LayoutRecorder.unZigZag(LayoutRecorder.readVarLong(in));
+        coordinates[at + 2] += LayoutRecorder.unZigZag(LayoutRecorder.readVarLong(in));
+        N node = nodes.get(index);
+        if (node != null && !layoutModel.isLocked(node)) {
+          layoutModel.set(
+              node,
+              coordinates[at] * quantum,
+              coordinates[at + 1] * quantum,
+              coordinates[at + 2] * quantum);
+        }
+      }
+      frame++;
+      return true;
+    } catch (EOFException ex) {
+      log.debug("replayed {} frames of {}", frame, recording);
+    } catch (IOException ex) {
+      log.warn("could not read frame {} of {}", frame, recording, ex);
+    }
+    close();
+    return false;
+  }
+
+  private synchronized void close() {
+    done = true;
+    if (in != null) {
+      try {
+        in.close();
+      } catch (IOException ex) {
+        log.debug("could not close {}", recording, ex);
+      }
+      in = null;
+    }
+  }
+
+  /** @return true at the end of the recording */
+  @Override
+  public boolean done() {
+    return done;
+  }
+
+  /** @return the number of frames applied so far */
+  public int getFrame() {
+    return frame;
+  }
+
+  public int getFramesPerStep() {
+    return framesPerStep;
+  }
+
+  /** @param framesPerStep how many recorded frames each step advances, to change the speed */
+  public void setFramesPerStep(int framesPerStep) {
+    Preconditions.checkArgument(framesPerStep > 0, "framesPerStep must be positive");
+    this.framesPerStep = framesPerStep;
+  }
+
+  public double getFramesPerSecond() {
+    return framesPerSecond;
+  }
+
+  /**
+   * @param framesPerSecond how many recorded frames to replay each second, to change the speed, or
+   *     0 to advance a fixed number of frames per step
+   */
+  public void setFramesPerSecond(double framesPerSecond) {
+    Preconditions.checkArgument(framesPerSecond >= 0, "framesPerSecond cannot be negative");
+    this.framesPerSecond = framesPerSecond;
+  }
+}
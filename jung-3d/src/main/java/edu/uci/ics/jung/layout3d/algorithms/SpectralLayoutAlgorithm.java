@@ -0,0 +1,587 @@
+package edu.uci.ics.jung.layout3d.algorithms;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import com.google.common.graph.Graphs;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.CompressedGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@code LayoutAlgorithm} that places nodes using the eigenvectors of the graph Laplacian that
+ * belong to its 2nd, 3rd and 4th smallest eigenvalues as the x, y and z coordinates (Hall's
+ * spectral embedding). The eigenvectors are found with LOBPCG (the locally optimal block
+ * preconditioned conjugate gradient method) over a {@link CompressedGraph}, using a parallel sparse
+ * matrix-vector product, so that each iteration costs O(n + m). Small graphs are solved exactly
+ * with a dense Jacobi eigen-decomposition.
+ *
+ * <p>The Laplacian of a graph with several connected components has one zero eigenvalue for each,
+ * and the eigenvectors of those are constant on every component, so each component is laid out on
+ * its own. The components are then packed into a grid of cells, largest first, each scaled by the
+ * cube root of its size relative to the largest one.
+ *
+ * <p>This is a {@link StaticLayoutAlgorithm}, which places the nodes once when it visits. It is
+ * also a good global starting point for the force-directed algorithms, for example:
+ *
+ * <pre>
+ * FRLayoutAlgorithm.builder()
+ *     .withInitialLayout(SpectralLayoutAlgorithm.builder().build())
+ *     .build();
+ * </pre>
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class SpectralLayoutAlgorithm<N> extends StaticLayoutAlgorithm<N> {
+
+  private static final Logger log = LoggerFactory.getLogger(SpectralLayoutAlgorithm.class);
+
+  /** graphs with at most this many nodes are solved with a dense eigen-decomposition */
+  protected static final int DENSE_LIMIT = 200;
+
+  /** the number of coordinates (eigenvectors) computed */
+  private static final int DIMENSIONS = 3;
+
+  /** the number of rows handled by each parallel task */
+  private static final int CHUNK = 8192;
+
+  public static class Builder<N, T extends SpectralLayoutAlgorithm<N>, B extends Builder<N, T, B>> {
+    protected int maxIterations = 500;
+    protected double tolerance = 1.0e-4;
+    protected Random random = new Random();
+
+    /**
+     * @param maxIterations the maximum number of LOBPCG iterations
+     * @return this builder
+     */
+    public B withMaxIterations(int maxIterations) {
+      Preconditions.checkArgument(maxIterations > 0, "maxIterations must be positive");
+      this.maxIterations = maxIterations;
+      return (B) this;
+    }
+
+    /**
+     * @param tolerance the residual norm, relative to the largest eigenvalue estimate, below which
+     *     an eigenvector is considered converged
+     * @return this builder
+     */
+    public B withTolerance(double tolerance) {
+      Preconditions.checkArgument(tolerance > 0, "tolerance must be positive");
+      this.tolerance = tolerance;
+      return (B) this;
+    }
+
+    public B withRandomSeed(long randomSeed) {
+      this.random = new Random(randomSeed);
+      return (B) this;
+    }
+
+    public T build() {
+      return (T) new SpectralLayoutAlgorithm(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  protected int maxIterations;
+  protected double tolerance;
+  protected Random random;
+
+  protected SpectralLayoutAlgorithm(Builder builder) {
+    this.maxIterations = builder.maxIterations;
+    this.tolerance = builder.tolerance;
+    this.random = builder.random;
+  }
+
+  @Override
+  public void visit(LayoutModel<N> layoutModel) {
+    Graph<N> graph = layoutModel.getGraph();
+    if (graph == null) {
+      log.warn("no graph to visit in {}", layoutModel);
+      return;
+    }
+    layoutModel.setLocations(
+        computeLocations(
+            graph, layoutModel.getWidth(), layoutModel.getHeight(), layoutModel.getDepth()));
+  }
+
+  /**
+   * Computes the spectral locations for the passed graph and returns them as a function that can be
+   * used as the initializer of a {@code LayoutModel}. Nodes that were not in the graph are placed
+   * at the origin.
+   *
+   * @param graph the graph to place
+   * @param width the width of the layout domain
+   * @param height the height of the layout domain
+   * @param depth the depth of the layout domain
+   * @return a function from node to spectral location
+   */
+  public Function<N, Point> initializer(Graph<N> graph, int width, int height, int depth) {
+    Map<N, Point> locations = computeLocations(graph, width, height, depth);
+    return node -> locations.getOrDefault(node, Point.ORIGIN);
+  }
+
+  /**
+   * Computes the spectral locations for the nodes of the passed graph, scaled to fit a layout
+   * domain of the passed size centered on the origin.
+   *
+   * @param graph the graph to place
+   * @param width the width of the layout domain
+   * @param height the height of the layout domain
+   * @param depth the depth of the layout domain
+   * @return the location of each node
+   */
+  public Map<N, Point> computeLocations(Graph<N> graph, double width, double height, double depth) {
+    CompressedGraph<N> compressedGraph = CompressedGraph.of(graph);
+    int n = compressedGraph.size();
+    Map<N, Point> locations = new HashMap<>(n * 2);
+    if (n == 0) {
+      return locations;
+    }
+    long start = System.currentTimeMillis();
+    List<int[]> components = components(compressedGraph);
+    double[][] coordinates =
+        components.size() == 1
+            ? coordinates(compressedGraph)
+            : packedCoordinates(graph, compressedGraph, components);
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "spectral coordinates for {} took {}ms",
+          compressedGraph,
+          System.currentTimeMillis() - start);
+    }
+    double[] x = scaled(coordinates[0], 0.45 * width);
+    double[] y = scaled(coordinates[1], 0.45 * height);
+    double[] z = scaled(coordinates[2], 0.45 * depth);
+    for (int i = 0; i < n; i++) {
+      locations.put(compressedGraph.node(i), Point.of(x[i], y[i], z[i]));
+    }
+    return locations;
+  }
+
+  private double[][] coordinates(CompressedGraph<N> compressedGraph) {
+    return compressedGraph.size() <= DENSE_LIMIT
+        ? denseEigenvectors(compressedGraph)
+        : lobpcg(compressedGraph);
+  }
+
+  /**
+   * @return the indices of the nodes of each connected component of the passed graph, largest first
+   */
+  private static List<int[]> components(CompressedGraph<?> graph) {
+    int n = graph.size();
+    int[] offsets = graph.offsets();
+    int[] neighbors = graph.neighbors();
+    boolean[] seen = new boolean[n];
+    int[] queue = new int[n];
+    List<int[]> components = new ArrayList<>();
+    for (int root = 0; root < n; root++) {
+      if (seen[root]) {
+        continue;
+      }
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = root;
+      seen[root] = true;
+      while (head < tail) {
+        int i = queue[head++];
+        for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+          if (!seen[neighbors[j]]) {
+            seen[neighbors[j]] = true;
+            queue[tail++] = neighbors[j];
+          }
+        }
+      }
+      components.add(Arrays.copyOf(queue, tail));
+    }
+    components.sort((a, b) -> Integer.compare(b.length, a.length));
+    return components;
+  }
+
+  /**
+   * Lay out each component on its own, and pack the components into a grid of cells in the cube
+   * from -1 to 1, largest first.
+   */
+  private double[][] packedCoordinates(
+      Graph<N> graph, CompressedGraph<N> compressedGraph, List<int[]> components) {
+    int cells = 1;
+    while (cells * cells * cells < components.size()) {
+      cells++;
+    }
+    double largest = components.get(0).length;
+    double[][] coordinates = new double[DIMENSIONS][compressedGraph.size()];
+    for (int c = 0; c < components.size(); c++) {
+      int[] component = components.get(c);
+      int[] cell = {c % cells, c / cells % cells, c / (cells * cells)};
+      double radius = 0.8 / cells * Math.cbrt(component.length / largest);
+      Set<N> nodes = new HashSet<>(component.length * 2);
+      for (int i : component) {
+        nodes.add(compressedGraph.node(i));
+      }
+      CompressedGraph<N> subgraph = CompressedGraph.of(Graphs.inducedSubgraph(graph, nodes));
+      double[][] local = coordinates(subgraph);
+      for (int axis = 0; axis < DIMENSIONS; axis++) {
+        double center = -1 + (2.0 * cell[axis] + 1) / cells;
+        scaled(local[axis], radius);
+        for (int i = 0; i < subgraph.size(); i++) {
+          coordinates[axis][compressedGraph.indexOf(subgraph.node(i))] = center + local[axis][i];
+        }
+      }
+    }
+    return coordinates;
+  }
+
+  /** scale the passed vector in place so that its largest magnitude is {@code extent} */
+  private static double[] scaled(double[] v, double extent) {
+    double max = 0;
+    for (double d : v) {
+      max = Math.max(max, Math.abs(d));
+    }
+    if (max > 0) {
+      double factor = extent / max;
+      for (int i = 0; i < v.length; i++) {
+        v[i] *= factor;
+      }
+    }
+    return v;
+  }
+
+  /**
+   * Solve for all eigenvectors of the Laplacian with a dense Jacobi eigen-decomposition and return
+   * the ones that belong to the 2nd through 4th smallest eigenvalues. Missing eigenvectors (for
+   * graphs with fewer than 4 nodes) are all zeros.
+   */
+  private double[][] denseEigenvectors(CompressedGraph<N> graph) {
+    int n = graph.size();
+    int[] offsets = graph.offsets();
+    int[] neighbors = graph.neighbors();
+    double[][] laplacian = new double[n][n];
+    for (int i = 0; i < n; i++) {
+      laplacian[i][i] = graph.degree(i);
+      for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+        laplacian[i][neighbors[j]] = -1;
+      }
+    }
+    double[] eigenvalues = new double[n];
+    double[][] eigenvectors = new double[n][n];
+    jacobi(laplacian, eigenvalues, eigenvectors);
+    Integer[] order = ascending(eigenvalues);
+
+    double[][] coordinates = new double[DIMENSIONS][n];
+    for (int c = 0; c < DIMENSIONS && c + 1 < n; c++) {
+      int column = order[c + 1];
+      for (int i = 0; i < n; i++) {
+        coordinates[c][i] = eigenvectors[i][column];
+      }
+    }
+    return coordinates;
+  }
+
+  /**
+   * Find the eigenvectors for the smallest non-trivial eigenvalues of the Laplacian with LOBPCG.
+   * The constant vector (the eigenvector of the trivial zero eigenvalue) is projected out of every
+   * search direction, and the degree diagonal is used as a Jacobi preconditioner.
+   */
+  private double[][] lobpcg(CompressedGraph<N> graph) {
+    int n = graph.size();
+    int k = DIMENSIONS;
+    double[] diagonal = new double[n];
+    int maxDegree = 0;
+    for (int i = 0; i < n; i++) {
+      diagonal[i] = Math.max(1, graph.degree(i));
+      maxDegree = Math.max(maxDegree, graph.degree(i));
+    }
+    // Gershgorin bound on the largest eigenvalue, used to make the tolerance relative
+    double scale = Math.max(1, 2 * maxDegree);
+
+    List<double[]> start = new ArrayList<>();
+    for (int c = 0; c < k; c++) {
+      double[] v = new double[n];
+      for (int i = 0; i < n; i++) {
+        v[i] = random.nextDouble() - 0.5;
+      }
+      start.add(v);
+    }
+    double[][] x = orthonormalize(start).toArray(new double[0][]);
+    double[][] ax = new double[x.length][];
+    for (int c = 0; c < x.length; c++) {
+      ax[c] = multiply(graph, x[c]);
+    }
+    double[][] p = new double[0][];
+    double[] lambda = new double[x.length];
+    for (int c = 0; c < x.length; c++) {
+      lambda[c] = dot(x[c], ax[c]);
+    }
+
+    int iteration = 0;
+    for (; iteration < maxIterations; iteration++) {
+      // residuals and preconditioned residuals
+      List<double[]> basis = new ArrayList<>();
+      basis.addAll(Arrays.asList(x));
+      double maxResidual = 0;
+      for (int c = 0; c < x.length; c++) {
+        double[] r = combine(ax[c], 1, x[c], -lambda[c]);
+        maxResidual = Math.max(maxResidual, Math.sqrt(dot(r, r)));
+        divide(r, diagonal);
+        basis.add(r);
+      }
+      if (maxResidual < tolerance * scale) {
+        break;
+      }
+      basis.addAll(Arrays.asList(p));
+      // x is already orthonormal, so it is kept at the front of the basis
+      List<double[]> s = orthonormalize(basis);
+      int m = s.size();
+      double[][] as = new double[m][];
+      for (int j = 0; j < m; j++) {
+        as[j] = j < x.length ? ax[j] : multiply(graph, s.get(j));
+      }
+      // Rayleigh-Ritz on the span of s
+      double[][] g = new double[m][m];
+      for (int i = 0; i < m; i++) {
+        for (int j = i; j < m; j++) {
+          g[i][j] = g[j][i] = dot(s.get(i), as[j]);
+        }
+      }
+      double[] theta = new double[m];
+      double[][] c = new double[m][m];
+      jacobi(g, theta, c);
+      Integer[] order = ascending(theta);
+
+      int kk = Math.min(k, m);
+      double[][] newX = new double[kk][];
+      double[][] newAx = new double[kk][];
+      double[][] newP = new double[kk][];
+      for (int col = 0; col < kk; col++) {
+        double[] coefficients = new double[m];
+        for (int i = 0; i < m; i++) {
+          coefficients[i] = c[i][order[col]];
+        }
+        newX[col] = linearCombination(s, coefficients, 0, m, n);
+        newAx[col] = linearCombination(Arrays.asList(as), coefficients, 0, m, n);
+        newP[col] = linearCombination(s, coefficients, x.length, m, n);
+        lambda[col] = theta[order[col]];
+      }
+      x = newX;
+      ax = newAx;
+      p = newP;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("LOBPCG took {} iterations, eigenvalues {}", iteration, Arrays.toString(lambda));
+    }
+    double[][] coordinates = new double[DIMENSIONS][];
+    for (int c = 0; c < DIMENSIONS; c++) {
+      coordinates[c] = c < x.length ? x[c] : new double[n];
+    }
+    return coordinates;
+  }
+
+  /** y = L x, where L = D - A is the Laplacian of the passed graph */
+  private static double[] multiply(CompressedGraph<?> graph, double[] x) {
+    int n = x.length;
+    int[] offsets = graph.offsets();
+    int[] neighbors = graph.neighbors();
+    double[] y = new double[n];
+    chunks(n)
+        .forEach(
+            chunk -> {
+              int to = Math.min(n, (chunk + 1) * CHUNK);
+              for (int i = chunk * CHUNK; i < to; i++) {
+                double sum = (offsets[i + 1] - offsets[i]) * x[i];
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                  sum -= x[neighbors[j]];
+                }
+                y[i] = sum;
+              }
+            });
+    return y;
+  }
+
+  private static double dot(double[] a, double[] b) {
+    int n = a.length;
+    return chunks(n)
+        .mapToDouble(
+            chunk -> {
+              int to = Math.min(n, (chunk + 1) * CHUNK);
+              double sum = 0;
+              for (int i = chunk * CHUNK; i < to; i++) {
+                sum += a[i] * b[i];
+              }
+              return sum;
+            })
+        .sum();
+  }
+
+  /** @return alpha * a + beta * b */
+  private static double[] combine(double[] a, double alpha, double[] b, double beta) {
+    int n = a.length;
+    double[] result = new double[n];
+    chunks(n)
+        .forEach(
+            chunk -> {
+              int to = Math.min(n, (chunk + 1) * CHUNK);
+              for (int i = chunk * CHUNK; i < to; i++) {
+                result[i] = alpha * a[i] + beta * b[i];
+              }
+            });
+    return result;
+  }
+
+  private static void divide(double[] a, double[] divisor) {
+    for (int i = 0; i < a.length; i++) {
+      a[i] /= divisor[i];
+    }
+  }
+
+  /** @return the sum of vectors[i] * coefficients[i] for i in [from, to) */
+  private static double[] linearCombination(
+      List<double[]> vectors, double[] coefficients, int from, int to, int n) {
+    double[] result = new double[n];
+    chunks(n)
+        .forEach(
+            chunk -> {
+              int end = Math.min(n, (chunk + 1) * CHUNK);
+              for (int j = from; j < to; j++) {
+                double coefficient = coefficients[j];
+                double[] v = vectors.get(j);
+                for (int i = chunk * CHUNK; i < end; i++) {
+                  result[i] += coefficient * v[i];
+                }
+              }
+            });
+    return result;
+  }
+
+  private static IntStream chunks(int n) {
+    int count = (n + CHUNK - 1) / CHUNK;
+    IntStream chunks = IntStream.range(0, count);
+    return count > 1 ? chunks.parallel() : chunks;
+  }
+
+  /**
+   * Modified Gram-Schmidt, with the constant vector projected out of every vector. Vectors that are
+   * (numerically) dependent on the ones before them are dropped. The passed vectors are modified.
+   */
+  private static List<double[]> orthonormalize(List<double[]> vectors) {
+    List<double[]> basis = new ArrayList<>();
+    for (double[] v : vectors) {
+      double original = Math.sqrt(dot(v, v));
+      if (original == 0) {
+        continue;
+      }
+      // two passes for numerical stability
+      for (int pass = 0; pass < 2; pass++) {
+        double mean = 0;
+        for (double d : v) {
+          mean += d;
+        }
+        mean /= v.length;
+        for (int i = 0; i < v.length; i++) {
+          v[i] -= mean;
+        }
+        for (double[] b : basis) {
+          double projection = dot(v, b);
+          for (int i = 0; i < v.length; i++) {
+            v[i] -= projection * b[i];
+          }
+        }
+      }
+      double norm = Math.sqrt(dot(v, v));
+      if (norm > 1.0e-10 * original) {
+        for (int i = 0; i < v.length; i++) {
+          v[i] /= norm;
+        }
+        basis.add(v);
+      }
+    }
+    return basis;
+  }
+
+  /** @return the indices of the passed values, sorted by ascending value */
+  private static Integer[] ascending(double[] values) {
+    Integer[] order = new Integer[values.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+    return order;
+  }
+
+  /**
+   * Cyclic Jacobi eigen-decomposition of the symmetric matrix {@code a}, which is destroyed. On
+   * return, {@code eigenvalues[j]} is the eigenvalue for the eigenvector in column {@code j} of
+   * {@code eigenvectors}.
+   */
+  static void jacobi(double[][] a, double[] eigenvalues, double[][] eigenvectors) {
+    int n = eigenvalues.length;
+    double norm = 0;
+    for (int i = 0; i < n; i++) {
+      Arrays.fill(eigenvectors[i], 0);
+      eigenvectors[i][i] = 1;
+      for (int j = 0; j < n; j++) {
+        norm += a[i][j] * a[i][j];
+      }
+    }
+    for (int sweep = 0; sweep < 100; sweep++) {
+      double off = 0;
+      for (int i = 0; i < n; i++) {
+        for (int j = i + 1; j < n; j++) {
+          off += a[i][j] * a[i][j];
+        }
+      }
+      if (off <= 1.0e-24 * norm) {
+        break;
+      }
+      for (int p = 0; p < n - 1; p++) {
+        for (int q = p + 1; q < n; q++) {
+          double apq = a[p][q];
+          if (apq == 0) {
+            continue;
+          }
+          double theta = (a[q][q] - a[p][p]) / (2 * apq);
+          double t =
+              theta == 0
+                  ? 1
+                  : Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+          double c = 1 / Math.sqrt(t * t + 1);
+          double s = t * c;
+          for (int k = 0; k < n; k++) {
+            double akp = a[k][p];
+            double akq = a[k][q];
+            a[k][p] = c * akp - s * akq;
+            a[k][q] = s * akp + c * akq;
+          }
+          for (int k = 0; k < n; k++) {
+            double apk = a[p][k];
+            double aqk = a[q][k];
+            a[p][k] = c * apk - s * aqk;
+            a[q][k] = s * apk + c * aqk;
+          }
+          for (int k = 0; k < n; k++) {
+            double vkp = eigenvectors[k][p];
+            double vkq = eigenvectors[k][q];
+            eigenvectors[k][p] = c * vkp - s * vkq;
+            eigenvectors[k][q] = s * vkp + c * vkq;
+          }
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      eigenvalues[i] = a[i][i];
+    }
+  }
+}
@@ -7,9 +7,13 @@ import com.google.common.graph.EndpointPair;
 import com.google.common.graph.Graph;
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
 import edu.uci.ics.jung.layout3d.algorithms.repulsion.StandardSpringRepulsion;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import java.util.ConcurrentModificationException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
 import java.util.function.Function;
 
 /**
@@ -77,6 +81,46 @@ public class SpringLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N
             .withLayoutModel(layoutModel)
             .withRandom(random)
             .build();
+    applyCheckpoint();
+  }
+
+  // the velocity of each node, restored from a checkpoint
+  private double[] checkpointVelocities;
+
+  @Override
+  public boolean supportsCheckpoint() {
+    return true;
+  }
+
+  @Override
+  protected void writeState(DataOutput out, List<N> nodes) throws IOException {
+    for (N node : nodes) {
+      SpringNodeData data = springNodeData.getUnchecked(node);
+      out.writeDouble(data.dx);
+      out.writeDouble(data.dy);
+      out.writeDouble(data.dz);
+    }
+  }
+
+  @Override
+  protected void readState(DataInput in, int count) throws IOException {
+    double[] velocities = new double[3 * count];
+    for (int i = 0; i < velocities.length; i++) {
+      velocities[i] = in.readDouble();
+    }
+    checkpointVelocities = velocities;
+  }
+
+  @Override
+  protected void restoreState(List<N> nodes) {
+    springNodeData.invalidateAll();
+    for (int i = 0; i < nodes.size(); i++) {
+      SpringNodeData data = springNodeData.getUnchecked(nodes.get(i));
+      data.dx = checkpointVelocities[3 * i];
+      data.dy = checkpointVelocities[3 * i + 1];
+      data.dz = checkpointVelocities[3 * i + 2];
+    }
+    checkpointVelocities = null;
   }
 
   /** @return the current value for the stretch parameter */
@@ -107,9 +151,10 @@ public class SpringLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N
   public void initialize() {}
 
   public void step() {
-    this.repulsionContract.step();
-    Graph<N> graph = layoutModel.getGraph();
+    stepRecorder.beginStep();
     try {
+      stepRepulsion(this.repulsionContract);
+      Graph<N> graph = layoutModel.getGraph();
       for (N node : graph.nodes()) {
         SpringNodeData svd = springNodeData.getUnchecked(node);
         if (svd == null) {
@@ -121,111 +166,110 @@ public class SpringLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N
         svd.edgedx = svd.edgedy = svd.edgedz = 0;
         svd.repulsiondx = svd.repulsiondy = svd.repulsiondz = 0;
       }
-    } catch (ConcurrentModificationException cme) {
-      step();
-    }
 
-    relaxEdges();
-    repulsionContract.calculateRepulsion();
-    moveNodes();
+      stepRecorder.beginPhase(Phase.ATTRACTION);
+      relaxEdges();
+      stepRecorder.beginPhase(Phase.REPULSION);
+      repulsionContract.calculateRepulsion();
+      recordTree(repulsionContract);
+      if (isCancelled()) {
+        return;
+      }
+      stepRecorder.beginPhase(Phase.MOVE);
+      moveNodes();
+    } finally {
+      stepRecorder.endStep();
+    }
   }
 
   protected void relaxEdges() {
     Graph<N> graph = layoutModel.getGraph();
-    try {
-      for (EndpointPair<N> endpoints : layoutModel.getGraph().edges()) {
-        N node1 = endpoints.nodeU();
-        N node2 = endpoints.nodeV();
-
-        Point p1 = this.layoutModel.get(node1);
-        Point p2 = this.layoutModel.get(node2);
-        if (p1 == null || p2 == null) {
-          continue;
-        }
-        double vx = p1.x - p2.x;
-        double vy = p1.y - p2.y;
-        double vz = p1.z - p2.z;
-        double len = Math.sqrt(vx * vx + vy * vy + vz * vz);
-
-        double desiredLen = lengthFunction.apply(endpoints);
-
-        // round from zero, if needed [zero would be Bad.].
-        len = (len == 0) ? .0001 : len;
-
-        double f = force_multiplier * (desiredLen - len) / len;
-
-        f = f * Math.pow(stretch, (graph.degree(node1) + graph.degree(node2) - 2));
-
-        // the actual movement distance 'dx' is the force multiplied by the
-        // distance to go.
-        double dx = f * vx;
-        double dy = f * vy;
-        double dz = f * vz;
-        SpringNodeData v1D, v2D;
-        v1D = springNodeData.getUnchecked(node1);
-        v2D = springNodeData.getUnchecked(node2);
-
-        v1D.edgedx += dx;
-        v1D.edgedy += dy;
-        v1D.edgedz += dz;
-        v2D.edgedx += -dx;
-        v2D.edgedy += -dy;
-        v2D.edgedz += -dz;
+    for (EndpointPair<N> endpoints : layoutModel.getGraph().edges()) {
+      N node1 = endpoints.nodeU();
+      N node2 = endpoints.nodeV();
+
+      Point p1 = this.layoutModel.get(node1);
+      Point p2 = this.layoutModel.get(node2);
+      if (p1 == null || p2 == null) {
+        continue;
       }
-    } catch (ConcurrentModificationException cme) {
-      relaxEdges();
+      double vx = p1.x - p2.x;
+      double vy = p1.y - p2.y;
+      double vz = p1.z - p2.z;
+      double len = Math.sqrt(vx * vx + vy * vy + vz * vz);
+
+      double desiredLen = lengthFunction.apply(endpoints);
+
+      // round from zero, if needed [zero would be Bad.].
+      len = (len == 0) ? .0001 : len;
+
+      double f = force_multiplier * (desiredLen - len) / len;
+
+      f = f * Math.pow(stretch, (graph.degree(node1) + graph.degree(node2) - 2));
+
+      // the actual movement distance 'dx' is the force multiplied by the
+      // distance to go.
+      double dx = f * vx;
+      double dy = f * vy;
+      double dz = f * vz;
+      SpringNodeData v1D, v2D;
+      v1D = springNodeData.getUnchecked(node1);
+      v2D = springNodeData.getUnchecked(node2);
+
+      v1D.edgedx += dx;
+      v1D.edgedy += dy;
+      v1D.edgedz += dz;
+      v2D.edgedx += -dx;
+      v2D.edgedy += -dy;
+      v2D.edgedz += -dz;
     }
   }
 
   protected void calculateRepulsion() {
     Graph<N> graph = layoutModel.getGraph();
 
-    try {
-      for (N node : graph.nodes()) {
-        if (layoutModel.isLocked(node)) {
-          continue;
-        }
+    for (N node : graph.nodes()) {
+      if (layoutModel.isLocked(node)) {
+        continue;
+      }
 
-        SpringNodeData svd = springNodeData.getUnchecked(node);
-        if (svd == null) {
+      SpringNodeData svd = springNodeData.getUnchecked(node);
+      if (svd == null) {
+        continue;
+      }
+      double dx = 0, dy = 0, dz = 0;
+
+      for (N node2 : graph.nodes()) {
+        if (node == node2) {
           continue;
         }
-        double dx = 0, dy = 0, dz = 0;
-
-        for (N node2 : graph.nodes()) {
-          if (node == node2) {
-            continue;
-          }
-          Point p = layoutModel.apply(node);
-          Point p2 = layoutModel.apply(node2);
-          if (p == null || p2 == null) {
-            continue;
-          }
-          double vx = p.x - p2.x;
-          double vy = p.y - p2.y;
-          double vz = p.z - p2.z;
-          double distanceSq = p.distanceSquared(p2);
-          if (distanceSq == 0) {
-            dx += Math.random();
-            dy += Math.random();
-            dz += Math.random();
-          } else if (distanceSq < repulsion_range_sq) {
-            double factor = 1;
-            dx += factor * vx / distanceSq;
-            dy += factor * vy / distanceSq;
-            dz += factor * vz / distanceSq;
-          }
+        Point p = layoutModel.apply(node);
+        Point p2 = layoutModel.apply(node2);
+        if (p == null || p2 == null) {
+          continue;
         }
-        double dlen = dx * dx + dy * dy + dz * dz;
-        if (dlen > 0) {
-          dlen = Math.sqrt(dlen) / 2;
-          svd.repulsiondx += dx / dlen;
-          svd.repulsiondy += dy / dlen;
-          svd.repulsiondz += dz / dlen;
+        double vx = p.x - p2.x;
+        double vy = p.y - p2.y;
+        double vz = p.z - p2.z;
+        double distanceSq = p.distanceSquared(p2);
+        if (distanceSq == 0) {
+          dx += Math.random();
+          dy += Math.random();
+          dz += Math.random();
+        } else if (distanceSq < repulsion_range_sq) {
+          double factor = 1;
+          dx += factor * vx / distanceSq;
+          dy += factor * vy / distanceSq;
+          dz += factor * vz / distanceSq;
         }
       }
-    } catch (ConcurrentModificationException cme) {
-      calculateRepulsion();
+      double dlen = dx * dx + dy * dy + dz * dz;
+      if (dlen > 0) {
+        dlen = Math.sqrt(dlen) / 2;
+        svd.repulsiondx += dx / dlen;
+        svd.repulsiondy += dy / dlen;
+        svd.repulsiondz += dz / dlen;
+      }
     }
   }
 
@@ -233,55 +277,55 @@ public class SpringLayoutAlgorithm<N> extends AbstractIterativeLayoutAlgorithm<N
     Graph<N> graph = layoutModel.getGraph();
 
     synchronized (layoutModel) {
-      try {
-        for (N node : graph.nodes()) {
-          if (layoutModel.isLocked(node)) {
-            continue;
-          }
-          SpringNodeData vd = springNodeData.getUnchecked(node);
-          if (vd == null) {
-            continue;
-          }
-          Point xyd = layoutModel.apply(node);
-          double posX = xyd.x;
-          double posY = xyd.y;
-          double posZ = xyd.z;
-
-          vd.dx += vd.repulsiondx + vd.edgedx;
-          vd.dy += vd.repulsiondy + vd.edgedy;
-          vd.dz += vd.repulsiondz + vd.edgedz;
-
-          // keeps nodes from moving any faster than 5 per time unit\
-          posX = posX + Math.max(-5, Math.min(5, vd.dx));
-          posY = posY + Math.max(-5, Math.min(5, vd.dy));
-          posZ = posZ + Math.max(-5, Math.min(5, vd.dz));
-
-          int radiusX = layoutModel.getWidth() / 2;
-          int radiusY = layoutModel.getHeight() / 2;
-          int radiusZ = layoutModel.getDepth() / 2;
-
-          if (posX < -radiusX) {
-            posX = -radiusX;
-          } else if (posX > radiusX) {
-            posX = radiusX;
-          }
-          if (posY < -radiusY) {
-            posY = -radiusY;
-          } else if (posY > radiusY) {
-            posY = radiusY;
-          }
-          if (posZ < -radiusZ) {
-            posZ = -radiusZ;
-          } else if (posZ > radiusZ) {
-            posZ = radiusZ;
-          }
-
-          // after the bounds have been honored above, really set the location
-          // in the layout model
-          layoutModel.set(node, posX, posY, posZ);
+      for (N node : graph.nodes()) {
+        if (layoutModel.isLocked(node)) {
+          continue;
+        }
+        SpringNodeData vd = springNodeData.getUnchecked(node);
+        if (vd == null) {
+          continue;
+        }
+        Point xyd = layoutModel.apply(node);
+        double posX = xyd.x;
+        double posY = xyd.y;
+        double posZ = xyd.z;
+
+        vd.dx += vd.repulsiondx + vd.edgedx;
+        vd.dy += vd.repulsiondy + vd.edgedy;
+        vd.dz += vd.repulsiondz + vd.edgedz;
+
+        // keeps nodes from moving any faster than 5 per time unit\
+        double limit = 5 * mobility(node);
+        posX = posX + Math.max(-limit, Math.min(limit, vd.dx));
+        posY = posY + Math.max(-limit, Math.min(limit, vd.dy));
+        posZ = posZ + Math.max(-limit, Math.min(limit, vd.dz));
+
+        int radiusX = layoutModel.getWidth() / 2;
+        int radiusY = layoutModel.getHeight() / 2;
+        int radiusZ = layoutModel.getDepth() / 2;
+
+        if (posX < -radiusX) {
+          posX = -radiusX;
+        } else if (posX > radiusX) {
+          posX = radiusX;
+        }
+        if (posY < -radiusY) {
+          posY = -radiusY;
+        } else if (posY > radiusY) {
+          posY = radiusY;
+        }
+        if (posZ < -radiusZ) {
+          posZ = -radiusZ;
+        } else if (posZ > radiusZ) {
+          posZ = radiusZ;
+        }
+
+        // after the bounds have been honored above, really set the location
+        // in the layout model
+        if (stepRecorder.isEnabled()) {
+          stepRecorder.displacement(xyd.distance(Point.of(posX, posY, posZ)));
         }
-      } catch (ConcurrentModificationException cme) {
-        moveNodes();
+        layoutModel.set(node, posX, posY, posZ);
       }
     }
   }
@@ -11,15 +11,25 @@
 package edu.uci.ics.jung.layout3d.algorithms;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
+import com.google.common.graph.Graph;
 import edu.uci.ics.jung.graph.util.TreeUtils;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import java.util.Collection;
+import edu.uci.ics.jung.layout3d.util.IndexedLocations;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,9 +91,22 @@ public class TreeLayoutAlgorithm<N> implements LayoutAlgorithm<N> {
     this.zNodeSpacing = zNodeSpacing;
   }
 
-  protected Map<N, Integer> basePositions = new HashMap<>();
+  /** the width and height of the subtree under each node */
+  protected Map<N, int[]> subtreeSizes = new HashMap<>();
 
-  protected transient Set<N> alreadyDone = new HashSet<N>();
+  /**
+   * the width of the subtree under each node
+   *
+   * @deprecated a read-only view of the widths in {@link #subtreeSizes}
+   */
+  @Deprecated protected Map<N, Integer> basePositions = widths(subtreeSizes);
+
+  /**
+   * the nodes that were laid out
+   *
+   * @deprecated a read-only view of the keys of {@link #subtreeSizes}
+   */
+  @Deprecated protected transient Set<N> alreadyDone = Collections.emptySet();
 
   /** The default x node spacing. Initialized to 50. */
   protected static final int DEFAULT_X_NODE_SPACING = 50;
@@ -112,101 +135,253 @@ public class TreeLayoutAlgorithm<N> implements LayoutAlgorithm<N> {
     buildTree(layoutModel);
   }
 
+  /**
+   * Lays out the forest without recursion. The subtree sizes and the position of every node
+   * relative to its root are computed for the roots in parallel, with a fork-join over the roots
+   * that gives each root its own size map. The maps are merged in root order, the roots are placed
+   * side by side, and all of the locations are written at once.
+   */
   protected void buildTree(LayoutModel<N> layoutModel) {
-    alreadyDone = Sets.newHashSet();
+    Graph<N> graph = layoutModel.getGraph();
+    subtreeSizes = new HashMap<>();
+    basePositions = widths(subtreeSizes);
+    alreadyDone = Collections.unmodifiableSet(subtreeSizes.keySet());
     this.currentX = 0;
     this.currentY = 0;
     this.currentZ = 0;
-    Set<N> roots = TreeUtils.roots(layoutModel.getGraph());
-    Preconditions.checkArgument(roots.size() > 0);
+    Set<N> roots = TreeUtils.roots(graph);
+    Preconditions.checkArgument(roots.size() > 0, "the graph has no root");
+    List<Subtree> subtrees =
+        ForkJoinPool.commonPool().invoke(new SubtreeTask(graph, new ArrayList<>(roots)));
+    for (Subtree subtree : subtrees) {
+      // a subtree reachable from more than one root has the same size under each
+      subtree.sizes.forEach(subtreeSizes::putIfAbsent);
+    }
+
     // the width of the tree under 'roots'. Includes one 'xNodeSpacing' per child node
-    int overallWidth = calculateOverallWidth(layoutModel, roots);
+    int overallWidth = 0;
+    int overallHeight = 0;
+    int count = 0;
+    for (Subtree subtree : subtrees) {
+      int[] size = subtreeSizes.get(subtree.root);
+      overallWidth += size[0];
+      overallHeight += size[1];
+      count += subtree.size;
+    }
     // add one additional 'xNodeSpacing' for each tree (each root)
     overallWidth += (roots.size() + 1) * xNodeSpacing;
-    int overallHeight = calculateOverallHeight(layoutModel, roots);
     overallHeight += 2 * yNodeSpacing;
     int overallDepth = overallWidth;
     layoutModel.setSize(
         Math.max(layoutModel.getWidth(), overallWidth),
         Math.max(layoutModel.getHeight(), overallHeight),
         Math.max(layoutModel.getDepth(), overallDepth));
-    // for every root in the forest or tree, descend and layout a circle of children in
-    // the x/z plane, centered at the x,y_spacing,z of the root
-    for (N root : roots) {
-      calculateLocalWidth(layoutModel, root);
-      // pass down the center and radius for the circle
-      currentX += (this.basePositions.get(root) / 2 + this.xNodeSpacing);
+
+    // for every root in the forest or tree, lay out its children in the x/y plane, at a z
+    // equal to the x of the root
+    Object[] nodes = new Object[count];
+    double[] x = new double[count];
+    double[] y = new double[count];
+    double[] z = new double[count];
+    // nodes reachable from more than one root belong to the first root that reaches them
+    Set<N> claimed = roots.size() > 1 ? new HashSet<>() : null;
+    int placed = 0;
+    for (Subtree subtree : subtrees) {
+      currentX += (subtreeSizes.get(subtree.root)[0] / 2 + this.xNodeSpacing);
       currentZ = currentX;
-      buildTree(layoutModel, root, (int) currentX);
+      int rootX = (int) currentX;
+      for (int i = 0; i < subtree.size; i++) {
+        N node = (N) subtree.nodes[i];
+        if (claimed != null && subtree.shared[i] && !claimed.add(node)) {
+          continue;
+        }
+        nodes[placed] = node;
+        x[placed] = rootX + subtree.x[i];
+        y[placed] = (subtree.depth[i] + 1) * yNodeSpacing;
+        z[placed] = currentZ;
+        // the next root is placed relative to the last node placed
+        currentX = x[placed];
+        placed++;
+      }
     }
+    layoutModel.setLocations(new IndexedLocations<>(nodes, x, y, z, placed));
   }
 
+  /**
+   * Lay out the tree under the passed node, with the node at {@code x}, one level below {@code
+   * currentY}.
+   *
+   * @deprecated the forest is laid out by {@link #buildTree(LayoutModel)}, and this delegates to
+   *     the same code for a single tree
+   */
+  @Deprecated
   protected void buildTree(LayoutModel<N> layoutModel, N node, int x) {
-    if (alreadyDone.add(node)) {
-      //go one level further down
-      double newY = this.currentY + this.yNodeSpacing;
-      this.currentX = x;
-      this.currentY = newY;
-      layoutModel.set(node, currentX, currentY, currentZ);
-
-      int sizeXofCurrent = basePositions.get(node);
-
-      int lastX = x - sizeXofCurrent / 2;
+    Subtree subtree = layoutSubtree(layoutModel.getGraph(), node);
+    subtree.sizes.forEach(subtreeSizes::putIfAbsent);
+    double[] xs = new double[subtree.size];
+    double[] ys = new double[subtree.size];
+    double[] zs = new double[subtree.size];
+    for (int i = 0; i < subtree.size; i++) {
+      xs[i] = x + subtree.x[i];
+      ys[i] = currentY + (subtree.depth[i] + 1) * yNodeSpacing;
+      zs[i] = currentZ;
+    }
+    currentX = xs[subtree.size - 1];
+    layoutModel.setLocations(new IndexedLocations<>(subtree.nodes, xs, ys, zs, subtree.size));
+  }
 
-      int sizeXofChild;
-      int startXofChild;
+  /** lays out the subtrees of a list of roots, forking for each half of the list */
+  private class SubtreeTask extends RecursiveTask<List<Subtree>> {
+    private final Graph<N> graph;
+    private final List<N> roots;
 
-      for (N element : layoutModel.getGraph().successors(node)) {
-        sizeXofChild = this.basePositions.get(element);
-        startXofChild = lastX + sizeXofChild / 2;
-        buildTree(layoutModel, element, startXofChild);
+    SubtreeTask(Graph<N> graph, List<N> roots) {
+      this.graph = graph;
+      this.roots = roots;
+    }
 
-        lastX = lastX + sizeXofChild + xNodeSpacing;
+    @Override
+    protected List<Subtree> compute() {
+      if (roots.size() == 1) {
+        return Collections.singletonList(layoutSubtree(graph, roots.get(0)));
       }
-
-      this.currentY -= this.yNodeSpacing;
+      int middle = roots.size() / 2;
+      SubtreeTask first = new SubtreeTask(graph, roots.subList(0, middle));
+      SubtreeTask second = new SubtreeTask(graph, roots.subList(middle, roots.size()));
+      first.fork();
+      List<Subtree> secondSubtrees = second.compute();
+      // in root order, so that the first root to reach a shared node claims it
+      List<Subtree> subtrees = new ArrayList<>(first.join());
+      subtrees.addAll(secondSubtrees);
+      return subtrees;
     }
   }
 
-  private int calculateLocalWidth(LayoutModel<N> layoutModel, N node) {
-
-    int localWidth = 0;
-    for (N element : layoutModel.getGraph().successors(node)) {
-      localWidth += calculateLocalWidth(layoutModel, element) + xNodeSpacing;
+  /**
+   * the nodes under a root in depth first order, with their x offsets from the root and depths, and
+   * the sizes of their subtrees
+   */
+  private class Subtree {
+    final N root;
+    final Map<N, int[]> sizes = new HashMap<>();
+    Object[] nodes = new Object[16];
+    int[] x = new int[16];
+    int[] depth = new int[16];
+    // true when the node may also be reachable from another root
+    boolean[] shared = new boolean[16];
+    int size;
+
+    Subtree(N root) {
+      this.root = root;
     }
-    localWidth = Math.max(0, localWidth - xNodeSpacing);
-    basePositions.put(node, localWidth);
 
-    return localWidth;
+    void add(Object node, int nodeX, int nodeDepth, boolean nodeShared) {
+      if (size == nodes.length) {
+        int capacity = size * 2;
+        nodes = Arrays.copyOf(nodes, capacity);
+        x = Arrays.copyOf(x, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        shared = Arrays.copyOf(shared, capacity);
+      }
+      nodes[size] = node;
+      x[size] = nodeX;
+      depth[size] = nodeDepth;
+      shared[size] = nodeShared;
+      size++;
+    }
   }
 
-  private int calculateOverallWidth(LayoutModel<N> layoutModel, Collection<N> roots) {
-
-    int overallWidth = 0;
-    for (N node : roots) {
-      overallWidth += calculateLocalWidth(layoutModel, node);
+  /** a node on the explicit stack of a depth first traversal */
+  private class Frame {
+    final N node;
+    final Iterator<N> kids;
+    // post-order: the summed child widths and the tallest child height
+    int width;
+    int height;
+    // pre-order: where the next child subtree starts, and the node's depth and reach
+    int lastX;
+    int depth;
+    boolean shared;
+
+    Frame(Graph<N> graph, N node) {
+      this.node = node;
+      this.kids = graph.successors(node).iterator();
     }
-
-    return overallWidth;
   }
 
-  private int calculateLocalHeight(LayoutModel<N> layoutModel, N node) {
-
-    int localHeight = 0;
-    for (N element : layoutModel.getGraph().successors(node)) {
-      localHeight =
-          Math.max(localHeight, calculateLocalHeight(layoutModel, element) + yNodeSpacing);
+  private Subtree layoutSubtree(Graph<N> graph, N root) {
+    Subtree subtree = new Subtree(root);
+    Map<N, int[]> sizes = subtree.sizes;
+    calculateSizes(graph, root, sizes);
+    // only nodes with more than one predecessor can be reached more than once
+    Set<N> visited = new HashSet<>();
+    Deque<Frame> stack = new ArrayDeque<>();
+    Frame rootFrame = new Frame(graph, root);
+    rootFrame.lastX = -sizes.get(root)[0] / 2;
+    stack.push(rootFrame);
+    subtree.add(root, 0, 0, false);
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (!frame.kids.hasNext()) {
+        stack.pop();
+        continue;
+      }
+      N kid = frame.kids.next();
+      int sizeXofChild = sizes.get(kid)[0];
+      int startXofChild = frame.lastX + sizeXofChild / 2;
+      frame.lastX += sizeXofChild + xNodeSpacing;
+      boolean shared = frame.shared || graph.inDegree(kid) > 1;
+      if (graph.inDegree(kid) > 1 && !visited.add(kid)) {
+        continue;
+      }
+      Frame kidFrame = new Frame(graph, kid);
+      kidFrame.depth = frame.depth + 1;
+      kidFrame.shared = shared;
+      kidFrame.lastX = startXofChild - sizeXofChild / 2;
+      stack.push(kidFrame);
+      subtree.add(kid, startXofChild, kidFrame.depth, shared);
     }
-    return localHeight;
+    return subtree;
   }
 
-  private int calculateOverallHeight(LayoutModel<N> layoutModel, Collection<N> roots) {
-
-    int overallHeight = 0;
-    for (N node : roots) {
-      overallHeight += calculateLocalHeight(layoutModel, node);
+  /**
+   * Computes the width and height of the subtree under every node reachable from {@code root} in
+   * one post-order pass, skipping subtrees that are already in {@code sizes}.
+   */
+  private void calculateSizes(Graph<N> graph, N root, Map<N, int[]> sizes) {
+    if (sizes.containsKey(root)) {
+      return;
     }
-    return overallHeight;
+    int limit = graph.nodes().size();
+    Deque<Frame> stack = new ArrayDeque<>();
+    stack.push(new Frame(graph, root));
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      if (frame.kids.hasNext()) {
+        N kid = frame.kids.next();
+        int[] size = sizes.get(kid);
+        if (size != null) {
+          frame.width += size[0] + xNodeSpacing;
+          frame.height = Math.max(frame.height, size[1] + yNodeSpacing);
+        } else {
+          Preconditions.checkArgument(stack.size() <= limit, "the graph has a cycle");
+          stack.push(new Frame(graph, kid));
+        }
+        continue;
+      }
+      stack.pop();
+      int[] size = {Math.max(0, frame.width - xNodeSpacing), frame.height};
+      sizes.put(frame.node, size);
+      Frame parent = stack.peek();
+      if (parent != null) {
+        parent.width += size[0] + xNodeSpacing;
+        parent.height = Math.max(parent.height, size[1] + yNodeSpacing);
+      }
+    }
+  }
+
+  private static <N> Map<N, Integer> widths(Map<N, int[]> subtreeSizes) {
+    return Collections.unmodifiableMap(Maps.transformValues(subtreeSizes, size -> size[0]));
   }
 
   /** @return the center of this layout's area. */
@@ -89,6 +89,11 @@ public class BarnesHutFRRepulsion<N>
     tree.rebuild(layoutModel.getLocations());
   }
 
+  @Override
+  public BarnesHutOctTree<N> getTree() {
+    return tree;
+  }
+
   @Override
   public void calculateRepulsion() {
     for (N node1 : layoutModel.getGraph().nodes()) {
@@ -1,6 +1,7 @@
 package edu.uci.ics.jung.layout3d.algorithms.repulsion;
 
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.spatial.BarnesHutOctTree;
 
 /**
  * @author Tom Nelson
@@ -21,4 +22,7 @@ public interface BarnesHutRepulsion<
 
     R build();
   }
+
+  /** @return the tree that forces are gathered from, as rebuilt by the last {@code step()} */
+  BarnesHutOctTree<N> getTree();
 }
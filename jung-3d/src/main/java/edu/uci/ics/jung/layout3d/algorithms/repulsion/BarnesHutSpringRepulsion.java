@@ -8,7 +8,6 @@ import edu.uci.ics.jung.layout3d.model.Point;
 import edu.uci.ics.jung.layout3d.spatial.BarnesHutOctTree;
 import edu.uci.ics.jung.layout3d.spatial.ForceObject;
 import edu.uci.ics.jung.layout3d.spatial.Node;
-import java.util.ConcurrentModificationException;
 import java.util.Random;
 
 /**
@@ -88,61 +87,62 @@ public class BarnesHutSpringRepulsion<N>
     tree.rebuild(layoutModel.getLocations());
   }
 
+  @Override
+  public BarnesHutOctTree<N> getTree() {
+    return tree;
+  }
+
   public void calculateRepulsion() {
     Graph<N> graph = layoutModel.getGraph();
 
-    try {
-      for (N node : graph.nodes()) {
-
-        if (layoutModel.isLocked(node)) {
-          continue;
-        }
-
-        SpringLayoutAlgorithm.SpringNodeData svd = springNodeData.getUnchecked(node);
-        if (svd == null) {
-          continue;
-        }
-        ForceObject<N> nodeForceObject =
-            new ForceObject(node, layoutModel.apply(node)) {
-              @Override
-              protected void addForceFrom(ForceObject other) {
-
-                if (other == null || node == other.getElement()) {
-                  return;
-                }
-                Point p = this.p;
-                Point p2 = other.p;
-                if (p == null || p2 == null) {
-                  return;
-                }
-                double vx = p.x - p2.x;
-                double vy = p.y - p2.y;
-                double vz = p.z - p2.z;
-                double distanceSq = p.distanceSquared(p2);
-                if (distanceSq == 0) {
-                  f = f.add(random.nextDouble(), random.nextDouble(), random.nextDouble());
-                } else if (distanceSq < repulsionRangeSquared) {
-                  double factor = 1;
-                  f =
-                      f.add(
-                          factor * vx / distanceSq,
-                          factor * vy / distanceSq,
-                          factor * vz / distanceSq);
-                }
+    for (N node : graph.nodes()) {
+
+      if (layoutModel.isLocked(node)) {
+        continue;
+      }
+
+      SpringLayoutAlgorithm.SpringNodeData svd = springNodeData.getUnchecked(node);
+      if (svd == null) {
+        continue;
+      }
+      ForceObject<N> nodeForceObject =
+          new ForceObject(node, layoutModel.apply(node)) {
+            @Override
+            protected void addForceFrom(ForceObject other) {
+
+              if (other == null || node == other.getElement()) {
+                return;
+              }
+              Point p = this.p;
+              Point p2 = other.p;
+              if (p == null || p2 == null) {
+                return;
+              }
+              double vx = p.x - p2.x;
+              double vy = p.y - p2.y;
+              double vz = p.z - p2.z;
+              double distanceSq = p.distanceSquared(p2);
+              if (distanceSq == 0) {
+                f = f.add(random.nextDouble(), random.nextDouble(), random.nextDouble());
+              } else if (distanceSq < repulsionRangeSquared) {
+                double factor = 1;
+                f =
+                    f.add(
+                        factor * vx / distanceSq,
+                        factor * vy / distanceSq,
+                        factor * vz / distanceSq);
               }
-            };
-        tree.applyForcesTo(nodeForceObject);
-        Point f = nodeForceObject.f;
-        double dlen = f.x * f.x + f.y * f.y + f.z * f.z;
-        if (dlen > 0) {
-          dlen = Math.sqrt(dlen) / 2;
-          svd.repulsiondx += f.x / dlen;
-          svd.repulsiondy += f.y / dlen;
-          svd.repulsiondz += f.z / dlen;
-        }
+            }
+          };
+      tree.applyForcesTo(nodeForceObject);
+      Point f = nodeForceObject.f;
+      double dlen = f.x * f.x + f.y * f.y + f.z * f.z;
+      if (dlen > 0) {
+        dlen = Math.sqrt(dlen) / 2;
+        svd.repulsiondx += f.x / dlen;
+        svd.repulsiondy += f.y / dlen;
+        svd.repulsiondz += f.z / dlen;
       }
-    } catch (ConcurrentModificationException cme) {
-      calculateRepulsion();
     }
   }
 }
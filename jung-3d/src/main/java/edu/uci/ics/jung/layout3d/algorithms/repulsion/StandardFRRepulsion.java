@@ -5,7 +5,6 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import java.util.ConcurrentModificationException;
 import java.util.Random;
 
 /**
@@ -92,35 +91,31 @@ public class StandardFRRepulsion<
       }
       frNodeData.put(node1, Point.ORIGIN);
 
-      try {
-        for (N node2 : layoutModel.getGraph().nodes()) {
-
-          if (node1 != node2) {
-            fvd1 = frNodeData.getUnchecked(node1);
-            Point p1 = layoutModel.apply(node1);
-            Point p2 = layoutModel.apply(node2);
-            if (p1 == null || p2 == null) {
-              continue;
-            }
-            double dx = p1.x - p2.x;
-            double dy = p1.y - p2.y;
-            double dz = p1.z - p2.z;
-
-            double dist = Math.sqrt(dx * dx + dy * dy + dz * dz);
-            if (dist == 0) dist = 0.001;
-
-            double force = (repulsionConstant * repulsionConstant) / dist;
-
-            if (Double.isNaN(force)) {
-              throw new RuntimeException(
-                  "Unexpected mathematical result in FRLayout:calcPositions [repulsion]");
-            }
-            fvd1 = fvd1.add((dx / dist) * force, (dy / dist) * force, (dz / dist) * force);
-            frNodeData.put(node1, fvd1);
+      for (N node2 : layoutModel.getGraph().nodes()) {
+
+        if (node1 != node2) {
+          fvd1 = frNodeData.getUnchecked(node1);
+          Point p1 = layoutModel.apply(node1);
+          Point p2 = layoutModel.apply(node2);
+          if (p1 == null || p2 == null) {
+            continue;
+          }
+          double dx = p1.x - p2.x;
+          double dy = p1.y - p2.y;
+          double dz = p1.z - p2.z;
+
+          double dist = Math.sqrt(dx * dx + dy * dy + dz * dz);
+          if (dist == 0) dist = 0.001;
+
+          double force = (repulsionConstant * repulsionConstant) / dist;
+
+          if (Double.isNaN(force)) {
+            throw new RuntimeException(
+                "Unexpected mathematical result in FRLayout:calcPositions [repulsion]");
           }
+          fvd1 = fvd1.add((dx / dist) * force, (dy / dist) * force, (dz / dist) * force);
+          frNodeData.put(node1, fvd1);
         }
-      } catch (ConcurrentModificationException cme) {
-        calculateRepulsion();
       }
     }
   }
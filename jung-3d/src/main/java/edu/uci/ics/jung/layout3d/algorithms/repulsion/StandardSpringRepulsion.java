@@ -5,7 +5,6 @@ import com.google.common.graph.Graph;
 import edu.uci.ics.jung.layout3d.algorithms.SpringLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
-import java.util.ConcurrentModificationException;
 import java.util.Random;
 
 /**
@@ -188,52 +187,48 @@ public class StandardSpringRepulsion<
   public void calculateRepulsion() {
     Graph<N> graph = layoutModel.getGraph();
 
-    try {
-      for (N node : graph.nodes()) {
-        if (layoutModel.isLocked(node)) {
-          continue;
-        }
+    for (N node : graph.nodes()) {
+      if (layoutModel.isLocked(node)) {
+        continue;
+      }
 
-        SpringLayoutAlgorithm.SpringNodeData svd = springNodeData.getUnchecked(node);
-        if (svd == null) {
+      SpringLayoutAlgorithm.SpringNodeData svd = springNodeData.getUnchecked(node);
+      if (svd == null) {
+        continue;
+      }
+      double dx = 0, dy = 0, dz = 0;
+
+      for (N node2 : graph.nodes()) {
+        if (node == node2) {
           continue;
         }
-        double dx = 0, dy = 0, dz = 0;
-
-        for (N node2 : graph.nodes()) {
-          if (node == node2) {
-            continue;
-          }
-          Point p = layoutModel.apply(node);
-          Point p2 = layoutModel.apply(node2);
-          if (p == null || p2 == null) {
-            continue;
-          }
-          double vx = p.x - p2.x;
-          double vy = p.y - p2.y;
-          double vz = p.z - p2.z;
-          double distanceSq = p.distanceSquared(p2);
-          if (distanceSq == 0) {
-            dx += random.nextDouble();
-            dy += random.nextDouble();
-            dz += random.nextDouble();
-          } else if (distanceSq < repulsionRangeSquared) {
-            double factor = 1;
-            dx += factor * vx / distanceSq;
-            dy += factor * vy / distanceSq;
-            dz += factor * vz / distanceSq;
-          }
+        Point p = layoutModel.apply(node);
+        Point p2 = layoutModel.apply(node2);
+        if (p == null || p2 == null) {
+          continue;
         }
-        double dlen = dx * dx + dy * dy + dz * dz;
-        if (dlen > 0) {
-          dlen = Math.sqrt(dlen) / 2;
-          svd.repulsiondx += dx / dlen;
-          svd.repulsiondy += dy / dlen;
-          svd.repulsiondz += dz / dlen;
+        double vx = p.x - p2.x;
+        double vy = p.y - p2.y;
+        double vz = p.z - p2.z;
+        double distanceSq = p.distanceSquared(p2);
+        if (distanceSq == 0) {
+          dx += random.nextDouble();
+          dy += random.nextDouble();
+          dz += random.nextDouble();
+        } else if (distanceSq < repulsionRangeSquared) {
+          double factor = 1;
+          dx += factor * vx / distanceSq;
+          dy += factor * vy / distanceSq;
+          dz += factor * vz / distanceSq;
         }
       }
-    } catch (ConcurrentModificationException cme) {
-      calculateRepulsion();
+      double dlen = dx * dx + dy * dy + dz * dz;
+      if (dlen > 0) {
+        dlen = Math.sqrt(dlen) / 2;
+        svd.repulsiondx += dx / dlen;
+        svd.repulsiondy += dy / dlen;
+        svd.repulsiondz += dz / dlen;
+      }
     }
   }
 }
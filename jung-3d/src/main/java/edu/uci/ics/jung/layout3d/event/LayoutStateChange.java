@@ -40,6 +40,13 @@ public interface LayoutStateChange {
     List<LayoutStateChange.Listener> getLayoutStateChangeListeners();
 
     void fireLayoutStateChanged(LayoutModel layoutModel, boolean state);
+
+    /**
+     * @param layoutModel the source of the event
+     * @param state whether the LayoutModel is active
+     * @param progress the fraction of the pre-relax phase that is done, from 0 to 1
+     */
+    void fireLayoutStateChanged(LayoutModel layoutModel, boolean state, double progress);
   }
 
   /** implementations for a producer of this event model */
@@ -83,9 +90,14 @@ public interface LayoutStateChange {
 
     @Override
     public void fireLayoutStateChanged(LayoutModel layoutModel, boolean state) {
+      fireLayoutStateChanged(layoutModel, state, Event.NO_PROGRESS);
+    }
+
+    @Override
+    public void fireLayoutStateChanged(LayoutModel layoutModel, boolean state, double progress) {
       if (fireEvents && changeListeners.size() > 0) {
         // make an event and fire it
-        LayoutStateChange.Event evt = new LayoutStateChange.Event(layoutModel, state);
+        LayoutStateChange.Event evt = new LayoutStateChange.Event(layoutModel, state, progress);
         for (int i = changeListeners.size() - 1; i >= 0; i--) {
           changeListeners.get(i).layoutStateChanged(evt);
         }
@@ -97,20 +109,43 @@ public interface LayoutStateChange {
    * the event payload produced by this event model and consumed by its Listener consumers. Contains
    * a reference to the LayoutModel and a boolean flag indicating whether the LayoutModel is
    * currently active or not. The LayoutModel is considered active when a relaxer thread is applying
-   * a LayoutAlgorithm to change Node positions
+   * a LayoutAlgorithm to change Node positions. While the LayoutAlgorithm is pre-relaxing, the
+   * progress is the fraction of the pre-relax phase that is done, reaching 1 when it completes.
+   * Otherwise it is {@link #NO_PROGRESS}.
    */
   class Event {
+    /** the progress of an event that is not about the pre-relax phase */
+    public static final double NO_PROGRESS = -1;
+
     public final LayoutModel layoutModel;
     public final boolean active;
+    public final double progress;
 
     public Event(LayoutModel layoutModel, boolean active) {
+      this(layoutModel, active, NO_PROGRESS);
+    }
+
+    public Event(LayoutModel layoutModel, boolean active, double progress) {
       this.layoutModel = layoutModel;
       this.active = active;
+      this.progress = progress;
+    }
+
+    /** @return true if the LayoutAlgorithm is pre-relaxing and has not finished */
+    public boolean isPreRelaxing() {
+      return active && progress >= 0 && progress < 1;
     }
 
     @Override
     public String toString() {
-      return "LayoutStateChange.Event{" + "layoutModel=" + layoutModel + ", active=" + active + '}';
+      return "LayoutStateChange.Event{"
+          + "layoutModel="
+          + layoutModel
+          + ", active="
+          + active
+          + ", progress="
+          + progress
+          + '}';
     }
   }
 
@@ -0,0 +1,224 @@
+package edu.uci.ics.jung.layout3d.metrics;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the {@link StepMetrics} of a layout as it relaxes, passes each of them to the registered
+ * {@link StepMetrics.Listener}s, and keeps running totals that can be read directly or through JMX
+ * once {@link #registerMBean(String) registered}. The listeners are called on the thread that steps
+ * the algorithm, so they should return quickly.
+ *
+ * <p>Attach an instance to a {@code LayoutModel} (or directly to an {@code
+ * IterativeLayoutAlgorithm}) to start recording. Nothing is recorded, and nothing is measured, by a
+ * layout without metrics.
+ *
+ * @author Tom Nelson
+ */
+public class LayoutMetrics implements LayoutMetricsMXBean {
+
+  private static final Logger log = LoggerFactory.getLogger(LayoutMetrics.class);
+
+  /** the domain of the ObjectNames that instances are registered under */
+  public static final String JMX_DOMAIN = "edu.uci.ics.jung.layout3d";
+
+  private final List<StepMetrics.Listener> listeners = new CopyOnWriteArrayList<>();
+
+  // time spent publishing events since the last step, added to the next step
+  private final AtomicLong pendingEventDispatchNanos = new AtomicLong();
+  private final AtomicLong extraCmeRetries = new AtomicLong();
+
+  // guarded by this
+  private StepMetrics last;
+  private long stepCount;
+  private long totalStepNanos;
+  private long maxStepNanos;
+  private long lastStepEnded;
+  private long cmeRetries;
+
+  private ObjectName objectName;
+
+  public void addListener(StepMetrics.Listener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(StepMetrics.Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /** record a completed step, and pass it to the listeners */
+  public void record(StepMetrics metrics) {
+    synchronized (this) {
+      last = metrics;
+      stepCount++;
+      totalStepNanos += metrics.getStepNanos();
+      maxStepNanos = Math.max(maxStepNanos, metrics.getStepNanos());
+      lastStepEnded = System.nanoTime();
+      cmeRetries += metrics.getCmeRetries();
+    }
+    for (StepMetrics.Listener listener : listeners) {
+      listener.stepCompleted(metrics);
+    }
+  }
+
+  /** @param nanos the time taken to publish the changes of a frame to the model's listeners */
+  public void eventDispatched(long nanos) {
+    pendingEventDispatchNanos.addAndGet(nanos);
+  }
+
+  /** a step was abandoned because the graph was modified under it */
+  public void recordCmeRetry() {
+    extraCmeRetries.incrementAndGet();
+  }
+
+  long takeEventDispatchNanos() {
+    return pendingEventDispatchNanos.getAndSet(0);
+  }
+
+  /** @return the metrics of the last step, or null if there has been none */
+  public synchronized StepMetrics getLastStep() {
+    return last;
+  }
+
+  @Override
+  public synchronized String getAlgorithm() {
+    return last == null ? "" : last.getAlgorithm();
+  }
+
+  @Override
+  public synchronized long getStepCount() {
+    return stepCount;
+  }
+
+  @Override
+  public synchronized double getLastStepMillis() {
+    return last == null ? 0 : millis(last.getStepNanos());
+  }
+
+  @Override
+  public synchronized double getMeanStepMillis() {
+    return stepCount == 0 ? 0 : millis(totalStepNanos) / stepCount;
+  }
+
+  @Override
+  public synchronized double getMaxStepMillis() {
+    return millis(maxStepNanos);
+  }
+
+  @Override
+  public synchronized double getMillisSinceLastStep() {
+    return last == null ? -1 : millis(System.nanoTime() - lastStepEnded);
+  }
+
+  @Override
+  public synchronized Map<String, Double> getLastPhaseMillis() {
+    Map<String, Double> map = new LinkedHashMap<>();
+    if (last != null) {
+      for (Map.Entry<Phase, Long> entry : last.getPhaseNanos().entrySet()) {
+        map.put(entry.getKey().name(), millis(entry.getValue()));
+      }
+    }
+    return map;
+  }
+
+  @Override
+  public synchronized double getLastTotalDisplacement() {
+    return last == null ? 0 : last.getTotalDisplacement();
+  }
+
+  @Override
+  public synchronized double getLastMaxDisplacement() {
+    return last == null ? 0 : last.getMaxDisplacement();
+  }
+
+  @Override
+  public synchronized double getLastEnergy() {
+    return last == null ? Double.NaN : last.getEnergy();
+  }
+
+  @Override
+  public synchronized int getLastTreeDepth() {
+    return last == null ? -1 : last.getTreeDepth();
+  }
+
+  @Override
+  public synchronized long getLastInteractionCount() {
+    return last == null ? -1 : last.getInteractionCount();
+  }
+
+  @Override
+  public synchronized long getCmeRetryCount() {
+    return cmeRetries + extraCmeRetries.get();
+  }
+
+  @Override
+  public synchronized long getLastAllocatedBytes() {
+    return last == null ? -1 : last.getAllocatedBytes();
+  }
+
+  @Override
+  public synchronized void reset() {
+    last = null;
+    stepCount = 0;
+    totalStepNanos = 0;
+    maxStepNanos = 0;
+    lastStepEnded = 0;
+    cmeRetries = 0;
+    extraCmeRetries.set(0);
+    pendingEventDispatchNanos.set(0);
+  }
+
+  /**
+   * Register with the platform MBean server, replacing any earlier registration of this instance.
+   *
+   * @param name distinguishes this layout from others in the same JVM
+   * @return the name that was registered
+   */
+  public synchronized ObjectName registerMBean(String name) {
+    Preconditions.checkNotNull(name);
+    unregisterMBean();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName =
+          new ObjectName(JMX_DOMAIN + ":type=LayoutMetrics,name=" + ObjectName.quote(name));
+      server.registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException ex) {
+      objectName = null;
+      throw new IllegalArgumentException("could not register " + name, ex);
+    }
+  }
+
+  /** remove the registration made by {@link #registerMBean(String)}, if any */
+  public synchronized void unregisterMBean() {
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (JMException ex) {
+        log.warn("could not unregister {}", objectName, ex);
+      }
+      objectName = null;
+    }
+  }
+
+  private static double millis(long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LayoutMetrics{steps=" + stepCount + ", last=" + last + '}';
+  }
+}
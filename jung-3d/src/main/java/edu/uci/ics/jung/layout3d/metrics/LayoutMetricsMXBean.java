@@ -0,0 +1,50 @@
+package edu.uci.ics.jung.layout3d.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of {@link LayoutMetrics}. Times are in milliseconds.
+ *
+ * @author Tom Nelson
+ */
+public interface LayoutMetricsMXBean {
+
+  /** @return the simple name of the algorithm that took the last step */
+  String getAlgorithm();
+
+  long getStepCount();
+
+  double getLastStepMillis();
+
+  double getMeanStepMillis();
+
+  double getMaxStepMillis();
+
+  /** @return the time since the last step ended, or -1 if there has been none. Grows if stalled */
+  double getMillisSinceLastStep();
+
+  /** @return the time spent in each phase of the last step */
+  Map<String, Double> getLastPhaseMillis();
+
+  double getLastTotalDisplacement();
+
+  double getLastMaxDisplacement();
+
+  /** @return the energy of the last step, or NaN if the algorithm does not define one */
+  double getLastEnergy();
+
+  /** @return the depth of the Barnes-Hut tree in the last step, or -1 */
+  int getLastTreeDepth();
+
+  /** @return the node and cell interactions in the Barnes-Hut tree in the last step, or -1 */
+  long getLastInteractionCount();
+
+  /** @return the number of retries after graph modifications, over all steps */
+  long getCmeRetryCount();
+
+  /** @return the bytes allocated by the last step, or -1 if they cannot be measured */
+  long getLastAllocatedBytes();
+
+  /** forget everything recorded so far */
+  void reset();
+}
@@ -0,0 +1,167 @@
+package edu.uci.ics.jung.layout3d.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * What happened in one step of an {@code IterativeLayoutAlgorithm}: how long the step and each of
+ * its phases took, how far the nodes moved, the energy (for algorithms that define one), the shape
+ * of the Barnes-Hut tree (for algorithms that use one), how many times a step had to be retried
+ * because the graph was modified under it, and how many bytes the step allocated.
+ *
+ * @author Tom Nelson
+ */
+public final class StepMetrics {
+
+  /** the phases of a step. Not every algorithm has every phase */
+  public enum Phase {
+    /** rebuilding the Barnes-Hut tree */
+    TREE_REBUILD,
+    /** gathering repulsive forces */
+    REPULSION,
+    /** gathering attractive forces */
+    ATTRACTION,
+    /** moving the nodes */
+    MOVE,
+    /** publishing changes to listeners of the LayoutModel */
+    EVENT_DISPATCH
+  }
+
+  /** receives the metrics of every step */
+  public interface Listener {
+    void stepCompleted(StepMetrics metrics);
+  }
+
+  private final String algorithm;
+  private final long step;
+  private final long stepNanos;
+  private final long[] phaseNanos;
+  private final double totalDisplacement;
+  private final double maxDisplacement;
+  private final double energy;
+  private final int treeDepth;
+  private final long interactionCount;
+  private final int cmeRetries;
+  private final long allocatedBytes;
+
+  StepMetrics(
+      String algorithm,
+      long step,
+      long stepNanos,
+      long[] phaseNanos,
+      double totalDisplacement,
+      double maxDisplacement,
+      double energy,
+      int treeDepth,
+      long interactionCount,
+      int cmeRetries,
+      long allocatedBytes) {
+    this.algorithm = algorithm;
+    this.step = step;
+    this.stepNanos = stepNanos;
+    this.phaseNanos = phaseNanos;
+    this.totalDisplacement = totalDisplacement;
+    this.maxDisplacement = maxDisplacement;
+    this.energy = energy;
+    this.treeDepth = treeDepth;
+    this.interactionCount = interactionCount;
+    this.cmeRetries = cmeRetries;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  /** @return the simple name of the algorithm that took the step */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /** @return the number of the step, counting from 1 */
+  public long getStep() {
+    return step;
+  }
+
+  public long getStepNanos() {
+    return stepNanos;
+  }
+
+  /** @return the time spent in the phase, 0 if the step had no such phase */
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  /** @return the time spent in each phase that the step had */
+  public Map<Phase, Long> getPhaseNanos() {
+    Map<Phase, Long> map = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      if (phaseNanos[phase.ordinal()] > 0) {
+        map.put(phase, phaseNanos[phase.ordinal()]);
+      }
+    }
+    return map;
+  }
+
+  /** @return the sum of the distances moved by the nodes */
+  public double getTotalDisplacement() {
+    return totalDisplacement;
+  }
+
+  /** @return the largest distance moved by a node */
+  public double getMaxDisplacement() {
+    return maxDisplacement;
+  }
+
+  /** @return the energy of the layout, or NaN if the algorithm does not define one */
+  public double getEnergy() {
+    return energy;
+  }
+
+  /** @return the depth of the Barnes-Hut tree, or -1 if the algorithm does not use one */
+  public int getTreeDepth() {
+    return treeDepth;
+  }
+
+  /**
+   * @return the number of node and cell interactions in the Barnes-Hut tree, or -1 if the algorithm
+   *     does not use one
+   */
+  public long getInteractionCount() {
+    return interactionCount;
+  }
+
+  /** @return the number of times part of the step was retried after a graph modification */
+  public int getCmeRetries() {
+    return cmeRetries;
+  }
+
+  /** @return the bytes allocated by the step, or -1 if the JVM cannot measure them */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return "StepMetrics{"
+        + "algorithm="
+        + algorithm
+        + ", step="
+        + step
+        + ", stepNanos="
+        + stepNanos
+        + ", phaseNanos="
+        + getPhaseNanos()
+        + ", totalDisplacement="
+        + totalDisplacement
+        + ", maxDisplacement="
+        + maxDisplacement
+        + ", energy="
+        + energy
+        + ", treeDepth="
+        + treeDepth
+        + ", interactionCount="
+        + interactionCount
+        + ", cmeRetries="
+        + cmeRetries
+        + ", allocatedBytes="
+        + allocatedBytes
+        + '}';
+  }
+}
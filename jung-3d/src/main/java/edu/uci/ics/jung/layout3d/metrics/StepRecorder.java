@@ -0,0 +1,158 @@
+package edu.uci.ics.jung.layout3d.metrics;
+
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * Used by an {@code IterativeLayoutAlgorithm} to record the metrics of its steps. Until {@link
+ * LayoutMetrics} are attached, every method returns at once, so an algorithm can call them
+ * unconditionally. A recorder is used by the one thread that steps the algorithm.
+ *
+ * <p>A step is recorded between {@link #beginStep()} and {@link #endStep()}, which may be nested
+ * (for instance when a step is retried by calling {@code step()} again), in which case only the
+ * outermost pair counts.
+ *
+ * @author Tom Nelson
+ */
+public class StepRecorder {
+
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  private final String algorithm;
+  private volatile LayoutMetrics metrics;
+
+  private int nesting;
+  private long step;
+  private long stepStart;
+  private long allocationStart;
+  private Phase phase;
+  private long phaseStart;
+  private final long[] phaseNanos = new long[Phase.values().length];
+  private double totalDisplacement;
+  private double maxDisplacement;
+  private double energy;
+  private int treeDepth;
+  private long interactionCount;
+  private int cmeRetries;
+
+  /** @param algorithm the name of the algorithm whose steps are recorded */
+  public StepRecorder(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  /** @param metrics receives the recorded steps, or null to stop recording */
+  public void setMetrics(LayoutMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public LayoutMetrics getMetrics() {
+    return metrics;
+  }
+
+  public boolean isEnabled() {
+    return metrics != null;
+  }
+
+  public void beginStep() {
+    if (metrics == null || nesting++ > 0) {
+      return;
+    }
+    phase = null;
+    Arrays.fill(phaseNanos, 0);
+    totalDisplacement = 0;
+    maxDisplacement = 0;
+    energy = Double.NaN;
+    treeDepth = -1;
+    interactionCount = -1;
+    cmeRetries = 0;
+    allocationStart = allocatedBytes();
+    stepStart = System.nanoTime();
+  }
+
+  /** end the current phase, if any, and start the passed one */
+  public void beginPhase(Phase phase) {
+    if (metrics == null || nesting == 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (this.phase != null) {
+      phaseNanos[this.phase.ordinal()] += now - phaseStart;
+    }
+    this.phase = phase;
+    phaseStart = now;
+  }
+
+  /** @param distance how far a node moved in this step */
+  public void displacement(double distance) {
+    if (metrics == null) {
+      return;
+    }
+    totalDisplacement += distance;
+    maxDisplacement = Math.max(maxDisplacement, distance);
+  }
+
+  /** @param energy the energy of the layout in this step */
+  public void energy(double energy) {
+    this.energy = energy;
+  }
+
+  /**
+   * @param depth the depth of the Barnes-Hut tree
+   * @param interactions the number of node and cell interactions in the tree
+   */
+  public void octree(int depth, long interactions) {
+    this.treeDepth = depth;
+    this.interactionCount = interactions;
+  }
+
+  /** part of the step was retried because the graph was modified under it */
+  public void cmeRetry() {
+    cmeRetries++;
+  }
+
+  public void endStep() {
+    if (nesting == 0 || --nesting > 0) {
+      return;
+    }
+    // the step ends even if the metrics were taken away during it
+    LayoutMetrics metrics = this.metrics;
+    if (metrics == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (phase != null) {
+      phaseNanos[phase.ordinal()] += now - phaseStart;
+      phase = null;
+    }
+    // events are published between steps, and counted with the step that follows
+    phaseNanos[Phase.EVENT_DISPATCH.ordinal()] += metrics.takeEventDispatchNanos();
+    long allocationEnd = allocatedBytes();
+    metrics.record(
+        new StepMetrics(
+            algorithm,
+            ++step,
+            now - stepStart,
+            phaseNanos.clone(),
+            totalDisplacement,
+            maxDisplacement,
+            energy,
+            treeDepth,
+            interactionCount,
+            cmeRetries,
+            allocationStart < 0 || allocationEnd < 0 ? -1 : allocationEnd - allocationStart));
+  }
+
+  /** @return the bytes allocated so far by the current thread, or -1 if that cannot be measured */
+  private static long allocatedBytes() {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+      if (sunThreads.isThreadAllocatedMemorySupported()
+          && sunThreads.isThreadAllocatedMemoryEnabled()) {
+        return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+}
@@ -1,5 +1,6 @@
 package edu.uci.ics.jung.layout3d.model;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Graph;
 import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
@@ -7,10 +8,15 @@ import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.event.LayoutChange;
 import edu.uci.ics.jung.layout3d.event.LayoutNodePositionChange;
 import edu.uci.ics.jung.layout3d.event.LayoutStateChange;
-import edu.uci.ics.jung.visualization.layout.util.VisRunnable;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.util.FramePacedRelaxer;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
 import java.util.ConcurrentModificationException;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +37,10 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
     protected int width;
     protected int height;
     protected int depth;
+    protected int targetFrameRate = FramePacedRelaxer.DEFAULT_FRAME_RATE;
+    protected int stepsPerFrame;
+    protected LayoutExecutor layoutExecutor = LayoutExecutor.shared();
+    protected LayoutMetrics metrics;
 
     public B withGraph(Graph<N> graph) {
       this.graph = graph;
@@ -58,6 +68,47 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
       this.depth = depth;
       return (B) this;
     }
+
+    /**
+     * @param targetFrameRate the number of times per second a running relaxer publishes its
+     *     progress
+     * @return this builder
+     */
+    public B withTargetFrameRate(int targetFrameRate) {
+      Preconditions.checkArgument(targetFrameRate > 0, "targetFrameRate must be positive");
+      this.targetFrameRate = targetFrameRate;
+      return (B) this;
+    }
+
+    /**
+     * @param stepsPerFrame the most steps a running relaxer takes in a frame, or 0 for as many as
+     *     fit in the frame's time budget
+     * @return this builder
+     */
+    public B withStepsPerFrame(int stepsPerFrame) {
+      Preconditions.checkArgument(stepsPerFrame >= 0, "stepsPerFrame cannot be negative");
+      this.stepsPerFrame = stepsPerFrame;
+      return (B) this;
+    }
+
+    /**
+     * @param layoutExecutor runs the relaxer. By default, a pool shared by all models
+     * @return this builder
+     */
+    public B withLayoutExecutor(LayoutExecutor layoutExecutor) {
+      Preconditions.checkArgument(layoutExecutor != null, "layoutExecutor cannot be null");
+      this.layoutExecutor = layoutExecutor;
+      return (B) this;
+    }
+
+    /**
+     * @param metrics records the steps of the relaxers of this model. By default, none are recorded
+     * @return this builder
+     */
+    public B withMetrics(LayoutMetrics metrics) {
+      this.metrics = metrics;
+      return (B) this;
+    }
   }
 
   private Set<N> lockedNodes = Sets.newHashSet();
@@ -66,11 +117,28 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
   protected int height;
   protected int depth;
   protected Graph<N> graph;
-  protected VisRunnable visRunnable;
+  protected int targetFrameRate = FramePacedRelaxer.DEFAULT_FRAME_RATE;
+  protected int stepsPerFrame;
+  protected LayoutExecutor layoutExecutor = LayoutExecutor.shared();
+  protected LayoutMetrics metrics;
+  protected FramePacedRelaxer visRunnable;
   /** @value relaxing true is this layout model is being accessed by a running relaxer */
-  protected boolean relaxing;
+  protected volatile boolean relaxing;
+  /** @value paused true if the relaxer is parked until resumed */
+  protected volatile boolean paused;
+  /** the LayoutAlgorithm last accepted */
+  protected volatile LayoutAlgorithm<N> layoutAlgorithm;
+
+  private final AtomicLong graphModCount = new AtomicLong();
+
+  /** counts the changes to node locations, including those that fire no events */
+  protected final AtomicLong locationModCount = new AtomicLong();
 
   protected CompletableFuture theFuture;
+  /** tasks waiting for the relaxer to finish a step */
+  private final Queue<Runnable> betweenSteps = new ConcurrentLinkedQueue<>();
+
+  private final Object betweenStepsLock = new Object();
   protected LayoutNodePositionChange.Support layoutNodePositionSupport =
       LayoutNodePositionChange.Support.create();
   protected LayoutStateChange.Support layoutStateChangeSupport = LayoutStateChange.Support.create();
@@ -78,6 +146,10 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
 
   protected AbstractLayoutModel(Builder builder) {
     this.graph = builder.graph;
+    this.targetFrameRate = builder.targetFrameRate;
+    this.stepsPerFrame = builder.stepsPerFrame;
+    this.layoutExecutor = builder.layoutExecutor;
+    this.metrics = builder.metrics;
     setSize(builder.width, builder.height, builder.depth);
   }
 
@@ -97,13 +169,86 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
     setRelaxing(false);
   }
 
+  /**
+   * Park the relaxer between steps. The LayoutAlgorithm is not visited again on resume, so it keeps
+   * its state (temperatures, distance matrices, epochs). A relaxer that is still pre-relaxing is
+   * parked as soon as the pre-relax phase is over.
+   */
+  @Override
+  public void pause() {
+    if (paused) {
+      return;
+    }
+    paused = true;
+    if (visRunnable != null) {
+      visRunnable.pause();
+    }
+    if (relaxing) {
+      // the node positions will not change until resumed
+      layoutStateChangeSupport.fireLayoutStateChanged(this, false);
+    }
+  }
+
+  @Override
+  public void resume() {
+    if (!paused) {
+      return;
+    }
+    paused = false;
+    if (relaxing) {
+      layoutStateChangeSupport.fireLayoutStateChanged(this, true);
+    }
+    if (visRunnable != null) {
+      visRunnable.resume();
+    }
+  }
+
+  @Override
+  public boolean isPaused() {
+    return paused;
+  }
+
   public CompletableFuture getTheFuture() {
     return theFuture;
   }
 
+  @Override
+  public LayoutExecutor getLayoutExecutor() {
+    return layoutExecutor;
+  }
+
+  /** @param layoutExecutor runs relaxers started after this call */
+  public void setLayoutExecutor(LayoutExecutor layoutExecutor) {
+    Preconditions.checkArgument(layoutExecutor != null, "layoutExecutor cannot be null");
+    this.layoutExecutor = layoutExecutor;
+  }
+
+  /** @return the metrics that the steps of relaxers are recorded to, or null */
+  public LayoutMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @param metrics records the steps of the running relaxer, if any, and of those started later.
+   *     Null stops recording
+   */
+  public void setMetrics(LayoutMetrics metrics) {
+    this.metrics = metrics;
+    FramePacedRelaxer relaxer = visRunnable;
+    if (relaxer != null) {
+      relaxer.setMetrics(metrics);
+    }
+  }
+
   /**
    * accept the visit of a LayoutAlgorithm. If it is an IterativeContext, create a VisRunner to run
-   * its relaxer in a new Thread. If there is a current VisRunner, stop it first.
+   * its relaxer in a new Thread. If there is a current VisRunner, stop it first. A paused model is
+   * resumed, as the new LayoutAlgorithm starts from the beginning.
+   *
+   * <p>The visit itself runs on the calling thread, so that the algorithm is ready for changes to
+   * the graph when this returns. Only the pre-relax phase and the relaxer run on the layout
+   * executor. An algorithm with an expensive visit should not be accepted on the event dispatch
+   * thread.
    *
    * @param layoutAlgorithm
    */
@@ -112,6 +257,7 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
     // the layoutMode is active with a new LayoutAlgorithm
     layoutStateChangeSupport.fireLayoutStateChanged(this, true);
     log.trace("accepting {}", layoutAlgorithm);
+    paused = false;
     layoutNodePositionSupport.setFireEvents(true);
     layoutChangeSupport.fireLayoutChanged();
     if (this.visRunnable != null) {
@@ -124,11 +270,16 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
     if (log.isTraceEnabled()) {
       log.trace("{} will visit {}", layoutAlgorithm, this);
     }
+    this.layoutAlgorithm = layoutAlgorithm;
     if (layoutAlgorithm != null) {
+      boolean iterative = layoutAlgorithm instanceof IterativeLayoutAlgorithm;
+      if (iterative) {
+        // before the visit, so that tasks between steps wait for the relaxer
+        setRelaxing(true);
+      }
       layoutAlgorithm.visit(this);
 
-      if (layoutAlgorithm instanceof IterativeLayoutAlgorithm) {
-        setRelaxing(true);
+      if (iterative) {
         setupVisRunner((IterativeLayoutAlgorithm) layoutAlgorithm);
 
         // need to have the visRunner fire the layoutStateChanged event when it finishes
@@ -154,7 +305,12 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
   }
 
   /**
-   * create and start a new VisRunner for the passed IterativeContext
+   * create and start a new relaxer for the passed IterativeContext. The pre-relax phase runs first,
+   * on the layout executor rather than the calling thread, and reports its progress with
+   * LayoutStateChange events. The pre-relaxed positions are published with a single event when it
+   * is over. Then the relaxer takes the steps that fit in each frame at the target frame rate and
+   * publishes them once per frame. If the pre-relax phase fails, the failure is logged, the layout
+   * becomes inactive and no relaxer is started.
    *
    * @param iterativeContext
    */
@@ -169,25 +325,92 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
 
     // layout becomes active
     layoutStateChangeSupport.fireLayoutStateChanged(this, true);
+    FramePacedRelaxer relaxer =
+        new FramePacedRelaxer(iterativeContext, this, targetFrameRate, stepsPerFrame);
+    if (paused) {
+      relaxer.pause();
+    }
+    if (metrics != null) {
+      relaxer.setMetrics(metrics);
+    }
+    relaxer.setBetweenSteps(this::runTasksBetweenSteps);
+    visRunnable = relaxer;
     // prerelax phase
     layoutNodePositionSupport.setFireEvents(false);
     layoutChangeSupport.setFireEvents(false);
-    iterativeContext.preRelax();
-    layoutChangeSupport.setFireEvents(true);
-    layoutNodePositionSupport.setFireEvents(true);
-    log.trace("prerelax is done");
+    CompletableFuture<Void> preRelax =
+        layoutExecutor.submit(
+            () ->
+                iterativeContext.preRelax(
+                    progress ->
+                        layoutStateChangeSupport.fireLayoutStateChanged(this, true, progress)));
+    theFuture = preRelax;
+    preRelax.whenComplete(
+        (result, failure) -> {
+          layoutNodePositionSupport.setFireEvents(true);
+          if (preRelax.isCancelled() || visRunnable != relaxer) {
+            layoutChangeSupport.setFireEvents(true);
+            return;
+          }
+          if (failure != null) {
+            log.error("prerelax failed, the relaxer will not be started", failure);
+            layoutChangeSupport.setFireEvents(true);
+            setRelaxing(false);
+            // tasks that were waiting for the relaxer
+            runTasksBetweenSteps();
+            layoutChangeSupport.fireLayoutChanged();
+            layoutStateChangeSupport.fireLayoutStateChanged(this, false);
+            return;
+          }
+          log.trace("prerelax is done");
+          layoutStateChangeSupport.fireLayoutStateChanged(this, true, 1);
+          // publishes all of the pre-relaxed positions at once
+          layoutChangeSupport.setFireEvents(true);
+          startRelaxer(relaxer);
+        });
+  }
+
+  private void startRelaxer(FramePacedRelaxer relaxer) {
+    // theFuture is the executor's own future, so that cancelling it stops the relaxer
+    CompletableFuture<Void> relax = layoutExecutor.execute(relaxer);
+    theFuture = relax;
+    relax.thenRun(
+        () -> {
+          log.info("We're done");
+          setRelaxing(false);
+          // tasks that came too late for the relaxer
+          runTasksBetweenSteps();
+          this.layoutChangeSupport.fireLayoutChanged();
+          // fire an event to say that the layout relax is done
+          this.layoutStateChangeSupport.fireLayoutStateChanged(this, false);
+        });
+  }
+
+  /**
+   * Run the task between two steps of the relaxer. Tasks that arrive while the relaxer is
+   * pre-relaxing or paused wait for it to take a step. With no relaxer running, the task runs now.
+   *
+   * @param task the task to run
+   */
+  @Override
+  public void runBetweenSteps(Runnable task) {
+    betweenSteps.add(task);
+    if (!relaxing) {
+      runTasksBetweenSteps();
+    }
+  }
 
-    visRunnable = new VisRunnable(iterativeContext);
-    theFuture =
-        CompletableFuture.runAsync(visRunnable)
-            .thenRun(
-                () -> {
-                  log.info("We're done");
-                  setRelaxing(false);
-                  this.layoutChangeSupport.fireLayoutChanged();
-                  // fire an event to say that the layout relax is done
-                  this.layoutStateChangeSupport.fireLayoutStateChanged(this, false);
-                });
+  /** run the tasks waiting for a step boundary, in the order they arrived */
+  protected void runTasksBetweenSteps() {
+    synchronized (betweenStepsLock) {
+      for (Runnable task = betweenSteps.poll(); task != null; task = betweenSteps.poll()) {
+        try {
+          task.run();
+        } catch (RuntimeException ex) {
+          log.error("task between steps failed", ex);
+        }
+      }
+    }
   }
 
   /** @return the graph */
@@ -198,12 +421,33 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
 
   public void setGraph(Graph<N> graph) {
     this.graph = graph;
+    graphModCount.incrementAndGet();
     this.layoutChangeSupport.fireLayoutChanged();
     if (log.isTraceEnabled()) {
       log.trace("withGraph to n:{} e:{}", graph.nodes(), graph.edges());
     }
   }
 
+  @Override
+  public LayoutAlgorithm<N> getLayoutAlgorithm() {
+    return layoutAlgorithm;
+  }
+
+  @Override
+  public void graphChanged() {
+    graphModCount.incrementAndGet();
+  }
+
+  @Override
+  public long getGraphModCount() {
+    return graphModCount.get();
+  }
+
+  @Override
+  public long getLocationModCount() {
+    return locationModCount.get();
+  }
+
   /**
    * set locked state for the provided node
    *
@@ -325,6 +569,7 @@ public abstract class AbstractLayoutModel<N> implements LayoutModel<N> {
 
   @Override
   public void set(N node, Point location) {
+    locationModCount.incrementAndGet();
     layoutNodePositionSupport.fireLayoutNodePositionChanged(node, location);
     layoutChangeSupport.fireLayoutChanged();
   }
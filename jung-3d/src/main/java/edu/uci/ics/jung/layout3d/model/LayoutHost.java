@@ -0,0 +1,19 @@
+package edu.uci.ics.jung.layout3d.model;
+
+import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+
+/**
+ * Something that owns a {@link LayoutModel} and decides which {@link LayoutAlgorithm} it runs, such
+ * as the {@code VisualizationViewer}. Layout code that needs to hand control to another algorithm
+ * (an animated transition, for example) depends on this instead of on a viewer, so that it also
+ * runs where there is no display.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public interface LayoutHost<N> {
+
+  LayoutModel<N> getLayoutModel();
+
+  void setLayoutAlgorithm(LayoutAlgorithm<N> layoutAlgorithm);
+}
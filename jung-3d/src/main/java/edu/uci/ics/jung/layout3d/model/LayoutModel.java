@@ -15,6 +15,7 @@ import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.event.LayoutChange;
 import edu.uci.ics.jung.layout3d.event.LayoutNodePositionChange;
 import edu.uci.ics.jung.layout3d.event.LayoutStateChange;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
 import java.util.Collections;
 import java.util.Map;
 import java.util.function.Function;
@@ -38,6 +39,11 @@ public interface LayoutModel<N>
 
   void accept(LayoutAlgorithm<N> layoutAlgorithm);
 
+  /** @return the LayoutAlgorithm this model last accepted, or null */
+  default LayoutAlgorithm<N> getLayoutAlgorithm() {
+    return null;
+  }
+
   /** @return a mapping of Nodes to Point locations */
   default Map<N, Point> getLocations() {
     return Collections.unmodifiableMap(Maps.asMap(getGraph().nodes(), this::apply));
@@ -47,6 +53,18 @@ public interface LayoutModel<N>
 
   void stopRelaxer();
 
+  /**
+   * park the relaxer, if there is one, without stopping it. The LayoutAlgorithm keeps all of its
+   * state, and the relaxer carries on from where it was when resumed.
+   */
+  void pause();
+
+  /** let a paused relaxer carry on */
+  void resume();
+
+  /** @return true if the relaxer is paused */
+  boolean isPaused();
+
   /**
    * indicates that there is a relaxer thread operating on this LayoutModel
    *
@@ -77,12 +95,53 @@ public interface LayoutModel<N>
 
   void set(N node, double x, double y, double z);
 
+  /**
+   * Changes the layout coordinates of every node in {@code locations}. Implementations may store
+   * them in bulk and fire a single {@code LayoutChange} event instead of one event per node, but
+   * still fire a {@code LayoutNodePositionChange} event for each node.
+   *
+   * @param locations the new locations of the nodes
+   */
+  default void setLocations(Map<N, Point> locations) {
+    locations.forEach(this::set);
+  }
+
   Point get(N node);
 
   Graph<N> getGraph();
 
   void setGraph(Graph<N> graph);
 
+  /**
+   * Tell the model that its graph was changed in place, so that snapshots of the graph taken before
+   * the change can tell that they are stale.
+   */
+  default void graphChanged() {}
+
+  /**
+   * @return a count that goes up whenever the graph is replaced, or is changed in place and {@link
+   *     #graphChanged()} is called
+   */
+  default long getGraphModCount() {
+    return 0;
+  }
+
+  /**
+   * @return a count that goes up whenever the location of a node is changed, or -1 if the model
+   *     does not count the changes to its locations
+   */
+  default long getLocationModCount() {
+    return -1;
+  }
+
+  /**
+   * @return the executor that runs the relaxers of this model, which algorithms may also use to
+   *     spread the work of a step
+   */
+  default LayoutExecutor getLayoutExecutor() {
+    return LayoutExecutor.shared();
+  }
+
   void lock(N node, boolean locked);
 
   void lock(boolean locked);
@@ -91,6 +150,16 @@ public interface LayoutModel<N>
 
   void setInitializer(Function<N, Point> initializer);
 
+  /**
+   * Run a task between two steps of the relaxer, on the thread that runs it, so that the task can
+   * change the graph without disturbing a step. With no relaxer running, the task runs now.
+   *
+   * @param task the task to run
+   */
+  default void runBetweenSteps(Runnable task) {
+    task.run();
+  }
+
   interface ChangeListener {
     void changed();
   }
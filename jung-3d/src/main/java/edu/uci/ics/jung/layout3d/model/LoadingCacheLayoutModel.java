@@ -4,6 +4,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import edu.uci.ics.jung.visualization.util.Caching;
+import java.util.Map;
 import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -78,7 +79,7 @@ public class LoadingCacheLayoutModel<N> extends AbstractLayoutModel<N>
   }
 
   protected LoadingCacheLayoutModel(LoadingCacheLayoutModel.Builder<N, ?, ?> builder) {
-    super(builder.graph, builder.width, builder.height, builder.depth);
+    super(builder);
     this.locations = builder.locations;
   }
 
@@ -88,6 +89,7 @@ public class LoadingCacheLayoutModel<N> extends AbstractLayoutModel<N>
 
   public void setInitializer(Function<N, Point> initializer) {
     this.locations = CacheBuilder.newBuilder().build(CacheLoader.from(initializer::apply));
+    locationModCount.incrementAndGet();
     //    Function<N, Point> chain = initializer.andThen(p -> Point.of(p.x, p.y, p.z));
     //    this.locations = CacheBuilder.newBuilder().build(CacheLoader.from(chain::apply));
   }
@@ -115,6 +117,23 @@ public class LoadingCacheLayoutModel<N> extends AbstractLayoutModel<N>
     this.set(node, Point.of(x, y, z));
   }
 
+  /**
+   * Stores the locations in bulk, tells the position listeners of each node, if there are any, and
+   * fires a single {@code LayoutChange} event.
+   */
+  @Override
+  public void setLocations(Map<N, Point> locations) {
+    if (!locked) {
+      this.locations.putAll(locations);
+      locationModCount.incrementAndGet();
+      if (layoutNodePositionSupport.isFireEvents()
+          && !layoutNodePositionSupport.getLayoutNodePositionChangeListeners().isEmpty()) {
+        locations.forEach(layoutNodePositionSupport::fireLayoutNodePositionChanged);
+      }
+      layoutChangeSupport.fireLayoutChanged();
+    }
+  }
+
   @Override
   public Point get(N node) {
     if (log.isTraceEnabled()) {
@@ -131,5 +150,6 @@ public class LoadingCacheLayoutModel<N> extends AbstractLayoutModel<N>
   @Override
   public void clear() {
     this.locations = CacheBuilder.newBuilder().build(CacheLoader.from(() -> Point.ORIGIN));
+    locationModCount.incrementAndGet();
   }
 }
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +68,9 @@ public class BarnesHutOctTree<T> {
 
   private Object lock = new Object();
 
+  // node and cell interactions since the tree was last rebuilt
+  private final LongAdder interactions = new LongAdder();
+
   private BarnesHutOctTree(Builder<T> builder) {
     this.root = Node.<T>builder().withVolume(builder.bounds).withTheta(builder.theta).build();
   }
@@ -76,6 +80,7 @@ public class BarnesHutOctTree<T> {
    */
   public void clear() {
     root.clear();
+    interactions.reset();
   }
 
   /**
@@ -114,10 +119,27 @@ public class BarnesHutOctTree<T> {
   public void applyForcesTo(ForceObject<T> visitor) {
     Preconditions.checkArgument(visitor != null, "Cannot apply forces to a null ForceObject");
     if (root != null && root.forceObject != visitor) {
+      int before = visitor.interactions;
       root.applyForcesTo(visitor);
+      interactions.add(visitor.interactions - before);
+    }
+  }
+
+  /** @return the number of levels in the tree */
+  public int getDepth() {
+    synchronized (lock) {
+      return root.getDepth();
     }
   }
 
+  /**
+   * @return the number of times a node or a cell applied forces to a visitor since the tree was
+   *     last rebuilt
+   */
+  public long getInteractionCount() {
+    return interactions.sum();
+  }
+
   @Override
   public String toString() {
     return "Tree:" + root;
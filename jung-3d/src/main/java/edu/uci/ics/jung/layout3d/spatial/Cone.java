@@ -0,0 +1,32 @@
+package edu.uci.ics.jung.layout3d.spatial;
+
+import edu.uci.ics.jung.layout3d.model.Point;
+
+/**
+ * A right circular cone that opens downward (toward -y) from its apex, as used by cone tree
+ * layouts: the apex is at a parent node and the children sit on the circle at the base.
+ *
+ * @author Tom Nelson
+ */
+public class Cone {
+
+  public final Point apex;
+  public final double radius;
+  public final double height;
+
+  public Cone(Point apex, double radius, double height) {
+    this.apex = apex;
+    this.radius = radius;
+    this.height = height;
+  }
+
+  /** @return the center of the base circle */
+  public Point getBaseCenter() {
+    return apex.add(0, -height, 0);
+  }
+
+  @Override
+  public String toString() {
+    return "Cone{" + "apex=" + apex + ", radius=" + radius + ", height=" + height + '}';
+  }
+}
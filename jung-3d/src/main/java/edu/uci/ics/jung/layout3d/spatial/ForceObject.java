@@ -22,6 +22,9 @@ public class ForceObject<T> {
   /** mass */
   protected double mass;
 
+  /** the number of nodes and cells that have applied forces to this one */
+  int interactions;
+
   private final T element;
 
   public ForceObject(T element, Point p, double mass) {
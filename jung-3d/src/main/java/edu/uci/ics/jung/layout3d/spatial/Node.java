@@ -103,6 +103,20 @@ public class Node<T> {
         && FSW == null;
   }
 
+  /** @return the number of levels in the tree under (and including) this node */
+  public int getDepth() {
+    if (isLeaf()) {
+      return 1;
+    }
+    int depth = 0;
+    for (Node<T> child : new Node[] {FNW, FNE, FSW, FSE, BNW, BNE, BSW, BSE}) {
+      if (child != null) {
+        depth = Math.max(depth, child.getDepth());
+      }
+    }
+    return depth + 1;
+  }
+
   /**
    * insert a new ForceObject into the tree. This changes the combinedMass and the forceVector for
    * any Node that it is inserted into
@@ -300,6 +314,7 @@ public class Node<T> {
 
     if (isLeaf()) {
 
+      visitor.interactions++;
       visitor.addForceFrom(this.forceObject);
 
     } else {
@@ -311,6 +326,7 @@ public class Node<T> {
       double d = this.forceObject.p.distance(visitor.p);
       if (s / d < theta) {
         // this node is sufficiently far away, just use this node's forces
+        visitor.interactions++;
         visitor.addForceFrom(this.forceObject);
 
       } else {
@@ -0,0 +1,283 @@
+package edu.uci.ics.jung.layout3d.spatial;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * A uniform grid over int item indices (for example the node indices of a {@code CompressedGraph})
+ * that supports incremental moves and exact nearest neighbor queries. Cells are hashed into a fixed
+ * table of buckets, so the grid is unbounded, and the items in each bucket are kept in doubly
+ * linked lists held in primitive arrays. Moving an item costs O(1), and a nearest neighbor query
+ * visits the cells around the query point in growing shells until no unvisited cell can hold a
+ * closer item.
+ *
+ * <p>Queries may run concurrently with each other, but not with {@code put}, {@code remove} or
+ * {@code clear}.
+ *
+ * @author Tom Nelson
+ */
+public class SpatialGrid {
+
+  private static final int EMPTY = -1;
+
+  private final double cellSize;
+  private final int mask;
+  private final int[] head;
+
+  private final double[] x;
+  private final double[] y;
+  private final double[] z;
+  private final int[] cellX;
+  private final int[] cellY;
+  private final int[] cellZ;
+  private final int[] bucket;
+  private final int[] next;
+  private final int[] prev;
+
+  private int size;
+  // conservative bounds of the occupied cells, they grow but never shrink until cleared
+  private int minCellX;
+  private int minCellY;
+  private int minCellZ;
+  private int maxCellX;
+  private int maxCellY;
+  private int maxCellZ;
+
+  /**
+   * @param capacity the number of items, which are indexed from 0 to capacity - 1
+   * @param cellSize the edge length of each cubic cell
+   */
+  public SpatialGrid(int capacity, double cellSize) {
+    Preconditions.checkArgument(capacity >= 0, "capacity cannot be negative");
+    Preconditions.checkArgument(cellSize > 0, "cellSize must be positive");
+    this.cellSize = cellSize;
+    int buckets = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+    this.mask = buckets - 1;
+    this.head = new int[buckets];
+    this.x = new double[capacity];
+    this.y = new double[capacity];
+    this.z = new double[capacity];
+    this.cellX = new int[capacity];
+    this.cellY = new int[capacity];
+    this.cellZ = new int[capacity];
+    this.bucket = new int[capacity];
+    this.next = new int[capacity];
+    this.prev = new int[capacity];
+    clear();
+  }
+
+  /** removes all items */
+  public void clear() {
+    Arrays.fill(head, EMPTY);
+    Arrays.fill(bucket, EMPTY);
+    size = 0;
+    minCellX = minCellY = minCellZ = Integer.MAX_VALUE;
+    maxCellX = maxCellY = maxCellZ = Integer.MIN_VALUE;
+  }
+
+  /** @return the number of items in the grid */
+  public int size() {
+    return size;
+  }
+
+  /** @return the number of items the grid can hold */
+  public int capacity() {
+    return x.length;
+  }
+
+  public double getCellSize() {
+    return cellSize;
+  }
+
+  /**
+   * @param item the item index
+   * @return true if the item is in the grid
+   */
+  public boolean contains(int item) {
+    return bucket[item] != EMPTY;
+  }
+
+  public double getX(int item) {
+    return x[item];
+  }
+
+  public double getY(int item) {
+    return y[item];
+  }
+
+  public double getZ(int item) {
+    return z[item];
+  }
+
+  /**
+   * Inserts the item at the passed location, or moves it there if it is already in the grid.
+   *
+   * @param item the item index
+   * @param px the x coordinate
+   * @param py the y coordinate
+   * @param pz the z coordinate
+   */
+  public void put(int item, double px, double py, double pz) {
+    int cx = cell(px);
+    int cy = cell(py);
+    int cz = cell(pz);
+    x[item] = px;
+    y[item] = py;
+    z[item] = pz;
+    if (bucket[item] != EMPTY) {
+      if (cellX[item] == cx && cellY[item] == cy && cellZ[item] == cz) {
+        return;
+      }
+      unlink(item);
+    } else {
+      size++;
+    }
+    cellX[item] = cx;
+    cellY[item] = cy;
+    cellZ[item] = cz;
+    int b = hash(cx, cy, cz);
+    bucket[item] = b;
+    prev[item] = EMPTY;
+    next[item] = head[b];
+    if (head[b] != EMPTY) {
+      prev[head[b]] = item;
+    }
+    head[b] = item;
+    minCellX = Math.min(minCellX, cx);
+    minCellY = Math.min(minCellY, cy);
+    minCellZ = Math.min(minCellZ, cz);
+    maxCellX = Math.max(maxCellX, cx);
+    maxCellY = Math.max(maxCellY, cy);
+    maxCellZ = Math.max(maxCellZ, cz);
+  }
+
+  /**
+   * Removes the item from the grid, if it is there.
+   *
+   * @param item the item index
+   */
+  public void remove(int item) {
+    if (bucket[item] != EMPTY) {
+      unlink(item);
+      bucket[item] = EMPTY;
+      size--;
+    }
+  }
+
+  /**
+   * Finds the item closest to the passed location.
+   *
+   * @param px the x coordinate
+   * @param py the y coordinate
+   * @param pz the z coordinate
+   * @return the index of the closest item, or -1 if the grid is empty
+   */
+  public int nearest(double px, double py, double pz) {
+    if (size == 0) {
+      return EMPTY;
+    }
+    int cx = cell(px);
+    int cy = cell(py);
+    int cz = cell(pz);
+    int maxRing =
+        Math.max(
+            Math.max(Math.abs(cx - minCellX), Math.abs(cx - maxCellX)),
+            Math.max(
+                Math.max(Math.abs(cy - minCellY), Math.abs(cy - maxCellY)),
+                Math.max(Math.abs(cz - minCellZ), Math.abs(cz - maxCellZ))));
+    int best = EMPTY;
+    double bestDistanceSq = Double.POSITIVE_INFINITY;
+    for (int r = 0; r <= maxRing; r++) {
+      int fromX = Math.max(cx - r, minCellX);
+      int toX = Math.min(cx + r, maxCellX);
+      int fromY = Math.max(cy - r, minCellY);
+      int toY = Math.min(cy + r, maxCellY);
+      int fromZ = Math.max(cz - r, minCellZ);
+      int toZ = Math.min(cz + r, maxCellZ);
+      for (int i = fromX; i <= toX; i++) {
+        boolean xFace = Math.abs(i - cx) == r;
+        for (int j = fromY; j <= toY; j++) {
+          if (xFace || Math.abs(j - cy) == r) {
+            for (int k = fromZ; k <= toZ; k++) {
+              int found = nearestInCell(i, j, k, px, py, pz, best, bestDistanceSq);
+              if (found != best) {
+                best = found;
+                bestDistanceSq = distanceSq(found, px, py, pz);
+              }
+            }
+          } else {
+            // only the two z faces of the shell
+            for (int k = cz - r; k <= cz + r; k += Math.max(1, 2 * r)) {
+              if (k >= fromZ && k <= toZ) {
+                int found = nearestInCell(i, j, k, px, py, pz, best, bestDistanceSq);
+                if (found != best) {
+                  best = found;
+                  bestDistanceSq = distanceSq(found, px, py, pz);
+                }
+              }
+            }
+          }
+        }
+      }
+      if (best != EMPTY) {
+        // distance from the query point to the boundary of the explored cube of cells
+        double boundary =
+            Math.min(
+                Math.min(px - (cx - r) * cellSize, (cx + r + 1) * cellSize - px),
+                Math.min(
+                    Math.min(py - (cy - r) * cellSize, (cy + r + 1) * cellSize - py),
+                    Math.min(pz - (cz - r) * cellSize, (cz + r + 1) * cellSize - pz)));
+        if (bestDistanceSq <= boundary * boundary) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  private int nearestInCell(
+      int i, int j, int k, double px, double py, double pz, int best, double bestDistanceSq) {
+    for (int e = head[hash(i, j, k)]; e != EMPTY; e = next[e]) {
+      if (cellX[e] == i && cellY[e] == j && cellZ[e] == k) {
+        double d = distanceSq(e, px, py, pz);
+        if (d < bestDistanceSq) {
+          best = e;
+          bestDistanceSq = d;
+        }
+      }
+    }
+    return best;
+  }
+
+  private double distanceSq(int item, double px, double py, double pz) {
+    double dx = x[item] - px;
+    double dy = y[item] - py;
+    double dz = z[item] - pz;
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  private void unlink(int item) {
+    int b = bucket[item];
+    if (prev[item] != EMPTY) {
+      next[prev[item]] = next[item];
+    } else {
+      head[b] = next[item];
+    }
+    if (next[item] != EMPTY) {
+      prev[next[item]] = prev[item];
+    }
+  }
+
+  private int cell(double v) {
+    return (int) Math.floor(v / cellSize);
+  }
+
+  private int hash(int cx, int cy, int cz) {
+    return ((cx * 73856093) ^ (cy * 19349663) ^ (cz * 83492791)) & mask;
+  }
+
+  @Override
+  public String toString() {
+    return "SpatialGrid{" + "size=" + size + ", cellSize=" + cellSize + '}';
+  }
+}
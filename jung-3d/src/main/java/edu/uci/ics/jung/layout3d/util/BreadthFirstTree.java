@@ -0,0 +1,111 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The nodes of a tree (or forest) in breadth first order, found by following successors from the
+ * roots. The children of node {@code i} are nodes {@code childStart(i)} through {@code
+ * childStart(i) + childCount(i) - 1}, and the nodes at depth {@code d} are nodes {@code
+ * levelStart(d)} through {@code levelStart(d + 1) - 1}. Because children always come after their
+ * parent, tree layouts can make bottom-up passes by iterating in reverse and top-down passes by
+ * iterating forward, without recursion.
+ *
+ * <p>A node with more than one predecessor belongs to the first parent that reaches it.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class BreadthFirstTree<N> {
+
+  private final Object[] nodes;
+  private final int[] childStart;
+  private final int[] childCount;
+  private final int[] levels;
+  private final int levelCount;
+  private final int size;
+
+  /**
+   * @param tree the graph to traverse
+   * @param roots the nodes to start from
+   */
+  public BreadthFirstTree(Graph<N> tree, Collection<N> roots) {
+    Preconditions.checkArgument(tree != null, "tree cannot be null");
+    int capacity = tree.nodes().size();
+    nodes = new Object[capacity];
+    childStart = new int[capacity];
+    childCount = new int[capacity];
+    int[] levels = new int[capacity + 2];
+    // a node with a single predecessor can only be reached once, so only the others are tracked
+    Set<N> reached = new HashSet<>();
+    int tail = 0;
+    for (N root : roots) {
+      if (reached.add(root)) {
+        nodes[tail++] = root;
+      }
+    }
+    int levelCount = 0;
+    levels[levelCount++] = 0;
+    int levelEnd = tail;
+    for (int head = 0; head < tail; head++) {
+      if (head == levelEnd) {
+        levels[levelCount++] = head;
+        levelEnd = tail;
+      }
+      childStart[head] = tail;
+      for (N kid : tree.successors((N) nodes[head])) {
+        if (tree.inDegree(kid) == 1 || reached.add(kid)) {
+          nodes[tail++] = kid;
+        }
+      }
+      childCount[head] = tail - childStart[head];
+    }
+    levels[levelCount] = tail;
+    this.levels = levels;
+    this.levelCount = tail == 0 ? 0 : levelCount;
+    this.size = tail;
+  }
+
+  /** @return the number of nodes reached from the roots */
+  public int size() {
+    return size;
+  }
+
+  public N node(int index) {
+    return (N) nodes[index];
+  }
+
+  /** @return the nodes in breadth first order. Not copied, do not modify. */
+  public Object[] nodes() {
+    return nodes;
+  }
+
+  public int childStart(int index) {
+    return childStart[index];
+  }
+
+  public int childCount(int index) {
+    return childCount[index];
+  }
+
+  /** @return the number of levels (the depth of the deepest node, plus one) */
+  public int levelCount() {
+    return levelCount;
+  }
+
+  /**
+   * @param level a depth, from 0 to {@code levelCount()}
+   * @return the index of the first node at that depth, or {@code size()} for {@code levelCount()}
+   */
+  public int levelStart(int level) {
+    return levels[level];
+  }
+
+  @Override
+  public String toString() {
+    return "BreadthFirstTree{" + "size=" + size + ", levels=" + levelCount + '}';
+  }
+}
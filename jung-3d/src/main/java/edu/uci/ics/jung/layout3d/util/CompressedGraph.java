@@ -0,0 +1,192 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable compressed sparse row (CSR) view of the undirected adjacency of a {@code Graph}.
+ * Nodes are assigned int indices in {@code graph.nodes()} iteration order, and the neighbors of
+ * node {@code i} are {@code neighbors[offsets[i]]} through {@code neighbors[offsets[i + 1] - 1]}.
+ * Self-loops are dropped. Algorithms that need tight loops over the adjacency (matrix-vector
+ * products, breadth first searches) can use the primitive arrays directly instead of calling back
+ * into the {@code Graph}.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class CompressedGraph<N> {
+
+  /** how many times a snapshot of a graph that changes while it is read is tried */
+  private static final int MAX_ATTEMPTS = 3;
+
+  private final Object[] nodes;
+  private final Map<N, Integer> indices;
+  private final int[] offsets;
+  private final int[] neighbors;
+  private final int edgeCount;
+  private final long modCount;
+  // the size of graph.edges(), which counts self-loops
+  private final int graphEdgeCount;
+
+  /**
+   * Creates a CompressedGraph that is a snapshot of the passed graph.
+   *
+   * @param graph the graph to compress
+   * @param <N> the node type
+   * @return a new CompressedGraph
+   */
+  public static <N> CompressedGraph<N> of(Graph<N> graph) {
+    return of(graph, 0);
+  }
+
+  /**
+   * Creates a CompressedGraph that is a snapshot of the passed graph as of a modification count. A
+   * graph that is changed by another thread while it is read is tried again a few times, then a
+   * {@code ConcurrentModificationException} is thrown.
+   *
+   * @param graph the graph to compress
+   * @param modCount the modification count of the graph, see {@link #isStale(Graph, long)}
+   * @param <N> the node type
+   * @return a new CompressedGraph
+   */
+  public static <N> CompressedGraph<N> of(Graph<N> graph, long modCount) {
+    Preconditions.checkArgument(graph != null, "graph cannot be null");
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return new CompressedGraph<>(graph, modCount);
+      } catch (ConcurrentModificationException ex) {
+        if (attempt == MAX_ATTEMPTS) {
+          throw new ConcurrentModificationException(
+              "the graph kept changing while it was compressed; change it through a GraphJournal",
+              ex);
+        }
+      }
+    }
+  }
+
+  private CompressedGraph(Graph<N> graph, long modCount) {
+    this.modCount = modCount;
+    this.graphEdgeCount = graph.edges().size();
+    this.nodes = graph.nodes().toArray();
+    int n = nodes.length;
+    this.indices = new HashMap<>(n * 2);
+    for (int i = 0; i < n; i++) {
+      indices.put((N) nodes[i], i);
+    }
+    this.offsets = new int[n + 1];
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      N node = (N) nodes[i];
+      offsets[i] = count;
+      for (N neighbor : graph.adjacentNodes(node)) {
+        if (neighbor != node) {
+          count++;
+        }
+      }
+    }
+    offsets[n] = count;
+    this.neighbors = new int[count];
+    for (int i = 0; i < n; i++) {
+      int j = offsets[i];
+      for (N neighbor : graph.adjacentNodes((N) nodes[i])) {
+        if (neighbor != nodes[i]) {
+          Integer index = indices.get(neighbor);
+          if (index == null || j == offsets[i + 1]) {
+            throw new ConcurrentModificationException();
+          }
+          neighbors[j++] = index;
+        }
+      }
+      if (j != offsets[i + 1]) {
+        throw new ConcurrentModificationException();
+      }
+    }
+    this.edgeCount = count / 2;
+  }
+
+  /** @return the number of nodes */
+  public int size() {
+    return nodes.length;
+  }
+
+  /** @return the number of undirected edges, not counting self-loops */
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * @param index the index of a node
+   * @return the node at the passed index
+   */
+  public N node(int index) {
+    return (N) nodes[index];
+  }
+
+  /** @return the nodes, in index order */
+  public List<N> nodes() {
+    return (List<N>) Arrays.asList(nodes);
+  }
+
+  /**
+   * @param node a node in the graph
+   * @return the index of the passed node, or -1 if it was not in the graph when this was created
+   */
+  public int indexOf(N node) {
+    Integer index = indices.get(node);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * @param index the index of a node
+   * @return the number of distinct neighbors of the node
+   */
+  public int degree(int index) {
+    return offsets[index + 1] - offsets[index];
+  }
+
+  /**
+   * the row offsets into {@link #neighbors()}. Not copied, do not modify.
+   *
+   * @return the row offsets, of length {@code size() + 1}
+   */
+  public int[] offsets() {
+    return offsets;
+  }
+
+  /**
+   * the concatenated neighbor indices of all nodes. Not copied, do not modify.
+   *
+   * @return the neighbor indices
+   */
+  public int[] neighbors() {
+    return neighbors;
+  }
+
+  /**
+   * @param graph a graph to compare with
+   * @param modCount the modification count of the graph now, for example {@code
+   *     LayoutModel.getGraphModCount()}
+   * @return true if the graph has been modified since this snapshot was taken. Changes that are not
+   *     counted are caught only if they change the number of nodes or edges
+   */
+  public boolean isStale(Graph<N> graph, long modCount) {
+    return modCount != this.modCount
+        || graph.nodes().size() != nodes.length
+        || graph.edges().size() != graphEdgeCount;
+  }
+
+  /** @return the modification count of the graph when this snapshot was taken */
+  public long modCount() {
+    return modCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CompressedGraph{" + "nodes=" + nodes.length + ", edges=" + edgeCount + '}';
+  }
+}
@@ -0,0 +1,15 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import edu.uci.ics.jung.layout3d.spatial.Cone;
+import java.util.Collection;
+
+/**
+ * Implemented by layout algorithms that place nodes on cones, so that a viewer can draw the cones
+ * as guides.
+ *
+ * @author Tom Nelson
+ */
+public interface Conical {
+
+  Collection<Cone> getCones();
+}
@@ -0,0 +1,280 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.visualization.layout.algorithms.util.IterativeContext;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the steps of an {@code IterativeContext} in frames paced to a target frame rate, instead of
+ * as fast as the algorithm allows. In each frame it takes as many steps as fit in a time budget (a
+ * fraction of the frame period), optionally capped at a fixed number, with the events of the {@code
+ * LayoutModel} held back. It then publishes the result with a single layout change event and sleeps
+ * until the next frame, so that no intermediate state is computed that a renderer would never see.
+ *
+ * <p>The time a step takes is measured and smoothed with an exponentially weighted moving average,
+ * which is used to decide whether another step will fit, so the number of steps per frame adapts as
+ * the algorithm speeds up or slows down. At least one step is taken in every frame.
+ *
+ * <p>The relaxer can run its own loop with {@link #run()}, or a {@link LayoutExecutor} can call
+ * {@link #runFrame()} once per frame. Either way it stops early if its thread is interrupted.
+ *
+ * <p>A relaxer can be paused, which parks it between steps without touching the state of the
+ * algorithm, and resumed later to carry on from where it was.
+ *
+ * <p>With {@link LayoutMetrics} set, the time taken to publish each frame is recorded as the event
+ * dispatch phase of the next step.
+ *
+ * <p>Work that changes what the algorithm works on, such as edits to the graph, can be run between
+ * steps with {@link #setBetweenSteps(Runnable)}.
+ *
+ * @author Tom Nelson
+ */
+public class FramePacedRelaxer implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(FramePacedRelaxer.class);
+
+  /** The default target frame rate. Initialized to 60. */
+  public static final int DEFAULT_FRAME_RATE = 60;
+
+  /** The fraction of each frame that may be spent taking steps. */
+  private static final double BUDGET_FRACTION = 0.5;
+
+  /** The weight of the latest measurement in the moving average of the step time. */
+  private static final double SMOOTHING = 0.2;
+
+  private final IterativeContext iterativeContext;
+  private final LayoutModel<?> layoutModel;
+  private final long frameNanos;
+  private final long budgetNanos;
+  private final int stepsPerFrame;
+
+  private volatile boolean running = true;
+  private volatile boolean paused;
+  // run when a parked relaxer is resumed or stopped. Guarded by this
+  private Runnable onResume;
+  private volatile double stepNanos;
+  private volatile int lastFrameSteps;
+  private volatile LayoutMetrics metrics;
+  private volatile Runnable betweenSteps;
+
+  /**
+   * @param iterativeContext the algorithm to step
+   * @param layoutModel the model whose events are held back until the end of each frame
+   * @param frameRate the target number of frames per second
+   * @param stepsPerFrame the most steps to take in a frame, or 0 for as many as fit the budget
+   */
+  public FramePacedRelaxer(
+      IterativeContext iterativeContext,
+      LayoutModel<?> layoutModel,
+      int frameRate,
+      int stepsPerFrame) {
+    Preconditions.checkArgument(frameRate > 0, "frameRate must be positive");
+    Preconditions.checkArgument(stepsPerFrame >= 0, "stepsPerFrame cannot be negative");
+    this.iterativeContext = iterativeContext;
+    this.layoutModel = layoutModel;
+    this.frameNanos = TimeUnit.SECONDS.toNanos(1) / frameRate;
+    this.budgetNanos = (long) (frameNanos * BUDGET_FRACTION);
+    this.stepsPerFrame = stepsPerFrame;
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (shouldContinue()) {
+        awaitResume();
+        long frameStart = System.nanoTime();
+        if (runFrame()) {
+          long remaining = frameNanos - (System.nanoTime() - frameStart);
+          if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+          }
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      running = false;
+    }
+  }
+
+  /**
+   * Take the steps for one frame, then publish them.
+   *
+   * @return true if there are more frames to run
+   */
+  public boolean runFrame() {
+    if (!shouldContinue()) {
+      return false;
+    }
+    if (paused) {
+      return true;
+    }
+    long frameStart = System.nanoTime();
+    layoutModel.getLayoutNodePositionSupport().setFireEvents(false);
+    layoutModel.getLayoutChangeSupport().setFireEvents(false);
+    int steps = 0;
+    try {
+      do {
+        Runnable betweenSteps = this.betweenSteps;
+        if (betweenSteps != null) {
+          betweenSteps.run();
+        }
+        long stepStart = System.nanoTime();
+        try {
+          iterativeContext.step();
+        } catch (ConcurrentModificationException ex) {
+          // the graph was changed outside a GraphJournal, the next step will see the change
+          LayoutMetrics metrics = this.metrics;
+          if (metrics != null) {
+            metrics.recordCmeRetry();
+          }
+        }
+        long elapsed = System.nanoTime() - stepStart;
+        stepNanos = stepNanos == 0 ? elapsed : SMOOTHING * elapsed + (1 - SMOOTHING) * stepNanos;
+        steps++;
+      } while (shouldContinue()
+          && !paused
+          && (stepsPerFrame == 0 || steps < stepsPerFrame)
+          && System.nanoTime() - frameStart + stepNanos <= budgetNanos);
+    } finally {
+      lastFrameSteps = steps;
+      long publishStart = System.nanoTime();
+      layoutModel.getLayoutNodePositionSupport().setFireEvents(true);
+      // publishes the frame with one layout change event
+      layoutModel.getLayoutChangeSupport().setFireEvents(true);
+      LayoutMetrics metrics = this.metrics;
+      if (metrics != null) {
+        metrics.eventDispatched(System.nanoTime() - publishStart);
+      }
+    }
+    if (log.isTraceEnabled()) {
+      log.trace("{} steps in frame, {} ns per step", steps, (long) stepNanos);
+    }
+    return shouldContinue();
+  }
+
+  /** stop at the end of the current step */
+  public void stop() {
+    running = false;
+    wake();
+  }
+
+  /** park at the end of the current step, until resumed */
+  public void pause() {
+    paused = true;
+  }
+
+  /** carry on from where the relaxer was paused */
+  public void resume() {
+    paused = false;
+    wake();
+  }
+
+  public boolean isPaused() {
+    return paused;
+  }
+
+  /**
+   * For executors that run the relaxer a frame at a time: if the relaxer is paused, remember the
+   * action that schedules its next frame, to be run when it is resumed or stopped.
+   *
+   * @param action schedules the next frame
+   * @return true if the relaxer is paused and the action was kept for later
+   */
+  public synchronized boolean parkUntilResumed(Runnable action) {
+    if (!paused || !running) {
+      return false;
+    }
+    onResume = action;
+    return true;
+  }
+
+  /** wait while the relaxer is paused */
+  private synchronized void awaitResume() throws InterruptedException {
+    while (paused && running) {
+      wait();
+    }
+  }
+
+  private void wake() {
+    Runnable action;
+    synchronized (this) {
+      action = onResume;
+      onResume = null;
+      notifyAll();
+    }
+    if (action != null) {
+      action.run();
+    }
+  }
+
+  /** @return true until the relaxer is stopped or its work is done */
+  public boolean isRunning() {
+    return running && !iterativeContext.done();
+  }
+
+  /** called from the relaxer's own thread, so also stops if that thread was interrupted */
+  private boolean shouldContinue() {
+    return isRunning() && !Thread.currentThread().isInterrupted();
+  }
+
+  /**
+   * Record the metrics of the steps, and of publishing them. The metrics are also set on the
+   * algorithm, if it is an {@code IterativeLayoutAlgorithm}.
+   *
+   * @param metrics receives the metrics, or null to stop recording
+   */
+  public void setMetrics(LayoutMetrics metrics) {
+    this.metrics = metrics;
+    if (iterativeContext instanceof IterativeLayoutAlgorithm) {
+      ((IterativeLayoutAlgorithm<?>) iterativeContext).setMetrics(metrics);
+    }
+  }
+
+  public LayoutMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * @param betweenSteps run before each step, on the relaxer's thread, so that it can change what
+   *     the algorithm works on without disturbing a step. Null for nothing
+   */
+  public void setBetweenSteps(Runnable betweenSteps) {
+    this.betweenSteps = betweenSteps;
+  }
+
+  /** @return the period of a frame, in nanoseconds */
+  public long getFrameNanos() {
+    return frameNanos;
+  }
+
+  /** @return the moving average of the time taken by a step, in nanoseconds */
+  public double getStepNanos() {
+    return stepNanos;
+  }
+
+  /** @return the number of steps taken in the last frame */
+  public int getLastFrameSteps() {
+    return lastFrameSteps;
+  }
+
+  @Override
+  public String toString() {
+    return "FramePacedRelaxer{"
+        + "frameNanos="
+        + frameNanos
+        + ", stepsPerFrame="
+        + stepsPerFrame
+        + ", stepNanos="
+        + (long) stepNanos
+        + ", paused="
+        + paused
+        + '}';
+  }
+}
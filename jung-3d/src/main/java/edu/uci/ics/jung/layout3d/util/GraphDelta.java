@@ -0,0 +1,104 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * A batch of changes to a graph, in the order they are to be made: nodes and edges that are added
+ * or removed. A batch is appended to a {@link GraphJournal}, which makes the changes between the
+ * steps of the relaxer.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public final class GraphDelta<N> {
+
+  /** the kinds of change */
+  public enum Kind {
+    ADD_NODE,
+    REMOVE_NODE,
+    PUT_EDGE,
+    REMOVE_EDGE
+  }
+
+  /** one change. For a node, {@code target} is null */
+  public static final class Change<N> {
+    public final Kind kind;
+    public final N node;
+    public final N target;
+
+    private Change(Kind kind, N node, N target) {
+      this.kind = kind;
+      this.node = node;
+      this.target = target;
+    }
+
+    @Override
+    public String toString() {
+      return kind + (target == null ? "(" + node + ")" : "(" + node + ", " + target + ")");
+    }
+  }
+
+  public static class Builder<N> {
+    private final ImmutableList.Builder<Change<N>> changes = ImmutableList.builder();
+    private int size;
+
+    public Builder<N> addNode(N node) {
+      return add(Kind.ADD_NODE, node, null);
+    }
+
+    /** remove the node, and its edges */
+    public Builder<N> removeNode(N node) {
+      return add(Kind.REMOVE_NODE, node, null);
+    }
+
+    /** add an edge, and its endpoints if they are new */
+    public Builder<N> putEdge(N source, N target) {
+      return add(Kind.PUT_EDGE, source, Preconditions.checkNotNull(target));
+    }
+
+    public Builder<N> removeEdge(N source, N target) {
+      return add(Kind.REMOVE_EDGE, source, Preconditions.checkNotNull(target));
+    }
+
+    private Builder<N> add(Kind kind, N node, N target) {
+      changes.add(new Change<>(kind, Preconditions.checkNotNull(node), target));
+      size++;
+      return this;
+    }
+
+    /** @return true if no change has been added */
+    public boolean isEmpty() {
+      return size == 0;
+    }
+
+    public GraphDelta<N> build() {
+      return new GraphDelta<>(changes.build());
+    }
+  }
+
+  public static <N> Builder<N> builder() {
+    return new Builder<>();
+  }
+
+  private final List<Change<N>> changes;
+
+  private GraphDelta(List<Change<N>> changes) {
+    this.changes = changes;
+  }
+
+  /** @return the changes, in order */
+  public List<Change<N>> getChanges() {
+    return changes;
+  }
+
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "GraphDelta" + changes;
+  }
+}
@@ -0,0 +1,246 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.AbstractIterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A journal of changes to the graph of a LayoutModel that is being laid out. Writers on any thread
+ * append changes to a lock-free journal instead of changing the graph, and the changes waiting in
+ * the journal are all made at once between two steps of the relaxer (see {@link
+ * LayoutModel#runBetweenSteps(Runnable)}). A layout algorithm never sees the graph change during a
+ * step, so it can iterate the graph without guarding against a {@code
+ * ConcurrentModificationException}. After changes that made a difference, the algorithm the model
+ * is running is visited again, with a warm start that leaves the nodes where they are, so that it
+ * sizes its state to the changed graph before its next step.
+ *
+ * <p>The graph may be read on the thread that runs the relaxer, or when no relaxer is running.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class GraphJournal<N> {
+
+  private static final Logger log = LoggerFactory.getLogger(GraphJournal.class);
+
+  /** told of the changes a journal has made, on the thread that made them */
+  public interface Listener<N> {
+
+    /**
+     * @param applied the changes that were made to the graph, including the removal of the edges of
+     *     removed nodes, and not including changes that made no difference
+     */
+    void graphChanged(GraphDelta<N> applied);
+  }
+
+  /** the changes made by one application of the journal */
+  protected static class Batch<N> {
+    protected final GraphDelta.Builder<N> applied = GraphDelta.builder();
+    /** the nodes that were added */
+    protected final Set<N> added = new HashSet<>();
+    /** the nodes that were added, and those whose neighbors have changed */
+    protected final Set<N> changed = new HashSet<>();
+  }
+
+  protected final LayoutModel<N> layoutModel;
+  protected final MutableGraph<N> graph;
+  private final Queue<GraphDelta<N>> pending = new ConcurrentLinkedQueue<>();
+  protected final List<Listener<N>> listeners = new CopyOnWriteArrayList<>();
+
+  /** @param layoutModel a model with a {@code MutableGraph} */
+  public GraphJournal(LayoutModel<N> layoutModel) {
+    Preconditions.checkArgument(
+        layoutModel.getGraph() instanceof MutableGraph,
+        "a journal needs a LayoutModel with a MutableGraph");
+    this.layoutModel = layoutModel;
+    this.graph = (MutableGraph<N>) layoutModel.getGraph();
+  }
+
+  public void addListener(Listener<N> listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(Listener<N> listener) {
+    listeners.remove(listener);
+  }
+
+  /** @return the graph the journal changes */
+  public MutableGraph<N> getGraph() {
+    return graph;
+  }
+
+  /**
+   * Append a batch of changes, to be made between two steps of the relaxer. This never blocks.
+   *
+   * @param delta the changes
+   */
+  public void append(GraphDelta<N> delta) {
+    if (!delta.isEmpty()) {
+      pending.add(delta);
+      layoutModel.runBetweenSteps(this::applyPending);
+    }
+  }
+
+  public void addNode(N node) {
+    append(GraphDelta.<N>builder().addNode(node).build());
+  }
+
+  /** remove the node, and its edges */
+  public void removeNode(N node) {
+    append(GraphDelta.<N>builder().removeNode(node).build());
+  }
+
+  /** add an edge, and its endpoints if they are new */
+  public void putEdge(N source, N target) {
+    append(GraphDelta.<N>builder().putEdge(source, target).build());
+  }
+
+  public void removeEdge(N source, N target) {
+    append(GraphDelta.<N>builder().removeEdge(source, target).build());
+  }
+
+  /** @return the number of batches waiting to be made */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /** make all the waiting changes, then tell the listeners */
+  protected synchronized void applyPending() {
+    Batch<N> batch = new Batch<>();
+    int batches = 0;
+    for (GraphDelta<N> delta = pending.poll(); delta != null; delta = pending.poll()) {
+      batches++;
+      for (GraphDelta.Change<N> change : delta.getChanges()) {
+        apply(change, batch);
+      }
+    }
+    applied(batch);
+    if (!batch.applied.isEmpty()) {
+      layoutModel.graphChanged();
+      revisit(batch);
+      log.debug(
+          "applied {} batches, {} nodes added, {} changed",
+          batches,
+          batch.added.size(),
+          batch.changed.size());
+      GraphDelta<N> delta = batch.applied.build();
+      for (Listener<N> listener : listeners) {
+        listener.graphChanged(delta);
+      }
+    }
+  }
+
+  /**
+   * called after the waiting changes are made, and before the listeners are told. Subclasses may
+   * make more changes to the batch
+   *
+   * @param batch the changes that were made
+   */
+  protected void applied(Batch<N> batch) {}
+
+  /**
+   * called after changes that made a difference. Visits the algorithm the model is running again,
+   * so that it does not step over state sized for the graph before the changes. An iterative
+   * algorithm is told which nodes changed, so that it keeps the rest of its state, and only the
+   * changed nodes and their neighbors move until its next visit
+   *
+   * @param batch the changes that were made
+   */
+  protected void revisit(Batch<N> batch) {
+    LayoutAlgorithm<N> algorithm = layoutModel.getLayoutAlgorithm();
+    if (algorithm == null || !layoutModel.isRelaxing()) {
+      // the next accept visits it anyway
+      return;
+    }
+    if (algorithm instanceof AbstractIterativeLayoutAlgorithm) {
+      Set<N> touched = new HashSet<>(batch.changed);
+      for (N node : batch.changed) {
+        touched.addAll(graph.adjacentNodes(node));
+      }
+      ((AbstractIterativeLayoutAlgorithm<N>) algorithm)
+          .warmStart(node -> touched.contains(node) ? 1.0 : 0.0, batch.changed);
+    }
+    algorithm.visit(layoutModel);
+  }
+
+  /** make one change to the graph, and record it in the batch if it made a difference */
+  protected void apply(GraphDelta.Change<N> change, Batch<N> batch) {
+    N node = change.node;
+    N target = change.target;
+    switch (change.kind) {
+      case ADD_NODE:
+        addNode(node, batch);
+        break;
+      case REMOVE_NODE:
+        removeNode(node, batch);
+        break;
+      case PUT_EDGE:
+        addNode(node, batch);
+        addNode(target, batch);
+        if (graph.putEdge(node, target)) {
+          batch.applied.putEdge(node, target);
+          batch.changed.add(node);
+          batch.changed.add(target);
+        }
+        break;
+      case REMOVE_EDGE:
+        if (graph.removeEdge(node, target)) {
+          batch.applied.removeEdge(node, target);
+          batch.changed.add(node);
+          batch.changed.add(target);
+        }
+        break;
+    }
+  }
+
+  private void addNode(N node, Batch<N> batch) {
+    if (graph.addNode(node)) {
+      batch.applied.addNode(node);
+      batch.added.add(node);
+      batch.changed.add(node);
+    }
+  }
+
+  /** remove the node and its edges from the graph, and record them in the batch */
+  protected void removeNode(N node, Batch<N> batch) {
+    if (!graph.nodes().contains(node)) {
+      return;
+    }
+    for (N successor : graph.successors(node)) {
+      batch.applied.removeEdge(node, successor);
+      batch.changed.add(successor);
+    }
+    if (graph.isDirected()) {
+      for (N predecessor : graph.predecessors(node)) {
+        if (!predecessor.equals(node)) {
+          batch.applied.removeEdge(predecessor, node);
+          batch.changed.add(predecessor);
+        }
+      }
+    }
+    graph.removeNode(node);
+    batch.applied.removeNode(node);
+    batch.added.remove(node);
+    batch.changed.remove(node);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+        + "{nodes="
+        + graph.nodes().size()
+        + ", pending="
+        + pending.size()
+        + '}';
+  }
+}
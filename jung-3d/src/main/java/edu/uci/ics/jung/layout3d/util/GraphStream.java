@@ -0,0 +1,268 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import edu.uci.ics.jung.layout3d.algorithms.AbstractIterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feeds a continuous stream of changes into the graph of a LayoutModel while it is being laid out.
+ *
+ * <p>Batches of changes are appended from any thread to the lock-free queue of a {@link
+ * GraphJournal}, and are applied together between two steps of the relaxer. New nodes are placed
+ * near their neighbors, and the algorithm is visited again with a warm start, which reheats it and
+ * lets the nodes near the changes move freely while the rest of the graph is damped (see {@link
+ * IncrementalRelayout}). If the relaxer had finished, it is started again.
+ *
+ * <p>Nodes can be aged: a node that has not been mentioned by a change for the maximum age is
+ * removed, and listeners are told how fresh the nodes nearing that age are, so that they can be
+ * faded out. Ages are checked whenever batches are applied, and when {@link #expireStale()} is
+ * called.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class GraphStream<N> extends GraphJournal<N> {
+
+  private static final Logger log = LoggerFactory.getLogger(GraphStream.class);
+
+  /** told of the changes a stream has applied, and of the nodes that are fading */
+  public interface Listener<N> extends GraphJournal.Listener<N> {
+
+    /**
+     * @param freshness for each node that is nearing the maximum age, from 1 when it starts to fade
+     *     down to 0 when it is removed
+     */
+    default void nodesFading(Map<N, Double> freshness) {}
+  }
+
+  public static class Builder<N> {
+    private final LayoutModel<N> layoutModel;
+    private LayoutAlgorithm<N> layoutAlgorithm;
+    private IncrementalRelayout relayout = IncrementalRelayout.builder().build();
+    private long maxAgeNanos;
+    private double fadeFraction = 0.25;
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Builder(LayoutModel<N> layoutModel) {
+      this.layoutModel = layoutModel;
+    }
+
+    /**
+     * @param layoutAlgorithm reheated when changes are applied. Without one, changes are applied,
+     *     new nodes are placed, and the algorithm the model is running, if any, is visited again
+     * @return this builder
+     */
+    public Builder<N> withLayoutAlgorithm(LayoutAlgorithm<N> layoutAlgorithm) {
+      this.layoutAlgorithm = layoutAlgorithm;
+      return this;
+    }
+
+    /**
+     * @param relayout places new nodes and decides which nodes move freely after a change
+     * @return this builder
+     */
+    public Builder<N> withRelayout(IncrementalRelayout relayout) {
+      this.relayout = Preconditions.checkNotNull(relayout);
+      return this;
+    }
+
+    /**
+     * @param maxAge how long a node may go without being mentioned by a change before it is
+     *     removed, or 0 to keep nodes forever, the default
+     * @param unit the unit of {@code maxAge}
+     * @return this builder
+     */
+    public Builder<N> withMaxAge(long maxAge, TimeUnit unit) {
+      Preconditions.checkArgument(maxAge >= 0, "maxAge cannot be negative");
+      this.maxAgeNanos = unit.toNanos(maxAge);
+      return this;
+    }
+
+    /**
+     * @param fadeFraction the last fraction of the maximum age, over which a node fades out.
+     *     Defaults to 0.25
+     * @return this builder
+     */
+    public Builder<N> withFadeFraction(double fadeFraction) {
+      Preconditions.checkArgument(
+          fadeFraction >= 0 && fadeFraction <= 1, "fadeFraction must be from 0 to 1");
+      this.fadeFraction = fadeFraction;
+      return this;
+    }
+
+    /**
+     * @param ticker the source of time for aging
+     * @return this builder
+     */
+    public Builder<N> withTicker(Ticker ticker) {
+      this.ticker = Preconditions.checkNotNull(ticker);
+      return this;
+    }
+
+    public GraphStream<N> build() {
+      return new GraphStream<>(this);
+    }
+  }
+
+  /** @param layoutModel a model with a {@code MutableGraph} */
+  public static <N> Builder<N> builder(LayoutModel<N> layoutModel) {
+    return new Builder<>(layoutModel);
+  }
+
+  private final IncrementalRelayout relayout;
+  private final long maxAgeNanos;
+  private final double fadeFraction;
+  private final Ticker ticker;
+  private volatile LayoutAlgorithm<N> layoutAlgorithm;
+  // when each node was last mentioned by a change, and the time of the current application.
+  // Guarded by this
+  private final Map<N, Long> lastSeen = new HashMap<>();
+  private long now;
+  private Map<N, Double> fading;
+
+  private GraphStream(Builder<N> builder) {
+    super(builder.layoutModel);
+    this.layoutAlgorithm = builder.layoutAlgorithm;
+    this.relayout = builder.relayout;
+    this.maxAgeNanos = builder.maxAgeNanos;
+    this.fadeFraction = builder.fadeFraction;
+    this.ticker = builder.ticker;
+    long now = ticker.read();
+    for (N node : graph.nodes()) {
+      lastSeen.put(node, now);
+    }
+  }
+
+  /**
+   * @param layoutAlgorithm reheated when changes are applied, or null to visit the algorithm the
+   *     model is running again
+   */
+  public void setLayoutAlgorithm(LayoutAlgorithm<N> layoutAlgorithm) {
+    this.layoutAlgorithm = layoutAlgorithm;
+  }
+
+  public LayoutAlgorithm<N> getLayoutAlgorithm() {
+    return layoutAlgorithm;
+  }
+
+  /** remove the nodes that have passed the maximum age, between two steps of the relaxer */
+  public void expireStale() {
+    layoutModel.runBetweenSteps(this::applyPending);
+  }
+
+  /** apply the waiting batches, expire stale nodes, and reheat the layout around the changes */
+  @Override
+  protected synchronized void applyPending() {
+    now = ticker.read();
+    fading = null;
+    super.applyPending();
+    if (fading != null && !fading.isEmpty()) {
+      for (GraphJournal.Listener<N> listener : listeners) {
+        if (listener instanceof Listener) {
+          ((Listener<N>) listener).nodesFading(fading);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void apply(GraphDelta.Change<N> change, Batch<N> batch) {
+    super.apply(change, batch);
+    switch (change.kind) {
+      case ADD_NODE:
+        lastSeen.put(change.node, now);
+        break;
+      case PUT_EDGE:
+        lastSeen.put(change.node, now);
+        lastSeen.put(change.target, now);
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Override
+  protected void removeNode(N node, Batch<N> batch) {
+    super.removeNode(node, batch);
+    lastSeen.remove(node);
+  }
+
+  @Override
+  protected void applied(Batch<N> batch) {
+    if (maxAgeNanos > 0) {
+      fading = age(batch);
+    }
+  }
+
+  @Override
+  protected void revisit(Batch<N> batch) {
+    reheat(batch);
+  }
+
+  /** remove the nodes past the maximum age, and return the freshness of those that are fading */
+  private Map<N, Double> age(Batch<N> batch) {
+    long fadeNanos = (long) (maxAgeNanos * fadeFraction);
+    Map<N, Double> fading = new HashMap<>();
+    List<N> expired = new ArrayList<>();
+    for (Map.Entry<N, Long> entry : lastSeen.entrySet()) {
+      long age = now - entry.getValue();
+      if (age >= maxAgeNanos) {
+        expired.add(entry.getKey());
+      } else if (age > maxAgeNanos - fadeNanos) {
+        fading.put(entry.getKey(), (maxAgeNanos - age) / (double) fadeNanos);
+      }
+    }
+    for (N node : expired) {
+      removeNode(node, batch);
+    }
+    if (!expired.isEmpty()) {
+      log.debug("{} nodes expired", expired.size());
+    }
+    return fading;
+  }
+
+  /**
+   * place the new nodes, and visit the algorithm again, with a warm start that tells it which nodes
+   * changed, so that it keeps the rest of its state. Without an algorithm of its own, the algorithm
+   * the model is running is visited again
+   */
+  private void reheat(Batch<N> batch) {
+    LayoutAlgorithm<N> algorithm = this.layoutAlgorithm;
+    if (algorithm instanceof AbstractIterativeLayoutAlgorithm) {
+      ((AbstractIterativeLayoutAlgorithm<N>) algorithm)
+          .warmStart(relayout.prepare(layoutModel, batch.added, batch.changed), batch.changed);
+    } else {
+      relayout.prepare(layoutModel, batch.added, batch.changed);
+    }
+    if (algorithm == null) {
+      super.revisit(batch);
+      return;
+    }
+    if (layoutModel.isRelaxing()) {
+      // between two steps of the running relaxer
+      algorithm.visit(layoutModel);
+    } else {
+      layoutModel.accept(algorithm);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "GraphStream{nodes="
+        + graph.nodes().size()
+        + ", pending="
+        + getPendingCount()
+        + ", maxAgeNanos="
+        + maxAgeNanos
+        + '}';
+  }
+}
@@ -0,0 +1,235 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.graph.Graph;
+import edu.uci.ics.jung.layout3d.algorithms.AbstractIterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prepares a LayoutModel whose graph has changed a little for a warm start of an {@link
+ * AbstractIterativeLayoutAlgorithm}, so that the layout settles around the change instead of
+ * relaxing the whole graph again from random locations.
+ *
+ * <p>The nodes that were in the previous graph keep their locations. A new node is placed at the
+ * barycenter of its neighbors that are already placed, plus a little jitter so that nodes placed
+ * together do not coincide, and new nodes with no placed neighbors are left to the model's
+ * initializer. The nodes within a number of hops of a changed node (one that is new, or whose
+ * neighbors have changed) move freely, and the rest of the graph is damped, or frozen with a
+ * damping of 0.
+ *
+ * @author Tom Nelson
+ */
+public class IncrementalRelayout {
+
+  private static final Logger log = LoggerFactory.getLogger(IncrementalRelayout.class);
+
+  public static class Builder {
+    private int hops = 2;
+    private double damping = 0.1;
+    private double jitter = 1;
+    private Random random = new Random();
+
+    /**
+     * @param hops the nodes within this many hops of a changed node move freely. Defaults to 2
+     * @return this builder
+     */
+    public Builder withHops(int hops) {
+      Preconditions.checkArgument(hops >= 0, "hops cannot be negative");
+      this.hops = hops;
+      return this;
+    }
+
+    /**
+     * @param damping the mobility of the nodes further from a change, from 0 (frozen) to 1.
+     *     Defaults to 0.1
+     * @return this builder
+     */
+    public Builder withDamping(double damping) {
+      Preconditions.checkArgument(damping >= 0 && damping <= 1, "damping must be from 0 to 1");
+      this.damping = damping;
+      return this;
+    }
+
+    /**
+     * @param jitter how far, at most, a new node is placed from the barycenter of its neighbors, on
+     *     each axis. Defaults to 1
+     * @return this builder
+     */
+    public Builder withJitter(double jitter) {
+      Preconditions.checkArgument(jitter >= 0, "jitter cannot be negative");
+      this.jitter = jitter;
+      return this;
+    }
+
+    public Builder withRandomSeed(long randomSeed) {
+      this.random = new Random(randomSeed);
+      return this;
+    }
+
+    public IncrementalRelayout build() {
+      return new IncrementalRelayout(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final int hops;
+  private final double damping;
+  private final double jitter;
+  private final Random random;
+
+  private IncrementalRelayout(Builder builder) {
+    this.hops = builder.hops;
+    this.damping = builder.damping;
+    this.jitter = builder.jitter;
+    this.random = builder.random;
+  }
+
+  /**
+   * Place the new nodes of the model's graph, then make the next visit of the algorithm a warm
+   * start that moves the nodes near the change.
+   *
+   * @param layoutModel a model whose graph has just been changed from {@code previous}
+   * @param previous the graph the model laid out before
+   * @param algorithm the algorithm that will visit the model next
+   */
+  public <N> void prepare(
+      LayoutModel<N> layoutModel,
+      Graph<N> previous,
+      AbstractIterativeLayoutAlgorithm<N> algorithm) {
+    algorithm.warmStart(prepare(layoutModel, previous));
+  }
+
+  /**
+   * Place the new nodes of the model's graph.
+   *
+   * @param layoutModel a model whose graph has just been changed from {@code previous}
+   * @param previous the graph the model laid out before
+   * @return the mobility of each node, for {@link AbstractIterativeLayoutAlgorithm#warmStart}
+   */
+  public <N> Function<N, Double> prepare(LayoutModel<N> layoutModel, Graph<N> previous) {
+    Graph<N> graph = layoutModel.getGraph();
+    Set<N> changed = new HashSet<>();
+    Set<N> added = new HashSet<>();
+    for (N node : graph.nodes()) {
+      if (!previous.nodes().contains(node)) {
+        added.add(node);
+        changed.add(node);
+      } else if (!graph.adjacentNodes(node).equals(previous.adjacentNodes(node))) {
+        changed.add(node);
+      }
+    }
+    return prepare(layoutModel, added, changed);
+  }
+
+  /**
+   * Place the new nodes of the model's graph, when the changes to the graph are known.
+   *
+   * @param layoutModel a model whose graph has just been changed
+   * @param added the nodes that were added to the graph
+   * @param changed the nodes that were added, and those whose neighbors have changed
+   * @return the mobility of each node, for {@link AbstractIterativeLayoutAlgorithm#warmStart}
+   */
+  public <N> Function<N, Double> prepare(LayoutModel<N> layoutModel, Set<N> added, Set<N> changed) {
+    Graph<N> graph = layoutModel.getGraph();
+    placeAdded(layoutModel, graph, added);
+
+    // the nodes within hops of a change, found breadth first
+    Map<N, Integer> near = new HashMap<>();
+    Deque<N> queue = new ArrayDeque<>();
+    for (N node : changed) {
+      near.put(node, 0);
+      queue.add(node);
+    }
+    while (!queue.isEmpty()) {
+      N node = queue.poll();
+      int distance = near.get(node);
+      if (distance < hops) {
+        for (N neighbor : graph.adjacentNodes(node)) {
+          if (!near.containsKey(neighbor)) {
+            near.put(neighbor, distance + 1);
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    log.debug(
+        "{} nodes added, {} changed, {} of {} near a change",
+        added.size(),
+        changed.size(),
+        near.size(),
+        graph.nodes().size());
+    Set<N> free = near.keySet();
+    Double damped = damping;
+    Double one = 1.0;
+    return node -> free.contains(node) ? one : damped;
+  }
+
+  /** place each added node at the barycenter of its placed neighbors, nearest to the old first */
+  private <N> void placeAdded(LayoutModel<N> layoutModel, Graph<N> graph, Set<N> added) {
+    Set<N> waiting = new HashSet<>(added);
+    Deque<N> ready = new ArrayDeque<>();
+    for (N node : added) {
+      if (hasPlacedNeighbor(graph, node, waiting)) {
+        ready.add(node);
+      }
+    }
+    while (!ready.isEmpty()) {
+      N node = ready.poll();
+      if (!waiting.contains(node)) {
+        continue;
+      }
+      double x = 0;
+      double y = 0;
+      double z = 0;
+      int count = 0;
+      for (N neighbor : graph.adjacentNodes(node)) {
+        if (!waiting.contains(neighbor)) {
+          Point p = layoutModel.apply(neighbor);
+          x += p.x;
+          y += p.y;
+          z += p.z;
+          count++;
+        }
+      }
+      layoutModel.set(
+          node,
+          x / count + jitter * (2 * random.nextDouble() - 1),
+          y / count + jitter * (2 * random.nextDouble() - 1),
+          z / count + jitter * (2 * random.nextDouble() - 1));
+      waiting.remove(node);
+      for (N neighbor : graph.adjacentNodes(node)) {
+        if (waiting.contains(neighbor)) {
+          ready.add(neighbor);
+        }
+      }
+    }
+  }
+
+  private static <N> boolean hasPlacedNeighbor(Graph<N> graph, N node, Set<N> waiting) {
+    for (N neighbor : graph.adjacentNodes(node)) {
+      if (!waiting.contains(neighbor)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "IncrementalRelayout{hops=" + hops + ", damping=" + damping + '}';
+  }
+}
@@ -0,0 +1,83 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only {@code Map} view of node locations held in parallel arrays, where {@code nodes[i]} is
+ * at {@code (x[i], y[i], z[i])}. It is meant for handing the result of an array based layout to
+ * {@code LayoutModel.setLocations} without building a {@code HashMap} first: iteration creates each
+ * {@code Point} on demand, but {@code get} is a linear scan.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class IndexedLocations<N> extends AbstractMap<N, Point> {
+
+  private final Object[] nodes;
+  private final double[] x;
+  private final double[] y;
+  private final double[] z;
+  private final int size;
+
+  /**
+   * @param nodes the nodes
+   * @param x the x coordinates
+   * @param y the y coordinates
+   * @param z the z coordinates
+   * @param size the number of nodes, from index 0, that are in the view
+   */
+  public IndexedLocations(Object[] nodes, double[] x, double[] y, double[] z, int size) {
+    Preconditions.checkArgument(
+        size <= nodes.length && size <= x.length && size <= y.length && size <= z.length,
+        "arrays are smaller than size");
+    this.nodes = nodes;
+    this.x = x;
+    this.y = y;
+    this.z = z;
+    this.size = size;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public Set<Entry<N, Point>> entrySet() {
+    return new AbstractSet<Entry<N, Point>>() {
+      @Override
+      public Iterator<Entry<N, Point>> iterator() {
+        return new Iterator<Entry<N, Point>>() {
+          int i = 0;
+
+          @Override
+          public boolean hasNext() {
+            return i < size;
+          }
+
+          @Override
+          public Entry<N, Point> next() {
+            if (i >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<N, Point> entry =
+                new SimpleImmutableEntry<>((N) nodes[i], Point.of(x[i], y[i], z[i]));
+            i++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+}
@@ -0,0 +1,237 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the relaxers of {@code LayoutModel}s, and other layout work such as pre-relaxing. The future
+ * returned for a relaxer completes when the relaxer is done, and cancelling it stops the relaxer
+ * and interrupts a step in progress, so that a replaced relaxer does not linger.
+ *
+ * <p>Two kinds are provided. A {@link #pooled(int) pooled} executor runs each frame of a relaxer as
+ * its own task on a bounded pool of platform threads, so that many models relaxing at once share
+ * the threads in turn, a frame at a time. A {@link #virtualThreads() virtual thread} executor runs
+ * each relaxer on its own virtual thread, where the JVM has them (Java 21 or later), and on its own
+ * daemon platform thread where it does not.
+ *
+ * @author Tom Nelson
+ */
+public interface LayoutExecutor {
+
+  /**
+   * Start running the relaxer.
+   *
+   * @param relaxer the relaxer to run
+   * @return a future that completes when the relaxer is done. Cancelling it stops the relaxer.
+   */
+  CompletableFuture<Void> execute(FramePacedRelaxer relaxer);
+
+  /**
+   * Run a single task.
+   *
+   * @param task the task to run
+   * @return a future that completes when the task is done. Cancelling it interrupts the task.
+   */
+  CompletableFuture<Void> submit(Runnable task);
+
+  /** @return a pooled executor with one thread per available processor, shared by all models */
+  static LayoutExecutor shared() {
+    return Pooled.SHARED;
+  }
+
+  /**
+   * @param threads the number of threads in the pool
+   * @return an executor that runs relaxers a frame at a time on a bounded pool
+   */
+  static LayoutExecutor pooled(int threads) {
+    return new Pooled(threads);
+  }
+
+  /** @return an executor that runs each relaxer on its own virtual thread */
+  static LayoutExecutor virtualThreads() {
+    return new VirtualThreads();
+  }
+
+  /**
+   * a future that stops its relaxer (if any), and interrupts the thread running it, when cancelled
+   */
+  class TaskFuture extends CompletableFuture<Void> {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskFuture.class);
+
+    private final FramePacedRelaxer relaxer;
+    private volatile Future<?> frame;
+    private volatile Thread thread;
+
+    TaskFuture(FramePacedRelaxer relaxer) {
+      this.relaxer = relaxer;
+    }
+
+    /** run the task and complete with its outcome */
+    void run(Runnable task) {
+      try {
+        task.run();
+        complete(null);
+      } catch (Throwable t) {
+        log.error("layout task failed", t);
+        completeExceptionally(t);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (relaxer != null) {
+        relaxer.stop();
+      }
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      Future<?> frame = this.frame;
+      if (frame != null) {
+        frame.cancel(true);
+      }
+      Thread thread = this.thread;
+      if (thread != null) {
+        thread.interrupt();
+      }
+      return cancelled;
+    }
+  }
+
+  /** runs each frame of each relaxer as a task on a bounded pool */
+  class Pooled implements LayoutExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(Pooled.class);
+
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private static final Pooled SHARED = new Pooled(Runtime.getRuntime().availableProcessors());
+
+    private final ScheduledThreadPoolExecutor pool;
+
+    Pooled(int threads) {
+      Preconditions.checkArgument(threads > 0, "threads must be positive");
+      pool =
+          new ScheduledThreadPoolExecutor(
+              threads,
+              new ThreadFactoryBuilder()
+                  .setNameFormat("layout-" + poolCount.getAndIncrement() + "-%d")
+                  .setDaemon(true)
+                  .build());
+      pool.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(FramePacedRelaxer relaxer) {
+      TaskFuture future = new TaskFuture(relaxer);
+      future.frame = pool.submit(() -> runFrame(relaxer, future));
+      return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(Runnable task) {
+      TaskFuture future = new TaskFuture(null);
+      future.frame = pool.submit(() -> future.run(task));
+      return future;
+    }
+
+    /** run one frame, then schedule the next one for the start of the following frame */
+    private void runFrame(FramePacedRelaxer relaxer, TaskFuture future) {
+      if (future.isDone()
+          || relaxer.parkUntilResumed(
+              () -> future.frame = pool.submit(() -> runFrame(relaxer, future)))) {
+        return;
+      }
+      long frameStart = System.nanoTime();
+      boolean more;
+      try {
+        more = relaxer.runFrame();
+      } catch (Throwable t) {
+        log.error("relaxer failed", t);
+        future.completeExceptionally(t);
+        return;
+      }
+      if (!more) {
+        future.complete(null);
+        return;
+      }
+      long delay = Math.max(0, relaxer.getFrameNanos() - (System.nanoTime() - frameStart));
+      future.frame = pool.schedule(() -> runFrame(relaxer, future), delay, TimeUnit.NANOSECONDS);
+      if (future.isDone()) {
+        // cancelled while the next frame was being scheduled
+        future.frame.cancel(true);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "LayoutExecutor.Pooled{threads=" + pool.getCorePoolSize() + '}';
+    }
+  }
+
+  /** runs each relaxer on its own virtual thread, or a daemon platform thread before Java 21 */
+  class VirtualThreads implements LayoutExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+    // Thread.startVirtualThread(Runnable), or null if this JVM has no virtual threads
+    private static final Method startVirtualThread = findStartVirtualThread();
+
+    private static Method findStartVirtualThread() {
+      try {
+        return Thread.class.getMethod("startVirtualThread", Runnable.class);
+      } catch (NoSuchMethodException ex) {
+        log.debug("no virtual threads, will use platform threads");
+        return null;
+      }
+    }
+
+    @Override
+    public CompletableFuture<Void> execute(FramePacedRelaxer relaxer) {
+      return start(new TaskFuture(relaxer), relaxer);
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(Runnable task) {
+      return start(new TaskFuture(null), task);
+    }
+
+    private static TaskFuture start(TaskFuture future, Runnable task) {
+      future.thread = start(() -> future.run(task));
+      if (future.isDone()) {
+        future.thread.interrupt();
+      }
+      return future;
+    }
+
+    private static Thread start(Runnable task) {
+      if (startVirtualThread != null) {
+        try {
+          return (Thread) startVirtualThread.invoke(null, task);
+        } catch (ReflectiveOperationException ex) {
+          log.warn("could not start a virtual thread, will use a platform thread", ex);
+        }
+      }
+      Thread thread = new Thread(task, "layout-relaxer");
+      thread.setDaemon(true);
+      thread.start();
+      return thread;
+    }
+
+    /** @return true if relaxers run on virtual threads in this JVM */
+    public boolean isVirtual() {
+      return startVirtualThread != null;
+    }
+
+    @Override
+    public String toString() {
+      return "LayoutExecutor.VirtualThreads{virtual=" + isVirtual() + '}';
+    }
+  }
+}
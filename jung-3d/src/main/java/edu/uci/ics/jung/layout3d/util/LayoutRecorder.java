@@ -0,0 +1,290 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.algorithms.ReplayLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.event.LayoutChange;
+import edu.uci.ics.jung.layout3d.event.LayoutNodePositionChange;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records how a layout evolves, one frame at a time, so that it can be watched again with a {@link
+ * ReplayLayoutAlgorithm} without computing any forces.
+ *
+ * <p>A frame is recorded whenever {@link #recordFrame()} is called, and, with the recorder added as
+ * a listener to the {@link LayoutMetrics} of the model, at the end of every step the relaxer takes.
+ * Once attached to a {@link LayoutModel}, position change events mark the nodes that moved, so that
+ * a frame only looks at those. A relaxer that holds the events of the model back for a whole frame,
+ * as a {@link FramePacedRelaxer} does, publishes the frame with a single layout change event; the
+ * steps that end while the events are held back are then recorded as one frame, when that event
+ * arrives, and the frame looks at every node.
+ *
+ * <p>Coordinates are quantized to multiples of a quantum, and each frame holds, for the nodes whose
+ * quantized location changed, the difference from the location last recorded. The differences are
+ * small integers, written as variable length numbers, and the stream is gzipped. Frames are flushed
+ * as they are recorded, so a recording can be replayed while it is still being written, or after
+ * the process writing it has died.
+ *
+ * <p>The stream holds a header: the magic number, the format version, the width, height and depth
+ * of the layout and the quantum. Each frame that follows holds the number of entries, then for each
+ * entry the index of the node, its id if the index is new, and the change to each of its quantized
+ * coordinates. Nodes are identified by a string, {@code String.valueOf(node)} unless another id
+ * function is passed.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class LayoutRecorder<N>
+    implements LayoutNodePositionChange.Listener<N>,
+        LayoutChange.Listener,
+        StepMetrics.Listener,
+        Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(LayoutRecorder.class);
+
+  /** "J3DR" */
+  public static final int MAGIC = 0x4A334452;
+
+  public static final int VERSION = 1;
+
+  /** The default quantum. Initialized to 0.01 */
+  public static final double DEFAULT_QUANTUM = 0.01;
+
+  private final LayoutModel<N> layoutModel;
+  private final DataOutputStream out;
+  private final double quantum;
+  private final Function<? super N, String> nodeIds;
+
+  private final Map<N, Integer> indices = new HashMap<>();
+  // the last recorded quantized coordinates, by index
+  private long[] recorded = new long[3 * 64];
+  // the nodes that moved since the last frame. Guarded by this
+  private final Set<N> moved = new LinkedHashSet<>();
+  // a step ended while the events of the model were held back. Guarded by this
+  private boolean stepPending;
+  private boolean attached;
+  private boolean closed;
+  private int frames;
+
+  /** record to a file, with the default quantum and ids from {@code String.valueOf} */
+  public LayoutRecorder(LayoutModel<N> layoutModel, Path path) throws IOException {
+    this(layoutModel, Files.newOutputStream(path), DEFAULT_QUANTUM, String::valueOf);
+  }
+
+  /**
+   * @param layoutModel the model to record
+   * @param out receives the recording, and is closed when the recorder is
+   * @param quantum the coordinates are recorded as multiples of this
+   * @param nodeIds gives the id of each node
+   * @throws IOException if the header cannot be written
+   */
+  public LayoutRecorder(
+      LayoutModel<N> layoutModel,
+      OutputStream out,
+      double quantum,
+      Function<? super N, String> nodeIds)
+      throws IOException {
+    Preconditions.checkArgument(quantum > 0, "quantum must be positive");
+    this.layoutModel = Preconditions.checkNotNull(layoutModel);
+    this.nodeIds = Preconditions.checkNotNull(nodeIds);
+    this.quantum = quantum;
+    this.out =
+        new DataOutputStream(
+            new BufferedOutputStream(new GZIPOutputStream(out, 1 << 16, true), 1 << 16));
+    this.out.writeInt(MAGIC);
+    this.out.writeInt(VERSION);
+    this.out.writeInt(layoutModel.getWidth());
+    this.out.writeInt(layoutModel.getHeight());
+    this.out.writeInt(layoutModel.getDepth());
+    this.out.writeDouble(quantum);
+  }
+
+  /**
+   * Listen to the model, and record its current layout as the first frame.
+   *
+   * @return this recorder
+   */
+  public LayoutRecorder<N> attach() {
+    Preconditions.checkState(!closed, "the recorder is closed");
+    if (!attached) {
+      attached = true;
+      layoutModel.getLayoutNodePositionSupport().addLayoutNodePositionChangeListener(this);
+      layoutModel.getLayoutChangeSupport().addLayoutChangeListener(this);
+    }
+    recordFrame();
+    return this;
+  }
+
+  /** stop listening to the model */
+  public void detach() {
+    if (attached) {
+      attached = false;
+      layoutModel.getLayoutNodePositionSupport().removeLayoutNodePositionChangeListener(this);
+      layoutModel.getLayoutChangeSupport().removeLayoutChangeListener(this);
+    }
+  }
+
+  @Override
+  public synchronized void layoutNodePositionChanged(LayoutNodePositionChange.Event<N> evt) {
+    moved.add(evt.node);
+  }
+
+  /**
+   * record a frame at the end of each step, or, while the events of an attached model are held
+   * back, when they are published
+   */
+  @Override
+  public synchronized void stepCompleted(StepMetrics metrics) {
+    if (attached && !layoutModel.getLayoutNodePositionSupport().isFireEvents()) {
+      stepPending = true;
+    } else {
+      recordFrame();
+    }
+  }
+
+  /** record the steps that ended while the events of the model were held back */
+  @Override
+  public synchronized void layoutChanged() {
+    if (stepPending) {
+      recordFrame();
+    }
+  }
+
+  /**
+   * Record the current layout as a frame.
+   *
+   * @throws UncheckedIOException if the frame cannot be written
+   */
+  public synchronized void recordFrame() {
+    if (closed) {
+      return;
+    }
+    // the steps of a held back frame moved nodes without any position events
+    boolean allNodes = stepPending || moved.isEmpty();
+    stepPending = false;
+    List<N> nodes = new ArrayList<>(allNodes ? layoutModel.getGraph().nodes() : moved);
+    moved.clear();
+    int count = 0;
+    int[] entries = new int[nodes.size()];
+    boolean[] added = new boolean[nodes.size()];
+    long[] changes = new long[3 * nodes.size()];
+    for (N node : nodes) {
+      Integer index = indices.get(node);
+      if (index == null) {
+        // a new index is written with the id, in the order indices are handed out
+        index = indices.size();
+        indices.put(node, index);
+        if (recorded.length < 3 * indices.size()) {
+          recorded = Arrays.copyOf(recorded, 2 * recorded.length);
+        }
+        added[count] = true;
+      }
+      Point p = layoutModel.apply(node);
+      long x = Math.round(p.x / quantum);
+      long y = Math.round(p.y / quantum);
+      long z = Math.round(p.z / quantum);
+      int at = 3 * index;
+      if (added[count] || x != recorded[at] || y != recorded[at + 1] || z != recorded[at + 2]) {
+        changes[3 * count] = x - recorded[at];
+        changes[3 * count + 1] = y - recorded[at + 1];
+        changes[3 * count + 2] = z - recorded[at + 2];
+        recorded[at] = x;
+        recorded[at + 1] = y;
+        recorded[at + 2] = z;
+        nodes.set(count, node);
+        entries[count++] = index;
+      }
+    }
+    try {
+      writeVarLong(out, count);
+      for (int i = 0; i < count; i++) {
+        writeVarLong(out, entries[i]);
+        if (added[i]) {
+          out.writeUTF(nodeIds.apply(nodes.get(i)));
+        }
+        for (int axis = 0; axis < 3; axis++) {
+          writeVarLong(out, zigZag(changes[3 * i + axis]));
+        }
+      }
+      out.flush();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    frames++;
+    log.trace("recorded frame {} with {} changes", frames, count);
+  }
+
+  /** @return the number of frames recorded */
+  public synchronized int getFrameCount() {
+    return frames;
+  }
+
+  public double getQuantum() {
+    return quantum;
+  }
+
+  /** detach from the model, and finish the recording */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!closed) {
+      detach();
+      closed = true;
+      out.close();
+      log.debug("recorded {} frames", frames);
+    }
+  }
+
+  static void writeVarLong(DataOutput out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  /** read a number written as a variable length number */
+  public static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed variable length number");
+  }
+
+  /** @return a small unsigned number for a small signed number */
+  static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /** @return the signed number that was zig-zag encoded as {@code value} */
+  public static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
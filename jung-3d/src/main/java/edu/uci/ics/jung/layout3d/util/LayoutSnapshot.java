@@ -0,0 +1,355 @@
+package edu.uci.ics.jung.layout3d.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The node locations of a {@link LayoutModel}, saved to a compact binary file so that a large
+ * layout can be re-opened where it was left instead of relaxing from random locations again.
+ *
+ * <p>A snapshot is loaded by mapping the file into memory, and nothing is read until a location is
+ * asked for, so loading takes the same time whatever the size of the layout. The node table is
+ * sorted by a hash of each node's id, so a location is found with a binary search of the mapped
+ * table. As a {@code Function<N, Point>} a snapshot can be passed to {@code
+ * LoadingCacheLayoutModel.Builder.withInitializer}, and nodes that are not in it are placed by a
+ * fallback initializer.
+ *
+ * <p>The file holds, in big-endian order:
+ *
+ * <ul>
+ *   <li>a header: the magic number, the format version, the bytes per coordinate (4 or 8), the
+ *       width, height and depth of the layout, the node count, and the offsets of the sections
+ *   <li>the node table: for each node, the hash of its id and the offset of the id in the id
+ *       section
+ *   <li>the x, y and z coordinates, each in a block of its own, in the order of the node table
+ *   <li>the id section: for each node, the length of its UTF-8 id followed by its bytes
+ * </ul>
+ *
+ * Nodes are identified by a string, {@code String.valueOf(node)} unless another id function is
+ * passed, which must give the same id to the same node when saving and loading.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class LayoutSnapshot<N> implements Function<N, Point> {
+
+  private static final Logger log = LoggerFactory.getLogger(LayoutSnapshot.class);
+
+  /** "J3DL" */
+  private static final int MAGIC = 0x4A33444C;
+
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 64;
+  private static final int ENTRY_BYTES = 16;
+
+  private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+  /** how the coordinates are stored */
+  public enum Precision {
+    FLOAT(4),
+    DOUBLE(8);
+
+    final int bytes;
+
+    Precision(int bytes) {
+      this.bytes = bytes;
+    }
+  }
+
+  private final Function<? super N, String> nodeIds;
+  private final Function<N, Point> fallback;
+  private final Precision precision;
+  private final int width;
+  private final int height;
+  private final int depth;
+  private final int size;
+  private final ByteBuffer table;
+  private final ByteBuffer coordinates;
+  private final ByteBuffer ids;
+
+  private LayoutSnapshot(LayoutSnapshot<N> snapshot, Function<N, Point> fallback) {
+    this.nodeIds = snapshot.nodeIds;
+    this.fallback = fallback;
+    this.precision = snapshot.precision;
+    this.width = snapshot.width;
+    this.height = snapshot.height;
+    this.depth = snapshot.depth;
+    this.size = snapshot.size;
+    this.table = snapshot.table;
+    this.coordinates = snapshot.coordinates;
+    this.ids = snapshot.ids;
+  }
+
+  private LayoutSnapshot(
+      Function<? super N, String> nodeIds, FileChannel channel, ByteBuffer header)
+      throws IOException {
+    this.nodeIds = nodeIds;
+    if (header.getInt(0) != MAGIC) {
+      throw new IOException("not a layout snapshot");
+    }
+    if (header.getInt(4) != VERSION) {
+      throw new IOException("unsupported layout snapshot version " + header.getInt(4));
+    }
+    this.precision = header.getInt(8) == Precision.FLOAT.bytes ? Precision.FLOAT : Precision.DOUBLE;
+    this.width = header.getInt(12);
+    this.height = header.getInt(16);
+    this.depth = header.getInt(20);
+    this.fallback = new RandomLocationTransformer<>(width, height, depth);
+    this.size = Math.toIntExact(header.getLong(24));
+    long tableOffset = header.getLong(32);
+    long coordinatesOffset = header.getLong(40);
+    long idsOffset = header.getLong(48);
+    long idsLength = header.getLong(56);
+    this.table = map(channel, tableOffset, (long) size * ENTRY_BYTES);
+    this.coordinates = map(channel, coordinatesOffset, 3L * size * precision.bytes);
+    this.ids = map(channel, idsOffset, idsLength);
+  }
+
+  private static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("layout snapshot section is too large to map: " + length + " bytes");
+    }
+    return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+  }
+
+  /**
+   * Save the location of every node of the model, as doubles, with ids from {@code String.valueOf}.
+   */
+  public static <N> void save(LayoutModel<N> layoutModel, Path path) throws IOException {
+    save(layoutModel, path, Precision.DOUBLE, String::valueOf);
+  }
+
+  /**
+   * Save the location of every node of the model.
+   *
+   * @param layoutModel the model whose node locations are saved
+   * @param path the file to write, replacing any that is there
+   * @param precision how the coordinates are stored. Floats take half the space
+   * @param nodeIds gives the id of each node
+   * @throws IOException if the file cannot be written
+   */
+  public static <N> void save(
+      LayoutModel<N> layoutModel,
+      Path path,
+      Precision precision,
+      Function<? super N, String> nodeIds)
+      throws IOException {
+    List<N> nodes = layoutModel.getGraph().nodes().stream().collect(Collectors.toList());
+    int size = nodes.size();
+    byte[][] names = new byte[size][];
+    long[] hashes = new long[size];
+    for (int i = 0; i < size; i++) {
+      names[i] = nodeIds.apply(nodes.get(i)).getBytes(StandardCharsets.UTF_8);
+      hashes[i] = hash(names[i]);
+    }
+    Integer[] order =
+        IntStream.range(0, size)
+            .boxed()
+            .sorted(Comparator.comparingLong(i -> hashes[i]))
+            .toArray(Integer[]::new);
+
+    long tableOffset = HEADER_BYTES;
+    long coordinatesOffset = tableOffset + (long) size * ENTRY_BYTES;
+    long idsOffset = coordinatesOffset + 3L * size * precision.bytes;
+    long idsLength = 0;
+    for (byte[] name : names) {
+      idsLength += Integer.BYTES + name.length;
+    }
+
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(precision.bytes);
+      out.writeInt(layoutModel.getWidth());
+      out.writeInt(layoutModel.getHeight());
+      out.writeInt(layoutModel.getDepth());
+      out.writeLong(size);
+      out.writeLong(tableOffset);
+      out.writeLong(coordinatesOffset);
+      out.writeLong(idsOffset);
+      out.writeLong(idsLength);
+
+      long idOffset = 0;
+      for (int i : order) {
+        out.writeLong(hashes[i]);
+        out.writeLong(idOffset);
+        idOffset += Integer.BYTES + names[i].length;
+      }
+      Point[] points = new Point[size];
+      for (int i = 0; i < size; i++) {
+        points[i] = layoutModel.apply(nodes.get(order[i]));
+      }
+      for (int axis = 0; axis < 3; axis++) {
+        for (Point p : points) {
+          double value = axis == 0 ? p.x : axis == 1 ? p.y : p.z;
+          if (precision == Precision.FLOAT) {
+            out.writeFloat((float) value);
+          } else {
+            out.writeDouble(value);
+          }
+        }
+      }
+      for (int i : order) {
+        out.writeInt(names[i].length);
+        out.write(names[i]);
+      }
+    }
+    log.debug("saved {} node locations to {}", size, path);
+  }
+
+  /** Load a snapshot saved with ids from {@code String.valueOf}. */
+  public static <N> LayoutSnapshot<N> load(Path path) throws IOException {
+    return load(path, String::valueOf);
+  }
+
+  /**
+   * Load a snapshot by mapping the file into memory. Nodes that are not in the snapshot are placed
+   * at random within the saved layout size, unless another fallback is set with {@link
+   * #withFallback(Function)}.
+   *
+   * @param path the file to read
+   * @param nodeIds gives the id of each node, as it did when the snapshot was saved
+   * @return the snapshot
+   * @throws IOException if the file cannot be read or is not a layout snapshot
+   */
+  public static <N> LayoutSnapshot<N> load(Path path, Function<? super N, String> nodeIds)
+      throws IOException {
+    Preconditions.checkNotNull(nodeIds);
+    // the mappings stay valid once the channel is closed
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException("not a layout snapshot");
+      }
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      return new LayoutSnapshot<>(nodeIds, channel, header);
+    }
+  }
+
+  /**
+   * @param fallback places the nodes that are not in the snapshot, typically the initializer the
+   *     model would otherwise have used
+   * @return a snapshot of the same file that uses the fallback
+   */
+  public LayoutSnapshot<N> withFallback(Function<N, Point> fallback) {
+    Preconditions.checkNotNull(fallback);
+    return new LayoutSnapshot<>(this, fallback);
+  }
+
+  /** @return the saved location of the node, or the location from the fallback if none was saved */
+  @Override
+  public Point apply(N node) {
+    Point p = get(node);
+    return p != null ? p : fallback.apply(node);
+  }
+
+  /** @return the saved location of the node, or null if none was saved */
+  public Point get(N node) {
+    byte[] name = nodeIds.apply(node).getBytes(StandardCharsets.UTF_8);
+    long hash = hash(name);
+    // the first entry whose hash is not less than the node's
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (table.getLong(middle * ENTRY_BYTES) < hash) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    for (int i = low; i < size && table.getLong(i * ENTRY_BYTES) == hash; i++) {
+      if (idEquals((int) table.getLong(i * ENTRY_BYTES + Long.BYTES), name)) {
+        return point(i);
+      }
+    }
+    return null;
+  }
+
+  private boolean idEquals(int offset, byte[] name) {
+    if (ids.getInt(offset) != name.length) {
+      return false;
+    }
+    for (int b = 0; b < name.length; b++) {
+      if (ids.get(offset + Integer.BYTES + b) != name[b]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Point point(int i) {
+    int block = size * precision.bytes;
+    int at = i * precision.bytes;
+    if (precision == Precision.FLOAT) {
+      return Point.of(
+          coordinates.getFloat(at),
+          coordinates.getFloat(block + at),
+          coordinates.getFloat(2 * block + at));
+    }
+    return Point.of(
+        coordinates.getDouble(at),
+        coordinates.getDouble(block + at),
+        coordinates.getDouble(2 * block + at));
+  }
+
+  private static long hash(byte[] name) {
+    return hashFunction.hashBytes(name).asLong();
+  }
+
+  /** @return the number of nodes in the snapshot */
+  public int size() {
+    return size;
+  }
+
+  public Precision getPrecision() {
+    return precision;
+  }
+
+  /** @return the width of the layout that was saved */
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  @Override
+  public String toString() {
+    return "LayoutSnapshot{size="
+        + size
+        + ", precision="
+        + precision
+        + ", layout="
+        + width
+        + "x"
+        + height
+        + "x"
+        + depth
+        + '}';
+  }
+}
@@ -0,0 +1,17 @@
+package edu.uci.ics.jung.layout3d.util;
+
+/**
+ * Implemented by layout algorithms that know some nodes are too small, far or hidden to be worth
+ * drawing, so that a viewer can skip them (and the edges that touch them).
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public interface NodeVisibility<N> {
+
+  /**
+   * @param node a node that was laid out
+   * @return false if the node should not be drawn
+   */
+  boolean isVisible(N node);
+}
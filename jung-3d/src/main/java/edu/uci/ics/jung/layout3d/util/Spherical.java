@@ -27,4 +27,33 @@ public interface Spherical {
       lng = lng + dlong;
     }
   }
+
+  /**
+   * Distributes {@code count} points evenly on the sphere of the passed center and radius, in the
+   * same order as {@link #distribute(LayoutModel, Collection, Point, double)} would, writing them
+   * to {@code x}, {@code y} and {@code z} starting at {@code offset}.
+   */
+  static void distribute(
+      int count,
+      double centerX,
+      double centerY,
+      double centerZ,
+      double radius,
+      double[] x,
+      double[] y,
+      double[] z,
+      int offset) {
+    double dlong = Math.PI * (3 - Math.sqrt(5));
+    double dz = 2.0 / count;
+    double lng = 0;
+    double zz = 1 - dz / 2;
+    for (int i = offset; i < offset + count; i++) {
+      double r = Math.sqrt(1 - zz * zz);
+      x[i] = radius * Math.cos(lng) * r + centerX;
+      y[i] = radius * Math.sin(lng) * r + centerY;
+      z[i] = radius * zz + centerZ;
+      zz = zz - dz;
+      lng = lng + dlong;
+    }
+  }
 }
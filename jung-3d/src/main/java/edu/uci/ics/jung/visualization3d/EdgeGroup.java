@@ -9,10 +9,14 @@ package edu.uci.ics.jung.visualization3d;
 
 /** */
 import edu.uci.ics.jung.layout3d.model.Point;
+import javax.media.j3d.Bounds;
+import javax.media.j3d.DistanceLOD;
 import javax.media.j3d.Node;
+import javax.media.j3d.Switch;
 import javax.media.j3d.Transform3D;
 import javax.media.j3d.TransformGroup;
 import javax.vecmath.AxisAngle4d;
+import javax.vecmath.Point3f;
 import javax.vecmath.Vector3d;
 import javax.vecmath.Vector3f;
 
@@ -21,6 +25,11 @@ public class EdgeGroup<E> extends TransformGroup {
 
   E edge;
   Node shape;
+  // hides the shape without taking it out of the scene graph
+  Switch visibility = new Switch(Switch.CHILD_ALL);
+  boolean visible = true;
+  // switches the shape for a line beyond a distance, see setDetail
+  DistanceLOD lod;
 
   public EdgeGroup(E edge, Node shape) {
     this.edge = edge;
@@ -37,7 +46,50 @@ public class EdgeGroup<E> extends TransformGroup {
     t.setTranslation(new Vector3f(0.f, .5f, 0.f));
     TransformGroup group = new TransformGroup(t);
     group.addChild(shape);
-    addChild(group);
+    visibility.setCapability(Switch.ALLOW_SWITCH_WRITE);
+    visibility.addChild(group);
+    addChild(visibility);
+  }
+
+  /**
+   * Draw a line in place of the shape beyond a distance from the eye, measured from the middle of
+   * the edge. Call this before the edge is in the scene, and before {@link #setEndpoints}.
+   *
+   * @param line a line from (0, -.5, 0) to (0, .5, 0), that is scaled and rotated like the shape
+   * @param distance the distance beyond which the line is drawn
+   * @param bounds the scheduling bounds of the behavior that switches between the shape and line
+   * @return the behavior that switches between the shape and line. It is not scaled with the edge,
+   *     so it is added to the scene beside this group instead of under it
+   */
+  public DistanceLOD setDetail(Node line, float distance, Bounds bounds) {
+    Transform3D t = new Transform3D();
+    t.setTranslation(new Vector3f(0.f, .5f, 0.f));
+    TransformGroup lineGroup = new TransformGroup(t);
+    lineGroup.addChild(line);
+    Node group = visibility.getChild(0);
+    visibility.removeChild(0);
+    Switch detail = new Switch(0);
+    detail.setCapability(Switch.ALLOW_SWITCH_WRITE);
+    detail.addChild(group);
+    detail.addChild(lineGroup);
+    visibility.addChild(detail);
+    lod = new DistanceLOD(new float[] {distance});
+    lod.addSwitch(detail);
+    lod.setSchedulingBounds(bounds);
+    return lod;
+  }
+
+  /** @return false if the edge is hidden */
+  public boolean isVisible() {
+    return visible;
+  }
+
+  /** @param visible whether to draw the edge */
+  public void setVisible(boolean visible) {
+    if (this.visible != visible) {
+      this.visible = visible;
+      visibility.setWhichChild(visible ? Switch.CHILD_ALL : Switch.CHILD_NONE);
+    }
   }
 
   public String toString() {
@@ -76,6 +128,12 @@ public class EdgeGroup<E> extends TransformGroup {
     tx.mul(scaletx);
     tx.setTranslation(new Vector3d(p0.x, p0.y, p0.z));
 
+    if (lod != null) {
+      lod.setPosition(
+          new Point3f(
+              (float) (p0.x + p1.x) / 2, (float) (p0.y + p1.y) / 2, (float) (p0.z + p1.z) / 2));
+    }
+
     try {
       setTransform(tx);
     } catch (Exception ex) {
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2003, the JUNG Project and the Regents of the University of
+ * California All rights reserved.
+ *
+ * This software is open-source under the BSD license; see either "license.txt"
+ * or http://jung.sourceforge.net/license.txt for a description.
+ */
+package edu.uci.ics.jung.visualization3d;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import javax.media.j3d.BoundingSphere;
+import javax.media.j3d.Bounds;
+import javax.vecmath.Point3d;
+
+/**
+ * The distances from the eye, in layout units, beyond which the vertices, labels and edges that are
+ * drawn as shapes are drawn with less detail: vertices as spheres of fewer divisions, vertices
+ * without their labels, and edges as lines instead of cylinders. A Java3D {@code DistanceLOD} for
+ * each vertex and edge switches between the levels as the view moves.
+ *
+ * <p>The more vertices a layout of the same size has, the nearer they are to each other and the
+ * more of them are in view, so for graphs with more than a reference number of nodes all the
+ * distances are scaled down by the cube root of the ratio of the node counts.
+ *
+ * @author Tom Nelson
+ */
+public class LevelOfDetail {
+
+  public static class Builder {
+    private final List<Float> vertexDistances = new ArrayList<>();
+    private final List<Integer> vertexDivisions = new ArrayList<>();
+    private boolean defaultVertexDetail = true;
+    private float labelDistance = 400;
+    private float edgeLineDistance = 600;
+    private int referenceNodeCount = 100;
+
+    private Builder() {
+      vertexDistances.add(300f);
+      vertexDivisions.add(8);
+      vertexDistances.add(800f);
+      vertexDivisions.add(4);
+    }
+
+    /**
+     * Add a level of detail for the vertices. Defaults to spheres of 8 divisions beyond 300, and of
+     * 4 divisions beyond 800. The first call replaces the defaults.
+     *
+     * @param distance beyond this distance, up to that of the next level, vertices are drawn as
+     *     spheres of the given divisions. Levels are added in order of increasing distance
+     * @param divisions the divisions of the spheres
+     * @return this builder
+     */
+    public Builder withVertexDetail(float distance, int divisions) {
+      if (defaultVertexDetail) {
+        defaultVertexDetail = false;
+        vertexDistances.clear();
+        vertexDivisions.clear();
+      }
+      Preconditions.checkArgument(
+          vertexDistances.isEmpty() || distance > vertexDistances.get(vertexDistances.size() - 1),
+          "levels are added in order of increasing distance");
+      Preconditions.checkArgument(distance > 0, "distance must be positive");
+      Preconditions.checkArgument(divisions >= 3, "a sphere needs at least 3 divisions");
+      vertexDistances.add(distance);
+      vertexDivisions.add(divisions);
+      return this;
+    }
+
+    /**
+     * @param distance beyond this distance vertices are drawn without labels. Defaults to 400
+     * @return this builder
+     */
+    public Builder withLabelDistance(float distance) {
+      Preconditions.checkArgument(distance > 0, "distance must be positive");
+      this.labelDistance = distance;
+      return this;
+    }
+
+    /**
+     * @param distance beyond this distance, from the middle of an edge, the edge is drawn as a
+     *     line. Defaults to 600
+     * @return this builder
+     */
+    public Builder withEdgeLineDistance(float distance) {
+      Preconditions.checkArgument(distance > 0, "distance must be positive");
+      this.edgeLineDistance = distance;
+      return this;
+    }
+
+    /**
+     * @param nodeCount for graphs with more nodes than this, the distances are scaled down.
+     *     Defaults to 100
+     * @return this builder
+     */
+    public Builder withReferenceNodeCount(int nodeCount) {
+      Preconditions.checkArgument(nodeCount > 0, "nodeCount must be positive");
+      this.referenceNodeCount = nodeCount;
+      return this;
+    }
+
+    public LevelOfDetail build() {
+      return new LevelOfDetail(this);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private final float[] vertexDistances;
+  private final int[] vertexDivisions;
+  private final float labelDistance;
+  private final float edgeLineDistance;
+  private final int referenceNodeCount;
+  private final Bounds schedulingBounds =
+      new BoundingSphere(new Point3d(), Double.POSITIVE_INFINITY);
+
+  private LevelOfDetail(Builder builder) {
+    this.vertexDistances = new float[builder.vertexDistances.size()];
+    this.vertexDivisions = new int[builder.vertexDivisions.size()];
+    for (int i = 0; i < vertexDistances.length; i++) {
+      vertexDistances[i] = builder.vertexDistances.get(i);
+      vertexDivisions[i] = builder.vertexDivisions.get(i);
+    }
+    this.labelDistance = builder.labelDistance;
+    this.edgeLineDistance = builder.edgeLineDistance;
+    this.referenceNodeCount = builder.referenceNodeCount;
+  }
+
+  /**
+   * @param nodeCount the number of nodes in the graph
+   * @return 1 up to the reference node count, and the cube root of the reference count over the
+   *     node count above it
+   */
+  public float getScale(int nodeCount) {
+    if (nodeCount <= referenceNodeCount) {
+      return 1;
+    }
+    return (float) Math.cbrt((double) referenceNodeCount / nodeCount);
+  }
+
+  /**
+   * @param nodeCount the number of nodes in the graph
+   * @return the distances beyond which the vertices are drawn at each coarser level
+   */
+  public float[] getVertexDistances(int nodeCount) {
+    float scale = getScale(nodeCount);
+    float[] distances = new float[vertexDistances.length];
+    for (int i = 0; i < distances.length; i++) {
+      distances[i] = vertexDistances[i] * scale;
+    }
+    return distances;
+  }
+
+  /** @return the divisions of the spheres at each coarser level */
+  public int[] getVertexDivisions() {
+    return vertexDivisions.clone();
+  }
+
+  public float getLabelDistance(int nodeCount) {
+    return labelDistance * getScale(nodeCount);
+  }
+
+  public float getEdgeLineDistance(int nodeCount) {
+    return edgeLineDistance * getScale(nodeCount);
+  }
+
+  /**
+   * @return bounds that include everything, so that the levels are switched wherever the view is
+   */
+  public Bounds getSchedulingBounds() {
+    return schedulingBounds;
+  }
+
+  @Override
+  public String toString() {
+    return "LevelOfDetail{vertexLevels="
+        + vertexDistances.length
+        + ", labelDistance="
+        + labelDistance
+        + ", edgeLineDistance="
+        + edgeLineDistance
+        + ", referenceNodeCount="
+        + referenceNodeCount
+        + '}';
+  }
+}
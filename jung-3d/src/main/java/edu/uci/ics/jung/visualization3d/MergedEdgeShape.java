@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2003, the JUNG Project and the Regents of the University of
+ * California All rights reserved.
+ *
+ * This software is open-source under the BSD license; see either "license.txt"
+ * or http://jung.sourceforge.net/license.txt for a description.
+ */
+package edu.uci.ics.jung.visualization3d;
+
+import com.google.common.graph.EndpointPair;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.NodeVisibility;
+import java.util.function.Predicate;
+import javax.media.j3d.Appearance;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryUpdater;
+import javax.media.j3d.LineArray;
+import javax.media.j3d.Shape3D;
+import javax.vecmath.Color3f;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Draws all the edges of a graph as the lines of one by-reference LineArray, with a color for each
+ * line end. Where an {@link EdgeGroup} for each edge holds a cylinder and computes a rotation, a
+ * scale and a translation whenever its endpoints move, this writes two points for each edge in one
+ * GeometryUpdater pass over the graph.
+ *
+ * <p>Edges with an endpoint that is not visible are not written. The shape is not pickable.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class MergedEdgeShape<N> extends Shape3D implements GeometryUpdater {
+
+  private static final Logger log = LoggerFactory.getLogger(MergedEdgeShape.class);
+
+  private final Color3f color;
+  private final Color3f pickedColor;
+
+  private LineArray geometry;
+  private float[] coords;
+  private float[] colors;
+  private int capacity;
+
+  // what the next updateData call writes
+  private LayoutModel<N> layoutModel;
+  private NodeVisibility<N> visibility;
+  private Predicate<EndpointPair<N>> picked;
+
+  /**
+   * @param appearance the appearance of the lines. One without a Material draws the line colors
+   *     unlit
+   * @param color the color of an edge
+   * @param pickedColor the color of a picked edge
+   */
+  public MergedEdgeShape(Appearance appearance, Color3f color, Color3f pickedColor) {
+    this.color = color;
+    this.pickedColor = pickedColor;
+    setAppearance(appearance);
+    setCapability(Shape3D.ALLOW_GEOMETRY_WRITE);
+    setPickable(false);
+    allocate(16);
+  }
+
+  private void allocate(int capacity) {
+    this.capacity = capacity;
+    geometry =
+        new LineArray(
+            capacity * 2,
+            GeometryArray.COORDINATES | GeometryArray.COLOR_3 | GeometryArray.BY_REFERENCE);
+    geometry.setCapability(GeometryArray.ALLOW_REF_DATA_WRITE);
+    geometry.setCapability(GeometryArray.ALLOW_COUNT_WRITE);
+    coords = new float[capacity * 6];
+    colors = new float[capacity * 6];
+    geometry.setCoordRefFloat(coords);
+    geometry.setColorRefFloat(colors);
+    geometry.setValidVertexCount(0);
+    setGeometry(geometry);
+  }
+
+  /**
+   * Write the edges of the model's graph, between the locations of their endpoints, into the
+   * geometry.
+   *
+   * @param layoutModel the locations of the endpoints
+   * @param visibility if not null, edges with an endpoint that is not visible are not drawn
+   * @param picked the edges that are drawn in the picked color
+   */
+  public synchronized void update(
+      LayoutModel<N> layoutModel, NodeVisibility<N> visibility, Predicate<EndpointPair<N>> picked) {
+    int count = layoutModel.getGraph().edges().size();
+    if (count > capacity) {
+      int grown = Math.max(count, capacity * 2);
+      log.debug("growing from {} to {} edges", capacity, grown);
+      allocate(grown);
+    }
+    this.layoutModel = layoutModel;
+    this.visibility = visibility;
+    this.picked = picked;
+    geometry.updateData(this);
+    this.layoutModel = null;
+    this.visibility = null;
+    this.picked = null;
+  }
+
+  /** called by Java3D, from {@link #update}, when the geometry may be written */
+  @Override
+  public void updateData(Geometry geometry) {
+    int n = 0;
+    for (EndpointPair<N> edge : layoutModel.getGraph().edges()) {
+      if (n == capacity) {
+        // the graph grew since update looked
+        break;
+      }
+      N u = edge.nodeU();
+      N v = edge.nodeV();
+      if (visibility != null && !(visibility.isVisible(u) && visibility.isVisible(v))) {
+        continue;
+      }
+      Point p0 = layoutModel.apply(u);
+      Point p1 = layoutModel.apply(v);
+      Color3f c = picked.test(edge) ? pickedColor : color;
+      int i = n * 6;
+      coords[i] = (float) p0.x;
+      coords[i + 1] = (float) p0.y;
+      coords[i + 2] = (float) p0.z;
+      coords[i + 3] = (float) p1.x;
+      coords[i + 4] = (float) p1.y;
+      coords[i + 5] = (float) p1.z;
+      colors[i] = colors[i + 3] = c.x;
+      colors[i + 1] = colors[i + 4] = c.y;
+      colors[i + 2] = colors[i + 5] = c.z;
+      n++;
+    }
+    ((GeometryArray) geometry).setValidVertexCount(n * 2);
+  }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2003, the JUNG Project and the Regents of the University of
+ * California All rights reserved.
+ *
+ * This software is open-source under the BSD license; see either "license.txt"
+ * or http://jung.sourceforge.net/license.txt for a description.
+ */
+package edu.uci.ics.jung.visualization3d;
+
+import com.google.common.base.Preconditions;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.NodeVisibility;
+import java.util.function.Predicate;
+import javax.media.j3d.Appearance;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.GeometryArray;
+import javax.media.j3d.GeometryUpdater;
+import javax.media.j3d.PointArray;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Transform3D;
+import javax.media.j3d.TriangleArray;
+import javax.vecmath.Color3f;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Draws all the vertices of a graph as one Shape3D with one by-reference geometry: a point for each
+ * vertex, or a small octahedron of eight triangles. Where a {@link VertexGroup} for each vertex
+ * puts several scene graph nodes and a few hundred triangles in the scene per vertex, this is one
+ * node and one draw call for any number of vertices. There are no labels.
+ *
+ * <p>The coordinates are written from the LayoutModel by a GeometryUpdater. Hidden vertices are not
+ * written, and the vertices that are drawn are kept in order so that they can be picked in layout
+ * space, by their distance from a pick ray, without Java3D picking the geometry.
+ *
+ * @author Tom Nelson
+ * @param <N> the node type
+ */
+public class MergedVertexShape<N> extends Shape3D implements GeometryUpdater {
+
+  private static final Logger log = LoggerFactory.getLogger(MergedVertexShape.class);
+
+  // the eight faces of an octahedron of radius 1, counter-clockwise from outside
+  private static final float[] OCTAHEDRON;
+  private static final float[] OCTAHEDRON_NORMALS;
+
+  static {
+    OCTAHEDRON = new float[72];
+    OCTAHEDRON_NORMALS = new float[72];
+    float n = (float) (1 / Math.sqrt(3));
+    int i = 0;
+    for (int sx = -1; sx <= 1; sx += 2) {
+      for (int sy = -1; sy <= 1; sy += 2) {
+        for (int sz = -1; sz <= 1; sz += 2) {
+          float[][] corners = {{sx, 0, 0}, {0, sy, 0}, {0, 0, sz}};
+          if (sx * sy * sz < 0) {
+            float[] swap = corners[1];
+            corners[1] = corners[2];
+            corners[2] = swap;
+          }
+          for (float[] corner : corners) {
+            System.arraycopy(corner, 0, OCTAHEDRON, i, 3);
+            OCTAHEDRON_NORMALS[i] = sx * n;
+            OCTAHEDRON_NORMALS[i + 1] = sy * n;
+            OCTAHEDRON_NORMALS[i + 2] = sz * n;
+            i += 3;
+          }
+        }
+      }
+    }
+  }
+
+  private final RenderContext.VertexMode mode;
+  private final float radius;
+  private final Color3f color;
+  private final Color3f pickedColor;
+  // the number of geometry vertices for each graph vertex
+  private final int stride;
+
+  private GeometryArray geometry;
+  private float[] coords;
+  private float[] colors;
+  // the layout locations of the vertices that are drawn, and the vertices, in the same order
+  private double[] centers;
+  private Object[] drawn;
+  private int drawnCount;
+
+  // what the next updateData call writes
+  private LayoutModel<N> layoutModel;
+  private NodeVisibility<N> visibility;
+  private Predicate<N> picked;
+
+  /**
+   * @param mode {@code POINTS} or {@code TRIANGLES}
+   * @param radius the radius of a vertex, in layout units. Points are picked within this distance
+   * @param appearance the appearance of the shape. For points, one without a Material draws the
+   *     vertex colors unlit
+   * @param color the color of a vertex
+   * @param pickedColor the color of a picked vertex
+   */
+  public MergedVertexShape(
+      RenderContext.VertexMode mode,
+      float radius,
+      Appearance appearance,
+      Color3f color,
+      Color3f pickedColor) {
+    Preconditions.checkArgument(
+        mode != RenderContext.VertexMode.SHAPES, "a merged shape draws points or triangles");
+    this.mode = mode;
+    this.radius = radius;
+    this.color = color;
+    this.pickedColor = pickedColor;
+    this.stride = mode == RenderContext.VertexMode.POINTS ? 1 : OCTAHEDRON.length / 3;
+    setAppearance(appearance);
+    setCapability(Shape3D.ALLOW_GEOMETRY_WRITE);
+    setCapability(Shape3D.ALLOW_LOCAL_TO_VWORLD_READ);
+    // picked in layout space, see pick
+    setPickable(false);
+    allocate(16);
+  }
+
+  private void allocate(int capacity) {
+    int vertexCount = capacity * stride;
+    int format = GeometryArray.COORDINATES | GeometryArray.COLOR_3 | GeometryArray.BY_REFERENCE;
+    if (mode == RenderContext.VertexMode.POINTS) {
+      geometry = new PointArray(vertexCount, format);
+    } else {
+      geometry = new TriangleArray(vertexCount, format | GeometryArray.NORMALS);
+    }
+    geometry.setCapability(GeometryArray.ALLOW_REF_DATA_WRITE);
+    geometry.setCapability(GeometryArray.ALLOW_COUNT_WRITE);
+    coords = new float[vertexCount * 3];
+    colors = new float[vertexCount * 3];
+    geometry.setCoordRefFloat(coords);
+    geometry.setColorRefFloat(colors);
+    if (mode == RenderContext.VertexMode.TRIANGLES) {
+      float[] normals = new float[vertexCount * 3];
+      for (int i = 0; i < capacity; i++) {
+        System.arraycopy(OCTAHEDRON_NORMALS, 0, normals, i * OCTAHEDRON.length, OCTAHEDRON.length);
+      }
+      geometry.setNormalRefFloat(normals);
+    }
+    geometry.setValidVertexCount(0);
+    centers = new double[capacity * 3];
+    drawn = new Object[capacity];
+    setGeometry(geometry);
+  }
+
+  /**
+   * Write the locations of the vertices of the model's graph into the geometry.
+   *
+   * @param layoutModel the locations of the vertices
+   * @param visibility if not null, the vertices that are not visible are not drawn
+   * @param picked the vertices that are drawn in the picked color
+   */
+  public synchronized void update(
+      LayoutModel<N> layoutModel, NodeVisibility<N> visibility, Predicate<N> picked) {
+    int count = layoutModel.getGraph().nodes().size();
+    if (count > drawn.length) {
+      int capacity = Math.max(count, drawn.length * 2);
+      log.debug("growing from {} to {} vertices", drawn.length, capacity);
+      allocate(capacity);
+    }
+    this.layoutModel = layoutModel;
+    this.visibility = visibility;
+    this.picked = picked;
+    geometry.updateData(this);
+    this.layoutModel = null;
+    this.visibility = null;
+    this.picked = null;
+  }
+
+  /** called by Java3D, from {@link #update}, when the geometry may be written */
+  @Override
+  public void updateData(Geometry geometry) {
+    int n = 0;
+    for (N node : layoutModel.getGraph().nodes()) {
+      if (n == drawn.length) {
+        // the graph grew since update looked
+        break;
+      }
+      if (visibility != null && !visibility.isVisible(node)) {
+        continue;
+      }
+      Point p = layoutModel.apply(node);
+      centers[n * 3] = p.x;
+      centers[n * 3 + 1] = p.y;
+      centers[n * 3 + 2] = p.z;
+      drawn[n] = node;
+      Color3f c = picked.test(node) ? pickedColor : color;
+      int base = n * stride * 3;
+      for (int v = 0; v < stride; v++) {
+        int i = base + v * 3;
+        if (mode == RenderContext.VertexMode.POINTS) {
+          coords[i] = (float) p.x;
+          coords[i + 1] = (float) p.y;
+          coords[i + 2] = (float) p.z;
+        } else {
+          coords[i] = (float) p.x + radius * OCTAHEDRON[v * 3];
+          coords[i + 1] = (float) p.y + radius * OCTAHEDRON[v * 3 + 1];
+          coords[i + 2] = (float) p.z + radius * OCTAHEDRON[v * 3 + 2];
+        }
+        colors[i] = c.x;
+        colors[i + 1] = c.y;
+        colors[i + 2] = c.z;
+      }
+      n++;
+    }
+    for (int i = n; i < drawnCount; i++) {
+      drawn[i] = null;
+    }
+    drawnCount = n;
+    ((GeometryArray) geometry).setValidVertexCount(n * stride);
+  }
+
+  /**
+   * Pick the vertex nearest the eye, of those within the vertex radius of a ray.
+   *
+   * @param origin the origin of the ray, in virtual world coordinates
+   * @param direction the direction of the ray, in virtual world coordinates
+   * @return the vertex, or null if no vertex is near the ray
+   */
+  public synchronized N pick(Point3d origin, Vector3d direction) {
+    // into layout space
+    Transform3D toLayout = new Transform3D();
+    getLocalToVworld(toLayout);
+    toLayout.invert();
+    Point3d o = new Point3d(origin);
+    Vector3d d = new Vector3d(direction);
+    toLayout.transform(o);
+    toLayout.transform(d);
+    double dd = d.lengthSquared();
+    if (dd == 0) {
+      return null;
+    }
+    double radiusSquared = (double) radius * radius;
+    double nearest = Double.POSITIVE_INFINITY;
+    N closest = null;
+    for (int i = 0; i < drawnCount; i++) {
+      double vx = centers[i * 3] - o.x;
+      double vy = centers[i * 3 + 1] - o.y;
+      double vz = centers[i * 3 + 2] - o.z;
+      double along = (vx * d.x + vy * d.y + vz * d.z) / dd;
+      if (along < 0 || along >= nearest) {
+        continue;
+      }
+      double px = vx - along * d.x;
+      double py = vy - along * d.y;
+      double pz = vz - along * d.z;
+      if (px * px + py * py + pz * pz <= radiusSquared) {
+        nearest = along;
+        closest = (N) drawn[i];
+      }
+    }
+    return closest;
+  }
+
+  /** @return the number of vertices drawn by the last update */
+  public synchronized int getDrawnCount() {
+    return drawnCount;
+  }
+
+  public RenderContext.VertexMode getMode() {
+    return mode;
+  }
+}
@@ -18,8 +18,13 @@ import java.awt.event.MouseEvent;
 import javax.media.j3d.Bounds;
 import javax.media.j3d.BranchGroup;
 import javax.media.j3d.Canvas3D;
+import javax.media.j3d.PickCone;
+import javax.media.j3d.PickRay;
+import javax.media.j3d.PickShape;
 import javax.media.j3d.TransformGroup;
 import javax.swing.event.ChangeListener;
+import javax.vecmath.Point3d;
+import javax.vecmath.Vector3d;
 
 /** @author Tom Nelson - tomnelson@dev.java.net */
 public class PickVertexBehavior<V, E> extends PickTranslateBehavior implements ChangeEventSupport {
@@ -28,6 +33,8 @@ public class PickVertexBehavior<V, E> extends PickTranslateBehavior implements C
   BranchGroup root;
   ChangeEventSupport support = new DefaultChangeEventSupport(this);
   MutableSelectedState<V> pickedState;
+  // if not null, vertices are picked from this shape, in layout space
+  MergedVertexShape<V> mergedVertices;
 
   public PickVertexBehavior(
       BranchGroup root, Canvas3D canvas, Bounds bounds, MutableSelectedState<V> pickedState) {
@@ -55,8 +62,17 @@ public class PickVertexBehavior<V, E> extends PickTranslateBehavior implements C
     }
   }
 
+  /** @param mergedVertices if not null, the shape that draws all the vertices */
+  public void setMergedVertices(MergedVertexShape<V> mergedVertices) {
+    this.mergedVertices = mergedVertices;
+  }
+
   private void doPick(int xpos, int ypos) {
     pickCanvas.setShapeLocation(xpos, ypos);
+    if (mergedVertices != null) {
+      doMergedPick();
+      return;
+    }
     PickResult result = pickCanvas.pickClosest();
     if (result != null) {
 
@@ -70,6 +86,25 @@ public class PickVertexBehavior<V, E> extends PickTranslateBehavior implements C
     }
   }
 
+  private void doMergedPick() {
+    PickShape shape = pickCanvas.getPickShape();
+    Point3d origin = new Point3d();
+    Vector3d direction = new Vector3d();
+    if (shape instanceof PickCone) {
+      ((PickCone) shape).getOrigin(origin);
+      ((PickCone) shape).getDirection(direction);
+    } else if (shape instanceof PickRay) {
+      ((PickRay) shape).get(origin, direction);
+    } else {
+      return;
+    }
+    V vertex = mergedVertices.pick(origin, direction);
+    if (vertex != null) {
+      pickedState.pick(vertex, true);
+      fireStateChanged();
+    }
+  }
+
   public void addChangeListener(ChangeListener l) {
     support.addChangeListener(l);
   }
@@ -8,19 +8,21 @@
 package edu.uci.ics.jung.visualization3d;
 
 import com.google.common.graph.Graph;
-import com.sun.j3d.utils.geometry.Box;
 import com.sun.j3d.utils.geometry.Cylinder;
 import com.sun.j3d.utils.geometry.Sphere;
+import com.sun.j3d.utils.picking.PickTool;
 import edu.uci.ics.jung.visualization.selection.MutableSelectedState;
 import edu.uci.ics.jung.visualization.util.Context;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import javax.media.j3d.Appearance;
-import javax.media.j3d.LineArray;
+import javax.media.j3d.Geometry;
+import javax.media.j3d.Group;
 import javax.media.j3d.Material;
 import javax.media.j3d.Node;
 import javax.media.j3d.Shape3D;
 import javax.vecmath.Color3f;
-import javax.vecmath.Point3f;
 
 /** */
 @SuppressWarnings("unchecked")
@@ -33,6 +35,10 @@ public class PluggableRenderContext<N, E> implements RenderContext<N, E> {
   protected Function<N, Appearance> vertexAppearanceTransformer;
   protected Function<Object, String> vertexStringer = n -> null;
   protected Function<N, Node> vertexShapeTransformer;
+  protected VertexMode vertexMode = VertexMode.SHAPES;
+  protected EdgeMode edgeMode = EdgeMode.SHAPES;
+  protected LevelOfDetail levelOfDetail;
+  protected final List<Runnable> sceneChangeListeners = new CopyOnWriteArrayList<>();
 
   public PluggableRenderContext() {
     super();
@@ -66,6 +72,9 @@ public class PluggableRenderContext<N, E> implements RenderContext<N, E> {
     final Appearance yellowLook = new Appearance();
     yellowLook.setMaterial(yellowMaterial);
 
+    // one tessellation of each shape, referenced by the shapes of all the vertices and edges
+    final Sphere sphere =
+        new Sphere(7, Sphere.GENERATE_NORMALS | Sphere.ENABLE_GEOMETRY_PICKING, redLook);
     final Cylinder cylinder =
         new Cylinder(
             1,
@@ -74,31 +83,23 @@ public class PluggableRenderContext<N, E> implements RenderContext<N, E> {
             26,
             26,
             lightGrayLook);
-    final Sphere sphere =
-        new Sphere(6, Sphere.GENERATE_NORMALS | Sphere.ENABLE_GEOMETRY_PICKING, redLook);
-    final Box box =
-        new Box(10, 10, 10, Box.GENERATE_NORMALS | Box.ENABLE_GEOMETRY_PICKING, redLook);
+    final Geometry sphereGeometry = sphere.getShape(Sphere.BODY).getGeometry();
+    final Geometry[] cylinderGeometry = {
+      cylinder.getShape(Cylinder.BODY).getGeometry(),
+      cylinder.getShape(Cylinder.TOP).getGeometry(),
+      cylinder.getShape(Cylinder.BOTTOM).getGeometry()
+    };
 
     this.edgeAppearanceTransformer = n -> lightGrayLook;
     this.edgeShapeTransformer =
         new Function<Context<Graph<N>, E>, Node>() {
 
           public Node apply(Context<Graph<N>, E> ec) {
-            LineArray lineArray = new LineArray(2, LineArray.COORDINATES | LineArray.COLOR_3);
-            lineArray.setCoordinates(
-                0, new Point3f[] {new Point3f(0, -.5f, 0), new Point3f(0, .5f, 0)});
-            lineArray.setColor(0, new Color3f(1, 1, 1));
-            lineArray.setColor(1, new Color3f(1, 1, 1));
-            Shape3D shape = new Shape3D();
-            shape.setGeometry(lineArray);
-            //            return shape;
-            return new Cylinder(
-                1,
-                1,
-                Cylinder.GENERATE_NORMALS | Cylinder.ENABLE_GEOMETRY_PICKING,
-                26,
-                26,
-                lightGrayLook);
+            Group group = new Group();
+            for (Geometry geometry : cylinderGeometry) {
+              group.addChild(sharedShape(geometry, lightGrayLook));
+            }
+            return group;
           }
         };
     this.vertexAppearanceTransformer = n -> redLook;
@@ -106,16 +107,27 @@ public class PluggableRenderContext<N, E> implements RenderContext<N, E> {
         new Function<N, Node>() {
 
           public Node apply(N arg0) {
-            return new Sphere(
-                7,
-                Sphere.GENERATE_NORMALS
-                    | Sphere.ENABLE_GEOMETRY_PICKING
-                    | Sphere.ENABLE_APPEARANCE_MODIFY,
-                redLook);
+            return sharedShape(sphereGeometry, redLook);
           }
         };
   }
 
+  /**
+   * A pickable shape of its own, with an appearance that may be changed, that references a geometry
+   * shared with other shapes instead of a copy of it.
+   *
+   * @param geometry the shared geometry
+   * @param appearance the first appearance of the shape
+   * @return the shape
+   */
+  public static Shape3D sharedShape(Geometry geometry, Appearance appearance) {
+    Shape3D shape = new Shape3D(geometry, appearance);
+    shape.setCapability(Shape3D.ALLOW_APPEARANCE_READ);
+    shape.setCapability(Shape3D.ALLOW_APPEARANCE_WRITE);
+    PickTool.setCapabilities(shape, PickTool.INTERSECT_FULL);
+    return shape;
+  }
+
   public Function<E, Appearance> getEdgeAppearanceTransformer() {
     return edgeAppearanceTransformer;
   }
@@ -171,4 +183,51 @@ public class PluggableRenderContext<N, E> implements RenderContext<N, E> {
   public void setVertexStringer(Function<Object, String> vertexStringer) {
     this.vertexStringer = vertexStringer;
   }
+
+  public VertexMode getVertexMode() {
+    return vertexMode;
+  }
+
+  public void setVertexMode(VertexMode vertexMode) {
+    if (this.vertexMode != vertexMode) {
+      this.vertexMode = vertexMode;
+      fireSceneChanged();
+    }
+  }
+
+  public EdgeMode getEdgeMode() {
+    return edgeMode;
+  }
+
+  public void setEdgeMode(EdgeMode edgeMode) {
+    if (this.edgeMode != edgeMode) {
+      this.edgeMode = edgeMode;
+      fireSceneChanged();
+    }
+  }
+
+  public LevelOfDetail getLevelOfDetail() {
+    return levelOfDetail;
+  }
+
+  public void setLevelOfDetail(LevelOfDetail levelOfDetail) {
+    if (this.levelOfDetail != levelOfDetail) {
+      this.levelOfDetail = levelOfDetail;
+      fireSceneChanged();
+    }
+  }
+
+  public void addSceneChangeListener(Runnable listener) {
+    sceneChangeListeners.add(listener);
+  }
+
+  public void removeSceneChangeListener(Runnable listener) {
+    sceneChangeListeners.remove(listener);
+  }
+
+  protected void fireSceneChanged() {
+    for (Runnable listener : sceneChangeListeners) {
+      listener.run();
+    }
+  }
 }
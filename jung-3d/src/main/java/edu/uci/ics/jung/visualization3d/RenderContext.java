@@ -16,6 +16,24 @@ import javax.media.j3d.Node;
 
 public interface RenderContext<N, E> {
 
+  /** how the vertices are drawn */
+  enum VertexMode {
+    /** a shape from the vertex shape transformer, with a label, for each vertex */
+    SHAPES,
+    /** all the vertices as the points of one {@link MergedVertexShape} */
+    POINTS,
+    /** all the vertices as the small octahedra of one {@link MergedVertexShape} */
+    TRIANGLES
+  }
+
+  /** how the edges are drawn */
+  enum EdgeMode {
+    /** a shape from the edge shape transformer, in an {@link EdgeGroup}, for each edge */
+    SHAPES,
+    /** all the edges as the lines of one {@link MergedEdgeShape} */
+    LINES
+  }
+
   Function<E, Appearance> getEdgeAppearanceTransformer();
 
   void setEdgeAppearanceTransformer(Function<E, Appearance> edgeAppearanceTransformer);
@@ -43,4 +61,38 @@ public interface RenderContext<N, E> {
   Function<Object, String> getVertexStringer();
 
   void setVertexStringer(Function<Object, String> vertexStringer);
+
+  VertexMode getVertexMode();
+
+  /**
+   * @param vertexMode how the vertices are drawn. A viewer that uses this context rebuilds its
+   *     scene when it changes. Defaults to {@code SHAPES}
+   */
+  void setVertexMode(VertexMode vertexMode);
+
+  EdgeMode getEdgeMode();
+
+  /**
+   * @param edgeMode how the edges are drawn. A viewer that uses this context rebuilds its scene
+   *     when it changes. Defaults to {@code SHAPES}
+   */
+  void setEdgeMode(EdgeMode edgeMode);
+
+  /** @return the level of detail of the shapes, or null if they are always drawn in full */
+  LevelOfDetail getLevelOfDetail();
+
+  /**
+   * @param levelOfDetail the distances beyond which vertices, labels and edges drawn as {@code
+   *     SHAPES} are drawn with less detail. A viewer that uses this context rebuilds its scene when
+   *     it changes. Null, the default, draws them in full
+   */
+  void setLevelOfDetail(LevelOfDetail levelOfDetail);
+
+  /**
+   * @param listener told when the vertex mode, the edge mode or the level of detail changes, as the
+   *     scene has to be rebuilt to use them
+   */
+  void addSceneChangeListener(Runnable listener);
+
+  void removeSceneChangeListener(Runnable listener);
 }
@@ -8,7 +8,17 @@
 package edu.uci.ics.jung.visualization3d;
 
 /** */
+import com.google.common.base.Preconditions;
+import com.sun.j3d.utils.geometry.Primitive;
+import java.util.ArrayList;
+import java.util.List;
+import javax.media.j3d.Appearance;
+import javax.media.j3d.Bounds;
+import javax.media.j3d.DistanceLOD;
+import javax.media.j3d.Group;
 import javax.media.j3d.Node;
+import javax.media.j3d.Shape3D;
+import javax.media.j3d.Switch;
 import javax.media.j3d.Transform3D;
 import javax.media.j3d.TransformGroup;
 
@@ -18,13 +28,20 @@ public class VertexGroup<V> extends TransformGroup {
   V vertex;
   Node shape;
   TransformGroup labelNode = new TransformGroup();
+  // hides the shape and label without taking them out of the scene graph
+  Switch visibility = new Switch(Switch.CHILD_ALL);
+  boolean visible = true;
+  // drawn in place of the shape beyond some distances, see setDetail
+  List<Node> coarser = new ArrayList<>();
 
   public VertexGroup(V vertex, Node shape) {
     this.vertex = vertex;
     this.shape = shape;
     setCapability(TransformGroup.ENABLE_PICK_REPORTING);
-    addChild(shape);
-    addChild(labelNode);
+    visibility.setCapability(Switch.ALLOW_SWITCH_WRITE);
+    visibility.addChild(shape);
+    visibility.addChild(labelNode);
+    addChild(visibility);
     Transform3D tt = new Transform3D();
     //		 tt.setTranslation(new Vector3f(10,10,0));
     labelNode.setTransform(tt);
@@ -40,6 +57,81 @@ public class VertexGroup<V> extends TransformGroup {
     this.shape = shape;
   }
 
+  /**
+   * Draw coarser shapes in place of the shape beyond some distances from the eye, and draw the
+   * label only up to a distance. Call this before the vertex is in the scene.
+   *
+   * @param distances the distances beyond which each of the coarser shapes is drawn, in increasing
+   *     order
+   * @param coarser the coarser shapes, one for each distance
+   * @param labelDistance the distance beyond which the label is not drawn
+   * @param bounds the scheduling bounds of the behaviors that switch between the levels
+   */
+  public void setDetail(float[] distances, List<Node> coarser, float labelDistance, Bounds bounds) {
+    Preconditions.checkArgument(
+        distances.length == coarser.size(), "there must be a coarser shape for each distance");
+    visibility.removeAllChildren();
+    if (coarser.isEmpty()) {
+      visibility.addChild(shape);
+    } else {
+      Switch detail = new Switch(0);
+      detail.setCapability(Switch.ALLOW_SWITCH_WRITE);
+      detail.addChild(shape);
+      for (Node node : coarser) {
+        detail.addChild(node);
+      }
+      this.coarser.addAll(coarser);
+      DistanceLOD lod = new DistanceLOD(distances);
+      lod.addSwitch(detail);
+      lod.setSchedulingBounds(bounds);
+      visibility.addChild(detail);
+      addChild(lod);
+    }
+    Switch label = new Switch(0);
+    label.setCapability(Switch.ALLOW_SWITCH_WRITE);
+    label.addChild(labelNode);
+    label.addChild(new Group());
+    DistanceLOD lod = new DistanceLOD(new float[] {labelDistance});
+    lod.addSwitch(label);
+    lod.setSchedulingBounds(bounds);
+    visibility.addChild(label);
+    addChild(lod);
+  }
+
+  /**
+   * Change the appearance of the shape, and of its coarser shapes, each of which may be a Primitive
+   * or a Shape3D that allows its appearance to be written. Other shapes are left alone.
+   *
+   * @param appearance the new appearance
+   */
+  public void setAppearance(Appearance appearance) {
+    setAppearance(shape, appearance);
+    for (Node node : coarser) {
+      setAppearance(node, appearance);
+    }
+  }
+
+  private static void setAppearance(Node shape, Appearance appearance) {
+    if (shape instanceof Primitive) {
+      ((Primitive) shape).setAppearance(appearance);
+    } else if (shape instanceof Shape3D) {
+      ((Shape3D) shape).setAppearance(appearance);
+    }
+  }
+
+  /** @return false if the vertex is hidden */
+  public boolean isVisible() {
+    return visible;
+  }
+
+  /** @param visible whether to draw the vertex and its label */
+  public void setVisible(boolean visible) {
+    if (this.visible != visible) {
+      this.visible = visible;
+      visibility.setWhichChild(visible ? Switch.CHILD_ALL : Switch.CHILD_NONE);
+    }
+  }
+
   public String toString() {
     return "VertexGroup for " + vertex.toString();
   }
@@ -13,34 +13,46 @@ import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
 import com.google.common.graph.EndpointPair;
 import com.google.common.graph.Graph;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableGraph;
 import com.google.common.graph.Network;
 import com.sun.j3d.utils.behaviors.mouse.MouseRotate;
 import com.sun.j3d.utils.behaviors.mouse.MouseTranslate;
 import com.sun.j3d.utils.behaviors.mouse.MouseWheelZoom;
 import com.sun.j3d.utils.behaviors.mouse.MouseZoom;
-import com.sun.j3d.utils.geometry.Primitive;
+import com.sun.j3d.utils.geometry.Cone;
 import com.sun.j3d.utils.geometry.Sphere;
 import com.sun.j3d.utils.picking.PickTool;
 import com.sun.j3d.utils.picking.behaviors.PickTranslateBehavior;
 import com.sun.j3d.utils.picking.behaviors.PickingCallback;
 import com.sun.j3d.utils.universe.SimpleUniverse;
+import edu.uci.ics.jung.layout3d.algorithms.AbstractIterativeLayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.algorithms.LayoutAlgorithm;
 import edu.uci.ics.jung.layout3d.event.LayoutChange;
 import edu.uci.ics.jung.layout3d.event.LayoutNodePositionChange;
+import edu.uci.ics.jung.layout3d.model.LayoutHost;
 import edu.uci.ics.jung.layout3d.model.LayoutModel;
 import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
 import edu.uci.ics.jung.layout3d.model.Point;
 import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import edu.uci.ics.jung.layout3d.util.Conical;
+import edu.uci.ics.jung.layout3d.util.GraphDelta;
+import edu.uci.ics.jung.layout3d.util.GraphStream;
+import edu.uci.ics.jung.layout3d.util.IncrementalRelayout;
+import edu.uci.ics.jung.layout3d.util.NodeVisibility;
 import edu.uci.ics.jung.layout3d.util.Spherical;
 import edu.uci.ics.jung.visualization.selection.MultiMutableSelectedState;
 import edu.uci.ics.jung.visualization.selection.MutableSelectedState;
-import edu.uci.ics.jung.visualization.util.ChangeEventSupport;
 import edu.uci.ics.jung.visualization.util.Context;
 import java.awt.BorderLayout;
 import java.awt.Font;
 import java.awt.GraphicsConfiguration;
 import java.awt.event.ItemListener;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.media.j3d.AmbientLight;
@@ -49,13 +61,19 @@ import javax.media.j3d.BoundingSphere;
 import javax.media.j3d.Bounds;
 import javax.media.j3d.BranchGroup;
 import javax.media.j3d.Canvas3D;
+import javax.media.j3d.ColoringAttributes;
 import javax.media.j3d.DirectionalLight;
 import javax.media.j3d.Font3D;
 import javax.media.j3d.FontExtrusion;
+import javax.media.j3d.Geometry;
 import javax.media.j3d.Group;
+import javax.media.j3d.LineArray;
+import javax.media.j3d.LineAttributes;
 import javax.media.j3d.Material;
 import javax.media.j3d.Node;
 import javax.media.j3d.OrientedShape3D;
+import javax.media.j3d.PointAttributes;
+import javax.media.j3d.Shape3D;
 import javax.media.j3d.Text3D;
 import javax.media.j3d.Transform3D;
 import javax.media.j3d.TransformGroup;
@@ -70,16 +88,26 @@ import org.slf4j.LoggerFactory;
 
 /** @author Tom Nelson */
 public class VisualizationViewer<N, E> extends JPanel
-    implements LayoutChange.Listener, LayoutChange.Producer {
+    implements LayoutChange.Listener, LayoutChange.Producer, LayoutHost<N> {
 
   private static final Logger log = LoggerFactory.getLogger(VisualizationViewer.class);
+  // the radius of the default vertex sphere, used for merged vertices
+  private static final float VERTEX_RADIUS = 7;
+  private static final float MERGED_POINT_SIZE = 6;
   BranchGroup objRoot;
   TransformGroup objTrans;
   Appearance grayLook;
   Appearance transLook;
+  // shared by the labels of all the vertices, so that each glyph is tessellated once
+  private Font3D labelFont;
+  // shared by the coarser vertex shapes of each number of divisions, and by the edge lines
+  private final Map<Integer, Geometry> sphereGeometry = new HashMap<>();
+  private Geometry edgeLineGeometry;
+  private Appearance edgeLineLook;
 
   BranchGroup graphBranch;
   BranchGroup sphereGroup;
+  BranchGroup coneGroup;
 
   LayoutModel<N> layoutModel;
 
@@ -93,6 +121,12 @@ public class VisualizationViewer<N, E> extends JPanel
 
   LayoutAlgorithm<N> layoutAlgorithm;
 
+  /** true while the layout model is pre-relaxing, when its positions are not drawn */
+  volatile boolean preRelaxing;
+
+  /** if not null, a changed network is laid out incrementally from the current layout */
+  IncrementalRelayout incrementalRelayout;
+
   protected LayoutChange.Support changeSupport = LayoutChange.Support.create();
 
   /**
@@ -111,6 +145,32 @@ public class VisualizationViewer<N, E> extends JPanel
   BiMap<N, VertexGroup> nodeMap = Maps.synchronizedBiMap(HashBiMap.create());
   //	BidiMap<V,VertexGroup> vertexMap = new DualHashBidiMap<V,VertexGroup>();
   Map<EndpointPair<N>, EdgeGroup> edgeMap = new HashMap<>();
+  // each vertex and edge group is in a BranchGroup of its own, so that it can be detached
+  Map<N, BranchGroup> nodeBranches = new HashMap<>();
+  Map<EndpointPair<N>, BranchGroup> edgeBranches = new HashMap<>();
+  /** if not null, changes streamed into the graph that is laid out */
+  GraphStream<N> graphStream;
+
+  GraphStream.Listener<N> streamListener =
+      new GraphStream.Listener<N>() {
+        @Override
+        public void graphChanged(GraphDelta<N> applied) {
+          streamed(applied);
+        }
+
+        @Override
+        public void nodesFading(Map<N, Double> freshness) {
+          fade(freshness.keySet());
+        }
+      };
+  // vertices drawn as translucent as they near their maximum age
+  Set<N> fadedNodes = new HashSet<>();
+  /** if not null, draws all the vertices, instead of a VertexGroup for each */
+  MergedVertexShape<N> mergedVertices;
+  /** if not null, draws all the edges, instead of an EdgeGroup for each */
+  MergedEdgeShape<N> mergedEdges;
+
+  PickVertexBehavior<N, E> pickVertexBehavior;
   Network<N, E> network;
   //  Layout<N, E> layout;
 
@@ -126,6 +186,8 @@ public class VisualizationViewer<N, E> extends JPanel
     renderContext.setPickedVertexState(new MultiMutableSelectedState<>());
     renderContext.setPickedEdgeState(new MultiMutableSelectedState<>());
     renderContext.setVertexStringer(Object::toString);
+    // the vertex mode, edge mode and level of detail are only read when the scene is built
+    renderContext.addSceneChangeListener(this::rebuild);
     GraphicsConfiguration config = SimpleUniverse.getPreferredConfiguration();
     final Canvas3D c = new Canvas3D(config);
     add(c, BorderLayout.CENTER);
@@ -158,9 +220,12 @@ public class VisualizationViewer<N, E> extends JPanel
                 .withInitializer(
                     new RandomLocationTransformer<N>(600, 600, 600, System.currentTimeMillis()))
                 .build();
-    if (this.layoutModel instanceof LayoutChange.Support) {
-      ((LayoutChange.Support) layoutModel).addLayoutChangeListener(this);
-    }
+    // redraw once for each change the model publishes, except while it is pre-relaxing. The
+    // pre-relaxed positions are then published together when the pre-relax phase is over
+    layoutModel
+        .getLayoutStateChangeSupport()
+        .addLayoutStateChangeListener(evt -> preRelaxing = evt.isPreRelaxing());
+    layoutModel.getLayoutChangeSupport().addLayoutChangeListener(this);
 
     if (this.layoutModel instanceof LayoutNodePositionChange.Producer) {
       ((LayoutNodePositionChange.Producer) layoutModel)
@@ -189,6 +254,7 @@ public class VisualizationViewer<N, E> extends JPanel
     return layoutModel;
   }
 
+  @Override
   public LayoutModel<N> getLayoutModel() {
     return layoutModel;
   }
@@ -315,21 +381,25 @@ public class VisualizationViewer<N, E> extends JPanel
           }
         });
 
-    PickVertexBehavior pvb =
-        new PickVertexBehavior(objRoot, canvas, bounds, renderContext.getPickedVertexState());
+    PickVertexBehavior<N, E> pvb =
+        new PickVertexBehavior<>(objRoot, canvas, bounds, renderContext.getPickedVertexState());
+    pickVertexBehavior = pvb;
     objTrans.addChild(pvb);
     pvb.addChangeListener(
         e -> {
-          for (N v : network.nodes()) {
+          if (mergedVertices != null) {
+            updateMergedVertices();
+          }
+          for (N v : nodeMap.keySet()) {
             VertexGroup<N> vg = nodeMap.get(v);
+            if (vg == null) {
+              continue;
+            }
             Appearance alook = redLook;
             if (renderContext.getPickedVertexState().isSelected(v)) {
               alook = yellowLook;
             }
-            Node node = vg.getShape();
-            if (node instanceof Primitive) {
-              ((Primitive) node).setAppearance(alook);
-            }
+            vg.setAppearance(alook);
           }
         });
 
@@ -356,30 +426,66 @@ public class VisualizationViewer<N, E> extends JPanel
   }
 
   public void setNetwork(Network<N, E> network, boolean forceUpdate) {
+    Graph<N> previous = layoutModel.getGraph();
     this.network = network;
+    if (graphStream != null) {
+      // the stream changes a graph that is no longer laid out
+      graphStream.removeListener(streamListener);
+      graphStream = null;
+    }
     // make sure the any relaxer is stopped....
     //    this.layoutModel.stopRelaxer();
     this.layoutModel.setGraph(network.asGraph());
     //    init(network.asGraph());
 
     if (forceUpdate && this.layoutAlgorithm != null) {
+      if (incrementalRelayout != null
+          && previous != null
+          && layoutAlgorithm instanceof AbstractIterativeLayoutAlgorithm) {
+        incrementalRelayout.prepare(
+            layoutModel, previous, (AbstractIterativeLayoutAlgorithm<N>) layoutAlgorithm);
+      }
       layoutModel.accept(this.layoutAlgorithm);
       log.trace("will fire stateChanged");
       changeSupport.fireLayoutChanged();
       log.trace("fired stateChanged");
       //      changeSupport.fireStateChanged();
     }
-    init(network.asGraph());
+    update(network.asGraph());
   }
 
+  public IncrementalRelayout getIncrementalRelayout() {
+    return incrementalRelayout;
+  }
+
+  /**
+   * Lay out a changed network incrementally: when {@link #setNetwork} is passed a network that
+   * differs from the current one, and the layout algorithm is an {@code
+   * AbstractIterativeLayoutAlgorithm}, the nodes that were laid out keep their locations, new nodes
+   * are placed near their neighbors, and the algorithm mostly moves the nodes near the change.
+   *
+   * @param incrementalRelayout how to lay out a changed network, or null to lay it out from scratch
+   */
+  public void setIncrementalRelayout(IncrementalRelayout incrementalRelayout) {
+    this.incrementalRelayout = incrementalRelayout;
+  }
+
+  @Override
   public void setLayoutAlgorithm(LayoutAlgorithm<N> layoutAlgorithm) {
     this.layoutAlgorithm = layoutAlgorithm;
+    if (graphStream != null) {
+      graphStream.setLayoutAlgorithm(layoutAlgorithm);
+    }
     if (layoutAlgorithm != null) {
       this.layoutModel.accept(layoutAlgorithm);
       removeSpheres();
       if (layoutAlgorithm instanceof Spherical) {
         addSpheres(layoutAlgorithm);
       }
+      removeCones();
+      if (layoutAlgorithm instanceof Conical) {
+        addCones(layoutAlgorithm);
+      }
     }
   }
 
@@ -411,13 +517,52 @@ public class VisualizationViewer<N, E> extends JPanel
     }
   }
 
+  private void addCones(LayoutAlgorithm<N> layoutAlgorithm) {
+    if (layoutAlgorithm instanceof Conical) {
+      this.coneGroup = new BranchGroup();
+      this.coneGroup.setCapability(BranchGroup.ALLOW_DETACH);
+      for (edu.uci.ics.jung.layout3d.spatial.Cone guide : ((Conical) layoutAlgorithm).getCones()) {
+        // a j3d Cone is centered on the origin with its apex up
+        Cone cone = new Cone((float) guide.radius, (float) guide.height, transLook);
+        Transform3D tt = new Transform3D();
+        tt.set(
+            new Vector3f(
+                (float) guide.apex.x,
+                (float) (guide.apex.y - guide.height / 2),
+                (float) guide.apex.z));
+        TransformGroup tg = new TransformGroup(tt);
+        tg.addChild(cone);
+        BranchGroup bg = new BranchGroup();
+        bg.addChild(tg);
+
+        this.coneGroup.addChild(bg);
+      }
+      this.graphBranch.addChild(this.coneGroup);
+    }
+  }
+
+  private void removeCones() {
+    if (this.coneGroup != null) {
+      this.graphBranch.removeChild(this.coneGroup);
+      this.coneGroup = null;
+    }
+  }
+
   //  public void withLayoutModel(Network<N,E> network, LayoutModel<N, Point3f> inLayoutModel) {
 
-  //call when you set the network
+  /**
+   * Build the scene for the graph from scratch. {@link #setNetwork} does this only for the first
+   * network, and after that attaches and detaches the vertices and edges that changed.
+   *
+   * @param graph the graph to draw
+   */
   public void init(Graph<N> graph) {
     log.info("init");
     nodeMap.clear();
     edgeMap.clear();
+    nodeBranches.clear();
+    edgeBranches.clear();
+    fadedNodes.clear();
     BranchGroup branch = new BranchGroup();
 
     branch.setCapability(Group.ALLOW_CHILDREN_READ);
@@ -425,51 +570,29 @@ public class VisualizationViewer<N, E> extends JPanel
     branch.setCapability(Group.ALLOW_CHILDREN_EXTEND);
     branch.setCapability(BranchGroup.ALLOW_DETACH);
 
-    for (N v : graph.nodes()) {
-      VertexGroup<N> vg = new VertexGroup<N>(v, renderContext.getVertexShapeTransformer().apply(v));
-      vg.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
-      vg.setCapability(TransformGroup.ALLOW_TRANSFORM_READ);
-      nodeMap.put(v, vg);
-      branch.addChild(vg);
-      String label = renderContext.getVertexStringer().apply(v);
-      if (label != null) {
-        String fontName = "Serif";
-        Font3D f3d = new Font3D(new Font(fontName, Font.PLAIN, 2), new FontExtrusion());
-        Text3D txt = new Text3D(f3d, label, new Point3f(2f, 2f, 0));
-        OrientedShape3D textShape = new OrientedShape3D();
-        textShape.setGeometry(txt);
-        textShape.setAppearance(grayLook);
-
-        textShape.setAlignmentMode(OrientedShape3D.ROTATE_ABOUT_POINT);
-        textShape.setRotationPoint(new Point3f());
-
-        Transform3D tt = new Transform3D();
-
-        tt.setScale(5);
-        TransformGroup tg = new TransformGroup(tt);
-
-        tg.addChild(textShape);
-        BranchGroup bg = new BranchGroup();
-        bg.addChild(tg);
-
-        vg.getLabelNode().addChild(bg);
-      } else {
-        log.info("label for {} was null in {}", v, renderContext.getVertexStringer());
+    RenderContext.VertexMode vertexMode = renderContext.getVertexMode();
+    if (vertexMode == RenderContext.VertexMode.SHAPES) {
+      mergedVertices = null;
+      for (N v : graph.nodes()) {
+        addVertex(branch, v);
       }
+    } else {
+      mergedVertices = createMergedVertices(vertexMode);
+      branch.addChild(mergedVertices);
     }
+    pickVertexBehavior.setMergedVertices(mergedVertices);
     if (log.isTraceEnabled()) {
       log.trace("vertexMap = " + nodeMap);
     }
 
-    for (EndpointPair<N> edge : graph.edges()) {
-      EdgeGroup<EndpointPair<N>> eg =
-          new EdgeGroup<>(
-              edge,
-              renderContext.getEdgeShapeTransformer().apply(Context.getInstance(graph, edge)));
-      eg.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
-      eg.setCapability(TransformGroup.ALLOW_TRANSFORM_READ);
-      edgeMap.put(edge, eg);
-      branch.addChild(eg);
+    if (renderContext.getEdgeMode() == RenderContext.EdgeMode.SHAPES) {
+      mergedEdges = null;
+      for (EndpointPair<N> edge : graph.edges()) {
+        addEdge(branch, graph, edge);
+      }
+    } else {
+      mergedEdges = createMergedEdges();
+      branch.addChild(mergedEdges);
     }
 
     if (this.graphBranch != null) {
@@ -477,43 +600,390 @@ public class VisualizationViewer<N, E> extends JPanel
     }
     this.graphBranch = branch;
     objTrans.addChild(this.graphBranch);
+    // this viewer already listens for the layout changes of its model
+    mapGraph(graph);
+  }
 
-    if (layoutModel instanceof LayoutChange.Support) {
-      ((LayoutChange.Support) layoutModel)
-          .addLayoutChangeListener(
-              new LayoutChange.Listener() {
-                @Override
-                public void layoutChanged() {
-                  mapGraph(graph);
-                }
-              });
+  /** build the scene again from the graph that is laid out, once there is a scene */
+  private void rebuild() {
+    if (graphBranch != null) {
+      init(layoutModel.getGraph());
+    }
+  }
+
+  /** attach and detach only the vertices and edges that differ from those in the scene */
+  private void update(Graph<N> graph) {
+    if (graphBranch == null) {
+      init(graph);
+      return;
+    }
+    if (mergedEdges == null) {
+      for (EndpointPair<N> edge : new ArrayList<>(edgeMap.keySet())) {
+        if (!graph.edges().contains(edge)) {
+          removeEdge(edge);
+        }
+      }
+    }
+    if (mergedVertices == null) {
+      for (N v : new ArrayList<>(nodeMap.keySet())) {
+        if (!graph.nodes().contains(v)) {
+          removeVertex(v);
+        }
+      }
+      for (N v : graph.nodes()) {
+        addVertex(v);
+      }
+    }
+    if (mergedEdges == null) {
+      for (EndpointPair<N> edge : graph.edges()) {
+        addEdge(edge);
+      }
+    }
+    mapGraph(graph);
+  }
+
+  /**
+   * Attach a vertex of the graph that is laid out to the scene, with its label, at its current
+   * location. A vertex that is already in the scene is left alone. When the vertices are merged
+   * into one shape, the shape is redrawn from the graph.
+   *
+   * @param v the vertex to add
+   */
+  public void addVertex(N v) {
+    if (mergedVertices != null) {
+      updateMergedVertices();
+    } else if (!nodeMap.containsKey(v)) {
+      addVertex(graphBranch, v);
+    }
+  }
+
+  /**
+   * Detach a vertex and its label from the scene. Its edges are detached by {@link #removeEdge}.
+   * When the vertices are merged into one shape, the shape is redrawn from the graph.
+   *
+   * @param v the vertex to remove
+   */
+  public void removeVertex(N v) {
+    if (mergedVertices != null) {
+      updateMergedVertices();
+      return;
+    }
+    nodeMap.remove(v);
+    fadedNodes.remove(v);
+    BranchGroup bg = nodeBranches.remove(v);
+    if (bg != null) {
+      bg.detach();
+    }
+  }
+
+  /**
+   * Attach an edge of the graph that is laid out to the scene, between the current locations of its
+   * endpoints. An edge that is already in the scene is left alone. When the edges are merged into
+   * one shape, the shape is redrawn from the graph.
+   *
+   * @param edge the edge to add
+   */
+  public void addEdge(EndpointPair<N> edge) {
+    if (mergedEdges != null) {
+      updateMergedEdges();
+    } else if (!edgeMap.containsKey(edge)) {
+      addEdge(graphBranch, layoutModel.getGraph(), edge);
     }
-    if (layoutModel instanceof ChangeEventSupport) {
-      ((ChangeEventSupport) layoutModel).addChangeListener(e -> mapGraph(graph));
+  }
+
+  /**
+   * Detach an edge from the scene. When the edges are merged into one shape, the shape is redrawn
+   * from the graph.
+   *
+   * @param edge the edge to remove
+   */
+  public void removeEdge(EndpointPair<N> edge) {
+    if (mergedEdges != null) {
+      updateMergedEdges();
+      return;
+    }
+    edgeMap.remove(edge);
+    BranchGroup bg = edgeBranches.remove(edge);
+    if (bg != null) {
+      bg.detach();
+    }
+  }
+
+  /** @return the font of the vertex labels, made when it is first needed */
+  private Font3D labelFont() {
+    if (labelFont == null) {
+      labelFont = new Font3D(new Font("Serif", Font.PLAIN, 2), new FontExtrusion());
+    }
+    return labelFont;
+  }
+
+  /** add the vertex and its label, in a BranchGroup of their own, to the branch */
+  private void addVertex(BranchGroup branch, N v) {
+    VertexGroup<N> vg = new VertexGroup<N>(v, renderContext.getVertexShapeTransformer().apply(v));
+    vg.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
+    vg.setCapability(TransformGroup.ALLOW_TRANSFORM_READ);
+    nodeMap.put(v, vg);
+    String label = renderContext.getVertexStringer().apply(v);
+    if (label != null) {
+      Text3D txt = new Text3D(labelFont(), label, new Point3f(2f, 2f, 0));
+      OrientedShape3D textShape = new OrientedShape3D();
+      textShape.setGeometry(txt);
+      textShape.setAppearance(grayLook);
+
+      textShape.setAlignmentMode(OrientedShape3D.ROTATE_ABOUT_POINT);
+      textShape.setRotationPoint(new Point3f());
+
+      Transform3D tt = new Transform3D();
+
+      tt.setScale(5);
+      TransformGroup tg = new TransformGroup(tt);
+
+      tg.addChild(textShape);
+      BranchGroup bg = new BranchGroup();
+      bg.addChild(tg);
+
+      vg.getLabelNode().addChild(bg);
+    } else {
+      log.info("label for {} was null in {}", v, renderContext.getVertexStringer());
+    }
+    LevelOfDetail levelOfDetail = renderContext.getLevelOfDetail();
+    if (levelOfDetail != null) {
+      int nodeCount = layoutModel.getGraph().nodes().size();
+      Appearance look = renderContext.getVertexAppearanceTransformer().apply(v);
+      List<Node> coarser = new ArrayList<>();
+      for (int divisions : levelOfDetail.getVertexDivisions()) {
+        coarser.add(PluggableRenderContext.sharedShape(sphereGeometry(divisions), look));
+      }
+      vg.setDetail(
+          levelOfDetail.getVertexDistances(nodeCount),
+          coarser,
+          levelOfDetail.getLabelDistance(nodeCount),
+          levelOfDetail.getSchedulingBounds());
+    }
+    Point p = layoutModel.apply(v);
+    Transform3D tx = new Transform3D();
+    tx.setTranslation(new Vector3f((float) p.x, (float) p.y, (float) p.z));
+    vg.setTransform(tx);
+    BranchGroup bg = new BranchGroup();
+    bg.setCapability(BranchGroup.ALLOW_DETACH);
+    bg.addChild(vg);
+    nodeBranches.put(v, bg);
+    branch.addChild(bg);
+  }
+
+  /** add the edge, in a BranchGroup of its own, to the branch */
+  private void addEdge(BranchGroup branch, Graph<N> graph, EndpointPair<N> edge) {
+    EdgeGroup<EndpointPair<N>> eg =
+        new EdgeGroup<>(
+            edge, renderContext.getEdgeShapeTransformer().apply(Context.getInstance(graph, edge)));
+    eg.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
+    eg.setCapability(TransformGroup.ALLOW_TRANSFORM_READ);
+    BranchGroup bg = new BranchGroup();
+    bg.setCapability(BranchGroup.ALLOW_DETACH);
+    LevelOfDetail levelOfDetail = renderContext.getLevelOfDetail();
+    if (levelOfDetail != null) {
+      bg.addChild(
+          eg.setDetail(
+              edgeLine(),
+              levelOfDetail.getEdgeLineDistance(graph.nodes().size()),
+              levelOfDetail.getSchedulingBounds()));
+    }
+    eg.setEndpoints(layoutModel.apply(edge.nodeU()), layoutModel.apply(edge.nodeV()));
+    edgeMap.put(edge, eg);
+    bg.addChild(eg);
+    edgeBranches.put(edge, bg);
+    branch.addChild(bg);
+  }
+
+  /**
+   * Stream changes into the graph that is laid out, instead of calling {@link #setNetwork}: batches
+   * of changes appended to the stream are applied between the steps of the relaxer, the layout
+   * algorithm is reheated around them, and only the vertices and edges that were added or removed
+   * are attached to or detached from the scene. The first call swaps the graph of the layout model
+   * for a mutable copy. The network returned by {@link #getNetwork()} is not changed, and a call to
+   * {@code setNetwork} ends the stream.
+   *
+   * @return the stream for the graph of this viewer
+   */
+  public GraphStream<N> getGraphStream() {
+    if (graphStream == null) {
+      Graph<N> graph = layoutModel.getGraph();
+      if (!(graph instanceof MutableGraph)) {
+        layoutModel.setGraph(Graphs.copyOf(graph));
+      }
+      graphStream = GraphStream.builder(layoutModel).withLayoutAlgorithm(layoutAlgorithm).build();
+      graphStream.addListener(streamListener);
+    }
+    return graphStream;
+  }
+
+  /** attach and detach the vertices and edges the stream has added and removed */
+  private void streamed(GraphDelta<N> applied) {
+    Graph<N> graph = layoutModel.getGraph();
+    for (GraphDelta.Change<N> change : applied.getChanges()) {
+      switch (change.kind) {
+        case ADD_NODE:
+          if (mergedVertices == null) {
+            addVertex(change.node);
+          }
+          break;
+        case REMOVE_NODE:
+          if (mergedVertices == null) {
+            removeVertex(change.node);
+          }
+          break;
+        case PUT_EDGE:
+          if (mergedEdges == null) {
+            addEdge(endpoints(graph, change.node, change.target));
+          }
+          break;
+        case REMOVE_EDGE:
+          if (mergedEdges == null) {
+            removeEdge(endpoints(graph, change.node, change.target));
+          }
+          break;
+      }
+    }
+    if (mergedVertices != null) {
+      updateMergedVertices();
+    }
+    if (mergedEdges != null) {
+      updateMergedEdges();
+    }
+  }
+
+  private static <N> EndpointPair<N> endpoints(Graph<N> graph, N source, N target) {
+    return graph.isDirected()
+        ? EndpointPair.ordered(source, target)
+        : EndpointPair.unordered(source, target);
+  }
+
+  /** draw the vertices that are about to be removed for age as translucent */
+  private void fade(Set<N> fading) {
+    for (N v : fading) {
+      VertexGroup<N> vg = nodeMap.get(v);
+      if (vg != null && fadedNodes.add(v)) {
+        vg.setAppearance(transLook);
+      }
+    }
+    for (Iterator<N> i = fadedNodes.iterator(); i.hasNext(); ) {
+      N v = i.next();
+      if (!fading.contains(v)) {
+        i.remove();
+        VertexGroup<N> vg = nodeMap.get(v);
+        if (vg != null) {
+          vg.setAppearance(renderContext.getVertexAppearanceTransformer().apply(v));
+        }
+      }
+    }
+  }
+
+  /** @return the geometry of vertex spheres of the given divisions, made once */
+  private Geometry sphereGeometry(int divisions) {
+    return sphereGeometry.computeIfAbsent(
+        divisions,
+        d ->
+            new Sphere(VERTEX_RADIUS, Sphere.GENERATE_NORMALS | Sphere.ENABLE_GEOMETRY_PICKING, d)
+                .getShape(Sphere.BODY)
+                .getGeometry());
+  }
+
+  /** @return an unlit line for an edge that is far away, that shares its geometry */
+  private Shape3D edgeLine() {
+    if (edgeLineGeometry == null) {
+      LineArray lineArray = new LineArray(2, LineArray.COORDINATES);
+      lineArray.setCoordinates(0, new Point3f[] {new Point3f(0, -.5f, 0), new Point3f(0, .5f, 0)});
+      edgeLineGeometry = lineArray;
+      edgeLineLook = new Appearance();
+      edgeLineLook.setColoringAttributes(
+          new ColoringAttributes(.7f, .7f, .7f, ColoringAttributes.FASTEST));
+    }
+    Shape3D line = new Shape3D(edgeLineGeometry, edgeLineLook);
+    line.setPickable(false);
+    return line;
+  }
+
+  private NodeVisibility<N> nodeVisibility() {
+    return layoutAlgorithm instanceof NodeVisibility ? (NodeVisibility<N>) layoutAlgorithm : null;
+  }
+
+  private MergedVertexShape<N> createMergedVertices(RenderContext.VertexMode vertexMode) {
+    Appearance look = new Appearance();
+    if (vertexMode == RenderContext.VertexMode.POINTS) {
+      // unlit, in the vertex colors
+      look.setPointAttributes(new PointAttributes(MERGED_POINT_SIZE, true));
     } else {
-      mapGraph(graph);
+      Color3f black = new Color3f(0, 0, 0);
+      Color3f white = new Color3f(1, 1, 1);
+      look.setMaterial(new Material(white, black, white, white, 100.0f));
     }
+    return new MergedVertexShape<>(
+        vertexMode, VERTEX_RADIUS, look, new Color3f(1, 0, 0), new Color3f(1, 1, 0));
+  }
+
+  private MergedEdgeShape<N> createMergedEdges() {
+    Appearance look = new Appearance();
+    // unlit, in the line colors
+    look.setLineAttributes(new LineAttributes(1, LineAttributes.PATTERN_SOLID, true));
+    return new MergedEdgeShape<>(look, new Color3f(.7f, .7f, .7f), new Color3f(1, 1, 0));
+  }
+
+  private void updateMergedEdges() {
+    mergedEdges.update(
+        layoutModel, nodeVisibility(), renderContext.getPickedEdgeState()::isSelected);
+  }
+
+  private void updateMergedVertices() {
+    mergedVertices.update(
+        layoutModel, nodeVisibility(), renderContext.getPickedVertexState()::isSelected);
   }
 
   private void mapGraph(Graph<N> graph) {
     log.info("mapGraph");
+    if (preRelaxing) {
+      return;
+    }
+    // nodes the layout algorithm reports as not visible, and their edges, are hidden and not moved
+    NodeVisibility<N> visibility = nodeVisibility();
+    if (mergedVertices != null) {
+      updateMergedVertices();
+    }
 
     for (N v : nodeMap.keySet()) {
+      VertexGroup vg = nodeMap.get(v);
+      if (vg == null) {
+        continue;
+      }
+      boolean visible = visibility == null || visibility.isVisible(v);
+      vg.setVisible(visible);
+      if (!visible) {
+        continue;
+      }
       Point p = VisualizationViewer.this.layoutModel.apply(v);
       log.trace("location for {} will be {}", v, p);
       Vector3f pv = new Vector3f((float) p.x, (float) p.y, (float) p.z);
       Transform3D tx = new Transform3D();
       tx.setTranslation(pv);
-      if (nodeMap.get(v) != null) {
-        nodeMap.get(v).setTransform(tx);
-      }
+      vg.setTransform(tx);
     }
 
+    if (mergedEdges != null) {
+      updateMergedEdges();
+      return;
+    }
     for (EndpointPair<N> endpoints : graph.edges()) {
       N start = endpoints.nodeU();
       N end = endpoints.nodeV();
       EdgeGroup eg = edgeMap.get(endpoints);
-      eg.setEndpoints(layoutModel.apply(start), layoutModel.apply(end));
+      if (eg == null) {
+        continue;
+      }
+      boolean visible =
+          visibility == null || (visibility.isVisible(start) && visibility.isVisible(end));
+      eg.setVisible(visible);
+      if (visible) {
+        eg.setEndpoints(layoutModel.apply(start), layoutModel.apply(end));
+      }
     }
   }
 
@@ -556,6 +1026,7 @@ public class VisualizationViewer<N, E> extends JPanel
 
   @Override
   public void layoutChanged() {
+    mapGraph(layoutModel.getGraph());
     getLayoutChangeSupport().fireLayoutChanged();
   }
 }
@@ -0,0 +1,83 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.BalloonLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.Spherical;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class BalloonLayoutTest {
+
+  private static LayoutModel<Integer> model(Graph<Integer> tree) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(tree)
+        .withSize(600, 600, 600)
+        .build();
+  }
+
+  /** the layout as it was made with one recursive call per node */
+  private static void buildTree(
+      Graph<Integer> tree,
+      LayoutModel<Integer> layoutModel,
+      Integer root,
+      Map<Point, Integer> sphereLocations) {
+    Collection<Integer> kids = tree.successors(root);
+    if (kids.size() > 0) {
+      Point center = layoutModel.get(root);
+      int subDepth = 200 / (1 + 2 * BalloonLayoutAlgorithm.getDepth(tree, root));
+      Spherical.distribute(layoutModel, kids, center, subDepth);
+      sphereLocations.put(center, subDepth);
+      for (Integer kid : kids) {
+        buildTree(tree, layoutModel, kid, sphereLocations);
+      }
+    }
+  }
+
+  @Test
+  public void matchesTheRecursiveLayout() {
+    Random random = new Random(0);
+    MutableGraph<Integer> tree = GraphBuilder.directed().build();
+    tree.addNode(0);
+    for (int i = 1; i < 3000; i++) {
+      tree.putEdge(random.nextInt(i), i);
+    }
+    LayoutModel<Integer> expected = model(tree);
+    expected.set(0, Point.ORIGIN);
+    Map<Point, Integer> expectedSpheres = new HashMap<>();
+    buildTree(tree, expected, 0, expectedSpheres);
+
+    LayoutModel<Integer> layoutModel = model(tree);
+    BalloonLayoutAlgorithm<Integer> algorithm = new BalloonLayoutAlgorithm<>();
+    algorithm.visit(layoutModel);
+    for (Integer node : tree.nodes()) {
+      assertEquals(expected.apply(node), layoutModel.apply(node), "node " + node);
+    }
+    assertEquals(expectedSpheres, algorithm.getSphereLocations());
+  }
+
+  @Test
+  public void aDeepChainDoesNotOverflowTheStack() {
+    int n = 100_000;
+    MutableGraph<Integer> tree = GraphBuilder.directed().build();
+    for (int i = 1; i < n; i++) {
+      tree.putEdge(i - 1, i);
+    }
+    LayoutModel<Integer> layoutModel = model(tree);
+    BalloonLayoutAlgorithm<Integer> algorithm = new BalloonLayoutAlgorithm<>();
+    algorithm.visit(layoutModel);
+    // the only child of each node is placed along x on its sphere, until the radius is 0
+    assertEquals(Point.of(200, 0, 0), layoutModel.apply(1));
+    assertEquals(Point.of(200 + 66, 0, 0), layoutModel.apply(2));
+    assertEquals(layoutModel.apply(n / 2), layoutModel.apply(n - 1));
+  }
+}
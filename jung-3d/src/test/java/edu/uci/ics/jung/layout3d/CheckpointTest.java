@@ -0,0 +1,159 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.AbstractIterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ReplayLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.SpringLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+public class CheckpointTest {
+
+  private static MutableGraph<Integer> grid(int side) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side * side; i++) {
+      graph.addNode(i);
+      if (i % side > 0) {
+        graph.putEdge(i - 1, i);
+      }
+      if (i >= side) {
+        graph.putEdge(i - side, i);
+      }
+    }
+    return graph;
+  }
+
+  private static LayoutModel<Integer> model(Graph<Integer> graph) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+        .build();
+  }
+
+  private static byte[] relaxAndCheckpoint(
+      AbstractIterativeLayoutAlgorithm<Integer> algorithm, LayoutModel<Integer> layoutModel)
+      throws IOException {
+    algorithm.visit(layoutModel);
+    for (int i = 0; i < 20; i++) {
+      algorithm.step();
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    algorithm.writeCheckpoint(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private static void assertSameLocations(LayoutModel<Integer> a, LayoutModel<Integer> b) {
+    for (Integer node : a.getGraph().nodes()) {
+      assertEquals(a.apply(node), b.apply(node), "location of " + node);
+    }
+  }
+
+  private static void assertRoundTrip(Supplier<AbstractIterativeLayoutAlgorithm<Integer>> factory)
+      throws IOException {
+    MutableGraph<Integer> graph = grid(8);
+    LayoutModel<Integer> original = model(graph);
+    byte[] checkpoint = relaxAndCheckpoint(factory.get(), original);
+
+    AbstractIterativeLayoutAlgorithm<Integer> resumed = factory.get();
+    resumed.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+    LayoutModel<Integer> restored = model(graph);
+    resumed.visit(restored);
+    assertSameLocations(original, restored);
+    // a restored relaxation does not pre-relax again
+    assertFalse(resumed.preRelax());
+
+    ByteArrayOutputStream again = new ByteArrayOutputStream();
+    resumed.writeCheckpoint(new DataOutputStream(again));
+    assertEquals(checkpoint.length, again.size());
+  }
+
+  @Test
+  public void algorithmsRoundTrip() throws IOException {
+    assertRoundTrip(() -> FRLayoutAlgorithm.builder().withRandomSeed(0).build());
+    assertRoundTrip(() -> SpringLayoutAlgorithm.builder().withRandomSeed(0).build());
+    assertRoundTrip(() -> ISOMLayoutAlgorithm.builder().withRandomSeed(0).build());
+    assertRoundTrip(() -> KKLayoutAlgorithm.builder().withRandomSeed(0).build());
+  }
+
+  @Test
+  public void resumedKKStepsLikeTheOriginal() throws IOException {
+    MutableGraph<Integer> graph = grid(8);
+    LayoutModel<Integer> original = model(graph);
+    KKLayoutAlgorithm<Integer> algorithm =
+        (KKLayoutAlgorithm<Integer>) KKLayoutAlgorithm.builder().build();
+    byte[] checkpoint = relaxAndCheckpoint(algorithm, original);
+
+    KKLayoutAlgorithm<Integer> resumed =
+        (KKLayoutAlgorithm<Integer>) KKLayoutAlgorithm.builder().build();
+    resumed.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+    LayoutModel<Integer> restored = model(graph);
+    resumed.visit(restored);
+    for (int i = 0; i < 10; i++) {
+      algorithm.step();
+      resumed.step();
+    }
+    assertSameLocations(original, restored);
+  }
+
+  @Test
+  public void checkpointMustMatchTheGraph() throws IOException {
+    LayoutModel<Integer> original = model(grid(8));
+    byte[] checkpoint =
+        relaxAndCheckpoint(
+            (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().build(), original);
+
+    FRLayoutAlgorithm<Integer> fr =
+        (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().build();
+    fr.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint)));
+    assertThrows(IllegalStateException.class, () -> fr.visit(model(grid(7))));
+
+    KKLayoutAlgorithm<Integer> kk =
+        (KKLayoutAlgorithm<Integer>) KKLayoutAlgorithm.builder().build();
+    assertThrows(
+        IOException.class,
+        () -> kk.readCheckpoint(new DataInputStream(new ByteArrayInputStream(checkpoint))));
+  }
+
+  @Test
+  public void unsupportedAlgorithmFailsBeforeAnyIO() throws IOException {
+    byte[] checkpoint =
+        relaxAndCheckpoint(
+            (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().build(), model(grid(4)));
+    ReplayLayoutAlgorithm<Integer> replay =
+        (ReplayLayoutAlgorithm<Integer>)
+            ReplayLayoutAlgorithm.builder().withRecording(Paths.get("unused")).build();
+    assertFalse(replay.supportsCheckpoint());
+    assertTrue(FRLayoutAlgorithm.builder().build().supportsCheckpoint());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> replay.writeCheckpoint(new DataOutputStream(bytes)));
+    assertEquals(0, bytes.size());
+
+    ByteArrayInputStream in = new ByteArrayInputStream(checkpoint);
+    assertThrows(
+        UnsupportedOperationException.class, () -> replay.readCheckpoint(new DataInputStream(in)));
+    assertEquals(checkpoint.length, in.available());
+  }
+}
@@ -0,0 +1,50 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.ConeTreeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class ConeTreeLayoutTest {
+
+  @Test
+  public void nodesOnALevelDoNotOverlap() {
+    Random random = new Random(0);
+    MutableGraph<Integer> tree = GraphBuilder.directed().build();
+    tree.addNode(0);
+    for (int i = 1; i < 500; i++) {
+      tree.putEdge(random.nextInt(i), i);
+    }
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder().withGraph(tree).withSize(600, 600, 600).build();
+    ConeTreeLayoutAlgorithm<Integer> algorithm =
+        ConeTreeLayoutAlgorithm.<Integer>builder().withNodeSpacing(20).build();
+    algorithm.visit(layoutModel);
+
+    List<Point> points = new ArrayList<>();
+    for (Integer node : tree.nodes()) {
+      points.add(layoutModel.apply(node));
+    }
+    for (int i = 0; i < points.size(); i++) {
+      for (int j = i + 1; j < points.size(); j++) {
+        Point a = points.get(i);
+        Point b = points.get(j);
+        if (a.y == b.y) {
+          assertTrue(a.distance(b) >= 20 - 1.0e-9, a + " overlaps " + b);
+        }
+      }
+    }
+    // one cone for each node with more than one child
+    long parents = tree.nodes().stream().filter(node -> tree.outDegree(node) > 1).count();
+    assertEquals(parents, algorithm.getCones().size());
+  }
+}
@@ -0,0 +1,79 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.FramePacedRelaxer;
+import edu.uci.ics.jung.visualization.layout.algorithms.util.IterativeContext;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class FramePacedRelaxerTest {
+
+  /** takes about a millisecond per step and moves node 0 each time */
+  static class Stepper implements IterativeContext {
+    final LayoutModel<Integer> layoutModel;
+    final int stepCount;
+    int steps;
+
+    Stepper(LayoutModel<Integer> layoutModel, int stepCount) {
+      this.layoutModel = layoutModel;
+      this.stepCount = stepCount;
+    }
+
+    @Override
+    public void step() {
+      long end = System.nanoTime() + 1_000_000;
+      while (System.nanoTime() < end) {}
+      layoutModel.set(0, steps, 0, 0);
+      steps++;
+    }
+
+    @Override
+    public boolean done() {
+      return steps >= stepCount;
+    }
+  }
+
+  private static LayoutModel<Integer> layoutModel() {
+    MutableGraph<Integer> graph = GraphBuilder.directed().build();
+    graph.addNode(0);
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .build();
+  }
+
+  @Test
+  public void publishesOncePerFrame() {
+    LayoutModel<Integer> layoutModel = layoutModel();
+    AtomicInteger events = new AtomicInteger();
+    layoutModel.getLayoutChangeSupport().addLayoutChangeListener(events::incrementAndGet);
+    Stepper stepper = new Stepper(layoutModel, 100);
+    // 50ms frames, half of which may be spent stepping
+    new FramePacedRelaxer(stepper, layoutModel, 20, 0).run();
+
+    assertEquals(100, stepper.steps);
+    assertEquals(99, layoutModel.apply(0).x);
+    assertTrue(events.get() < 20, events.get() + " events for 100 steps");
+  }
+
+  @Test
+  public void stepsPerFrameCapsTheSteps() {
+    LayoutModel<Integer> layoutModel = layoutModel();
+    AtomicInteger events = new AtomicInteger();
+    layoutModel.getLayoutChangeSupport().addLayoutChangeListener(events::incrementAndGet);
+    Stepper stepper = new Stepper(layoutModel, 30);
+    FramePacedRelaxer relaxer = new FramePacedRelaxer(stepper, layoutModel, 100, 3);
+    relaxer.run();
+
+    assertEquals(30, stepper.steps);
+    // no more than 3 steps in any frame
+    assertTrue(events.get() >= 10, events.get() + " events for 30 steps");
+    assertTrue(relaxer.getLastFrameSteps() <= 3);
+  }
+}
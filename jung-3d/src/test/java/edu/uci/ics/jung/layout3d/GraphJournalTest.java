@@ -0,0 +1,144 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.AbstractLayoutModel;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.GraphJournal;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import java.util.ConcurrentModificationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class GraphJournalTest {
+
+  /** never done, walks the whole graph in each step and counts the times it changed underfoot */
+  static class Walking implements IterativeLayoutAlgorithm<Integer> {
+    final AtomicInteger steps = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    Graph<Integer> graph;
+
+    @Override
+    public void visit(LayoutModel<Integer> layoutModel) {
+      graph = layoutModel.getGraph();
+    }
+
+    @Override
+    public boolean preRelax() {
+      return false;
+    }
+
+    @Override
+    public void step() {
+      try {
+        int nodes = graph.nodes().size();
+        int count = 0;
+        for (Integer node : graph.nodes()) {
+          count += graph.adjacentNodes(node).size() >= 0 ? 1 : 0;
+          Thread.yield();
+        }
+        if (count != nodes) {
+          failures.incrementAndGet();
+        }
+      } catch (ConcurrentModificationException ex) {
+        failures.incrementAndGet();
+      }
+      steps.incrementAndGet();
+    }
+
+    @Override
+    public boolean done() {
+      return false;
+    }
+  }
+
+  @Test
+  public void changesAreMadeBetweenSteps() throws Exception {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    graph.addNode(0);
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withLayoutExecutor(LayoutExecutor.pooled(1))
+            .build();
+    GraphJournal<Integer> journal = new GraphJournal<>(layoutModel);
+    Walking algorithm = new Walking();
+    layoutModel.accept(algorithm);
+
+    Thread writer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 500; i++) {
+                journal.putEdge(i, i + 1);
+                if (i % 10 == 9) {
+                  journal.removeNode(i - 5);
+                }
+              }
+            });
+    writer.start();
+    writer.join();
+    for (int i = 0; i < 500 && journal.getPendingCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+    int steps = algorithm.steps.get();
+    for (int i = 0; i < 500 && algorithm.steps.get() == steps; i++) {
+      Thread.sleep(10);
+    }
+    layoutModel.stopRelaxer();
+
+    assertEquals(0, journal.getPendingCount());
+    assertTrue(algorithm.steps.get() > 0);
+    assertEquals(0, algorithm.failures.get());
+    // a path of 501 nodes, less 50 nodes from the middle with their two edges each
+    assertEquals(451, graph.nodes().size());
+    assertEquals(400, graph.edges().size());
+  }
+
+  @Test
+  public void runningAlgorithmSeesAddedNodes() throws Exception {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < 10; i++) {
+      graph.putEdge(i, i + 1);
+    }
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withLayoutExecutor(LayoutExecutor.pooled(1))
+            .build();
+    GraphJournal<Integer> journal = new GraphJournal<>(layoutModel);
+    KKLayoutAlgorithm<Integer> algorithm =
+        KKLayoutAlgorithm.<Integer>builder().withMaxIterations(Integer.MAX_VALUE).build();
+    layoutModel.accept(algorithm);
+    assertTrue(layoutModel.isRelaxing());
+    long modCount = layoutModel.getGraphModCount();
+
+    for (int i = 10; i < 30; i++) {
+      journal.putEdge(i, i + 1);
+      Thread.sleep(5);
+    }
+    for (int i = 0; i < 500 && journal.getPendingCount() > 0; i++) {
+      Thread.sleep(10);
+    }
+    // let the relaxer take steps over the grown graph
+    Thread.sleep(200);
+    CompletableFuture future = ((AbstractLayoutModel<Integer>) layoutModel).getTheFuture();
+    boolean failed = future.isCompletedExceptionally();
+    layoutModel.stopRelaxer();
+
+    assertEquals(0, journal.getPendingCount());
+    assertEquals(31, graph.nodes().size());
+    assertTrue(layoutModel.getGraphModCount() > modCount);
+    assertFalse(failed);
+  }
+}
@@ -0,0 +1,171 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.base.Ticker;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.FramePacedRelaxer;
+import edu.uci.ics.jung.layout3d.util.GraphDelta;
+import edu.uci.ics.jung.layout3d.util.GraphStream;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class GraphStreamTest {
+
+  private static LayoutModel<Integer> model(MutableGraph<Integer> graph) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+        .build();
+  }
+
+  private static class FakeTicker extends Ticker {
+    long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+
+  @Test
+  public void batchesAreAppliedAndNewNodesArePlacedNearTheirNeighbors() {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    graph.putEdge(0, 1);
+    graph.putEdge(1, 2);
+    LayoutModel<Integer> layoutModel = model(graph);
+    GraphStream<Integer> stream = GraphStream.builder(layoutModel).build();
+    List<GraphDelta<Integer>> applied = new ArrayList<>();
+    stream.addListener(applied::add);
+
+    // with no relaxer running, a batch is applied when it is appended
+    stream.append(GraphDelta.<Integer>builder().putEdge(2, 3).putEdge(0, 1).build());
+    assertTrue(graph.successors(2).contains(3));
+    assertEquals(0, stream.getPendingCount());
+    assertTrue(layoutModel.apply(3).distance(layoutModel.apply(2)) <= Math.sqrt(3));
+    // the edge that was already there is not reported
+    assertEquals(1, applied.size());
+    assertEquals("GraphDelta[ADD_NODE(3), PUT_EDGE(2, 3)]", applied.get(0).toString());
+
+    // removing a node reports the removal of its edges
+    stream.append(GraphDelta.<Integer>builder().removeNode(1).build());
+    assertFalse(graph.nodes().contains(1));
+    assertEquals(
+        "GraphDelta[REMOVE_EDGE(1, 0), REMOVE_EDGE(1, 2), REMOVE_NODE(1)]",
+        applied.get(1).toString());
+  }
+
+  @Test
+  public void staleNodesFadeAndAreRemoved() {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    graph.putEdge(0, 1);
+    FakeTicker ticker = new FakeTicker();
+    LayoutModel<Integer> layoutModel = model(graph);
+    GraphStream<Integer> stream =
+        GraphStream.builder(layoutModel)
+            .withMaxAge(100, TimeUnit.NANOSECONDS)
+            .withFadeFraction(0.5)
+            .withTicker(ticker)
+            .build();
+    Map<Integer, Double> fading = new HashMap<>();
+    stream.addListener(
+        new GraphStream.Listener<Integer>() {
+          @Override
+          public void graphChanged(GraphDelta<Integer> applied) {}
+
+          @Override
+          public void nodesFading(Map<Integer, Double> freshness) {
+            fading.clear();
+            fading.putAll(freshness);
+          }
+        });
+
+    ticker.nanos = 60;
+    stream.append(GraphDelta.<Integer>builder().putEdge(1, 2).build());
+    assertEquals(0.8, fading.get(0), 1.0e-9);
+    assertFalse(fading.containsKey(1));
+
+    ticker.nanos = 100;
+    stream.expireStale();
+    assertFalse(graph.nodes().contains(0));
+    assertEquals(2, graph.nodes().size());
+    assertTrue(graph.successors(1).contains(2));
+  }
+
+  /** never runs the relaxer that a reheat starts, so that the algorithm takes no steps */
+  private static final LayoutExecutor IDLE =
+      new LayoutExecutor() {
+        @Override
+        public CompletableFuture<Void> execute(FramePacedRelaxer relaxer) {
+          return new CompletableFuture<>();
+        }
+
+        @Override
+        public CompletableFuture<Void> submit(Runnable task) {
+          return new CompletableFuture<>();
+        }
+      };
+
+  @Test
+  public void aStreamedBatchKeepsTheStateOfTheAlgorithm() {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < 10; i++) {
+      graph.putEdge(i, i + 1);
+    }
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+            .withLayoutExecutor(IDLE)
+            .build();
+
+    FRLayoutAlgorithm<Integer> fr =
+        (FRLayoutAlgorithm<Integer>)
+            FRLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+    fr.visit(layoutModel);
+    for (int i = 0; i < 50; i++) {
+      fr.step();
+    }
+    double temperature = fr.getTemperature();
+    GraphStream<Integer> stream = GraphStream.builder(layoutModel).withLayoutAlgorithm(fr).build();
+    stream.append(GraphDelta.<Integer>builder().putEdge(10, 11).build());
+    layoutModel.stopRelaxer();
+    assertTrue(graph.nodes().contains(11));
+    assertEquals(50, fr.getCurrentIteration());
+    assertEquals(temperature, fr.getTemperature());
+
+    KKLayoutAlgorithm<Integer> kk =
+        (KKLayoutAlgorithm<Integer>)
+            KKLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+    kk.visit(layoutModel);
+    for (int i = 0; i < 20; i++) {
+      kk.step();
+    }
+    stream.setLayoutAlgorithm(kk);
+    stream.append(GraphDelta.<Integer>builder().putEdge(5, 12).removeNode(0).build());
+    layoutModel.stopRelaxer();
+    assertEquals(20, kk.getCurrentIteration());
+    // the rows of the changed nodes are patched, the others are kept
+    assertEquals(1, kk.getDistance(12, 5));
+    assertEquals(5, kk.getDistance(12, 9));
+    assertEquals(3, kk.getDistance(1, 4));
+    assertEquals(3, kk.getDistance(2, 5));
+    assertEquals(-1, kk.getDistance(0, 1));
+  }
+}
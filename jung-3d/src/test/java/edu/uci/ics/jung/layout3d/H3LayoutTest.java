@@ -0,0 +1,50 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.H3LayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import org.junit.jupiter.api.Test;
+
+public class H3LayoutTest {
+
+  @Test
+  public void focusMovesANodeToTheCenter() {
+    // a complete tree with branching factor 5 and depth 6
+    MutableGraph<Integer> tree = GraphBuilder.directed().build();
+    tree.addNode(0);
+    int size = 1 + 5 + 25 + 125 + 625 + 3125 + 15625;
+    for (int i = 1; i < size; i++) {
+      tree.putEdge((i - 1) / 5, i);
+    }
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder().withGraph(tree).withSize(600, 600, 600).build();
+    H3LayoutAlgorithm<Integer> algorithm = H3LayoutAlgorithm.<Integer>builder().build();
+    algorithm.visit(layoutModel);
+
+    Point center = Point.of(0, 0, 0);
+    for (Integer node : tree.nodes()) {
+      assertTrue(layoutModel.apply(node).distance(center) < 300, node + " is outside the ball");
+    }
+    int leaf = size - 1;
+    assertEquals(0, layoutModel.apply(0).distance(center), 1.0e-9);
+    assertTrue(algorithm.isVisible(0));
+    assertFalse(algorithm.isVisible(leaf));
+    long visible = tree.nodes().stream().filter(algorithm::isVisible).count();
+    assertTrue(visible < size / 10, visible + " of " + size + " nodes are visible");
+
+    algorithm.setFocus(leaf);
+    assertEquals(0, layoutModel.apply(leaf).distance(center), 1.0e-6);
+    assertTrue(algorithm.isVisible(leaf));
+    assertFalse(algorithm.isVisible(1));
+
+    algorithm.resetFocus();
+    assertEquals(0, layoutModel.apply(0).distance(center), 1.0e-9);
+  }
+}
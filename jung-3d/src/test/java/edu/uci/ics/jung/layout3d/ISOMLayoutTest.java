@@ -0,0 +1,173 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.StaticLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class ISOMLayoutTest {
+
+  /** exposes the spatial grid */
+  static class Indexed extends ISOMLayoutAlgorithm<Integer> {
+    Indexed(int batchSize) {
+      super((Builder) ISOMLayoutAlgorithm.builder().withBatchSize(batchSize).shouldPrerelax(false));
+    }
+
+    Point gridLocation(Integer node) {
+      int index = compressedGraph.indexOf(node);
+      return Point.of(grid.getX(index), grid.getY(index), grid.getZ(index));
+    }
+  }
+
+  private static LayoutModel<Integer> model(MutableGraph<Integer> graph) {
+    return model(graph, LayoutExecutor.shared());
+  }
+
+  private static LayoutModel<Integer> model(MutableGraph<Integer> graph, LayoutExecutor executor) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+        .withLayoutExecutor(executor)
+        .build();
+  }
+
+  private static MutableGraph<Integer> grid(int side) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side * side; i++) {
+      graph.addNode(i);
+      if (i % side > 0) {
+        graph.putEdge(i - 1, i);
+      }
+      if (i >= side) {
+        graph.putEdge(i - side, i);
+      }
+    }
+    return graph;
+  }
+
+  private static ISOMLayoutAlgorithm<Integer> batched(int batchSize) {
+    return (ISOMLayoutAlgorithm<Integer>)
+        ISOMLayoutAlgorithm.builder()
+            .withBatchSize(batchSize)
+            .shouldPrerelax(false)
+            .withRandomSeed(0)
+            // start from the seeded locations of the model
+            .withInitialLayout(new StaticLayoutAlgorithm<>())
+            .build();
+  }
+
+  /** @return the mean length of the edges over the mean distance between any two nodes */
+  private static double edgeRatio(LayoutModel<Integer> layoutModel) {
+    Graph<Integer> graph = layoutModel.getGraph();
+    double edges = 0;
+    for (EndpointPair<Integer> edge : graph.edges()) {
+      edges += layoutModel.apply(edge.nodeU()).distance(layoutModel.apply(edge.nodeV()));
+    }
+    double pairs = 0;
+    for (Integer u : graph.nodes()) {
+      for (Integer v : graph.nodes()) {
+        pairs += layoutModel.apply(u).distance(layoutModel.apply(v));
+      }
+    }
+    int n = graph.nodes().size();
+    return (edges / graph.edges().size()) / (pairs / (n * (n - 1)));
+  }
+
+  @Test
+  public void theGridFollowsLocationsSetFromOutside() {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < 200; i++) {
+      graph.addNode(i);
+    }
+    LayoutModel<Integer> layoutModel = model(graph);
+    Indexed algorithm = new Indexed(1);
+    algorithm.visit(layoutModel);
+    algorithm.step();
+
+    // a drag, while a relaxer holds back the position events
+    layoutModel.getLayoutNodePositionSupport().setFireEvents(false);
+    layoutModel.set(5, Point.of(1000, 1000, 1000));
+    layoutModel.getLayoutNodePositionSupport().setFireEvents(true);
+    Map<Integer, Point> moved = new HashMap<>();
+    moved.put(6, Point.of(-1000, -1000, -1000));
+    layoutModel.setLocations(moved);
+    algorithm.step();
+
+    for (Integer node : graph.nodes()) {
+      assertEquals(layoutModel.apply(node), algorithm.gridLocation(node), "node " + node);
+    }
+  }
+
+  @Test
+  public void batchModeConverges() {
+    LayoutModel<Integer> layoutModel = model(grid(10));
+    double before = edgeRatio(layoutModel);
+    ISOMLayoutAlgorithm<Integer> algorithm = batched(16);
+    algorithm.visit(layoutModel);
+    int steps = 0;
+    while (!algorithm.done()) {
+      algorithm.step();
+      steps++;
+    }
+    // epochs 1 to 1999, 16 a step
+    assertEquals(125, steps);
+    double after = edgeRatio(layoutModel);
+    assertTrue(after < before / 3, "edge ratio " + before + " to " + after);
+  }
+
+  @Test
+  public void conflictingWinnersAreResolvedDeterministically() {
+    // a batch of 32 stimuli over 49 nodes, whose neighborhoods overlap
+    Map<Integer, Point> expected = null;
+    for (LayoutExecutor executor :
+        Arrays.asList(
+            LayoutExecutor.pooled(4), LayoutExecutor.pooled(1), LayoutExecutor.pooled(4))) {
+      LayoutModel<Integer> layoutModel = model(grid(7), executor);
+      ISOMLayoutAlgorithm<Integer> algorithm = batched(32);
+      algorithm.visit(layoutModel);
+      for (int i = 0; i < 20; i++) {
+        algorithm.step();
+      }
+      Map<Integer, Point> locations = new HashMap<>(layoutModel.getLocations());
+      if (expected == null) {
+        expected = locations;
+      } else {
+        assertEquals(expected, locations);
+      }
+    }
+  }
+
+  @Test
+  public void batchMovesFirePositionEvents() {
+    LayoutModel<Integer> layoutModel = model(grid(7));
+    ISOMLayoutAlgorithm<Integer> algorithm = batched(8);
+    algorithm.visit(layoutModel);
+    algorithm.step();
+    Map<Integer, Point> fired = new HashMap<>();
+    layoutModel
+        .getLayoutNodePositionSupport()
+        .addLayoutNodePositionChangeListener(evt -> fired.put(evt.node, evt.location));
+    algorithm.step();
+
+    assertFalse(fired.isEmpty());
+    for (Map.Entry<Integer, Point> entry : fired.entrySet()) {
+      assertEquals(layoutModel.apply(entry.getKey()), entry.getValue());
+    }
+  }
+}
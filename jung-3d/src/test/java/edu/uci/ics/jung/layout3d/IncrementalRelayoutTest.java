@@ -0,0 +1,148 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ISOMLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.IncrementalRelayout;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+public class IncrementalRelayoutTest {
+
+  @Test
+  public void onlyTheNodesNearAChangeMove() {
+    MutableGraph<Integer> graph = grid(10);
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+            .build();
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>)
+            FRLayoutAlgorithm.builder().shouldPrerelax(false).withRandomSeed(0).build();
+    algorithm.visit(layoutModel);
+    for (int i = 0; i < 50; i++) {
+      algorithm.step();
+    }
+    Map<Integer, Point> before = new HashMap<>(layoutModel.getLocations());
+
+    // three new nodes hang off the corner node 0
+    MutableGraph<Integer> changed = Graphs.copyOf(graph);
+    changed.putEdge(0, 1000);
+    changed.putEdge(0, 1001);
+    changed.putEdge(1001, 1002);
+    layoutModel.setGraph(changed);
+    IncrementalRelayout relayout =
+        IncrementalRelayout.builder().withHops(2).withDamping(0).withRandomSeed(0).build();
+    Function<Integer, Double> mobility = relayout.prepare(layoutModel, graph);
+
+    // the new nodes start next to the nodes they are attached to
+    double jitter = Math.sqrt(3);
+    assertTrue(layoutModel.apply(1000).distance(before.get(0)) <= jitter);
+    assertTrue(layoutModel.apply(1001).distance(before.get(0)) <= jitter);
+    assertTrue(layoutModel.apply(1002).distance(layoutModel.apply(1001)) <= jitter);
+    // node 0 changed, and nodes 1, 10, 2, 11 and 20 are within two hops of it
+    assertEquals(1.0, mobility.apply(20));
+    assertEquals(0.0, mobility.apply(21));
+
+    algorithm.warmStart(mobility);
+    algorithm.visit(layoutModel);
+    for (int i = 0; i < 20; i++) {
+      algorithm.step();
+    }
+    for (Integer node : graph.nodes()) {
+      if (mobility.apply(node) == 0) {
+        assertEquals(before.get(node), layoutModel.apply(node), "frozen node " + node + " moved");
+      }
+    }
+    assertNotEquals(before.get(0), layoutModel.apply(0));
+
+    // a visit that is not a warm start lets the frozen nodes move again
+    Map<Integer, Point> settled = new HashMap<>(layoutModel.getLocations());
+    algorithm.visit(layoutModel);
+    algorithm.step();
+    assertTrue(
+        graph.nodes().stream()
+            .anyMatch(
+                node ->
+                    mobility.apply(node) == 0
+                        && !settled.get(node).equals(layoutModel.apply(node))));
+  }
+
+  @Test
+  public void frozenNodesStayPutInBatchMode() {
+    MutableGraph<Integer> graph = grid(10);
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+            .build();
+    ISOMLayoutAlgorithm<Integer> algorithm =
+        (ISOMLayoutAlgorithm<Integer>)
+            ISOMLayoutAlgorithm.builder()
+                .withBatchSize(8)
+                .shouldPrerelax(false)
+                .withRandomSeed(0)
+                .build();
+    algorithm.visit(layoutModel);
+    for (int i = 0; i < 20; i++) {
+      algorithm.step();
+    }
+    Map<Integer, Point> before = new HashMap<>(layoutModel.getLocations());
+
+    MutableGraph<Integer> changed = Graphs.copyOf(graph);
+    changed.putEdge(0, 1000);
+    layoutModel.setGraph(changed);
+    Function<Integer, Double> mobility =
+        IncrementalRelayout.builder()
+            .withHops(2)
+            .withDamping(0)
+            .withRandomSeed(0)
+            .build()
+            .prepare(layoutModel, graph);
+
+    algorithm.warmStart(mobility);
+    algorithm.visit(layoutModel);
+    for (int i = 0; i < 20; i++) {
+      algorithm.step();
+    }
+    for (Integer node : graph.nodes()) {
+      if (mobility.apply(node) == 0) {
+        assertEquals(before.get(node), layoutModel.apply(node), "frozen node " + node + " moved");
+      }
+    }
+    assertTrue(
+        changed.nodes().stream()
+            .anyMatch(
+                node ->
+                    mobility.apply(node) > 0 && !layoutModel.apply(node).equals(before.get(node))));
+  }
+
+  private static MutableGraph<Integer> grid(int side) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side * side; i++) {
+      graph.addNode(i);
+      if (i % side > 0) {
+        graph.putEdge(i - 1, i);
+      }
+      if (i >= side) {
+        graph.putEdge(i - side, i);
+      }
+    }
+    return graph;
+  }
+}
@@ -0,0 +1,102 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.FramePacedRelaxer;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import edu.uci.ics.jung.visualization.layout.algorithms.util.IterativeContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class LayoutExecutorTest {
+
+  /** counts its steps, which take a millisecond or so each */
+  static class Counter implements IterativeContext {
+    final AtomicInteger steps = new AtomicInteger();
+    final int stepCount;
+
+    Counter(int stepCount) {
+      this.stepCount = stepCount;
+    }
+
+    @Override
+    public void step() {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      steps.incrementAndGet();
+    }
+
+    @Override
+    public boolean done() {
+      return steps.get() >= stepCount;
+    }
+  }
+
+  private static LayoutModel<Integer> layoutModel() {
+    MutableGraph<Integer> graph = GraphBuilder.directed().build();
+    graph.addNode(0);
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .build();
+  }
+
+  @Test
+  public void modelsShareABoundedPool() throws Exception {
+    LayoutExecutor executor = LayoutExecutor.pooled(1);
+    List<Counter> counters = new ArrayList<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Counter counter = new Counter(40);
+      counters.add(counter);
+      futures.add(executor.execute(new FramePacedRelaxer(counter, layoutModel(), 100, 2)));
+    }
+    // a frame at a time, so every model gets going before any of them finishes
+    futures.get(0).get(10, TimeUnit.SECONDS);
+    for (Counter counter : counters) {
+      assertTrue(counter.steps.get() > 20, counter.steps.get() + " steps");
+    }
+    for (CompletableFuture<Void> future : futures) {
+      future.get(10, TimeUnit.SECONDS);
+    }
+    for (Counter counter : counters) {
+      assertEquals(40, counter.steps.get());
+    }
+  }
+
+  @Test
+  public void cancellingStopsThePooledRelaxer() throws Exception {
+    cancellingStopsTheRelaxer(LayoutExecutor.pooled(2));
+  }
+
+  @Test
+  public void cancellingStopsTheThreadRelaxer() throws Exception {
+    cancellingStopsTheRelaxer(LayoutExecutor.virtualThreads());
+  }
+
+  private void cancellingStopsTheRelaxer(LayoutExecutor executor) throws Exception {
+    Counter counter = new Counter(Integer.MAX_VALUE);
+    CompletableFuture<Void> future =
+        executor.execute(new FramePacedRelaxer(counter, layoutModel(), 100, 0));
+    Thread.sleep(50);
+    assertTrue(future.cancel(true));
+    Thread.sleep(20);
+    int steps = counter.steps.get();
+    assertTrue(steps > 0);
+    Thread.sleep(50);
+    assertEquals(steps, counter.steps.get());
+    assertTrue(future.isCancelled());
+  }
+}
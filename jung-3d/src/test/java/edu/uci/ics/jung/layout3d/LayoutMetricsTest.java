@@ -0,0 +1,121 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.KKLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.repulsion.BarnesHutFRRepulsion;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics;
+import edu.uci.ics.jung.layout3d.metrics.StepMetrics.Phase;
+import edu.uci.ics.jung.layout3d.metrics.StepRecorder;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+public class LayoutMetricsTest {
+
+  private static LayoutModel<Integer> gridModel(int side) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side * side; i++) {
+      graph.addNode(i);
+      if (i % side > 0) {
+        graph.putEdge(i - 1, i);
+      }
+      if (i >= side) {
+        graph.putEdge(i - side, i);
+      }
+    }
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+        .build();
+  }
+
+  @Test
+  public void barnesHutStepsAreRecorded() throws Exception {
+    LayoutModel<Integer> layoutModel = gridModel(10);
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>)
+            FRLayoutAlgorithm.builder()
+                .withRepulsionContractBuilder(BarnesHutFRRepulsion.barnesHutBuilder())
+                .shouldPrerelax(false)
+                .withRandomSeed(0)
+                .build();
+    LayoutMetrics metrics = new LayoutMetrics();
+    List<StepMetrics> steps = new ArrayList<>();
+    metrics.addListener(steps::add);
+    algorithm.visit(layoutModel);
+    algorithm.setMetrics(metrics);
+    for (int i = 0; i < 5; i++) {
+      algorithm.step();
+    }
+
+    assertEquals(5, steps.size());
+    for (int i = 0; i < steps.size(); i++) {
+      StepMetrics step = steps.get(i);
+      assertEquals(i + 1, step.getStep());
+      assertEquals("FRLayoutAlgorithm", step.getAlgorithm());
+      for (Phase phase : new Phase[] {Phase.TREE_REBUILD, Phase.REPULSION, Phase.MOVE}) {
+        assertTrue(step.getPhaseNanos(phase) > 0, phase + " in " + step);
+      }
+      assertTrue(step.getStepNanos() >= step.getPhaseNanos(Phase.REPULSION));
+      assertTrue(step.getTreeDepth() > 1, step.toString());
+      assertTrue(step.getInteractionCount() > 0, step.toString());
+      assertTrue(step.getTotalDisplacement() >= step.getMaxDisplacement());
+      assertTrue(step.getMaxDisplacement() > 0, step.toString());
+      assertTrue(Double.isNaN(step.getEnergy()));
+    }
+    assertEquals(5, metrics.getStepCount());
+    assertTrue(metrics.getLastPhaseMillis().containsKey(Phase.REPULSION.name()));
+
+    ObjectName name = metrics.registerMBean("grid");
+    try {
+      Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "StepCount");
+      assertEquals(5L, count);
+    } finally {
+      metrics.unregisterMBean();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+
+  @Test
+  public void energyIsRecordedWhereDefined() {
+    LayoutModel<Integer> layoutModel = gridModel(4);
+    KKLayoutAlgorithm<Integer> algorithm =
+        (KKLayoutAlgorithm<Integer>) KKLayoutAlgorithm.builder().shouldPrerelax(false).build();
+    LayoutMetrics metrics = new LayoutMetrics();
+    algorithm.visit(layoutModel);
+    algorithm.setMetrics(metrics);
+    algorithm.step();
+
+    assertEquals(1, metrics.getStepCount());
+    assertFalse(Double.isNaN(metrics.getLastEnergy()));
+    assertEquals(-1, metrics.getLastTreeDepth());
+  }
+
+  @Test
+  public void metricsRemovedDuringAStepDoNotLeaveItOpen() {
+    LayoutMetrics metrics = new LayoutMetrics();
+    StepRecorder recorder = new StepRecorder("test");
+    recorder.setMetrics(metrics);
+    recorder.beginStep();
+    recorder.setMetrics(null);
+    recorder.endStep();
+
+    recorder.setMetrics(metrics);
+    recorder.beginStep();
+    recorder.endStep();
+    assertEquals(1, metrics.getStepCount());
+  }
+}
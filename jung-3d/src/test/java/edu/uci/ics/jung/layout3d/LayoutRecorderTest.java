@@ -0,0 +1,171 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.ReplayLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.metrics.LayoutMetrics;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.FramePacedRelaxer;
+import edu.uci.ics.jung.layout3d.util.LayoutRecorder;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LayoutRecorderTest {
+
+  @TempDir Path directory;
+
+  private static Graph<Integer> grid(int side) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side * side; i++) {
+      graph.addNode(i);
+      if (i % side > 0) {
+        graph.putEdge(i - 1, i);
+      }
+      if (i >= side) {
+        graph.putEdge(i - side, i);
+      }
+    }
+    return graph;
+  }
+
+  private static LayoutModel<Integer> model(Graph<Integer> graph, long seed) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .withInitializer(new RandomLocationTransformer<>(600, 600, 600, seed))
+        .build();
+  }
+
+  private static void assertNear(Point expected, Point actual, double tolerance) {
+    assertTrue(expected.distance(actual) <= tolerance, expected + " != " + actual);
+  }
+
+  @Test
+  public void replayFollowsTheRecordedSteps() throws IOException {
+    Graph<Integer> graph = grid(8);
+    LayoutModel<Integer> recorded = model(graph, 0);
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().withRandomSeed(0).build();
+    algorithm.visit(recorded);
+    Path path = directory.resolve("layout.j3dr");
+    List<Map<Integer, Point>> frames = new ArrayList<>();
+    try (LayoutRecorder<Integer> recorder = new LayoutRecorder<>(recorded, path).attach()) {
+      // record each step through the metrics of the algorithm
+      LayoutMetrics metrics = new LayoutMetrics();
+      metrics.addListener(recorder);
+      algorithm.setMetrics(metrics);
+      frames.add(new HashMap<>(recorded.getLocations()));
+      for (int i = 0; i < 30; i++) {
+        algorithm.step();
+        frames.add(new HashMap<>(recorded.getLocations()));
+      }
+      assertEquals(31, recorder.getFrameCount());
+    }
+    // 64 nodes by 31 frames of three doubles would take 47616 bytes
+    assertTrue(Files.size(path) < 20000, "recording takes " + Files.size(path) + " bytes");
+
+    LayoutModel<Integer> replayed = model(graph, 1);
+    ReplayLayoutAlgorithm<Integer> replay =
+        (ReplayLayoutAlgorithm<Integer>)
+            ReplayLayoutAlgorithm.builder().withRecording(path).withFramesPerStep(2).build();
+    replay.visit(replayed);
+    assertFalse(replay.preRelax());
+    double tolerance = Math.sqrt(3) * LayoutRecorder.DEFAULT_QUANTUM / 2 + 1.0e-9;
+    for (int frame = 0; !replay.done(); frame += 2) {
+      for (Integer node : graph.nodes()) {
+        assertNear(frames.get(frame).get(node), replayed.apply(node), tolerance);
+      }
+      replay.step();
+    }
+    assertEquals(31, replay.getFrame());
+    for (Integer node : graph.nodes()) {
+      assertNear(frames.get(30).get(node), replayed.apply(node), tolerance);
+    }
+  }
+
+  @Test
+  public void aFramePacedRelaxerIsRecordedOncePerFrame() throws IOException {
+    Graph<Integer> graph = grid(8);
+    LayoutModel<Integer> recorded = model(graph, 0);
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().withRandomSeed(0).build();
+    algorithm.visit(recorded);
+    Path path = directory.resolve("layout.j3dr");
+    try (LayoutRecorder<Integer> recorder = new LayoutRecorder<>(recorded, path).attach()) {
+      LayoutMetrics metrics = new LayoutMetrics();
+      metrics.addListener(recorder);
+      FramePacedRelaxer relaxer = new FramePacedRelaxer(algorithm, recorded, 60, 3);
+      relaxer.setMetrics(metrics);
+      for (int i = 0; i < 5; i++) {
+        relaxer.runFrame();
+      }
+      // the first frame, then one for each frame of three steps
+      assertEquals(6, recorder.getFrameCount());
+    }
+
+    LayoutModel<Integer> replayed = model(graph, 1);
+    ReplayLayoutAlgorithm<Integer> replay =
+        (ReplayLayoutAlgorithm<Integer>)
+            ReplayLayoutAlgorithm.builder().withRecording(path).withFramesPerStep(10).build();
+    replay.visit(replayed);
+    replay.step();
+    assertEquals(6, replay.getFrame());
+    double tolerance = Math.sqrt(3) * LayoutRecorder.DEFAULT_QUANTUM / 2 + 1.0e-9;
+    for (Integer node : graph.nodes()) {
+      assertNear(recorded.apply(node), replayed.apply(node), tolerance);
+    }
+  }
+
+  @Test
+  public void aPacedReplayFollowsTheClock() throws IOException, InterruptedException {
+    Graph<Integer> graph = grid(4);
+    LayoutModel<Integer> recorded = model(graph, 0);
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().withRandomSeed(0).build();
+    algorithm.visit(recorded);
+    Path path = directory.resolve("layout.j3dr");
+    try (LayoutRecorder<Integer> recorder = new LayoutRecorder<>(recorded, path).attach()) {
+      for (int i = 0; i < 30; i++) {
+        algorithm.step();
+        recorder.recordFrame();
+      }
+    }
+
+    LayoutModel<Integer> replayed = model(graph, 1);
+    ReplayLayoutAlgorithm<Integer> replay =
+        (ReplayLayoutAlgorithm<Integer>)
+            ReplayLayoutAlgorithm.builder()
+                .withRecording(path)
+                .withFramesPerStep(10)
+                .withFramesPerSecond(0.5)
+                .build();
+    replay.visit(replayed);
+    // many quick steps, and no frame is due yet
+    for (int i = 0; i < 100; i++) {
+      replay.step();
+    }
+    assertEquals(1, replay.getFrame());
+
+    replay.setFramesPerSecond(1.0e6);
+    Thread.sleep(10);
+    replay.step();
+    assertTrue(replay.done());
+    assertEquals(31, replay.getFrame());
+  }
+}
@@ -0,0 +1,84 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import edu.uci.ics.jung.layout3d.util.LayoutSnapshot;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LayoutSnapshotTest {
+
+  @TempDir Path directory;
+
+  private static LayoutModel<Integer> layoutModel(int nodeCount) {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < nodeCount; i++) {
+      graph.addNode(i);
+    }
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 500, 400)
+        .withInitializer(new RandomLocationTransformer<>(600, 500, 400, 0))
+        .build();
+  }
+
+  @Test
+  public void savedLocationsWarmStartANewModel() throws IOException {
+    LayoutModel<Integer> saved = layoutModel(1000);
+    Path path = directory.resolve("layout.bin");
+    LayoutSnapshot.save(saved, path);
+
+    LayoutSnapshot<Integer> snapshot = LayoutSnapshot.load(path);
+    assertEquals(1000, snapshot.size());
+    assertEquals(500, snapshot.getHeight());
+    assertNull(snapshot.get(1000));
+
+    // one more node than was saved, which the fallback places
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i <= 1000; i++) {
+      graph.addNode(i);
+    }
+    LayoutModel<Integer> restored =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 500, 400)
+            .withInitializer(snapshot.withFallback(node -> Point.of(1, 2, 3)))
+            .build();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(saved.apply(i), restored.apply(i));
+    }
+    assertEquals(Point.of(1, 2, 3), restored.apply(1000));
+  }
+
+  @Test
+  public void floatsAndOtherIds() throws IOException {
+    LayoutModel<Integer> saved = layoutModel(100);
+    Path path = directory.resolve("layout-float.bin");
+    LayoutSnapshot.save(saved, path, LayoutSnapshot.Precision.FLOAT, node -> "node-" + node);
+    assertEquals(64 + 100 * 16 + 3 * 100 * 4 + 100 * 4 + 690, Files.size(path));
+
+    LayoutSnapshot<Integer> snapshot = LayoutSnapshot.load(path, node -> "node-" + node);
+    assertEquals(LayoutSnapshot.Precision.FLOAT, snapshot.getPrecision());
+    for (int i = 0; i < 100; i++) {
+      Point expected = saved.apply(i);
+      Point actual = snapshot.get(i);
+      assertEquals((float) expected.x, actual.x);
+      assertEquals((float) expected.z, actual.z);
+    }
+
+    Path garbage = directory.resolve("garbage.bin");
+    Files.write(garbage, new byte[100]);
+    assertThrows(IOException.class, () -> LayoutSnapshot.load(garbage));
+  }
+}
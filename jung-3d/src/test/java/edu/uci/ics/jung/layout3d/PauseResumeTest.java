@@ -0,0 +1,88 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class PauseResumeTest {
+
+  /** never done, counts its visits and steps */
+  static class Counting implements IterativeLayoutAlgorithm<Integer> {
+    final AtomicInteger visits = new AtomicInteger();
+    final AtomicInteger steps = new AtomicInteger();
+
+    @Override
+    public void visit(LayoutModel<Integer> layoutModel) {
+      visits.incrementAndGet();
+    }
+
+    @Override
+    public boolean preRelax() {
+      return false;
+    }
+
+    @Override
+    public void step() {
+      steps.incrementAndGet();
+    }
+
+    @Override
+    public boolean done() {
+      return false;
+    }
+  }
+
+  @Test
+  public void pausedPooledRelaxerKeepsItsState() throws Exception {
+    pausedRelaxerKeepsItsState(LayoutExecutor.pooled(1));
+  }
+
+  @Test
+  public void pausedThreadRelaxerKeepsItsState() throws Exception {
+    pausedRelaxerKeepsItsState(LayoutExecutor.virtualThreads());
+  }
+
+  private void pausedRelaxerKeepsItsState(LayoutExecutor executor) throws Exception {
+    MutableGraph<Integer> graph = GraphBuilder.directed().build();
+    graph.addNode(0);
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withLayoutExecutor(executor)
+            .build();
+    Counting algorithm = new Counting();
+    layoutModel.accept(algorithm);
+    awaitSteps(algorithm, 1);
+
+    layoutModel.pause();
+    assertTrue(layoutModel.isPaused());
+    Thread.sleep(50);
+    int steps = algorithm.steps.get();
+    Thread.sleep(100);
+    assertEquals(steps, algorithm.steps.get());
+
+    layoutModel.resume();
+    assertFalse(layoutModel.isPaused());
+    awaitSteps(algorithm, steps + 1);
+    layoutModel.stopRelaxer();
+    assertEquals(1, algorithm.visits.get());
+  }
+
+  private static void awaitSteps(Counting algorithm, int steps) throws InterruptedException {
+    long end = System.currentTimeMillis() + 10_000;
+    while (algorithm.steps.get() < steps && System.currentTimeMillis() < end) {
+      Thread.sleep(5);
+    }
+    assertTrue(algorithm.steps.get() >= steps);
+  }
+}
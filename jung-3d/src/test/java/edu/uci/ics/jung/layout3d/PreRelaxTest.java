@@ -0,0 +1,135 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.FRLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.algorithms.IterativeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.event.LayoutStateChange;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.util.LayoutExecutor;
+import edu.uci.ics.jung.layout3d.util.RandomLocationTransformer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class PreRelaxTest {
+
+  @Test
+  public void preRelaxRunsOffTheCallingThreadAndReportsProgress() throws Exception {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < 100; i++) {
+      graph.putEdge(i, (i + 1) % 100);
+    }
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withInitializer(new RandomLocationTransformer<>(600, 600, 600, 0))
+            .build();
+    List<Double> progress = new CopyOnWriteArrayList<>();
+    AtomicInteger changesWhilePreRelaxing = new AtomicInteger();
+    CountDownLatch preRelaxed = new CountDownLatch(1);
+    layoutModel
+        .getLayoutStateChangeSupport()
+        .addLayoutStateChangeListener(
+            evt -> {
+              if (evt.progress != LayoutStateChange.Event.NO_PROGRESS) {
+                progress.add(evt.progress);
+                if (evt.progress == 1) {
+                  preRelaxed.countDown();
+                }
+              }
+            });
+    layoutModel
+        .getLayoutChangeSupport()
+        .addLayoutChangeListener(
+            () -> {
+              if (preRelaxed.getCount() > 0 && !progress.isEmpty()) {
+                changesWhilePreRelaxing.incrementAndGet();
+              }
+            });
+
+    FRLayoutAlgorithm<Integer> algorithm =
+        (FRLayoutAlgorithm<Integer>) FRLayoutAlgorithm.builder().withPreRelaxDuration(300).build();
+    long start = System.currentTimeMillis();
+    layoutModel.accept(algorithm);
+    assertTrue(System.currentTimeMillis() - start < 300, "accept waited for the pre-relax");
+
+    assertTrue(preRelaxed.await(10, TimeUnit.SECONDS));
+    layoutModel.stopRelaxer();
+    assertEquals(0.0, progress.get(0));
+    assertEquals(1.0, progress.get(progress.size() - 1));
+    for (int i = 1; i < progress.size(); i++) {
+      assertTrue(progress.get(i) >= progress.get(i - 1));
+    }
+    assertEquals(0, changesWhilePreRelaxing.get());
+  }
+
+  /** fails in its pre-relax phase, and counts its steps */
+  static class FailingPreRelax implements IterativeLayoutAlgorithm<Integer> {
+    final AtomicInteger steps = new AtomicInteger();
+
+    @Override
+    public void visit(LayoutModel<Integer> layoutModel) {}
+
+    @Override
+    public boolean preRelax() {
+      throw new IllegalStateException("failed on purpose");
+    }
+
+    @Override
+    public void step() {
+      steps.incrementAndGet();
+    }
+
+    @Override
+    public boolean done() {
+      return false;
+    }
+  }
+
+  @Test
+  public void aFailedPreRelaxDoesNotStartTheRelaxer() throws Exception {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    graph.putEdge(0, 1);
+    LayoutModel<Integer> layoutModel =
+        LoadingCacheLayoutModel.<Integer>builder()
+            .withGraph(graph)
+            .withSize(600, 600, 600)
+            .withLayoutExecutor(LayoutExecutor.pooled(1))
+            .build();
+    List<Double> progress = new CopyOnWriteArrayList<>();
+    CountDownLatch inactive = new CountDownLatch(1);
+    layoutModel
+        .getLayoutStateChangeSupport()
+        .addLayoutStateChangeListener(
+            evt -> {
+              if (evt.progress != LayoutStateChange.Event.NO_PROGRESS) {
+                progress.add(evt.progress);
+              } else if (!evt.active) {
+                inactive.countDown();
+              }
+            });
+
+    FailingPreRelax algorithm = new FailingPreRelax();
+    layoutModel.accept(algorithm);
+    assertTrue(inactive.await(10, TimeUnit.SECONDS));
+    assertFalse(layoutModel.isRelaxing());
+    Thread.sleep(100);
+    assertEquals(0, algorithm.steps.get());
+    assertFalse(progress.contains(1.0));
+
+    // with no relaxer, a task between steps runs at once
+    AtomicInteger ran = new AtomicInteger();
+    layoutModel.runBetweenSteps(ran::incrementAndGet);
+    assertEquals(1, ran.get());
+  }
+}
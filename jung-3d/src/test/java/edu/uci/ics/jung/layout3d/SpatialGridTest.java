@@ -0,0 +1,49 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.uci.ics.jung.layout3d.spatial.SpatialGrid;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SpatialGridTest {
+
+  @Test
+  public void nearestMatchesLinearScan() {
+    Random random = new Random(0);
+    int n = 2000;
+    SpatialGrid grid = new SpatialGrid(n, 25);
+    for (int i = 0; i < n; i++) {
+      grid.put(i, random.nextGaussian() * 200, random.nextGaussian() * 200, random.nextDouble());
+    }
+    for (int query = 0; query < 1000; query++) {
+      // move some items around between queries
+      int moved = random.nextInt(n);
+      grid.put(moved, random.nextGaussian() * 300, random.nextGaussian() * 300, 0);
+      if (query % 10 == 0) {
+        grid.remove(random.nextInt(n));
+      }
+      double x = random.nextGaussian() * 400;
+      double y = random.nextGaussian() * 400;
+      double z = random.nextGaussian() * 400;
+      assertEquals(linearScan(grid, x, y, z), distance(grid, grid.nearest(x, y, z), x, y, z));
+    }
+  }
+
+  private static double linearScan(SpatialGrid grid, double x, double y, double z) {
+    double best = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < grid.capacity(); i++) {
+      if (grid.contains(i)) {
+        best = Math.min(best, distance(grid, i, x, y, z));
+      }
+    }
+    return best;
+  }
+
+  private static double distance(SpatialGrid grid, int i, double x, double y, double z) {
+    double dx = grid.getX(i) - x;
+    double dy = grid.getY(i) - y;
+    double dz = grid.getZ(i) - z;
+    return Math.sqrt(dx * dx + dy * dy + dz * dz);
+  }
+}
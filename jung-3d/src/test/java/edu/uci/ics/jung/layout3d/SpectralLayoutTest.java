@@ -0,0 +1,96 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.layout3d.algorithms.SpectralLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class SpectralLayoutTest {
+
+  @Test
+  public void chainIsMonotone() {
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < 20; i++) {
+      graph.putEdge(i, i + 1);
+    }
+    SpectralLayoutAlgorithm<Integer> algorithm =
+        SpectralLayoutAlgorithm.<Integer>builder().withRandomSeed(0).build();
+    Map<Integer, Point> locations = algorithm.computeLocations(graph, 100, 100, 100);
+    assertEquals(21, locations.size());
+    double sign = Math.signum(locations.get(20).x - locations.get(0).x);
+    for (int i = 0; i < 20; i++) {
+      assertTrue(sign * (locations.get(i + 1).x - locations.get(i).x) > 0);
+    }
+  }
+
+  @Test
+  public void gridNeighborsAreClose() {
+    int side = 30;
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int i = 0; i < side; i++) {
+      for (int j = 0; j < side; j++) {
+        if (i + 1 < side) {
+          graph.putEdge(i * side + j, (i + 1) * side + j);
+        }
+        if (j + 1 < side) {
+          graph.putEdge(i * side + j, i * side + j + 1);
+        }
+      }
+    }
+    SpectralLayoutAlgorithm<Integer> algorithm =
+        SpectralLayoutAlgorithm.<Integer>builder().withRandomSeed(0).build();
+    Map<Integer, Point> locations = algorithm.computeLocations(graph, 1000, 1000, 1000);
+    assertEquals(side * side, locations.size());
+    double edgeLength = 0;
+    for (Integer node : graph.nodes()) {
+      for (Integer neighbor : graph.adjacentNodes(node)) {
+        edgeLength += locations.get(node).distance(locations.get(neighbor));
+      }
+    }
+    edgeLength /= 2 * graph.edges().size();
+    double corners =
+        locations.get(0).distance(locations.get(side * side - 1))
+            + locations.get(side - 1).distance(locations.get(side * (side - 1)));
+    assertTrue(corners / 2 > 10 * edgeLength);
+  }
+
+  @Test
+  public void componentsAreLaidOutApart() {
+    // two grids, large enough to be solved with LOBPCG, and a lone node
+    int side = 15;
+    MutableGraph<Integer> graph = GraphBuilder.undirected().build();
+    for (int offset : new int[] {0, side * side}) {
+      for (int i = 0; i < side; i++) {
+        for (int j = 0; j < side; j++) {
+          if (i + 1 < side) {
+            graph.putEdge(offset + i * side + j, offset + (i + 1) * side + j);
+          }
+          if (j + 1 < side) {
+            graph.putEdge(offset + i * side + j, offset + i * side + j + 1);
+          }
+        }
+      }
+    }
+    graph.addNode(-1);
+    SpectralLayoutAlgorithm<Integer> algorithm =
+        SpectralLayoutAlgorithm.<Integer>builder().withRandomSeed(0).build();
+    Map<Integer, Point> locations = algorithm.computeLocations(graph, 1000, 1000, 1000);
+    assertEquals(2 * side * side + 1, locations.size());
+    double[] min = {Double.MAX_VALUE, Double.MAX_VALUE};
+    double[] max = {-Double.MAX_VALUE, -Double.MAX_VALUE};
+    for (int node = 0; node < 2 * side * side; node++) {
+      int component = node / (side * side);
+      min[component] = Math.min(min[component], locations.get(node).x);
+      max[component] = Math.max(max[component], locations.get(node).x);
+    }
+    // neither grid collapses to a point, and they do not overlap
+    assertTrue(max[0] - min[0] > 100);
+    assertTrue(max[1] - min[1] > 100);
+    assertTrue(max[0] < min[1] || max[1] < min[0]);
+  }
+}
@@ -0,0 +1,179 @@
+package edu.uci.ics.jung.layout3d;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.graph.Graph;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import edu.uci.ics.jung.graph.util.TreeUtils;
+import edu.uci.ics.jung.layout3d.algorithms.TreeLayoutAlgorithm;
+import edu.uci.ics.jung.layout3d.model.LayoutModel;
+import edu.uci.ics.jung.layout3d.model.LoadingCacheLayoutModel;
+import edu.uci.ics.jung.layout3d.model.Point;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class TreeLayoutTest {
+
+  private static final int SPACING = 50;
+
+  private static LayoutModel<Integer> model(Graph<Integer> graph) {
+    return LoadingCacheLayoutModel.<Integer>builder()
+        .withGraph(graph)
+        .withSize(600, 600, 600)
+        .build();
+  }
+
+  /** the layout as it was made with one recursive call per node */
+  private static class RecursiveTreeLayout {
+    final Graph<Integer> graph;
+    final LayoutModel<Integer> layoutModel;
+    final Map<Integer, Integer> widths = new HashMap<>();
+    final Set<Integer> done = new HashSet<>();
+    double currentX;
+    double currentY;
+    double currentZ;
+
+    RecursiveTreeLayout(LayoutModel<Integer> layoutModel) {
+      this.graph = layoutModel.getGraph();
+      this.layoutModel = layoutModel;
+    }
+
+    void layout() {
+      Set<Integer> roots = TreeUtils.roots(graph);
+      int overallWidth = 0;
+      int overallHeight = 0;
+      for (Integer root : roots) {
+        overallWidth += width(root);
+        overallHeight += height(root);
+      }
+      overallWidth += (roots.size() + 1) * SPACING;
+      overallHeight += 2 * SPACING;
+      layoutModel.setSize(
+          Math.max(layoutModel.getWidth(), overallWidth),
+          Math.max(layoutModel.getHeight(), overallHeight),
+          Math.max(layoutModel.getDepth(), overallWidth));
+      for (Integer root : roots) {
+        width(root);
+        currentX += widths.get(root) / 2 + SPACING;
+        currentZ = currentX;
+        place(root, (int) currentX);
+      }
+    }
+
+    void place(Integer node, int x) {
+      if (done.add(node)) {
+        currentX = x;
+        currentY += SPACING;
+        layoutModel.set(node, currentX, currentY, currentZ);
+        int lastX = x - widths.get(node) / 2;
+        for (Integer kid : graph.successors(node)) {
+          int width = widths.get(kid);
+          place(kid, lastX + width / 2);
+          lastX += width + SPACING;
+        }
+        currentY -= SPACING;
+      }
+    }
+
+    int width(Integer node) {
+      int width = 0;
+      for (Integer kid : graph.successors(node)) {
+        width += width(kid) + SPACING;
+      }
+      width = Math.max(0, width - SPACING);
+      widths.put(node, width);
+      return width;
+    }
+
+    int height(Integer node) {
+      int height = 0;
+      for (Integer kid : graph.successors(node)) {
+        height = Math.max(height, height(kid) + SPACING);
+      }
+      return height;
+    }
+  }
+
+  @Test
+  public void matchesTheRecursiveLayoutOnAForest() {
+    Random random = new Random(0);
+    MutableGraph<Integer> forest = GraphBuilder.directed().build();
+    for (int i = 0; i < 600; i++) {
+      // every 100th node starts a new tree
+      if (i % 100 == 0) {
+        forest.addNode(i);
+      } else {
+        forest.putEdge(i - 1 - random.nextInt(i % 100), i);
+      }
+    }
+    LayoutModel<Integer> expected = model(forest);
+    new RecursiveTreeLayout(expected).layout();
+
+    LayoutModel<Integer> layoutModel = model(forest);
+    TreeLayoutAlgorithm.<Integer>builder().build().visit(layoutModel);
+    assertEquals(expected.getWidth(), layoutModel.getWidth());
+    assertEquals(expected.getHeight(), layoutModel.getHeight());
+    assertEquals(expected.getDepth(), layoutModel.getDepth());
+    for (Integer node : forest.nodes()) {
+      assertEquals(expected.apply(node), layoutModel.apply(node), "node " + node);
+    }
+  }
+
+  @Test
+  public void aSharedNodeBelongsToTheFirstRoot() {
+    // many roots, laid out in parallel, where every other tree shares a subtree with the next
+    Random random = new Random(0);
+    MutableGraph<Integer> graph = GraphBuilder.directed().build();
+    for (int i = 0; i < 2000; i++) {
+      if (i % 50 == 0) {
+        graph.addNode(i);
+      } else {
+        graph.putEdge(i - 1 - random.nextInt(i % 50), i);
+      }
+    }
+    for (int root = 0; root + 50 < 2000; root += 100) {
+      graph.putEdge(root + 10, root + 50 + 20);
+    }
+    LayoutModel<Integer> expected = model(graph);
+    new RecursiveTreeLayout(expected).layout();
+
+    LayoutModel<Integer> layoutModel = model(graph);
+    TreeLayoutAlgorithm.<Integer>builder().build().visit(layoutModel);
+    for (Integer node : graph.nodes()) {
+      assertEquals(expected.apply(node), layoutModel.apply(node), "node " + node);
+    }
+  }
+
+  @Test
+  public void aDeepChainDoesNotOverflowTheStack() {
+    int n = 100_000;
+    MutableGraph<Integer> chain = GraphBuilder.directed().build();
+    for (int i = 1; i < n; i++) {
+      chain.putEdge(i - 1, i);
+    }
+    LayoutModel<Integer> layoutModel = model(chain);
+    TreeLayoutAlgorithm.<Integer>builder().build().visit(layoutModel);
+    assertEquals(Point.of(SPACING, SPACING, SPACING), layoutModel.apply(0));
+    assertEquals(Point.of(SPACING, (double) n * SPACING, SPACING), layoutModel.apply(n - 1));
+  }
+
+  @Test
+  public void aCycleIsRejected() {
+    MutableGraph<Integer> graph = GraphBuilder.directed().build();
+    graph.putEdge(0, 1);
+    graph.putEdge(1, 2);
+    graph.putEdge(2, 1);
+    TreeLayoutAlgorithm<Integer> algorithm = TreeLayoutAlgorithm.<Integer>builder().build();
+    assertThrows(IllegalArgumentException.class, () -> algorithm.visit(model(graph)));
+
+    // with no root at all
+    graph.removeNode(0);
+    assertThrows(IllegalArgumentException.class, () -> algorithm.visit(model(graph)));
+  }
+}